@@ -0,0 +1,121 @@
+package org.vision.common.storage;
+
+import java.io.IOException;
+import org.rocksdb.ColumnFamilyHandle;
+import org.rocksdb.RocksDBException;
+
+/**
+ * A native write batch of either engine, filled entry by entry. The entries are copied into the
+ * batch when added, and a later entry of a key overrides an earlier one. A rocksdb batch of a
+ * column family puts its entries there, several {@link #view}s of one batch fill several column
+ * families written at once.
+ */
+public class WriteBatchWrapper implements AutoCloseable {
+
+  public org.rocksdb.WriteBatch rocks = null;
+  public org.iq80.leveldb.WriteBatch level = null;
+
+  private ColumnFamilyHandle handle;
+  private boolean owner = true;
+  private int size;
+  private long dataSize;
+
+  private WriteBatchWrapper() {
+
+  }
+
+  public static WriteBatchWrapper of(org.rocksdb.WriteBatch batch) {
+    WriteBatchWrapper wrapper = new WriteBatchWrapper();
+    wrapper.rocks = batch;
+    return wrapper;
+  }
+
+  public static WriteBatchWrapper of(org.rocksdb.WriteBatch batch, ColumnFamilyHandle handle) {
+    WriteBatchWrapper wrapper = of(batch);
+    wrapper.handle = handle;
+    return wrapper;
+  }
+
+  public static WriteBatchWrapper of(org.iq80.leveldb.WriteBatch batch) {
+    WriteBatchWrapper wrapper = new WriteBatchWrapper();
+    wrapper.level = batch;
+    return wrapper;
+  }
+
+  public void put(byte[] key, byte[] value) {
+    if (level != null) {
+      level.put(key, value);
+    } else {
+      try {
+        if (handle != null) {
+          rocks.put(handle, key, value);
+        } else {
+          rocks.put(key, value);
+        }
+      } catch (RocksDBException e) {
+        throw new RuntimeException(e);
+      }
+    }
+    size++;
+    dataSize += key.length + value.length;
+  }
+
+  public void delete(byte[] key) {
+    if (level != null) {
+      level.delete(key);
+    } else {
+      try {
+        if (handle != null) {
+          rocks.delete(handle, key);
+        } else {
+          rocks.delete(key);
+        }
+      } catch (RocksDBException e) {
+        throw new RuntimeException(e);
+      }
+    }
+    size++;
+    dataSize += key.length;
+  }
+
+  /**
+   * A wrapper adding to the column family of handle in this rocksdb batch. It counts its own
+   * entries and leaves the batch open on close.
+   */
+  public WriteBatchWrapper view(ColumnFamilyHandle handle) {
+    WriteBatchWrapper view = of(rocks, handle);
+    view.owner = false;
+    return view;
+  }
+
+  /**
+   * @return the number of entries added, duplicated keys included
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * @return the bytes of the keys and values added
+   */
+  public long dataSize() {
+    return dataSize;
+  }
+
+  @Override
+  public void close() {
+    if (!owner) {
+      return;
+    }
+    if (rocks != null) {
+      rocks.close();
+    }
+    if (level != null) {
+      try {
+        level.close();
+      } catch (IOException e) {
+        throw new RuntimeException(e);
+      }
+    }
+  }
+}
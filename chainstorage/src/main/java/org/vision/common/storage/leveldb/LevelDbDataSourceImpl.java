@@ -24,6 +24,8 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
@@ -33,6 +35,7 @@ import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
 import lombok.NoArgsConstructor;
@@ -42,15 +45,19 @@ import org.iq80.leveldb.DB;
 import org.iq80.leveldb.DBException;
 import org.iq80.leveldb.DBIterator;
 import org.iq80.leveldb.Options;
+import org.iq80.leveldb.ReadOptions;
+import org.iq80.leveldb.Snapshot;
 import org.iq80.leveldb.WriteBatch;
 import org.iq80.leveldb.WriteOptions;
 import org.vision.common.parameter.CommonParameter;
+import org.vision.common.storage.WriteBatchWrapper;
 import org.vision.common.storage.WriteOptionsWrapper;
 import org.vision.common.utils.FileUtil;
 import org.vision.common.utils.StorageUtils;
 import org.vision.core.db.common.DbSourceInter;
 import org.vision.core.db.common.iterator.StoreIterator;
 import org.vision.core.db2.common.Instance;
+import org.vision.core.db2.common.WrappedByteArray;
 
 @Slf4j(topic = "DB")
 @NoArgsConstructor
@@ -60,6 +67,8 @@ public class LevelDbDataSourceImpl implements DbSourceInter<byte[]>,
   private String dataBaseName;
   private DB database;
   private boolean alive;
+  // the files of the db before it opened
+  private String filesBeforeOpen = "";
   private String parentPath;
   private Options options;
   private WriteOptions writeOptions;
@@ -124,6 +133,8 @@ public class LevelDbDataSourceImpl implements DbSourceInter<byte[]>,
     if (!Files.isSymbolicLink(dbPath.getParent())) {
       Files.createDirectories(dbPath.getParent());
     }
+    // opening writes the log of the last run to a table
+    filesBeforeOpen = listFiles();
     try {
       database = factory.open(dbPath.toFile(), dbOptions);
     } catch (IOException e) {
@@ -154,6 +165,29 @@ public class LevelDbDataSourceImpl implements DbSourceInter<byte[]>,
     return Paths.get(parentPath, dataBaseName);
   }
 
+  /**
+   * @return the names and sizes of the files of the db but its info log and lock, they are the
+   * same as long as the db is not written
+   */
+  public String listFiles() {
+    File[] files = getDbPath().toFile().listFiles();
+    if (files == null) {
+      return "";
+    }
+    return Arrays.stream(files)
+        .filter(file -> !file.getName().startsWith("LOG") && !"LOCK".equals(file.getName()))
+        .sorted()
+        .map(file -> file.getName() + ":" + file.length())
+        .collect(Collectors.joining(","));
+  }
+
+  /**
+   * @return {@link #listFiles} as it was before the db opened
+   */
+  public String getFilesBeforeOpen() {
+    return filesBeforeOpen;
+  }
+
   /**
    * reset database.
    */
@@ -209,6 +243,42 @@ public class LevelDbDataSourceImpl implements DbSourceInter<byte[]>,
     return null;
   }
 
+  /**
+   * Leveldb has no multi-get, the keys are read one by one from a snapshot. If the snapshot read
+   * fails, they are read as {@link #getData} does.
+   */
+  @Override
+  public Map<WrappedByteArray, byte[]> getBatch(Collection<byte[]> keys) {
+    Map<WrappedByteArray, byte[]> result = new HashMap<>(keys.size());
+    if (keys.isEmpty()) {
+      return result;
+    }
+    resetDbLock.readLock().lock();
+    try (Snapshot snapshot = database.getSnapshot()) {
+      ReadOptions readOptions = new ReadOptions().snapshot(snapshot);
+      for (byte[] key : keys) {
+        byte[] value = database.get(key, readOptions);
+        if (value != null) {
+          result.put(WrappedByteArray.of(key), value);
+        }
+      }
+      return result;
+    } catch (DBException | IOException e) {
+      logger.warn("read of {} keys failed, read them one by one: {}", keys.size(),
+          e.getMessage());
+    } finally {
+      resetDbLock.readLock().unlock();
+    }
+    result.clear();
+    for (byte[] key : keys) {
+      byte[] value = getData(key);
+      if (value != null) {
+        result.put(WrappedByteArray.of(key), value);
+      }
+    }
+    return result;
+  }
+
   @Override
   public void putData(byte[] key, byte[] value) {
     resetDbLock.readLock().lock();
@@ -408,6 +478,32 @@ public class LevelDbDataSourceImpl implements DbSourceInter<byte[]>,
       });
   }
 
+  @Override
+  public WriteBatchWrapper newWriteBatch() {
+    resetDbLock.readLock().lock();
+    try {
+      return WriteBatchWrapper.of(database.createWriteBatch());
+    } finally {
+      resetDbLock.readLock().unlock();
+    }
+  }
+
+  @Override
+  public void updateByBatch(WriteBatchWrapper batch, WriteOptionsWrapper options) {
+    resetDbLock.readLock().lock();
+    try {
+      database.write(batch.level, options.level);
+    } catch (Exception e) {
+      try {
+        database.write(batch.level, options.level);
+      } catch (Exception e1) {
+        throw new RuntimeException(e);
+      }
+    } finally {
+      resetDbLock.readLock().unlock();
+    }
+  }
+
   @Override
   public void updateByBatch(Map<byte[], byte[]> rows, WriteOptionsWrapper options) {
     resetDbLock.readLock().lock();
@@ -0,0 +1,65 @@
+package org.vision.common.storage.rocksdb;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import org.rocksdb.BlockBasedTableConfig;
+import org.rocksdb.BloomFilter;
+import org.rocksdb.CompressionType;
+import org.rocksdb.IndexType;
+import org.vision.common.setting.RocksDbProfile;
+import org.vision.common.setting.RocksDbSettings;
+
+/**
+ * The rocksdb options of a {@link RocksDbProfile}, shared by the separate and the column family
+ * mode.
+ */
+final class ProfileOptions {
+
+  private static final long DEFAULT_CACHE_SIZE = 32 * 1024 * 1024;
+
+  private ProfileOptions() {
+  }
+
+  /**
+   * @return the size of the own block cache of a separate store.
+   */
+  static long cacheSize(RocksDbSettings settings, RocksDbProfile profile) {
+    return profile.getCacheShare() > 0
+        ? (long) (settings.getBlockCacheSize() * profile.getCacheShare()) : DEFAULT_CACHE_SIZE;
+  }
+
+  /**
+   * @return the table options without block cache, the caller sets it. The hash index of a point
+   *     lookup profile takes the capped prefix extractor the caller sets too.
+   */
+  static BlockBasedTableConfig tableConfig(RocksDbSettings settings, RocksDbProfile profile) {
+    BlockBasedTableConfig tableCfg = new BlockBasedTableConfig();
+    tableCfg.setBlockSize(settings.getBlockSize());
+    tableCfg.setCacheIndexAndFilterBlocks(true);
+    tableCfg.setPinL0FilterAndIndexBlocksInCache(true);
+    if (profile.getBloomBitsPerKey() > 0) {
+      tableCfg.setFilter(new BloomFilter(profile.getBloomBitsPerKey(), false));
+    }
+    tableCfg.setWholeKeyFiltering(profile.isWholeKeyFiltering());
+    if (profile.isOptimizeForPointLookup()) {
+      tableCfg.setIndexType(IndexType.kHashSearch);
+    } else if (profile.isPartitionedIndex()) {
+      tableCfg.setIndexType(IndexType.kTwoLevelIndexSearch);
+    }
+    return tableCfg;
+  }
+
+  static List<CompressionType> compressionPerLevel(RocksDbProfile profile) {
+    return profile.getCompressionPerLevel().stream()
+        .map(CompressionType::getCompressionType)
+        .collect(Collectors.toList());
+  }
+
+  /**
+   * With a prefix extractor a seek only sees the keys of its prefix, unless it asks for the total
+   * order as the iterators of the stores do.
+   */
+  static boolean hasPrefixExtractor(RocksDbProfile profile) {
+    return profile.isOptimizeForPointLookup() || profile.getPrefixLength() > 0;
+  }
+}
@@ -7,6 +7,7 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
@@ -18,8 +19,8 @@ import java.util.concurrent.locks.ReentrantReadWriteLock;
 import lombok.NoArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.rocksdb.BlockBasedTableConfig;
-import org.rocksdb.BloomFilter;
 import org.rocksdb.Checkpoint;
+import org.rocksdb.ColumnFamilyHandle;
 import org.rocksdb.DirectComparator;
 import org.rocksdb.Options;
 import org.rocksdb.ReadOptions;
@@ -29,7 +30,9 @@ import org.rocksdb.RocksIterator;
 import org.rocksdb.Statistics;
 import org.rocksdb.WriteBatch;
 import org.rocksdb.WriteOptions;
+import org.vision.common.setting.RocksDbProfile;
 import org.vision.common.setting.RocksDbSettings;
+import org.vision.common.storage.WriteBatchWrapper;
 import org.vision.common.storage.WriteOptionsWrapper;
 import org.vision.common.utils.FileUtil;
 import org.vision.common.utils.PropUtil;
@@ -37,6 +40,7 @@ import org.vision.core.db.common.DbSourceInter;
 import org.vision.core.db.common.iterator.DBIterator;
 import org.vision.core.db.common.iterator.RockStoreIterator;
 import org.vision.core.db2.common.Instance;
+import org.vision.core.db2.common.WrappedByteArray;
 
 
 @Slf4j
@@ -45,6 +49,8 @@ public class RocksDbDataSourceImpl implements DbSourceInter<byte[]>,
     Iterable<Map.Entry<byte[], byte[]>>, Instance<RocksDbDataSourceImpl> {
 
   ReadOptions readOpts;
+  // total order iteration if the profile has a prefix extractor, null otherwise
+  private ReadOptions iterOpts;
   private static final String FAIL_TO_INIT_DATABASE = "Failed to initialize database";
   private String dataBaseName;
   private RocksDB database;
@@ -54,6 +60,9 @@ public class RocksDbDataSourceImpl implements DbSourceInter<byte[]>,
   private static final String KEY_ENGINE = "ENGINE";
   private static final String ROCKSDB = "ROCKSDB";
   private DirectComparator comparator;
+  // set in the column family mode, the db is then the shared one
+  private SharedRocksDb sharedDb;
+  private ColumnFamilyHandle handle;
 
   public RocksDbDataSourceImpl(String parentPath, String name, RocksDbSettings settings,
       DirectComparator comparator) {
@@ -84,10 +93,29 @@ public class RocksDbDataSourceImpl implements DbSourceInter<byte[]>,
     return database;
   }
 
+  /**
+   * @return the instance holding this store as a column family, null if it has its own.
+   */
+  public SharedRocksDb getSharedDb() {
+    return sharedDb;
+  }
+
   public boolean isAlive() {
     return alive;
   }
 
+  /**
+   * @return the sequence number of the last write, to all the column families of a shared db
+   */
+  public long getLatestSequenceNumber() {
+    resetDbLock.readLock().lock();
+    try {
+      return database.getLatestSequenceNumber();
+    } finally {
+      resetDbLock.readLock().unlock();
+    }
+  }
+
   @Override
   public void closeDB() {
     resetDbLock.writeLock().lock();
@@ -95,7 +123,13 @@ public class RocksDbDataSourceImpl implements DbSourceInter<byte[]>,
       if (!isAlive()) {
         return;
       }
-      database.close();
+      if (sharedDb != null) {
+        sharedDb.release(dataBaseName);
+        sharedDb = null;
+        handle = null;
+      } else {
+        database.close();
+      }
       alive = false;
     } catch (Exception e) {
     } finally {
@@ -105,6 +139,15 @@ public class RocksDbDataSourceImpl implements DbSourceInter<byte[]>,
 
   @Override
   public void resetDb() {
+    if (sharedDb != null) {
+      resetDbLock.writeLock().lock();
+      try {
+        handle = sharedDb.reset(dataBaseName);
+      } finally {
+        resetDbLock.writeLock().unlock();
+      }
+      return;
+    }
     closeDB();
     FileUtil.recursiveDelete(getDbPath().toString());
     initDB();
@@ -124,7 +167,7 @@ public class RocksDbDataSourceImpl implements DbSourceInter<byte[]>,
     }
     resetDbLock.readLock().lock();
     Set<byte[]> result = Sets.newHashSet();
-    try (final RocksIterator iter = database.newIterator()) {
+    try (final RocksIterator iter = newIterator()) {
       for (iter.seekToFirst(); iter.isValid(); iter.next()) {
         result.add(iter.key());
       }
@@ -176,6 +219,12 @@ public class RocksDbDataSourceImpl implements DbSourceInter<byte[]>,
   }
 
   public void initDB() {
+    RocksDbSettings settings = RocksDbSettings.getSettings();
+    // a store of its own order keeps its own instance
+    if (settings.isColumnFamily() && comparator == null) {
+      initColumnFamily(settings);
+      return;
+    }
     if (!checkOrInitEngine()) {
       logger.error("database engine do not match");
       throw new RuntimeException(FAIL_TO_INIT_DATABASE);
@@ -219,19 +268,29 @@ public class RocksDbDataSourceImpl implements DbSourceInter<byte[]>,
           options.setComparator(comparator);
         }
 
+        // options of the store profile
+        RocksDbProfile profile = settings.getProfile(dataBaseName);
+        long cacheSize = ProfileOptions.cacheSize(settings, profile);
+        if (profile.isOptimizeForPointLookup()) {
+          options.useCappedPrefixExtractor(RocksDbProfile.POINT_LOOKUP_PREFIX_LENGTH);
+        } else if (profile.getPrefixLength() > 0) {
+          options.useFixedLengthPrefixExtractor(profile.getPrefixLength());
+        }
+        if (!profile.getCompressionPerLevel().isEmpty()) {
+          options.setCompressionPerLevel(ProfileOptions.compressionPerLevel(profile));
+        }
+
         // table options
-        final BlockBasedTableConfig tableCfg;
-        options.setTableFormatConfig(tableCfg = new BlockBasedTableConfig());
-        tableCfg.setBlockSize(settings.getBlockSize());
-        tableCfg.setBlockCacheSize(32 * 1024 * 1024);
-        tableCfg.setCacheIndexAndFilterBlocks(true);
-        tableCfg.setPinL0FilterAndIndexBlocksInCache(true);
-        tableCfg.setFilter(new BloomFilter(10, false));
+        final BlockBasedTableConfig tableCfg = ProfileOptions.tableConfig(settings, profile);
+        tableCfg.setBlockCacheSize(cacheSize);
+        options.setTableFormatConfig(tableCfg);
 
         // read options
         readOpts = new ReadOptions();
         readOpts = readOpts.setPrefixSameAsStart(true)
             .setVerifyChecksums(false);
+        iterOpts = ProfileOptions.hasPrefixExtractor(profile)
+            ? new ReadOptions().setTotalOrderSeek(true) : null;
 
         try {
           logger.debug("Opening database");
@@ -262,6 +321,57 @@ public class RocksDbDataSourceImpl implements DbSourceInter<byte[]>,
     }
   }
 
+  private void initColumnFamily(RocksDbSettings settings) {
+    resetDbLock.writeLock().lock();
+    try {
+      if (isAlive()) {
+        return;
+      }
+      if (dataBaseName == null) {
+        throw new NullPointerException("no name set to the dbStore");
+      }
+
+      SharedRocksDb shared = SharedRocksDb.getInstance(parentPath, settings);
+      if (!shared.hasColumnFamily(dataBaseName) && Files.exists(getDbPath())) {
+        logger.error("{} is a separate database, it is not moved into {}", getDbPath(),
+            SharedRocksDb.SHARED_DB_NAME);
+        throw new RuntimeException(FAIL_TO_INIT_DATABASE);
+      }
+      handle = shared.acquire(dataBaseName);
+      sharedDb = shared;
+      database = shared.getDatabase();
+      readOpts = new ReadOptions().setPrefixSameAsStart(true).setVerifyChecksums(false);
+      iterOpts = ProfileOptions.hasPrefixExtractor(settings.getProfile(dataBaseName))
+          ? new ReadOptions().setTotalOrderSeek(true) : null;
+      alive = true;
+      logger.debug("<~ RocksDbDataSource.initColumnFamily(): " + dataBaseName);
+    } finally {
+      resetDbLock.writeLock().unlock();
+    }
+  }
+
+  private RocksIterator newIterator() {
+    if (iterOpts != null) {
+      return handle == null ? database.newIterator(iterOpts)
+          : database.newIterator(handle, iterOpts);
+    }
+    return handle == null ? database.newIterator() : database.newIterator(handle);
+  }
+
+  private void put(WriteBatch batch, byte[] key, byte[] value) throws RocksDBException {
+    if (value == null) {
+      if (handle == null) {
+        batch.delete(key);
+      } else {
+        batch.delete(handle, key);
+      }
+    } else if (handle == null) {
+      batch.put(key, value);
+    } else {
+      batch.put(handle, key, value);
+    }
+  }
+
   @Override
   public void putData(byte[] key, byte[] value) {
     if (quitIfNotAlive()) {
@@ -269,7 +379,11 @@ public class RocksDbDataSourceImpl implements DbSourceInter<byte[]>,
     }
     resetDbLock.readLock().lock();
     try {
-      database.put(key, value);
+      if (handle == null) {
+        database.put(key, value);
+      } else {
+        database.put(handle, key, value);
+      }
     } catch (RocksDBException e) {
       logger.error("RocksDBException:{}", e);
     } finally {
@@ -284,7 +398,7 @@ public class RocksDbDataSourceImpl implements DbSourceInter<byte[]>,
     }
     resetDbLock.readLock().lock();
     try {
-      return database.get(key);
+      return handle == null ? database.get(key) : database.get(handle, key);
     } catch (RocksDBException e) {
       logger.error("RocksDBException: {}", e);
     } finally {
@@ -293,6 +407,36 @@ public class RocksDbDataSourceImpl implements DbSourceInter<byte[]>,
     return null;
   }
 
+  @Override
+  public Map<WrappedByteArray, byte[]> getBatch(Collection<byte[]> keys) {
+    if (quitIfNotAlive() || keys.isEmpty()) {
+      return new HashMap<>();
+    }
+    List<byte[]> keyList = new ArrayList<>(keys);
+    resetDbLock.readLock().lock();
+    try {
+      Map<byte[], byte[]> values = handle == null ? database.multiGet(keyList)
+          : database.multiGet(Collections.nCopies(keyList.size(), handle), keyList);
+      Map<WrappedByteArray, byte[]> result = new HashMap<>(values.size());
+      values.forEach((k, v) -> result.put(WrappedByteArray.of(k), v));
+      return result;
+    } catch (RocksDBException e) {
+      logger.warn("multiGet of {} keys failed, read them one by one: {}", keyList.size(),
+          e.getMessage());
+    } finally {
+      resetDbLock.readLock().unlock();
+    }
+    // the reads of getData, a key it fails to read is missing as it is there
+    Map<WrappedByteArray, byte[]> result = new HashMap<>(keyList.size());
+    for (byte[] key : keyList) {
+      byte[] value = getData(key);
+      if (value != null) {
+        result.put(WrappedByteArray.of(key), value);
+      }
+    }
+    return result;
+  }
+
   @Override
   public void deleteData(byte[] key) {
     if (quitIfNotAlive()) {
@@ -300,7 +444,11 @@ public class RocksDbDataSourceImpl implements DbSourceInter<byte[]>,
     }
     resetDbLock.readLock().lock();
     try {
-      database.delete(key);
+      if (handle == null) {
+        database.delete(key);
+      } else {
+        database.delete(handle, key);
+      }
     } catch (RocksDBException e) {
       logger.error("RocksDBException:{}", e);
     } finally {
@@ -315,7 +463,7 @@ public class RocksDbDataSourceImpl implements DbSourceInter<byte[]>,
 
   @Override
   public DBIterator iterator() {
-    return new RockStoreIterator(database.newIterator());
+    return new RockStoreIterator(newIterator());
   }
 
   private void updateByBatchInner(Map<byte[], byte[]> rows) throws Exception {
@@ -324,11 +472,7 @@ public class RocksDbDataSourceImpl implements DbSourceInter<byte[]>,
     }
     try (WriteBatch batch = new WriteBatch()) {
       for (Map.Entry<byte[], byte[]> entry : rows.entrySet()) {
-        if (entry.getValue() == null) {
-          batch.delete(entry.getKey());
-        } else {
-          batch.put(entry.getKey(), entry.getValue());
-        }
+        put(batch, entry.getKey(), entry.getValue());
       }
       database.write(new WriteOptions(), batch);
     }
@@ -341,16 +485,43 @@ public class RocksDbDataSourceImpl implements DbSourceInter<byte[]>,
     }
     try (WriteBatch batch = new WriteBatch()) {
       for (Map.Entry<byte[], byte[]> entry : rows.entrySet()) {
-        if (entry.getValue() == null) {
-          batch.delete(entry.getKey());
-        } else {
-          batch.put(entry.getKey(), entry.getValue());
-        }
+        put(batch, entry.getKey(), entry.getValue());
       }
       database.write(options, batch);
     }
   }
 
+  @Override
+  public WriteBatchWrapper newWriteBatch() {
+    return WriteBatchWrapper.of(new WriteBatch(), handle);
+  }
+
+  /**
+   * @return a view adding to this store in a batch of the shared instance.
+   */
+  public WriteBatchWrapper newWriteBatch(WriteBatchWrapper shared) {
+    return shared.view(handle);
+  }
+
+  @Override
+  public void updateByBatch(WriteBatchWrapper batch, WriteOptionsWrapper optionsWrapper) {
+    if (quitIfNotAlive()) {
+      return;
+    }
+    resetDbLock.readLock().lock();
+    try {
+      database.write(optionsWrapper.rocks, batch.rocks);
+    } catch (Exception e) {
+      try {
+        database.write(new WriteOptions(), batch.rocks);
+      } catch (Exception e1) {
+        throw new RuntimeException(e);
+      }
+    } finally {
+      resetDbLock.readLock().unlock();
+    }
+  }
+
   @Override
   public void updateByBatch(Map<byte[], byte[]> rows, WriteOptionsWrapper optionsWrapper) {
     if (quitIfNotAlive()) {
@@ -397,7 +568,7 @@ public class RocksDbDataSourceImpl implements DbSourceInter<byte[]>,
       return new ArrayList<>();
     }
     resetDbLock.readLock().lock();
-    try (RocksIterator iter = database.newIterator()) {
+    try (RocksIterator iter = newIterator()) {
       List<byte[]> result = new ArrayList<>();
       long i = 0;
       for (iter.seek(key); iter.isValid() && i < limit; iter.next(), i++) {
@@ -417,7 +588,7 @@ public class RocksDbDataSourceImpl implements DbSourceInter<byte[]>,
       return Collections.emptyMap();
     }
     resetDbLock.readLock().lock();
-    try (RocksIterator iter = database.newIterator()) {
+    try (RocksIterator iter = newIterator()) {
       Map<byte[], byte[]> result = new HashMap<>();
       long i = 0;
       for (iter.seek(key); iter.isValid() && i < limit; iter.next(), i++) {
@@ -437,7 +608,7 @@ public class RocksDbDataSourceImpl implements DbSourceInter<byte[]>,
       return Sets.newHashSet();
     }
     resetDbLock.readLock().lock();
-    try (RocksIterator iter = database.newIterator()) {
+    try (RocksIterator iter = newIterator()) {
       Set<byte[]> result = Sets.newHashSet();
       long i = 0;
       for (iter.seekToLast(); iter.isValid() && i < limit; iter.prev(), i++) {
@@ -457,7 +628,7 @@ public class RocksDbDataSourceImpl implements DbSourceInter<byte[]>,
       return Sets.newHashSet();
     }
     resetDbLock.readLock().lock();
-    try (RocksIterator iter = database.newIterator()) {
+    try (RocksIterator iter = newIterator()) {
       Set<byte[]> result = Sets.newHashSet();
       long i = 0;
       byte[] data = getData(key);
@@ -482,7 +653,7 @@ public class RocksDbDataSourceImpl implements DbSourceInter<byte[]>,
       return Sets.newHashSet();
     }
     resetDbLock.readLock().lock();
-    try (RocksIterator iter = database.newIterator()) {
+    try (RocksIterator iter = newIterator()) {
       Set<byte[]> result = Sets.newHashSet();
       long i = 0;
       for (iter.seek(key); iter.isValid() && i < limit; iter.next(), i++) {
@@ -495,12 +666,17 @@ public class RocksDbDataSourceImpl implements DbSourceInter<byte[]>,
   }
 
   public void backup(String dir) throws RocksDBException {
+    if (sharedDb != null) {
+      sharedDb.backup(dir);
+      return;
+    }
     Checkpoint cp = Checkpoint.create(database);
     cp.createCheckpoint(dir + this.getDBName());
   }
 
   public boolean deleteDbBakPath(String dir) {
-    return FileUtil.deleteDir(new File(dir + this.getDBName()));
+    String name = sharedDb == null ? this.getDBName() : SharedRocksDb.SHARED_DB_NAME;
+    return FileUtil.deleteDir(new File(dir + name));
   }
 
   @Override
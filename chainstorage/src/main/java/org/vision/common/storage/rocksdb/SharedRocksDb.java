@@ -0,0 +1,244 @@
+package org.vision.common.storage.rocksdb;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.rocksdb.BlockBasedTableConfig;
+import org.rocksdb.Cache;
+import org.rocksdb.Checkpoint;
+import org.rocksdb.ColumnFamilyDescriptor;
+import org.rocksdb.ColumnFamilyHandle;
+import org.rocksdb.ColumnFamilyOptions;
+import org.rocksdb.DBOptions;
+import org.rocksdb.LRUCache;
+import org.rocksdb.Options;
+import org.rocksdb.RocksDB;
+import org.rocksdb.RocksDBException;
+import org.rocksdb.Statistics;
+import org.vision.common.setting.RocksDbProfile;
+import org.vision.common.setting.RocksDbSettings;
+import org.vision.common.storage.WriteBatchWrapper;
+import org.vision.common.storage.WriteOptionsWrapper;
+
+/**
+ * One RocksDB instance of a directory holding its stores as column families. The stores share
+ * the block cache, the write buffer budget, the WAL and the compaction threads, and a batch of
+ * several stores is written atomically.
+ */
+@Slf4j(topic = "DB")
+public class SharedRocksDb {
+
+  public static final String SHARED_DB_NAME = "shared-rocksdb";
+  private static final Map<String, SharedRocksDb> INSTANCES = new HashMap<>();
+
+  private final Path path;
+  @Getter
+  private final RocksDB database;
+  private final RocksDbSettings settings;
+  private final Cache blockCache;
+  // by column family name, each from the profile of its store
+  private final Map<String, ColumnFamilyOptions> columnFamilyOptions = new HashMap<>();
+  private final Map<String, ColumnFamilyHandle> handles = new HashMap<>();
+  private final List<ColumnFamilyHandle> defaultHandles = new ArrayList<>();
+  private int refCount;
+
+  private SharedRocksDb(Path path, RocksDbSettings settings) throws RocksDBException,
+      IOException {
+    this.path = path;
+    this.settings = settings;
+    blockCache = new LRUCache(settings.getBlockCacheSize());
+
+    DBOptions options = new DBOptions();
+    if (settings.isEnableStatistics()) {
+      options.setStatistics(new Statistics());
+      options.setStatsDumpPeriodSec(60);
+    }
+    options.setCreateIfMissing(true);
+    options.setCreateMissingColumnFamilies(true);
+    options.setMaxOpenFiles(settings.getMaxOpenFiles());
+    options.setMaxBackgroundCompactions(settings.getCompactThreads());
+    // the memtables of all column families flush once they hold this many bytes together
+    options.setDbWriteBufferSize(settings.getWriteBufferSize());
+
+    List<ColumnFamilyDescriptor> descriptors = new ArrayList<>();
+    descriptors.add(new ColumnFamilyDescriptor(RocksDB.DEFAULT_COLUMN_FAMILY,
+        getColumnFamilyOptions(new String(RocksDB.DEFAULT_COLUMN_FAMILY,
+            StandardCharsets.UTF_8))));
+    Files.createDirectories(path);
+    for (byte[] name : listColumnFamilies(path)) {
+      if (!Arrays.equals(name, RocksDB.DEFAULT_COLUMN_FAMILY)) {
+        descriptors.add(new ColumnFamilyDescriptor(name,
+            getColumnFamilyOptions(new String(name, StandardCharsets.UTF_8))));
+      }
+    }
+
+    List<ColumnFamilyHandle> opened = new ArrayList<>();
+    database = RocksDB.open(options, path.toString(), descriptors, opened);
+    defaultHandles.add(opened.get(0));
+    for (int i = 1; i < opened.size(); i++) {
+      handles.put(new String(descriptors.get(i).columnFamilyName(), StandardCharsets.UTF_8),
+          opened.get(i));
+    }
+    logger.info("Open shared rocksdb {} with {} column families", path, handles.size());
+  }
+
+  /**
+   * @return the shared instance under parentPath, opened on first use.
+   */
+  public static synchronized SharedRocksDb getInstance(String parentPath,
+      RocksDbSettings settings) {
+    Path path = Paths.get(parentPath, SHARED_DB_NAME).toAbsolutePath().normalize();
+    SharedRocksDb instance = INSTANCES.get(path.toString());
+    if (instance == null) {
+      try {
+        instance = new SharedRocksDb(path, settings);
+      } catch (RocksDBException | IOException e) {
+        logger.error(e.getMessage(), e);
+        throw new RuntimeException("Failed to initialize database", e);
+      }
+      INSTANCES.put(path.toString(), instance);
+    }
+    return instance;
+  }
+
+  private static List<byte[]> listColumnFamilies(Path path) throws RocksDBException {
+    if (!Files.exists(path.resolve("CURRENT"))) {
+      return new ArrayList<>();
+    }
+    try (Options options = new Options()) {
+      return RocksDB.listColumnFamilies(options, path.toString());
+    }
+  }
+
+  private ColumnFamilyOptions getColumnFamilyOptions(String name) {
+    return columnFamilyOptions.computeIfAbsent(name,
+        k -> newColumnFamilyOptions(settings.getProfile(k)));
+  }
+
+  /**
+   * The options of a store in the separate mode, but the cache is the shared one whatever the
+   * cache share of the profile.
+   */
+  private ColumnFamilyOptions newColumnFamilyOptions(RocksDbProfile profile) {
+    ColumnFamilyOptions options = new ColumnFamilyOptions();
+    options.setLevelCompactionDynamicLevelBytes(true);
+    options.setNumLevels(settings.getLevelNumber());
+    options.setMaxBytesForLevelMultiplier(settings.getMaxBytesForLevelMultiplier());
+    options.setMaxBytesForLevelBase(settings.getMaxBytesForLevelBase());
+    options.setLevel0FileNumCompactionTrigger(settings.getLevel0FileNumCompactionTrigger());
+    options.setTargetFileSizeMultiplier(settings.getTargetFileSizeMultiplier());
+    options.setTargetFileSizeBase(settings.getTargetFileSizeBase());
+    if (profile.isOptimizeForPointLookup()) {
+      options.useCappedPrefixExtractor(RocksDbProfile.POINT_LOOKUP_PREFIX_LENGTH);
+    } else if (profile.getPrefixLength() > 0) {
+      options.useFixedLengthPrefixExtractor(profile.getPrefixLength());
+    }
+    if (!profile.getCompressionPerLevel().isEmpty()) {
+      options.setCompressionPerLevel(ProfileOptions.compressionPerLevel(profile));
+    }
+
+    BlockBasedTableConfig tableCfg = ProfileOptions.tableConfig(settings, profile);
+    tableCfg.setBlockCache(blockCache);
+    options.setTableFormatConfig(tableCfg);
+    return options;
+  }
+
+  public synchronized boolean hasColumnFamily(String name) {
+    return handles.containsKey(name);
+  }
+
+  /**
+   * Take the column family of a store, created if missing. Every call is paired with a
+   * {@link #release}, the instance closes with the last one.
+   */
+  public synchronized ColumnFamilyHandle acquire(String name) {
+    ColumnFamilyHandle handle = handles.get(name);
+    if (handle == null) {
+      handle = createColumnFamily(name);
+    }
+    refCount++;
+    return handle;
+  }
+
+  public synchronized void release(String name) {
+    if (--refCount > 0) {
+      return;
+    }
+
+    handles.values().forEach(ColumnFamilyHandle::close);
+    handles.clear();
+    defaultHandles.forEach(ColumnFamilyHandle::close);
+    database.close();
+    blockCache.close();
+    columnFamilyOptions.values().forEach(ColumnFamilyOptions::close);
+    columnFamilyOptions.clear();
+    synchronized (SharedRocksDb.class) {
+      INSTANCES.remove(path.toString());
+    }
+    logger.info("Close shared rocksdb {} after {}", path, name);
+  }
+
+  /**
+   * Drop the column family of a store and create it empty.
+   */
+  public synchronized ColumnFamilyHandle reset(String name) {
+    ColumnFamilyHandle handle = handles.remove(name);
+    if (handle != null) {
+      try {
+        database.dropColumnFamily(handle);
+      } catch (RocksDBException e) {
+        throw new RuntimeException(e);
+      } finally {
+        handle.close();
+      }
+    }
+    return createColumnFamily(name);
+  }
+
+  private ColumnFamilyHandle createColumnFamily(String name) {
+    try {
+      ColumnFamilyHandle handle = database.createColumnFamily(new ColumnFamilyDescriptor(
+          name.getBytes(StandardCharsets.UTF_8), getColumnFamilyOptions(name)));
+      handles.put(name, handle);
+      return handle;
+    } catch (RocksDBException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  /**
+   * @return a batch whose views of {@link WriteBatchWrapper#view} fill the column families.
+   */
+  public WriteBatchWrapper newWriteBatch() {
+    return WriteBatchWrapper.of(new org.rocksdb.WriteBatch());
+  }
+
+  public void write(WriteBatchWrapper batch, WriteOptionsWrapper optionsWrapper) {
+    try {
+      database.write(optionsWrapper.rocks, batch.rocks);
+    } catch (RocksDBException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  /**
+   * Back up all the column families at once, the first store to back up does it for the others.
+   */
+  public synchronized void backup(String dir) throws RocksDBException {
+    if (Files.exists(Paths.get(dir + SHARED_DB_NAME))) {
+      return;
+    }
+    try (Checkpoint cp = Checkpoint.create(database)) {
+      cp.createCheckpoint(dir + SHARED_DB_NAME);
+    }
+  }
+}
@@ -24,12 +24,13 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.collections4.CollectionUtils;
 import org.vision.common.bloom.Bloom;
-import org.vision.core.capsule.utils.MerkleTree;
+import org.vision.core.capsule.utils.MerkleRootBuilder;
 import org.vision.common.crypto.SignInterface;
 import org.vision.common.crypto.SignUtils;
 import org.vision.common.parameter.CommonParameter;
@@ -48,6 +49,9 @@ import org.vision.protos.Protocol.Transaction;
 @Slf4j(topic = "capsule")
 public class BlockCapsule implements ProtoCapsule<Block> {
 
+  // the leaves of a larger block are hashed in parallel
+  private static final int PARALLEL_MERKLE_LEAVES = 1000;
+
   public boolean generatedByMyself = false;
   @Getter
   @Setter
@@ -63,6 +67,9 @@ public class BlockCapsule implements ProtoCapsule<Block> {
   @Setter
   private Bloom bloom;
 
+  // the state independent part of the validation, done ahead for the block it was done on
+  private volatile Prepared prepared;
+
   public boolean isSwitch() {
     return isSwitch;
   }
@@ -180,13 +187,44 @@ public class BlockCapsule implements ProtoCapsule<Block> {
         this.block.getBlockHeader().getRawData().toByteArray());
   }
 
+  /**
+   * Recover the signers of the block and of its transactions and compute the merkle root ahead
+   * of the validation, that only checks them against the state then. It goes for this block as
+   * long as it is not modified. The transactions of the ethereum kind are validated over their
+   * rlp data, so nothing is recovered for them here.
+   */
+  public void prepare() {
+    Block current = this.block;
+    byte[] witnessSigner = null;
+    try {
+      witnessSigner = recoverWitnessSigner();
+    } catch (SignatureException e) {
+      logger.debug("recover the signer of block {} failed", getNum(), e);
+    }
+    Sha256Hash merkleRoot = calcMerkleRoot();
+    getTransactions().stream().filter(trx -> !trx.isEthStyle())
+        .forEach(TransactionCapsule::recoverSigners);
+    prepared = new Prepared(current, witnessSigner, merkleRoot);
+  }
+
+  private Prepared getPrepared() {
+    Prepared p = prepared;
+    return p != null && p.block == this.block ? p : null;
+  }
+
+  private byte[] recoverWitnessSigner() throws SignatureException {
+    return SignUtils.signatureToAddress(getRawHash().getBytes(),
+        TransactionCapsule.getBase64FromByteString(
+            block.getBlockHeader().getWitnessSignature()),
+        CommonParameter.getInstance().isECKeyCryptoEngine());
+  }
+
   public boolean validateSignature(DynamicPropertiesStore dynamicPropertiesStore,
       AccountStore accountStore) throws ValidateSignatureException {
     try {
-      byte[] sigAddress = SignUtils.signatureToAddress(getRawHash().getBytes(),
-          TransactionCapsule.getBase64FromByteString(
-              block.getBlockHeader().getWitnessSignature()),
-          CommonParameter.getInstance().isECKeyCryptoEngine());
+      Prepared p = getPrepared();
+      byte[] sigAddress = p != null && p.witnessSigner != null
+          ? p.witnessSigner : recoverWitnessSigner();
       byte[] witnessAccountAddress = block.getBlockHeader().getRawData().getWitnessAddress()
           .toByteArray();
 
@@ -213,24 +251,49 @@ public class BlockCapsule implements ProtoCapsule<Block> {
   }
 
   public Sha256Hash calcMerkleRoot() {
+    Prepared p = getPrepared();
+    if (p != null) {
+      return p.merkleRoot;
+    }
+
     List<Transaction> transactionsList = this.block.getTransactionsList();
 
     if (CollectionUtils.isEmpty(transactionsList)) {
       return Sha256Hash.ZERO_HASH;
     }
 
-    ArrayList<Sha256Hash> ids = transactionsList.stream()
-        .map(TransactionCapsule::new)
-        .map(TransactionCapsule::getMerkleHash)
-        .collect(Collectors.toCollection(ArrayList::new));
+    IntStream indexes = IntStream.range(0, transactionsList.size());
+    if (transactionsList.size() >= PARALLEL_MERKLE_LEAVES) {
+      indexes = indexes.parallel();
+    }
+    List<Sha256Hash> ids = indexes.mapToObj(i -> getMerkleHash(transactionsList, i))
+        .collect(Collectors.toList());
+
+    return MerkleRootBuilder.computeRoot(ids);
+  }
 
-    return MerkleTree.getInstance().createTree(ids).getRoot().getHash();
+  // the capsule keeps the hash of its transaction while it is the one in the block
+  private Sha256Hash getMerkleHash(List<Transaction> transactionsList, int i) {
+    Transaction transaction = transactionsList.get(i);
+    List<TransactionCapsule> capsules = this.transactions;
+    if (capsules.size() == transactionsList.size()
+        && capsules.get(i).getInstance() == transaction) {
+      return capsules.get(i).getMerkleHash();
+    }
+    return TransactionCapsule.getMerkleHash(transaction);
   }
 
   public void setMerkleRoot() {
+    setMerkleRoot(calcMerkleRoot());
+  }
+
+  /**
+   * @param merkleRoot the root of the transactions of the block, built as they were packed
+   */
+  public void setMerkleRoot(Sha256Hash merkleRoot) {
     BlockHeader.raw blockHeaderRaw =
         this.block.getBlockHeader().getRawData().toBuilder()
-            .setTxTrieRoot(calcMerkleRoot().getByteString()).build();
+            .setTxTrieRoot(merkleRoot.getByteString()).build();
 
     this.block = this.block.toBuilder().setBlockHeader(
         this.block.getBlockHeader().toBuilder().setRawData(blockHeaderRaw)).build();
@@ -329,6 +392,20 @@ public class BlockCapsule implements ProtoCapsule<Block> {
     return toStringBuff.toString();
   }
 
+  private static class Prepared {
+
+    private final Block block;
+    // null if the recovery failed, the validation recovers it again to report the error
+    private final byte[] witnessSigner;
+    private final Sha256Hash merkleRoot;
+
+    private Prepared(Block block, byte[] witnessSigner, Sha256Hash merkleRoot) {
+      this.block = block;
+      this.witnessSigner = witnessSigner;
+      this.merkleRoot = merkleRoot;
+    }
+  }
+
   public static class BlockId extends Sha256Hash {
 
     private long num;
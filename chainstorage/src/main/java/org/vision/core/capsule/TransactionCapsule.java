@@ -29,6 +29,7 @@ import org.vision.common.crypto.ECKey.ECDSASignature;
 import org.vision.common.crypto.Hash;
 import org.vision.common.crypto.SignInterface;
 import org.vision.common.crypto.SignUtils;
+import org.vision.common.crypto.SignatureRecoveryService;
 import org.vision.common.ethutils.RLP;
 import org.vision.common.ethutils.RLPElement;
 import org.vision.common.ethutils.RLPItem;
@@ -113,10 +114,22 @@ public class TransactionCapsule implements ProtoCapsule<Transaction> {
 
   private byte[] ethRlpData;
 
+  private Sha256Hash ethRlpDataHash;
+
+  // the eth transaction parsed from the rlp data, for the validation, the p2p version check and
+  // the broadcast alike
+  private volatile EthTrx ethTrx;
+
   private Sha256Hash id;
 
   private byte[] ownerAddress;
 
+  // the signers recovered ahead, for the id and the signatures they were recovered from
+  private volatile Signers signers;
+
+  // the merkle hash of the transaction instance it was computed for
+  private volatile MerkleHash merkleHash;
+
   public byte[] getOwnerAddress() {
     if (this.ownerAddress == null) {
       this.ownerAddress = getOwner(this.transaction.getRawData().getContract(0));
@@ -219,6 +232,15 @@ public class TransactionCapsule implements ProtoCapsule<Transaction> {
   public static long checkWeight(Permission permission, List<ByteString> sigs, byte[] hash,
       List<ByteString> approveList)
       throws SignatureException, PermissionException, SignatureFormatException {
+    return checkWeight(permission, sigs, hash, approveList, null);
+  }
+
+  /**
+   * @param signers the addresses recovered from sigs ahead, null to recover them here
+   */
+  private static long checkWeight(Permission permission, List<ByteString> sigs, byte[] hash,
+      List<ByteString> approveList, List<byte[]> signers)
+      throws SignatureException, PermissionException, SignatureFormatException {
     long currentWeight = 0;
     if (sigs.size() > permission.getKeysCount()) {
       throw new PermissionException(
@@ -226,14 +248,15 @@ public class TransactionCapsule implements ProtoCapsule<Transaction> {
               + permission.getKeysCount());
     }
     HashMap addMap = new HashMap();
-    for (ByteString sig : sigs) {
+    for (int i = 0; i < sigs.size(); i++) {
+      ByteString sig = sigs.get(i);
       if (sig.size() < 65) {
         throw new SignatureFormatException(
             "Signature size is " + sig.size());
       }
       String base64 = TransactionCapsule.getBase64FromByteString(sig);
-      byte[] address = SignUtils
-          .signatureToAddress(hash, base64, CommonParameter.getInstance().isECKeyCryptoEngine());
+      byte[] address = signers != null ? signers.get(i)
+          : SignatureRecoveryService.getInstance().recover(hash, sig.toByteArray());
       long weight = getWeight(permission, address);
       if (weight == 0) {
         throw new PermissionException(
@@ -392,6 +415,78 @@ public class TransactionCapsule implements ProtoCapsule<Transaction> {
     return this.ethRlpData;
   }
 
+  /**
+   * Whether the contract is of the ethereum kind, signed over its rlp data rather than the id.
+   * Whether the chain takes it so is for {@link #getEthRlpData} to tell, this only reads the
+   * contract.
+   */
+  public boolean isEthStyle() {
+    if (this.transaction.getRawData().getContractCount() == 0) {
+      return false;
+    }
+    Transaction trx = this.transaction;
+    switch (trx.getRawData().getContract(0).getType()) {
+      case CreateSmartContract: {
+        CreateSmartContract c = ContractCapsule.getCreateSmartContractFromTransaction(trx);
+        return c != null && c.getType() == 1;
+      }
+      case TriggerSmartContract: {
+        TriggerSmartContract c = ContractCapsule.getTriggerContractFromTransaction(trx);
+        return c != null && c.getType() == 1;
+      }
+      case TransferContract: {
+        TransferContract c = ContractCapsule.getTransferContractFromTransaction(trx);
+        return c != null && c.getType() == 1;
+      }
+      case VoteWitnessContract: {
+        VoteWitnessContract c = ContractCapsule.getVoteWitnessContractFromTransaction(trx);
+        return c != null && c.getType() == 1;
+      }
+      case WithdrawBalanceContract: {
+        WithdrawBalanceContract c = ContractCapsule.getWithdrawBalanceContractFromTransaction(trx);
+        return c != null && c.getRlpType() == 1;
+      }
+      case FreezeBalanceContract: {
+        FreezeBalanceContract c = ContractCapsule.getFreezeBalanceContractFromTransaction(trx);
+        return c != null && c.getType() == 1;
+      }
+      case UnfreezeBalanceContract: {
+        UnfreezeBalanceContract c = ContractCapsule.getUnfreezeBalanceContractFromTransaction(trx);
+        return c != null && c.getType() == 1;
+      }
+      case WitnessCreateContract: {
+        WitnessCreateContract c = ContractCapsule.getWitnessCreateContractFromTransaction(trx);
+        return c != null && c.getType() == 1;
+      }
+      case WitnessUpdateContract: {
+        WitnessUpdateContract c = ContractCapsule.getWitnessUpdateContractFromTransaction(trx);
+        return c != null && c.getType() == 1;
+      }
+      case UpdateBrokerageContract: {
+        StorageContract.UpdateBrokerageContract c = ContractCapsule.getUpdateBrokerageContractFromTransaction(trx);
+        return c != null && c.getType() == 1;
+      }
+      case ProposalApproveContract: {
+        ProposalContract.ProposalApproveContract c = ContractCapsule.getProposalApproveContractFromTransaction(trx);
+        return c != null && c.getType() == 1;
+      }
+      case ProposalCreateContract: {
+        ProposalContract.ProposalCreateContract c = ContractCapsule.getProposalCreateContractFromTransaction(trx);
+        return c != null && c.getType() == 1;
+      }
+      case ProposalDeleteContract: {
+        ProposalContract.ProposalDeleteContract c = ContractCapsule.getProposalDeleteContractFromTransaction(trx);
+        return c != null && c.getType() == 1;
+      }
+      case AccountUpdateContract: {
+        AccountContract.AccountUpdateContract c = ContractCapsule.getAccountUpdateContractFromTransaction(trx);
+        return c != null && c.getType() == 1;
+      }
+      default:
+        return false;
+    }
+  }
+
   private void getCreateSmartContractRlpData(){
     CreateSmartContract c = ContractCapsule.getCreateSmartContractFromTransaction(this.getInstance());
     if (c != null && c.getType() == 1) {
@@ -595,6 +690,13 @@ public class TransactionCapsule implements ProtoCapsule<Transaction> {
   public static boolean validateSignature(Transaction transaction,
       byte[] hash, AccountStore accountStore, DynamicPropertiesStore dynamicPropertiesStore)
       throws PermissionException, SignatureException, SignatureFormatException {
+    return validateSignature(transaction, hash, accountStore, dynamicPropertiesStore, null);
+  }
+
+  private static boolean validateSignature(Transaction transaction, byte[] hash,
+      AccountStore accountStore, DynamicPropertiesStore dynamicPropertiesStore,
+      List<byte[]> signers)
+      throws PermissionException, SignatureException, SignatureFormatException {
     Transaction.Contract contract = transaction.getRawData().getContractList().get(0);
     int permissionId = contract.getPermissionId();
     byte[] owner = getOwner(contract);
@@ -616,7 +718,7 @@ public class TransactionCapsule implements ProtoCapsule<Transaction> {
     }
       //check oprations
     checkPermission(permissionId, permission, contract);
-    long weight = checkWeight(permission, transaction.getSignatureList(), hash, null);
+    long weight = checkWeight(permission, transaction.getSignatureList(), hash, null, signers);
     if (weight >= permission.getThreshold()) {
       return true;
     }
@@ -634,6 +736,55 @@ public class TransactionCapsule implements ProtoCapsule<Transaction> {
         .build();
   }
 
+  /**
+   * A copy to execute the transaction on while this one keeps the results of the block, the
+   * outcome comes back by {@link #adopt}.
+   */
+  public TransactionCapsule copyForExecution() {
+    TransactionCapsule copy = new TransactionCapsule(this.transaction);
+    copy.isVerified = this.isVerified;
+    copy.blockNum = this.blockNum;
+    copy.time = this.time;
+    copy.id = this.id;
+    copy.ethRlpData = this.ethRlpData;
+    copy.ethRlpDataHash = this.ethRlpDataHash;
+    copy.ethTrx = this.ethTrx;
+    return copy;
+  }
+
+  /**
+   * Recover the addresses of the signatures ahead of {@link #validatePubSignature}, which only
+   * checks them against the permission then. A signature that fails is left to it to report.
+   */
+  public void recoverSigners() {
+    List<ByteString> sigs = this.transaction.getSignatureList();
+    byte[] hash = getTransactionId().getBytes();
+    List<byte[]> addresses = new ArrayList<>(sigs.size());
+    try {
+      for (ByteString sig : sigs) {
+        if (sig.size() < 65) {
+          return;
+        }
+        addresses.add(SignatureRecoveryService.getInstance().recover(hash, sig.toByteArray()));
+      }
+    } catch (SignatureException e) {
+      return;
+    }
+    this.signers = new Signers(hash, sigs, addresses);
+  }
+
+  private List<byte[]> getRecoveredSigners(byte[] hash) {
+    Signers s = this.signers;
+    return s != null && Arrays.equals(s.hash, hash)
+        && s.signatures.equals(this.transaction.getSignatureList()) ? s.addresses : null;
+  }
+
+  public void adopt(TransactionCapsule copy) {
+    this.transaction = copy.transaction;
+    this.isVerified = copy.isVerified;
+    this.trxTrace = copy.trxTrace;
+  }
+
   public void setReference(long blockNum, byte[] blockHash) {
     byte[] refBlockNum = ByteArray.fromLong(blockNum);
     Transaction.raw rawData = this.transaction.getRawData().toBuilder()
@@ -697,9 +848,19 @@ public class TransactionCapsule implements ProtoCapsule<Transaction> {
   }
 
   public Sha256Hash getMerkleHash() {
-    byte[] transBytes = this.transaction.toByteArray();
+    Transaction current = this.transaction;
+    MerkleHash cached = merkleHash;
+    if (cached != null && cached.transaction == current) {
+      return cached.hash;
+    }
+    Sha256Hash hash = getMerkleHash(current);
+    merkleHash = new MerkleHash(current, hash);
+    return hash;
+  }
+
+  public static Sha256Hash getMerkleHash(Transaction transaction) {
     return Sha256Hash.of(CommonParameter.getInstance().isECKeyCryptoEngine(),
-        transBytes);
+        transaction.toByteArray());
   }
 
   private Sha256Hash getRawHash() {
@@ -789,8 +950,7 @@ public class TransactionCapsule implements ProtoCapsule<Transaction> {
         throw new ValidateSignatureException("not eth contract");
       }
 
-      EthTrx t = new EthTrx(contract.getRlpData().toByteArray());
-      t.rlpParse();
+      EthTrx t = getEthTrx(contract.getRlpData());
       try {
         TriggerSmartContract contractFromParse = t.rlpParseToTriggerSmartContract(dynamicPropertiesStore);
         if(!contractFromParse.equals(contract)){
@@ -832,8 +992,7 @@ public class TransactionCapsule implements ProtoCapsule<Transaction> {
         throw new ValidateSignatureException("not eth contract");
       }
 
-      EthTrx t = new EthTrx(contract.getRlpData().toByteArray());
-      t.rlpParse();
+      EthTrx t = getEthTrx(contract.getRlpData());
       try {
         CreateSmartContract contractFromParse = t.rlpParseToDeployContract(dynamicPropertiesStore);
         if(!contractFromParse.equals(contract)){
@@ -875,8 +1034,7 @@ public class TransactionCapsule implements ProtoCapsule<Transaction> {
         throw new ValidateSignatureException("not eth contract");
       }
 
-      EthTrx t = new EthTrx(contract.getRlpData().toByteArray());
-      t.rlpParse();
+      EthTrx t = getEthTrx(contract.getRlpData());
       try {
         TransferContract contractFromParse = t.rlpParseToTransferContract();
         if(!contractFromParse.equals(contract)){
@@ -910,8 +1068,7 @@ public class TransactionCapsule implements ProtoCapsule<Transaction> {
         throw new ValidateSignatureException("not eth contract");
       }
 
-      EthTrx t = new EthTrx(contract.getRlpData().toByteArray());
-      t.rlpParse();
+      EthTrx t = getEthTrx(contract.getRlpData());
       try {
         BalanceContract.WithdrawBalanceContract contractFromParse = t.rlpParseToWithdrawBalanceContract();
         if(!contractFromParse.equals(contract)){
@@ -942,8 +1099,7 @@ public class TransactionCapsule implements ProtoCapsule<Transaction> {
         throw new ValidateSignatureException("not eth contract");
       }
 
-      EthTrx t = new EthTrx(contract.getRlpData().toByteArray());
-      t.rlpParse();
+      EthTrx t = getEthTrx(contract.getRlpData());
       try {
         BalanceContract.FreezeBalanceContract contractFromParse = t.rlpParseToFreezeBalanceContract();
         if(!contractFromParse.equals(contract)){
@@ -974,8 +1130,7 @@ public class TransactionCapsule implements ProtoCapsule<Transaction> {
         throw new ValidateSignatureException("not eth contract");
       }
 
-      EthTrx t = new EthTrx(contract.getRlpData().toByteArray());
-      t.rlpParse();
+      EthTrx t = getEthTrx(contract.getRlpData());
       try {
         BalanceContract.UnfreezeBalanceContract contractFromParse = t.rlpParseToUnfreezeBalanceContract();
         if(!contractFromParse.equals(contract)){
@@ -1007,8 +1162,7 @@ public class TransactionCapsule implements ProtoCapsule<Transaction> {
         throw new ValidateSignatureException("not eth contract");
       }
 
-      EthTrx t = new EthTrx(contract.getRlpData().toByteArray());
-      t.rlpParse();
+      EthTrx t = getEthTrx(contract.getRlpData());
       try {
         VoteWitnessContract contractFromParse = t.rlpParseToVoteWitnessContract();
         if(!contractFromParse.equals(contract)){
@@ -1040,8 +1194,7 @@ public class TransactionCapsule implements ProtoCapsule<Transaction> {
         throw new ValidateSignatureException("not eth contract");
       }
 
-      EthTrx t = new EthTrx(contract.getRlpData().toByteArray());
-      t.rlpParse();
+      EthTrx t = getEthTrx(contract.getRlpData());
       try {
         WitnessCreateContract contractFromParse = t.rlpParseToWitnessCreateContract();
         if(!contractFromParse.equals(contract)){
@@ -1073,8 +1226,7 @@ public class TransactionCapsule implements ProtoCapsule<Transaction> {
         throw new ValidateSignatureException("not eth contract");
       }
 
-      EthTrx t = new EthTrx(contract.getRlpData().toByteArray());
-      t.rlpParse();
+      EthTrx t = getEthTrx(contract.getRlpData());
       try {
         WitnessUpdateContract contractFromParse = t.rlpParseToWitnessUpdateContract();
         if(!contractFromParse.equals(contract)){
@@ -1106,8 +1258,7 @@ public class TransactionCapsule implements ProtoCapsule<Transaction> {
         throw new ValidateSignatureException("not eth contract");
       }
 
-      EthTrx t = new EthTrx(contract.getRlpData().toByteArray());
-      t.rlpParse();
+      EthTrx t = getEthTrx(contract.getRlpData());
       try {
         StorageContract.UpdateBrokerageContract contractFromParse = t.rlpParseToUpdateBrokerageContract();
         if(!contractFromParse.equals(contract)){
@@ -1139,8 +1290,7 @@ public class TransactionCapsule implements ProtoCapsule<Transaction> {
         throw new ValidateSignatureException("not eth contract");
       }
 
-      EthTrx t = new EthTrx(contract.getRlpData().toByteArray());
-      t.rlpParse();
+      EthTrx t = getEthTrx(contract.getRlpData());
       try {
         ProposalContract.ProposalApproveContract contractFromParse = t.rlpParseToProposalApproveContract();
         if(!contractFromParse.equals(contract)){
@@ -1172,8 +1322,7 @@ public class TransactionCapsule implements ProtoCapsule<Transaction> {
         throw new ValidateSignatureException("not eth contract");
       }
 
-      EthTrx t = new EthTrx(contract.getRlpData().toByteArray());
-      t.rlpParse();
+      EthTrx t = getEthTrx(contract.getRlpData());
       try {
         ProposalContract.ProposalCreateContract contractFromParse = t.rlpParseToProposalCreateContract();
         if(!contractFromParse.equals(contract)){
@@ -1205,8 +1354,7 @@ public class TransactionCapsule implements ProtoCapsule<Transaction> {
         throw new ValidateSignatureException("not eth contract");
       }
 
-      EthTrx t = new EthTrx(contract.getRlpData().toByteArray());
-      t.rlpParse();
+      EthTrx t = getEthTrx(contract.getRlpData());
       try {
         ProposalContract.ProposalDeleteContract contractFromParse = t.rlpParseToProposalDeleteContract();
         if(!contractFromParse.equals(contract)){
@@ -1238,8 +1386,7 @@ public class TransactionCapsule implements ProtoCapsule<Transaction> {
         throw new ValidateSignatureException("not eth contract");
       }
 
-      EthTrx t = new EthTrx(contract.getRlpData().toByteArray());
-      t.rlpParse();
+      EthTrx t = getEthTrx(contract.getRlpData());
       try {
         AccountContract.AccountUpdateContract contractFromParse = t.rlpParseToAccountUpdateContract();
         if(!contractFromParse.equals(contract)){
@@ -1331,14 +1478,14 @@ public class TransactionCapsule implements ProtoCapsule<Transaction> {
      * (including public key recovery bits) */
     private ECDSASignature signature;
 
-    protected byte[] sendAddress;
+    protected volatile byte[] sendAddress;
 
     /* Tx in encoded form */
     protected byte[] rlpEncoded;
-    private byte[] rawHash;
+    private volatile byte[] rawHash;
     /* Indicates if this transaction has been parsed
-     * from the RLP-encoded data */
-    protected boolean parsed = false;
+     * from the RLP-encoded data, published after the parsed fields */
+    protected volatile boolean parsed = false;
 
     public EthTrx(byte[] rawData) {
       this.rlpEncoded = rawData;
@@ -1418,13 +1565,20 @@ public class TransactionCapsule implements ProtoCapsule<Transaction> {
 //              getTransactionCost(this);
 //    }
 
-    public synchronized void verify() {
+    public void verify() {
       rlpParse();
       validate();
     }
 
-    public synchronized void rlpParse() {
+    public void rlpParse() {
       if (parsed) return;
+      synchronized (this) {
+        if (parsed) return;
+        parse();
+      }
+    }
+
+    private void parse() {
       try {
         RLPList decodedTxList = RLP.decode2(rlpEncoded);
         RLPList transaction = (RLPList) decodedTxList.get(0);
@@ -1610,7 +1764,7 @@ public class TransactionCapsule implements ProtoCapsule<Transaction> {
       return ECKey.recoverFromSignature(signature.v, signature, hash);
     }
 
-    public synchronized byte[] getSender() {
+    public byte[] getSender() {
       try {
         if (sendAddress == null && getSignature() != null) {
           sendAddress = ECKey.signatureToAddress(getRawHash(), getSignature());
@@ -1826,7 +1980,7 @@ public class TransactionCapsule implements ProtoCapsule<Transaction> {
       return address.replaceFirst(ADDRESS_PREFIX_0, Constant.ADD_PRE_FIX_STRING_MAINNET);
     }
 
-    public synchronized TriggerSmartContract rlpParseToTriggerSmartContract(DynamicPropertiesStore dynamicPropertiesStore) {
+    public TriggerSmartContract rlpParseToTriggerSmartContract(DynamicPropertiesStore dynamicPropertiesStore) {
       if (!parsed)
         rlpParse();
       TriggerSmartContract.Builder build = TriggerSmartContract.newBuilder();
@@ -1844,7 +1998,7 @@ public class TransactionCapsule implements ProtoCapsule<Transaction> {
       return build.build();
     }
 
-    public synchronized TransferContract rlpParseToTransferContract() {
+    public TransferContract rlpParseToTransferContract() {
       if (!parsed)
         rlpParse();
       TransferContract.Builder build = TransferContract.newBuilder();
@@ -1856,7 +2010,7 @@ public class TransactionCapsule implements ProtoCapsule<Transaction> {
       return build.build();
     }
 
-    public synchronized CreateSmartContract rlpParseToDeployContract(DynamicPropertiesStore dynamicPropertiesStore) {
+    public CreateSmartContract rlpParseToDeployContract(DynamicPropertiesStore dynamicPropertiesStore) {
       if (!parsed)
         rlpParse();
       CreateSmartContract.Builder build = CreateSmartContract.newBuilder();
@@ -1885,7 +2039,7 @@ public class TransactionCapsule implements ProtoCapsule<Transaction> {
       return build.build();
     }
 
-    public synchronized WithdrawBalanceContract rlpParseToWithdrawBalanceContract() {
+    public WithdrawBalanceContract rlpParseToWithdrawBalanceContract() {
       if (!parsed)
         rlpParse();
 
@@ -1905,7 +2059,7 @@ public class TransactionCapsule implements ProtoCapsule<Transaction> {
       return build.build();
     }
 
-    public synchronized VoteWitnessContract rlpParseToVoteWitnessContract() {
+    public VoteWitnessContract rlpParseToVoteWitnessContract() {
       if (!parsed)
         rlpParse();
 
@@ -1948,7 +2102,7 @@ public class TransactionCapsule implements ProtoCapsule<Transaction> {
       return build.build();
     }
 
-    public synchronized FreezeBalanceContract rlpParseToFreezeBalanceContract() {
+    public FreezeBalanceContract rlpParseToFreezeBalanceContract() {
       if (!parsed)
         rlpParse();
 
@@ -2026,7 +2180,7 @@ public class TransactionCapsule implements ProtoCapsule<Transaction> {
       return build.build();
     }
 
-    public synchronized UnfreezeBalanceContract rlpParseToUnfreezeBalanceContract() {
+    public UnfreezeBalanceContract rlpParseToUnfreezeBalanceContract() {
       if (!parsed)
         rlpParse();
       UnfreezeBalanceContract.Builder build = UnfreezeBalanceContract.newBuilder();
@@ -2072,7 +2226,7 @@ public class TransactionCapsule implements ProtoCapsule<Transaction> {
       return build.build();
     }
 
-    public synchronized WitnessCreateContract rlpParseToWitnessCreateContract() {
+    public WitnessCreateContract rlpParseToWitnessCreateContract() {
       if (!parsed)
         rlpParse();
       WitnessCreateContract.Builder build = WitnessCreateContract.newBuilder();
@@ -2104,7 +2258,7 @@ public class TransactionCapsule implements ProtoCapsule<Transaction> {
       return build.build();
     }
 
-    public synchronized WitnessUpdateContract rlpParseToWitnessUpdateContract() {
+    public WitnessUpdateContract rlpParseToWitnessUpdateContract() {
       if (!parsed)
         rlpParse();
       WitnessUpdateContract.Builder build = WitnessUpdateContract.newBuilder();
@@ -2131,7 +2285,7 @@ public class TransactionCapsule implements ProtoCapsule<Transaction> {
       return build.build();
     }
 
-    public synchronized StorageContract.UpdateBrokerageContract rlpParseToUpdateBrokerageContract() {
+    public StorageContract.UpdateBrokerageContract rlpParseToUpdateBrokerageContract() {
       if (!parsed)
         rlpParse();
       StorageContract.UpdateBrokerageContract.Builder build = StorageContract.UpdateBrokerageContract.newBuilder();
@@ -2151,7 +2305,7 @@ public class TransactionCapsule implements ProtoCapsule<Transaction> {
       return build.build();
     }
 
-    public synchronized ProposalContract.ProposalApproveContract rlpParseToProposalApproveContract() {
+    public ProposalContract.ProposalApproveContract rlpParseToProposalApproveContract() {
       if (!parsed)
         rlpParse();
       ProposalContract.ProposalApproveContract.Builder build = ProposalContract.ProposalApproveContract.newBuilder();
@@ -2172,7 +2326,7 @@ public class TransactionCapsule implements ProtoCapsule<Transaction> {
       return build.build();
     }
 
-    public synchronized ProposalContract.ProposalCreateContract rlpParseToProposalCreateContract() {
+    public ProposalContract.ProposalCreateContract rlpParseToProposalCreateContract() {
       if (!parsed)
         rlpParse();
       ProposalContract.ProposalCreateContract.Builder build = ProposalContract.ProposalCreateContract.newBuilder();
@@ -2205,7 +2359,7 @@ public class TransactionCapsule implements ProtoCapsule<Transaction> {
       return build.build();
     }
 
-    public synchronized ProposalContract.ProposalDeleteContract rlpParseToProposalDeleteContract() {
+    public ProposalContract.ProposalDeleteContract rlpParseToProposalDeleteContract() {
       if (!parsed)
         rlpParse();
       ProposalContract.ProposalDeleteContract.Builder build = ProposalContract.ProposalDeleteContract.newBuilder();
@@ -2225,7 +2379,7 @@ public class TransactionCapsule implements ProtoCapsule<Transaction> {
       return build.build();
     }
 
-    public synchronized AccountContract.AccountUpdateContract rlpParseToAccountUpdateContract() {
+    public AccountContract.AccountUpdateContract rlpParseToAccountUpdateContract() {
       if (!parsed)
         rlpParse();
       AccountContract.AccountUpdateContract.Builder build = AccountContract.AccountUpdateContract.newBuilder();
@@ -2274,7 +2428,8 @@ public class TransactionCapsule implements ProtoCapsule<Transaction> {
     byte[] hash = this.getTransactionId().getBytes();
 
     try {
-      if (!validateSignature(this.transaction, hash, accountStore, dynamicPropertiesStore)) {
+      if (!validateSignature(this.transaction, hash, accountStore, dynamicPropertiesStore,
+          getRecoveredSigners(hash))) {
         isVerified = false;
         throw new ValidateSignatureException("sig error");
       }
@@ -2553,12 +2708,47 @@ public class TransactionCapsule implements ProtoCapsule<Transaction> {
   }
 
   public Sha256Hash getEthRlpDataHash(DynamicPropertiesStore dynamicPropertiesStore){
+    if (this.ethRlpDataHash != null) {
+      return this.ethRlpDataHash;
+    }
     byte[] rlpData = getEthRlpData(dynamicPropertiesStore);
     if (rlpData == null || rlpData.length <= 0){
       return null;
     }
 
-    return Sha256Hash.of(CommonParameter.getInstance().isECKeyCryptoEngine(), rlpData);
+    this.ethRlpDataHash = Sha256Hash.of(CommonParameter.getInstance().isECKeyCryptoEngine(),
+        rlpData);
+    return this.ethRlpDataHash;
+  }
+
+  /**
+   * @return the parsed eth transaction of the rlp data, null if the transaction has none
+   */
+  public EthTrx getEthTrx(DynamicPropertiesStore dynamicPropertiesStore) {
+    byte[] rlpData = getEthRlpData(dynamicPropertiesStore);
+    if (rlpData == null || rlpData.length <= 0) {
+      return null;
+    }
+    EthTrx cached = this.ethTrx;
+    if (cached != null && Arrays.equals(cached.rlpEncoded, rlpData)) {
+      return cached;
+    }
+    return parseEthTrx(rlpData);
+  }
+
+  private EthTrx getEthTrx(ByteString rlpData) {
+    EthTrx cached = this.ethTrx;
+    if (cached != null && rlpData.equals(UnsafeByteOperations.unsafeWrap(cached.rlpEncoded))) {
+      return cached;
+    }
+    return parseEthTrx(rlpData.toByteArray());
+  }
+
+  private EthTrx parseEthTrx(byte[] rlpData) {
+    EthTrx t = new EthTrx(rlpData);
+    t.rlpParse();
+    this.ethTrx = t;
+    return t;
   }
 
   @Override
@@ -2690,4 +2880,28 @@ public class TransactionCapsule implements ProtoCapsule<Transaction> {
       return null;
     }
   }
+
+  private static class MerkleHash {
+
+    private final Transaction transaction;
+    private final Sha256Hash hash;
+
+    private MerkleHash(Transaction transaction, Sha256Hash hash) {
+      this.transaction = transaction;
+      this.hash = hash;
+    }
+  }
+
+  private static class Signers {
+
+    private final byte[] hash;
+    private final List<ByteString> signatures;
+    private final List<byte[]> addresses;
+
+    private Signers(byte[] hash, List<ByteString> signatures, List<byte[]> addresses) {
+      this.hash = hash;
+      this.signatures = signatures;
+      this.addresses = addresses;
+    }
+  }
 }
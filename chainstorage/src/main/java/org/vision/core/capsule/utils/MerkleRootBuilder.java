@@ -0,0 +1,58 @@
+package org.vision.core.capsule.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.vision.common.parameter.CommonParameter;
+import org.vision.common.utils.Sha256Hash;
+
+/**
+ * The root of the {@link MerkleTree} of the hashes added so far, without keeping the tree. A
+ * level of that tree pairs its nodes from the left and lifts an odd last one, so the root is the
+ * roots of the full subtrees of the binary decomposition of the count, folded from the right.
+ * Adding a hash merges the subtrees it completes, like a binary counter.
+ */
+public class MerkleRootBuilder {
+
+  // the roots of the full subtrees, the largest first
+  private final List<Sha256Hash> peaks = new ArrayList<>();
+  private long count;
+
+  public static Sha256Hash computeRoot(List<Sha256Hash> hashList) {
+    MerkleRootBuilder builder = new MerkleRootBuilder();
+    hashList.forEach(builder::add);
+    return builder.getRoot();
+  }
+
+  public MerkleRootBuilder add(Sha256Hash hash) {
+    Sha256Hash peak = hash;
+    for (long c = count; (c & 1) == 1; c >>= 1) {
+      peak = computeHash(peaks.remove(peaks.size() - 1), peak);
+    }
+    peaks.add(peak);
+    count++;
+    return this;
+  }
+
+  public long getCount() {
+    return count;
+  }
+
+  /**
+   * @return the root, {@link Sha256Hash#ZERO_HASH} without a hash
+   */
+  public Sha256Hash getRoot() {
+    if (peaks.isEmpty()) {
+      return Sha256Hash.ZERO_HASH;
+    }
+    Sha256Hash root = peaks.get(peaks.size() - 1);
+    for (int i = peaks.size() - 2; i >= 0; i--) {
+      root = computeHash(peaks.get(i), root);
+    }
+    return root;
+  }
+
+  private static Sha256Hash computeHash(Sha256Hash leftHash, Sha256Hash rightHash) {
+    return Sha256Hash.of(CommonParameter.getInstance().isECKeyCryptoEngine(),
+        leftHash.getByteString().concat(rightHash.getByteString()).toByteArray());
+  }
+}
@@ -27,7 +27,10 @@ public class MerkleTree {
     return instance;
   }
 
-  public MerkleTree createTree(List<Sha256Hash> hashList) {
+  /**
+   * The tree is kept in the instance, {@link MerkleRootBuilder} computes a root without it.
+   */
+  public synchronized MerkleTree createTree(List<Sha256Hash> hashList) {
     this.leaves = new ArrayList<>();
     this.hashList = hashList;
     List<Leaf> leaves = createLeaves(hashList);
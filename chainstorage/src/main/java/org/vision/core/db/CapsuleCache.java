@@ -0,0 +1,77 @@
+package org.vision.core.db;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.Getter;
+import org.vision.core.db2.common.WrappedByteArray;
+import org.vision.core.db2.core.ChainbaseListener;
+
+/**
+ * Decoded values of the head state of one store, so repeated reads within a block skip the
+ * snapshot walk and the protobuf parse.
+ *
+ * Entries are dropped when the key is written or revoked. A reader takes a stamp before reading
+ * the db and its put is ignored if any change happened in between, so a value read before a
+ * concurrent write is never cached after it.
+ */
+public class CapsuleCache implements ChainbaseListener {
+
+  private static final Map<String, CapsuleCache> CACHES = new ConcurrentHashMap<>();
+
+  @Getter
+  private final String dbName;
+  private final Cache<WrappedByteArray, Object> cache;
+  private final AtomicLong version = new AtomicLong();
+
+  public CapsuleCache(String dbName, long maxSize) {
+    this.dbName = dbName;
+    this.cache = CacheBuilder.newBuilder()
+        .maximumSize(maxSize)
+        .recordStats()
+        .build();
+    CACHES.put(dbName, this);
+  }
+
+  public static Map<String, CapsuleCache> getCaches() {
+    return Collections.unmodifiableMap(CACHES);
+  }
+
+  public Object get(byte[] key) {
+    return cache.getIfPresent(WrappedByteArray.of(key));
+  }
+
+  public long stamp() {
+    return version.get();
+  }
+
+  public synchronized void put(byte[] key, Object decoded, long stamp) {
+    if (version.get() == stamp) {
+      cache.put(WrappedByteArray.copyOf(key), decoded);
+    }
+  }
+
+  @Override
+  public synchronized void onChange(byte[] key) {
+    version.incrementAndGet();
+    cache.invalidate(WrappedByteArray.of(key));
+  }
+
+  @Override
+  public synchronized void onReset() {
+    version.incrementAndGet();
+    cache.invalidateAll();
+  }
+
+  public CacheStats stats() {
+    return cache.stats();
+  }
+
+  public long size() {
+    return cache.size();
+  }
+}
@@ -7,12 +7,18 @@ import com.google.common.reflect.TypeToken;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import javax.annotation.PostConstruct;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.ArrayUtils;
 import org.iq80.leveldb.Options;
 import org.iq80.leveldb.WriteOptions;
 import org.rocksdb.DirectComparator;
@@ -26,10 +32,12 @@ import org.vision.core.db2.common.DB;
 import org.vision.core.db2.common.IRevokingDB;
 import org.vision.core.db2.common.LevelDB;
 import org.vision.core.db2.common.RocksDB;
+import org.vision.core.db2.common.WrappedByteArray;
 import org.vision.core.db2.core.Chainbase;
 import org.vision.core.db2.core.IVisionChainBase;
 import org.vision.core.db2.core.RevokingDBWithCachingOldValue;
 import org.vision.core.db2.core.SnapshotRoot;
+import org.vision.core.db2.core.Speculation;
 import org.vision.core.exception.BadItemException;
 import org.vision.core.exception.ItemNotFoundException;
 
@@ -45,6 +53,12 @@ public abstract class VisionStoreWithRevoking<T extends ProtoCapsule> implements
   @Autowired
   private RevokingDatabase revokingDatabase;
 
+  // decoded values of the head state, null if not enabled for this store
+  @Getter
+  private CapsuleCache cache;
+  // builds the capsule from a cached instance, null to rebuild from the cached bytes
+  private Constructor<T> instanceConstructor;
+
   protected VisionStoreWithRevoking(String dbName) {
     int dbVersion = CommonParameter.getInstance().getStorage().getDbVersion();
     String dbEngine = CommonParameter.getInstance().getStorage().getDbEngine();
@@ -74,6 +88,29 @@ public abstract class VisionStoreWithRevoking<T extends ProtoCapsule> implements
     } else {
       throw new RuntimeException("db version is error.");
     }
+    initCache(dbName);
+  }
+
+  private void initCache(String dbName) {
+    Long size = CommonParameter.getInstance().getStorage().getCapsuleCacheSize().get(dbName);
+    if (size == null || size <= 0 || !(revokingDB instanceof Chainbase)) {
+      return;
+    }
+
+    Class<?> type = token.getRawType();
+    try {
+      Class<?> instanceType = type.getMethod("getInstance").getReturnType();
+      if (instanceType != Object.class) {
+        @SuppressWarnings("unchecked")
+        Constructor<T> constructor = (Constructor<T>) type.getConstructor(instanceType);
+        instanceConstructor = constructor;
+      }
+    } catch (NoSuchMethodException e) {
+      logger.debug("{} has no constructor of its instance, cache the raw bytes", type);
+    }
+
+    cache = new CapsuleCache(dbName, size);
+    ((Chainbase) revokingDB).addListener(cache);
   }
 
   protected org.iq80.leveldb.Options getOptionsByDbNameForLevelDB(String dbName) {
@@ -122,7 +159,19 @@ public abstract class VisionStoreWithRevoking<T extends ProtoCapsule> implements
       return;
     }
 
-    revokingDB.put(key, item.getData());
+    byte[] value = item.getData();
+    revokingDB.put(key, value);
+    if (cache != null && !Speculation.isBuffering() && !ArrayUtils.isEmpty(value)) {
+      cacheDecoded(key, item, value, cache.stamp());
+    }
+  }
+
+  private void cacheDecoded(byte[] key, T item, byte[] value, long stamp) {
+    Object decoded = instanceConstructor == null
+        ? Arrays.copyOf(value, value.length) : item.getInstance();
+    if (decoded != null) {
+      cache.put(key, decoded, stamp);
+    }
   }
 
   @Override
@@ -132,13 +181,125 @@ public abstract class VisionStoreWithRevoking<T extends ProtoCapsule> implements
 
   @Override
   public T get(byte[] key) throws ItemNotFoundException, BadItemException {
+    if (isCacheable()) {
+      Object decoded = cache.get(key);
+      if (decoded != null) {
+        return ofDecoded(decoded);
+      }
+    }
     return of(revokingDB.get(key));
   }
 
   @Override
   public T getUnchecked(byte[] key) {
+    if (isCacheable()) {
+      return getThroughCache(key, false);
+    }
+
+    byte[] value = revokingDB.getUnchecked(key);
+
+    try {
+      return of(value);
+    } catch (BadItemException e) {
+      return null;
+    }
+  }
+
+  /**
+   * The decoded value of the key, reused from the cache on the head state.
+   *
+   * @return null if the key does not exist or its value is empty
+   */
+  protected T getNonEmpty(byte[] key) {
+    if (isCacheable()) {
+      return getThroughCache(key, true);
+    }
+
     byte[] value = revokingDB.getUnchecked(key);
+    return ArrayUtils.isEmpty(value) ? null : ofUnchecked(value);
+  }
+
+  /**
+   * The decoded values of the keys, the keys missing from the cache are read in one batch.
+   *
+   * @return the keys found with a non-empty value
+   */
+  public Map<WrappedByteArray, T> getBatch(Collection<byte[]> keys) {
+    Map<WrappedByteArray, T> result = new HashMap<>();
+    boolean cacheable = isCacheable();
+    long stamp = cacheable ? cache.stamp() : 0;
+    Collection<byte[]> remaining = keys;
+    if (cacheable) {
+      remaining = new ArrayList<>(keys.size());
+      for (byte[] key : keys) {
+        Object decoded = cache.get(key);
+        if (decoded == null) {
+          remaining.add(key);
+          continue;
+        }
+        T item = ofDecoded(decoded);
+        if (item != null) {
+          result.put(WrappedByteArray.of(key), item);
+        }
+      }
+    }
+
+    revokingDB.getBatch(remaining).forEach((key, value) -> {
+      if (ArrayUtils.isEmpty(value)) {
+        return;
+      }
+      T item = ofUnchecked(value);
+      if (item != null) {
+        result.put(key, item);
+        if (cacheable) {
+          cacheDecoded(key.getBytes(), item, value, stamp);
+        }
+      }
+    });
+    return result;
+  }
+
+  // only the head state is cached, solidity and pbft reads go to the db, so do the speculative
+  // reads and writes that must be recorded and kept out of the head
+  private boolean isCacheable() {
+    return cache != null && revokingDB.getCursor() == Chainbase.Cursor.HEAD
+        && !Speculation.isBuffering();
+  }
+
+  private T getThroughCache(byte[] key, boolean nonEmpty) {
+    Object decoded = cache.get(key);
+    if (decoded != null) {
+      return ofDecoded(decoded);
+    }
+
+    long stamp = cache.stamp();
+    byte[] value = revokingDB.getUnchecked(key);
+    if (ArrayUtils.isEmpty(value)) {
+      return nonEmpty ? null : ofUnchecked(value);
+    }
+
+    T item = ofUnchecked(value);
+    if (item != null) {
+      cacheDecoded(key, item, value, stamp);
+    }
+    return item;
+  }
+
+  private T ofDecoded(Object decoded) {
+    try {
+      if (instanceConstructor == null) {
+        byte[] value = (byte[]) decoded;
+        return of(Arrays.copyOf(value, value.length));
+      }
+      return instanceConstructor.newInstance(decoded);
+    } catch (BadItemException | IllegalAccessException | InstantiationException
+        | InvocationTargetException e) {
+      logger.warn("decode cached value of {} failed", cache.getDbName(), e);
+      return null;
+    }
+  }
 
+  private T ofUnchecked(byte[] value) {
     try {
       return of(value);
     } catch (BadItemException e) {
@@ -10,6 +10,21 @@ public class AccountStateCallBackUtils {
   protected volatile boolean execute = false;
   protected volatile boolean allowGenerateRoot = false;
   protected List<TrieEntry> trieEntryList = new ArrayList<>();
+  // entries of the transaction a thread executes speculatively, they wait for its commit
+  private final ThreadLocal<List<TrieEntry>> speculativeEntries = new ThreadLocal<>();
+
+  public void beginSpeculation() {
+    speculativeEntries.set(new ArrayList<>());
+  }
+
+  /**
+   * @return the entries of the speculative transaction, in the order of its account writes
+   */
+  public List<TrieEntry> endSpeculation() {
+    List<TrieEntry> entries = speculativeEntries.get();
+    speculativeEntries.remove();
+    return entries;
+  }
 
   public void accountCallBack(byte[] key, AccountCapsule item) {
     if (!exe()) {
@@ -18,7 +33,8 @@ public class AccountStateCallBackUtils {
     if (item == null) {
       return;
     }
-    trieEntryList
+    List<TrieEntry> entries = speculativeEntries.get();
+    (entries != null ? entries : trieEntryList)
         .add(TrieEntry.build(key, new AccountStateEntity(item.getInstance()).toByteArrays()));
   }
 
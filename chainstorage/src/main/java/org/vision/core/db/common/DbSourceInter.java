@@ -17,8 +17,12 @@
  */
 package org.vision.core.db.common;
 
+import java.util.Collection;
 import java.util.Map;
 import java.util.Set;
+import org.vision.common.storage.WriteBatchWrapper;
+import org.vision.common.storage.WriteOptionsWrapper;
+import org.vision.core.db2.common.WrappedByteArray;
 
 
 public interface DbSourceInter<V> extends BatchSourceInter<byte[], V>,
@@ -42,4 +46,13 @@ public interface DbSourceInter<V> extends BatchSourceInter<byte[], V>,
 
   long getTotal() throws RuntimeException;
 
+  WriteBatchWrapper newWriteBatch();
+
+  void updateByBatch(WriteBatchWrapper batch, WriteOptionsWrapper writeOptions);
+
+  /**
+   * @return the values of the keys found, read in one consistent view.
+   */
+  Map<WrappedByteArray, V> getBatch(Collection<byte[]> keys);
+
 }
@@ -0,0 +1,13 @@
+package org.vision.core.db2.common;
+
+import org.vision.common.storage.WriteBatchWrapper;
+
+/**
+ * A {@link Flusher} that also takes a native write batch, filled without an intermediate map.
+ */
+public interface BatchFlusher extends Flusher {
+
+  WriteBatchWrapper newBatch();
+
+  void flush(WriteBatchWrapper batch);
+}
@@ -1,5 +1,6 @@
 package org.vision.core.db2.common;
 
+import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
@@ -19,6 +20,12 @@ public interface IRevokingDB extends Iterable<Map.Entry<byte[], byte[]>> {
 
   byte[] getUnchecked(byte[] key);
 
+  /**
+   * @return the values of the keys found, the keys missing from the snapshots are read from db
+   *     in one batch.
+   */
+  Map<WrappedByteArray, byte[]> getBatch(Collection<byte[]> keys);
+
   void close();
 
   void reset();
@@ -28,4 +28,11 @@ public final class Key {
 
     return Arrays.copyOf(key, key.length);
   }
+
+  /**
+   * @return the bytes without a copy, for writers that copy them right away
+   */
+  public byte[] getRawBytes() {
+    return data.getBytes();
+  }
 }
@@ -0,0 +1,231 @@
+package org.vision.core.db2.common;
+
+import com.google.common.hash.BloomFilter;
+import com.google.common.hash.Funnels;
+import com.google.common.primitives.Longs;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.vision.common.parameter.CommonParameter;
+import org.vision.common.storage.leveldb.LevelDbDataSourceImpl;
+import org.vision.core.config.args.Storage;
+import org.vision.core.db.common.iterator.DBIterator;
+
+/**
+ * In-memory bloom filter of all keys in a root db, answers "definitely absent" without touching
+ * disk.
+ *
+ * The filter is saved to a sidecar file next to the db on close and loaded on startup. The sidecar
+ * is removed once loaded, so after a crash the filter is rebuilt from the db instead of trusting a
+ * stale one. Written last, it also records the state of the db, the sequence number of its last
+ * write in RocksDB and the names and sizes of its files in LevelDB. A sidecar not matching the db
+ * as it opened, as one left before a run without the filter wrote to it, is rebuilt too.
+ * Deleted keys stay in the filter, they are only dropped by a rebuild.
+ */
+@Slf4j(topic = "DB")
+public class KeyBloomFilter {
+
+  private static final String SIDECAR_SUFFIX = ".bloom";
+
+  private final DB<byte[], byte[]> db;
+  private final Path sidecar;
+  private final double fpp;
+  private volatile long expectedInsertions;
+  private volatile BloomFilter<byte[]> filter;
+
+  // lookups answered absent by the filter
+  @Getter
+  private final LongAdder absent = new LongAdder();
+  // lookups passed by the filter but missing in db
+  @Getter
+  private final LongAdder falsePositive = new LongAdder();
+  @Getter
+  private final LongAdder lookup = new LongAdder();
+
+  private KeyBloomFilter(DB<byte[], byte[]> db, Path dbPath, long expectedInsertions,
+      double fpp) {
+    this.db = db;
+    this.sidecar = Paths.get(dbPath.toString() + SIDECAR_SUFFIX);
+    this.expectedInsertions = expectedInsertions;
+    this.fpp = fpp;
+    if (!load()) {
+      rebuild();
+    }
+  }
+
+  /**
+   * @return the filter of the db if it is enabled in storage.bloomFilter.dbs, otherwise null.
+   */
+  public static KeyBloomFilter of(DB<byte[], byte[]> db) {
+    Storage storage = CommonParameter.getInstance().getStorage();
+    if (storage == null || !storage.getBloomFilterDbs().contains(db.getDbName())) {
+      return null;
+    }
+
+    Path dbPath;
+    if (db instanceof LevelDB) {
+      dbPath = ((LevelDB) db).getDb().getDbPath();
+    } else if (db instanceof RocksDB) {
+      dbPath = ((RocksDB) db).getDb().getDbPath();
+    } else {
+      return null;
+    }
+
+    return new KeyBloomFilter(db, dbPath, storage.getBloomFilterExpectedInsertions(),
+        storage.getBloomFilterFpp());
+  }
+
+  public boolean mightContain(byte[] key) {
+    lookup.increment();
+    if (filter.mightContain(key)) {
+      return true;
+    }
+
+    absent.increment();
+    return false;
+  }
+
+  public void markFalsePositive() {
+    falsePositive.increment();
+  }
+
+  public void put(byte[] key) {
+    filter.put(key);
+  }
+
+  public void putAll(Map<WrappedByteArray, WrappedByteArray> batch) {
+    batch.forEach((k, v) -> {
+      if (v.getBytes() != null) {
+        filter.put(k.getBytes());
+      }
+    });
+  }
+
+  public double expectedFpp() {
+    return filter.expectedFpp();
+  }
+
+  /**
+   * Re-populate the filter from all keys of the db, the capacity grows with the db.
+   * Only at startup, keys written while iterating could be missed.
+   */
+  private void rebuild() {
+    long start = System.currentTimeMillis();
+    long count = fill();
+    if (count > expectedInsertions) {
+      expectedInsertions = count * 2;
+      count = fill();
+    }
+
+    logger.info("rebuild bloom filter of {}, keys: {}, cost: {} ms", db.getDbName(), count,
+        System.currentTimeMillis() - start);
+  }
+
+  private long fill() {
+    BloomFilter<byte[]> bloomFilter = BloomFilter
+        .create(Funnels.byteArrayFunnel(), expectedInsertions, fpp);
+    long count = 0;
+    try (DBIterator iterator = (DBIterator) db.iterator()) {
+      while (iterator.hasNext()) {
+        bloomFilter.put(iterator.next().getKey());
+        count++;
+      }
+    } catch (IOException e) {
+      logger.warn("close iterator of {} failed", db.getDbName(), e);
+    }
+
+    filter = bloomFilter;
+    return count;
+  }
+
+  /**
+   * Empty db, the filter starts over.
+   */
+  public synchronized void reset() {
+    filter = BloomFilter.create(Funnels.byteArrayFunnel(), expectedInsertions, fpp);
+    deleteSidecar();
+  }
+
+  private boolean load() {
+    if (!Files.exists(sidecar)) {
+      return false;
+    }
+
+    try (DataInputStream in = new DataInputStream(
+        new BufferedInputStream(Files.newInputStream(sidecar)))) {
+      BloomFilter<byte[]> loaded = BloomFilter.readFrom(in, Funnels.byteArrayFunnel());
+      byte[] saved = new byte[in.readInt()];
+      in.readFully(saved);
+      if (!Arrays.equals(saved, dbState(true))) {
+        logger.info("bloom filter of {} does not match the db", db.getDbName());
+        return false;
+      }
+      if (loaded.expectedFpp() > fpp * 2) {
+        logger.info("bloom filter of {} is saturated, fpp: {}", db.getDbName(),
+            loaded.expectedFpp());
+        return false;
+      }
+      filter = loaded;
+      return true;
+    } catch (IOException | RuntimeException e) {
+      logger.warn("load bloom filter of {} failed, rebuild it", db.getDbName(), e);
+      return false;
+    } finally {
+      // only a clean close writes it back
+      deleteSidecar();
+    }
+  }
+
+  /**
+   * Save the filter to the sidecar, call it after the last write to the db.
+   */
+  public synchronized void persist() {
+    try (DataOutputStream out = new DataOutputStream(
+        new BufferedOutputStream(Files.newOutputStream(sidecar)))) {
+      filter.writeTo(out);
+      byte[] state = dbState(false);
+      out.writeInt(state.length);
+      out.write(state);
+    } catch (IOException e) {
+      logger.warn("persist bloom filter of {} failed", db.getDbName(), e);
+      deleteSidecar();
+    }
+  }
+
+  /**
+   * @param opened as the db was when it opened, otherwise as it is now
+   * @return what changes with a write to the db: the sequence number of the last one in RocksDB,
+   * the files of the db in LevelDB, which has no such number
+   */
+  private byte[] dbState(boolean opened) {
+    if (db instanceof RocksDB) {
+      return Longs.toByteArray(((RocksDB) db).getDb().getLatestSequenceNumber());
+    }
+    LevelDbDataSourceImpl levelDb = ((LevelDB) db).getDb();
+    return (opened ? levelDb.getFilesBeforeOpen() : levelDb.listFiles())
+        .getBytes(StandardCharsets.UTF_8);
+  }
+
+  private void deleteSidecar() {
+    try {
+      Files.deleteIfExists(sidecar);
+    } catch (IOException e) {
+      logger.warn("delete {} failed", sidecar, e);
+    }
+  }
+
+  public String getDbName() {
+    return db.getDbName();
+  }
+}
@@ -5,11 +5,12 @@ import java.util.HashMap;
 import java.util.Map;
 import lombok.Getter;
 import org.vision.common.parameter.CommonParameter;
+import org.vision.common.storage.WriteBatchWrapper;
 import org.vision.common.storage.WriteOptionsWrapper;
 import org.vision.common.storage.leveldb.LevelDbDataSourceImpl;
 import org.vision.core.db.common.iterator.DBIterator;
 
-public class LevelDB implements DB<byte[], byte[]>, Flusher {
+public class LevelDB implements DB<byte[], byte[]>, BatchFlusher {
 
   @Getter
   private LevelDbDataSourceImpl db;
@@ -63,6 +64,16 @@ public class LevelDB implements DB<byte[], byte[]>, Flusher {
     db.updateByBatch(rows, writeOptions);
   }
 
+  @Override
+  public WriteBatchWrapper newBatch() {
+    return db.newWriteBatch();
+  }
+
+  @Override
+  public void flush(WriteBatchWrapper batch) {
+    db.updateByBatch(batch, writeOptions);
+  }
+
   @Override
   public void close() {
     db.closeDB();
@@ -5,11 +5,12 @@ import java.util.HashMap;
 import java.util.Map;
 import lombok.Getter;
 import org.vision.common.parameter.CommonParameter;
+import org.vision.common.storage.WriteBatchWrapper;
 import org.vision.common.storage.WriteOptionsWrapper;
 import org.vision.common.storage.rocksdb.RocksDbDataSourceImpl;
 import org.vision.core.db.common.iterator.DBIterator;
 
-public class RocksDB implements DB<byte[], byte[]>, Flusher {
+public class RocksDB implements DB<byte[], byte[]>, BatchFlusher {
 
   @Getter
   private RocksDbDataSourceImpl db;
@@ -64,6 +65,16 @@ public class RocksDB implements DB<byte[], byte[]>, Flusher {
     db.updateByBatch(rows, optionsWrapper);
   }
 
+  @Override
+  public WriteBatchWrapper newBatch() {
+    return db.newWriteBatch();
+  }
+
+  @Override
+  public void flush(WriteBatchWrapper batch) {
+    db.updateByBatch(batch, optionsWrapper);
+  }
+
   @Override
   public void close() {
     db.closeDB();
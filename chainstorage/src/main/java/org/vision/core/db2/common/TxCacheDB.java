@@ -1,20 +1,24 @@
 package org.vision.core.db2.common;
 
-import com.google.common.collect.ArrayListMultimap;
-import com.google.common.collect.Iterators;
 import com.google.common.collect.Maps;
-import com.google.common.collect.Multimap;
 import com.google.common.primitives.Longs;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.nio.file.Paths;
-import java.util.Collection;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
-import java.util.Set;
-import java.util.WeakHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 import lombok.extern.slf4j.Slf4j;
 import org.iq80.leveldb.WriteOptions;
 import org.vision.common.parameter.CommonParameter;
+import org.vision.common.storage.WriteBatchWrapper;
 import org.vision.common.storage.leveldb.LevelDbDataSourceImpl;
 import org.vision.common.storage.rocksdb.RocksDbDataSourceImpl;
 import org.vision.common.utils.StorageUtils;
@@ -26,8 +30,12 @@ public class TxCacheDB implements DB<byte[], byte[]>, Flusher {
   // > 65_536(= 2^16) blocks, that is the number of the reference block
   private final int BLOCK_COUNT = 70_000;
 
-  private Map<Key, Long> db = new WeakHashMap<>();
-  private Multimap<Long, Key> blockNumMap = ArrayListMultimap.create();
+  private TxCacheIndex index = new TxCacheIndex(BLOCK_COUNT);
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+  // false until the index is loaded from the persistent store or restored from a snapshot
+  private volatile boolean initialized;
+  // the rows written before, in the persistent store already
+  private final List<Entry<byte[], byte[]>> pending = new ArrayList<>();
   private String name;
 
   // add a persistent storage, the store name is: trans-cache
@@ -61,33 +69,70 @@ public class TxCacheDB implements DB<byte[], byte[]>, Flusher {
     } else {
       throw new RuntimeException("db version is not supported.");
     }
-    // init cache from persistent store
-    init();
+    // init cache from persistent store, unless a snapshot restores it
+    if (!CommonParameter.getInstance().isTxCacheSnapshotEnable()) {
+      initialize();
+    }
+  }
+
+  /**
+   * Load the index from the persistent store, if it is neither loaded nor restored yet.
+   */
+  public void initialize() {
+    if (initialized) {
+      return;
+    }
+    lock.writeLock().lock();
+    try {
+      if (!initialized) {
+        init();
+        pending.clear();
+        initialized = true;
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  public boolean isInitialized() {
+    return initialized;
   }
 
   /**
-   * this method only used for init, put all data in tran-cache into the two maps.
+   * this method only used for init, put all data in tran-cache into the index, the transactions
+   * of the blocks out of the recent ones are deleted from the store.
    */
   private void init() {
+    long start = System.currentTimeMillis();
     DBIterator iterator = (DBIterator) persistentStore.iterator();
-    while (iterator.hasNext()) {
-      Entry<byte[], byte[]> entry = iterator.next();
-      byte[] key = entry.getKey();
-      byte[] value = entry.getValue();
-      if (key == null || value == null) {
-        return;
+    try (WriteBatchWrapper batch = batchFlusher().newBatch()) {
+      while (iterator.hasNext()) {
+        Entry<byte[], byte[]> entry = iterator.next();
+        byte[] key = entry.getKey();
+        byte[] value = entry.getValue();
+        if (key == null || value == null) {
+          break;
+        }
+        if (!index.put(key, Longs.fromByteArray(value), batch::delete)) {
+          batch.delete(key);
+        }
       }
-      Key k = Key.copyOf(key);
-      Long v = Longs.fromByteArray(value);
-      blockNumMap.put(v, k);
-      db.put(k, v);
+      batchFlusher().flush(batch);
+      logger.info("init {}: {} transactions, {} expired, cost {} ms", name, index.size(),
+          batch.size(), System.currentTimeMillis() - start);
     }
   }
 
   @Override
   public byte[] get(byte[] key) {
-    Long v = db.get(Key.of(key));
-    return v == null ? null : Longs.toByteArray(v);
+    initialize();
+    lock.readLock().lock();
+    try {
+      long v = index.get(key);
+      return v < 0 ? null : Longs.toByteArray(v);
+    } finally {
+      lock.readLock().unlock();
+    }
   }
 
   @Override
@@ -96,45 +141,153 @@ public class TxCacheDB implements DB<byte[], byte[]>, Flusher {
       return;
     }
 
-    Key k = Key.copyOf(key);
-    Long v = Longs.fromByteArray(value);
-    blockNumMap.put(v, k);
-    db.put(k, v);
-    // put the data into persistent storage
-    persistentStore.put(key, value);
-    removeEldest();
+    write(Collections.singletonMap(key, value));
+  }
+
+  /**
+   * Put the rows in the index and the persistent store, with the deletes of the transactions of
+   * the blocks they push out, in one write.
+   */
+  private void write(Map<byte[], byte[]> rows) {
+    lock.writeLock().lock();
+    try (WriteBatchWrapper batch = batchFlusher().newBatch()) {
+      if (!initialized) {
+        // the store has them for init, a restored index takes them after the snapshot
+        rows.forEach((k, v) -> {
+          batch.put(k, v);
+          pending.add(Maps.immutableEntry(k, v));
+        });
+        batchFlusher().flush(batch);
+        return;
+      }
+      int expired = putAll(rows.entrySet(), batch);
+      batchFlusher().flush(batch);
+      if (expired > 0) {
+        logger.debug("removeEldest {} transactions, size:{}", expired, index.size());
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * @return the number of the expired transactions deleted in the batch
+   */
+  private int putAll(Iterable<Entry<byte[], byte[]>> rows, WriteBatchWrapper batch) {
+    int expired = 0;
+    for (Entry<byte[], byte[]> row : rows) {
+      int before = batch.size();
+      if (index.put(row.getKey(), Longs.fromByteArray(row.getValue()), batch::delete)) {
+        expired += batch.size() - before;
+        batch.put(row.getKey(), row.getValue());
+      }
+    }
+    return expired;
+  }
+
+  /**
+   * @return the number of the newest block of the index, -1 if it is empty
+   */
+  public long getNewestBlockNum() {
+    initialize();
+    lock.readLock().lock();
+    try {
+      return index.getNewest();
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Write the ids of the index with their block numbers. The table of the index is copied off heap
+   * under the lock and written without it, so the writes of the blocks do not wait for the output.
+   */
+  public void writeSnapshot(DataOutput out) throws IOException {
+    initialize();
+    TxCacheIndex.Entries entries;
+    lock.readLock().lock();
+    try {
+      entries = index.copyEntries();
+    } finally {
+      lock.readLock().unlock();
+    }
+
+    out.writeLong(entries.size());
+    while (entries.next()) {
+      out.writeByte(entries.id().length);
+      out.write(entries.id());
+      out.writeLong(entries.blockNum());
+    }
   }
 
-  private void removeEldest() {
-    Set<Long> keys = blockNumMap.keySet();
-    if (keys.size() > BLOCK_COUNT) {
-      keys.stream()
-          .min(Long::compareTo)
-          .ifPresent(k -> {
-            Collection<Key> trxHashs = blockNumMap.get(k);
-            // remove transaction from persistentStore,
-            // if foreach is inefficient, change remove-foreach to remove-batch
-            trxHashs.forEach(key -> persistentStore.remove(key.getBytes()));
-            blockNumMap.removeAll(k);
-            logger.debug("******removeEldest block number:{}, block count:{}", k, keys.size());
-          });
+  /**
+   * Read an index written by {@link #writeSnapshot}, to {@link #restore} once the snapshot checks
+   * out.
+   */
+  public TxCacheIndex readSnapshot(DataInput in) throws IOException {
+    TxCacheIndex restored = new TxCacheIndex(BLOCK_COUNT);
+    long count = in.readLong();
+    for (long i = 0; i < count; i++) {
+      byte[] id = new byte[in.readUnsignedByte()];
+      in.readFully(id);
+      restored.put(id, in.readLong(), expired -> {
+      });
     }
+    return restored;
+  }
+
+  /**
+   * Take the restored index instead of loading the persistent store, the rows written since the
+   * start go in after it.
+   */
+  public void restore(TxCacheIndex restored) {
+    lock.writeLock().lock();
+    try (WriteBatchWrapper batch = batchFlusher().newBatch()) {
+      if (initialized) {
+        throw new IllegalStateException(name + " is initialized already");
+      }
+      index = restored;
+      putAll(pending, batch);
+      batchFlusher().flush(batch);
+      logger.info("restore {}: {} transactions, {} written since the start", name, index.size(),
+          pending.size());
+      pending.clear();
+      initialized = true;
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  private BatchFlusher batchFlusher() {
+    return (BatchFlusher) persistentStore;
   }
 
   @Override
   public long size() {
-    return db.size();
+    initialize();
+    lock.readLock().lock();
+    try {
+      return index.size();
+    } finally {
+      lock.readLock().unlock();
+    }
   }
 
   @Override
   public boolean isEmpty() {
-    return db.isEmpty();
+    return size() == 0;
   }
 
   @Override
   public void remove(byte[] key) {
     if (key != null) {
-      db.remove(Key.of(key));
+      initialize();
+      lock.writeLock().lock();
+      try {
+        index.remove(key);
+      } finally {
+        lock.writeLock().unlock();
+      }
     }
   }
 
@@ -145,27 +298,42 @@ public class TxCacheDB implements DB<byte[], byte[]>, Flusher {
 
   @Override
   public Iterator<Entry<byte[], byte[]>> iterator() {
-    return Iterators.transform(db.entrySet().iterator(),
-        e -> Maps.immutableEntry(e.getKey().getBytes(), Longs.toByteArray(e.getValue())));
+    initialize();
+    List<Entry<byte[], byte[]>> entries = new ArrayList<>();
+    lock.readLock().lock();
+    try {
+      index.forEach((k, v) -> entries.add(Maps.immutableEntry(k, Longs.toByteArray(v))));
+    } finally {
+      lock.readLock().unlock();
+    }
+    return entries.iterator();
   }
 
   @Override
   public void flush(Map<WrappedByteArray, WrappedByteArray> batch) {
-    batch.forEach((k, v) -> this.put(k.getBytes(), v.getBytes()));
+    Map<byte[], byte[]> rows = new LinkedHashMap<>();
+    batch.forEach((k, v) -> {
+      if (k.getBytes() != null && v.getBytes() != null) {
+        rows.put(k.getBytes(), v.getBytes());
+      }
+    });
+    write(rows);
   }
 
   @Override
   public void close() {
     reset();
-    db = null;
-    blockNumMap = null;
     persistentStore.close();
   }
 
   @Override
   public void reset() {
-    db.clear();
-    blockNumMap.clear();
+    lock.writeLock().lock();
+    try {
+      index.clear();
+    } finally {
+      lock.writeLock().unlock();
+    }
   }
 
   @Override
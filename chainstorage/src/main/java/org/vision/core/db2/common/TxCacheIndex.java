@@ -0,0 +1,398 @@
+package org.vision.core.db2.common;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.ObjLongConsumer;
+
+/**
+ * The block numbers of the transaction ids of the recent blocks. The ids and the numbers are in an
+ * open addressing table of direct buffers, 40 bytes an id, and a ring keeps for each recent block
+ * the slots of its ids, so the oldest block expires without a scan. Ids of another length than a
+ * transaction id are kept on heap. Not thread safe.
+ */
+public class TxCacheIndex {
+
+  private static final int ID_LENGTH = 32;
+  private static final int SLOT_SIZE = ID_LENGTH + Long.BYTES;
+  // 2^20 slots, 40 MiB a segment
+  private static final int SEGMENT_SHIFT = 20;
+  private static final int SEGMENT_SLOTS = 1 << SEGMENT_SHIFT;
+  private static final int INITIAL_SLOTS = 1 << 16;
+  private static final double MAX_LOAD = 0.7;
+  // the number field of a slot is the block number plus 1, so a zeroed slot is empty
+  private static final long EMPTY = 0;
+  private static final long REMOVED = -1;
+
+  private final int blockCount;
+  private ByteBuffer[] segments;
+  private int capacity;
+  private int live;
+  private int removed;
+  private final Map<Key, Long> others = new HashMap<>();
+
+  // the slots of the ids of a block, by its number modulo the block count
+  private final BlockSlots[] ring;
+  private long newest = -1;
+
+  /**
+   * @param blockCount the number of the recent blocks the index keeps
+   */
+  public TxCacheIndex(int blockCount) {
+    this.blockCount = blockCount;
+    this.ring = new BlockSlots[blockCount];
+    allocate(INITIAL_SLOTS);
+  }
+
+  /**
+   * @return the block number of the id, -1 if the index does not have it
+   */
+  public long get(byte[] id) {
+    if (id.length != ID_LENGTH) {
+      Long num = others.get(Key.of(id));
+      return num == null ? -1 : num;
+    }
+    int slot = find(id);
+    return slot < 0 ? -1 : number(slot) - 1;
+  }
+
+  /**
+   * Keep the id for its block. The ids of the blocks the new block pushes out of the recent blocks
+   * go to the expired consumer.
+   *
+   * @return false if the block is not a recent one, the index does not keep the id
+   */
+  public boolean put(byte[] id, long blockNum, Consumer<byte[]> expired) {
+    advance(blockNum, expired);
+    if (blockNum <= newest - blockCount) {
+      return false;
+    }
+
+    if (id.length != ID_LENGTH) {
+      others.put(Key.copyOf(id), blockNum);
+      return true;
+    }
+
+    int slot = find(id);
+    if (slot >= 0) {
+      if (number(slot) - 1 != blockNum) {
+        setNumber(slot, blockNum + 1);
+        slotsOf(blockNum).add(slot);
+      }
+      return true;
+    }
+
+    if (live + removed + 1 > capacity * MAX_LOAD) {
+      // a table with many removed slots is rebuilt at its size
+      resize(live + 1 > capacity * MAX_LOAD / 2 ? capacity * 2 : capacity);
+    }
+    slot = insert(id, blockNum);
+    slotsOf(blockNum).add(slot);
+    return true;
+  }
+
+  public void remove(byte[] id) {
+    if (id.length != ID_LENGTH) {
+      others.remove(Key.of(id));
+      return;
+    }
+    int slot = find(id);
+    if (slot >= 0) {
+      setNumber(slot, REMOVED);
+      live--;
+      removed++;
+    }
+  }
+
+  public long size() {
+    return live + others.size();
+  }
+
+  /**
+   * @return the number of the newest block put, -1 if none
+   */
+  public long getNewest() {
+    return newest;
+  }
+
+  public void forEach(ObjLongConsumer<byte[]> consumer) {
+    for (int slot = 0; slot < capacity; slot++) {
+      long number = number(slot);
+      if (number > 0) {
+        consumer.accept(id(slot), number - 1);
+      }
+    }
+    others.forEach((k, v) -> consumer.accept(k.getBytes(), v));
+  }
+
+  /**
+   * @return the ids with their block numbers as of now, the table copied to new direct buffers
+   */
+  public Entries copyEntries() {
+    ByteBuffer[] copies = new ByteBuffer[segments.length];
+    for (int i = 0; i < segments.length; i++) {
+      copies[i] = ByteBuffer.allocateDirect(segments[i].capacity());
+      copies[i].put(segments[i].duplicate());
+    }
+    return new Entries(copies, capacity, size(), new HashMap<>(others).entrySet().iterator());
+  }
+
+  public void clear() {
+    allocate(INITIAL_SLOTS);
+    others.clear();
+    Arrays.fill(ring, null);
+    newest = -1;
+  }
+
+  private void advance(long blockNum, Consumer<byte[]> expired) {
+    if (blockNum <= newest) {
+      return;
+    }
+    // past the ring once, every block expires
+    long from = Math.max(newest + 1, blockNum - blockCount + 1);
+    for (long num = from; num <= blockNum; num++) {
+      BlockSlots slots = ring[index(num)];
+      if (slots != null && slots.blockNum < num) {
+        expire(slots, expired);
+        ring[index(num)] = null;
+      }
+    }
+    newest = blockNum;
+    others.entrySet().removeIf(e -> {
+      if (e.getValue() <= newest - blockCount) {
+        expired.accept(e.getKey().getBytes());
+        return true;
+      }
+      return false;
+    });
+  }
+
+  private void expire(BlockSlots slots, Consumer<byte[]> expired) {
+    for (int i = 0; i < slots.size; i++) {
+      int slot = slots.slots[i];
+      // the id may have moved to a later block or been removed since
+      if (number(slot) - 1 == slots.blockNum) {
+        expired.accept(id(slot));
+        setNumber(slot, REMOVED);
+        live--;
+        removed++;
+      }
+    }
+  }
+
+  private BlockSlots slotsOf(long blockNum) {
+    int index = index(blockNum);
+    BlockSlots slots = ring[index];
+    if (slots == null || slots.blockNum != blockNum) {
+      slots = new BlockSlots(blockNum);
+      ring[index] = slots;
+    }
+    return slots;
+  }
+
+  private int index(long blockNum) {
+    return (int) (blockNum % blockCount);
+  }
+
+  private int find(byte[] id) {
+    int mask = capacity - 1;
+    for (int slot = hash(id) & mask; ; slot = (slot + 1) & mask) {
+      long number = number(slot);
+      if (number == EMPTY) {
+        return -1;
+      }
+      if (number > 0 && idEquals(slot, id)) {
+        return slot;
+      }
+    }
+  }
+
+  // the caller checked the id is not in the table
+  private int insert(byte[] id, long blockNum) {
+    int mask = capacity - 1;
+    int slot = hash(id) & mask;
+    while (number(slot) > 0) {
+      slot = (slot + 1) & mask;
+    }
+    if (number(slot) == REMOVED) {
+      removed--;
+    }
+    ByteBuffer segment = segments[slot >>> SEGMENT_SHIFT];
+    int offset = (slot & (SEGMENT_SLOTS - 1)) * SLOT_SIZE;
+    for (int i = 0; i < ID_LENGTH; i++) {
+      segment.put(offset + i, id[i]);
+    }
+    segment.putLong(offset + ID_LENGTH, blockNum + 1);
+    live++;
+    return slot;
+  }
+
+  /**
+   * Rebuild the table with the capacity, the ring follows the slots that moved.
+   */
+  private void resize(int newCapacity) {
+    ByteBuffer[] oldSegments = segments;
+    List<BlockSlots> blocks = new ArrayList<>();
+    for (BlockSlots slots : ring) {
+      if (slots != null) {
+        blocks.add(slots);
+      }
+    }
+
+    allocate(newCapacity);
+    byte[] id = new byte[ID_LENGTH];
+    for (BlockSlots slots : blocks) {
+      int kept = 0;
+      for (int i = 0; i < slots.size; i++) {
+        ByteBuffer segment = oldSegments[slots.slots[i] >>> SEGMENT_SHIFT];
+        int offset = (slots.slots[i] & (SEGMENT_SLOTS - 1)) * SLOT_SIZE;
+        if (segment.getLong(offset + ID_LENGTH) - 1 != slots.blockNum) {
+          continue;
+        }
+        for (int j = 0; j < ID_LENGTH; j++) {
+          id[j] = segment.get(offset + j);
+        }
+        // an id back in an earlier block is twice in its slots
+        segment.putLong(offset + ID_LENGTH, REMOVED);
+        slots.slots[kept++] = insert(id, slots.blockNum);
+      }
+      slots.size = kept;
+    }
+  }
+
+  private void allocate(int slots) {
+    int count = Math.max(1, slots >>> SEGMENT_SHIFT);
+    int segmentSlots = Math.min(slots, SEGMENT_SLOTS);
+    segments = new ByteBuffer[count];
+    for (int i = 0; i < count; i++) {
+      segments[i] = ByteBuffer.allocateDirect(segmentSlots * SLOT_SIZE);
+    }
+    capacity = slots;
+    live = 0;
+    removed = 0;
+  }
+
+  private long number(int slot) {
+    ByteBuffer segment = segments[slot >>> SEGMENT_SHIFT];
+    return segment.getLong((slot & (SEGMENT_SLOTS - 1)) * SLOT_SIZE + ID_LENGTH);
+  }
+
+  private void setNumber(int slot, long number) {
+    ByteBuffer segment = segments[slot >>> SEGMENT_SHIFT];
+    segment.putLong((slot & (SEGMENT_SLOTS - 1)) * SLOT_SIZE + ID_LENGTH, number);
+  }
+
+  private byte[] id(int slot) {
+    ByteBuffer segment = segments[slot >>> SEGMENT_SHIFT];
+    int offset = (slot & (SEGMENT_SLOTS - 1)) * SLOT_SIZE;
+    byte[] id = new byte[ID_LENGTH];
+    for (int i = 0; i < ID_LENGTH; i++) {
+      id[i] = segment.get(offset + i);
+    }
+    return id;
+  }
+
+  private boolean idEquals(int slot, byte[] id) {
+    ByteBuffer segment = segments[slot >>> SEGMENT_SHIFT];
+    int offset = (slot & (SEGMENT_SLOTS - 1)) * SLOT_SIZE;
+    for (int i = 0; i < ID_LENGTH; i++) {
+      if (segment.get(offset + i) != id[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  // the ids are hashes already
+  private static int hash(byte[] id) {
+    return (id[0] & 0xFF) << 24 | (id[1] & 0xFF) << 16 | (id[2] & 0xFF) << 8 | (id[3] & 0xFF);
+  }
+
+  /**
+   * A cursor over a copy of the index, the slots of the copied table are read one at a time.
+   */
+  public static class Entries {
+
+    private final ByteBuffer[] segments;
+    private final int capacity;
+    private final long size;
+    private final Iterator<Map.Entry<Key, Long>> others;
+    private final byte[] slotId = new byte[ID_LENGTH];
+    private int slot = -1;
+    private byte[] id;
+    private long blockNum;
+
+    private Entries(ByteBuffer[] segments, int capacity, long size,
+        Iterator<Map.Entry<Key, Long>> others) {
+      this.segments = segments;
+      this.capacity = capacity;
+      this.size = size;
+      this.others = others;
+    }
+
+    public long size() {
+      return size;
+    }
+
+    /**
+     * @return false past the last id
+     */
+    public boolean next() {
+      while (slot + 1 < capacity) {
+        slot++;
+        ByteBuffer segment = segments[slot >>> SEGMENT_SHIFT];
+        int offset = (slot & (SEGMENT_SLOTS - 1)) * SLOT_SIZE;
+        long number = segment.getLong(offset + ID_LENGTH);
+        if (number > 0) {
+          for (int i = 0; i < ID_LENGTH; i++) {
+            slotId[i] = segment.get(offset + i);
+          }
+          id = slotId;
+          blockNum = number - 1;
+          return true;
+        }
+      }
+      if (others.hasNext()) {
+        Map.Entry<Key, Long> other = others.next();
+        id = other.getKey().getBytes();
+        blockNum = other.getValue();
+        return true;
+      }
+      return false;
+    }
+
+    /**
+     * @return the id, its bytes are reused by the next one
+     */
+    public byte[] id() {
+      return id;
+    }
+
+    public long blockNum() {
+      return blockNum;
+    }
+  }
+
+  private static class BlockSlots {
+
+    private final long blockNum;
+    private int[] slots = new int[16];
+    private int size;
+
+    private BlockSlots(long blockNum) {
+      this.blockNum = blockNum;
+    }
+
+    private void add(int slot) {
+      if (size == slots.length) {
+        slots = Arrays.copyOf(slots, size * 2);
+      }
+      slots[size++] = slot;
+    }
+  }
+}
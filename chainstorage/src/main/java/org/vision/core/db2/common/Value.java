@@ -53,6 +53,13 @@ public final class Value {
     return Arrays.copyOf(value, value.length);
   }
 
+  /**
+   * @return the bytes without a copy, for writers that copy them right away
+   */
+  public byte[] getRawBytes() {
+    return data.getBytes();
+  }
+
   public enum Operator {
     CREATE((byte) 0),
     MODIFY((byte) 1),
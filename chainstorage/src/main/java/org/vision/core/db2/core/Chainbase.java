@@ -3,6 +3,7 @@ package org.vision.core.db2.core;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Streams;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -10,11 +11,16 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.stream.Collectors;
 
+import org.vision.common.parameter.CommonParameter;
 import org.vision.common.utils.ByteUtil;
 import org.vision.core.capsule.utils.MarketUtils;
 import org.vision.core.db2.common.IRevokingDB;
+import org.vision.core.db2.common.Key;
 import org.vision.core.db2.common.LevelDB;
 import org.vision.core.db2.common.RocksDB;
 import org.vision.core.db2.common.Value;
@@ -34,12 +40,26 @@ public class Chainbase implements IRevokingDB {
   //true:fullnode, false:soliditynode
   private ThreadLocal<Cursor> cursor = new ThreadLocal<>();
   private ThreadLocal<Long> offset = new ThreadLocal<>();
-  private Snapshot head;
+  private volatile Snapshot head;
+  // merged view of the snapshot layers, only serves the HEAD cursor
+  private SnapshotIndex index;
+  // readers share the head and the index, a write or a head move excludes them
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+  private List<ChainbaseListener> listeners = new CopyOnWriteArrayList<>();
 
   public Chainbase(Snapshot head) {
+    this(head, CommonParameter.getInstance().getStorage() != null
+        && CommonParameter.getInstance().getStorage().isSnapshotIndexEnable());
+  }
+
+  public Chainbase(Snapshot head, boolean indexEnable) {
     this.head = head;
     cursor.set(Cursor.HEAD);
     offset.set(0L);
+    if (indexEnable) {
+      index = new SnapshotIndex();
+      index.rebuild(head);
+    }
   }
 
   public String getDbName() {
@@ -95,41 +115,183 @@ public class Chainbase implements IRevokingDB {
     }
   }
 
-  public synchronized Snapshot getHead() {
-    return head();
+  // the speculation of the current thread, it only covers the head
+  private Speculation speculation() {
+    return getCursor() == Cursor.HEAD ? Speculation.current() : null;
+  }
+
+  private void rangeRead() {
+    Speculation speculation = speculation();
+    if (speculation != null) {
+      speculation.rangeRead();
+    }
   }
 
-  public synchronized void setHead(Snapshot head) {
+  public Snapshot getHead() {
+    lock.readLock().lock();
+    try {
+      return head();
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  public void setHead(Snapshot head) {
+    lock.writeLock().lock();
+    try {
+      moveHead(head);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  private void moveHead(Snapshot head) {
+    Snapshot old = this.head;
     this.head = head;
+    if (old == head || head.getPrevious() == old) {
+      // advance, the new layer is empty
+      return;
+    }
+
+    if (Snapshot.isImpl(old) && old.getPrevious() == head) {
+      if (index != null) {
+        index.retreat(old, head);
+      }
+      notifyRetreat((SnapshotImpl) old, head);
+    } else {
+      if (index != null) {
+        index.rebuild(head);
+      }
+      listeners.forEach(ChainbaseListener::onReset);
+    }
+  }
+
+  public void addListener(ChainbaseListener listener) {
+    listeners.add(listener);
+  }
+
+  /**
+   * A merged layer leaves its values in the previous one, only revoked keys have changed.
+   */
+  private void notifyRetreat(SnapshotImpl from, Snapshot to) {
+    if (listeners.isEmpty()) {
+      return;
+    }
+
+    for (Map.Entry<Key, Value> e : from.db) {
+      if (Snapshot.isImpl(to) && ((SnapshotImpl) to).db.get(e.getKey()) == e.getValue()) {
+        continue;
+      }
+
+      byte[] key = e.getKey().getBytes();
+      listeners.forEach(l -> l.onChange(key));
+    }
+  }
+
+  /**
+   * the oldest snapshots have been merged into root.
+   */
+  public void evict(List<Snapshot> flushed) {
+    if (index == null) {
+      return;
+    }
+
+    lock.writeLock().lock();
+    try {
+      index.evict(flushed);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  public boolean isIndexEnable() {
+    return index != null;
   }
 
   /**
    * close the database.
    */
   @Override
-  public synchronized void close() {
-    head().close();
+  public void close() {
+    lock.writeLock().lock();
+    try {
+      head().close();
+    } finally {
+      lock.writeLock().unlock();
+    }
   }
 
   @Override
-  public synchronized void reset() {
-    head().reset();
-    head().close();
-    head = head.getRoot().newInstance();
+  public void reset() {
+    lock.writeLock().lock();
+    try {
+      head().reset();
+      head().close();
+      head = head.getRoot().newInstance();
+      if (index != null) {
+        index.rebuild(head);
+      }
+      listeners.forEach(ChainbaseListener::onReset);
+    } finally {
+      lock.writeLock().unlock();
+    }
   }
 
   @Override
-  public synchronized void put(byte[] key, byte[] value) {
-    head().put(key, value);
+  public void put(byte[] key, byte[] value) {
+    Speculation speculation = speculation();
+    if (speculation != null) {
+      speculation.put(this, key, value);
+      if (speculation.isBuffered()) {
+        return;
+      }
+    }
+
+    lock.writeLock().lock();
+    try {
+      Snapshot snapshot = head();
+      snapshot.put(key, value);
+      afterWrite(snapshot, key);
+    } finally {
+      lock.writeLock().unlock();
+    }
   }
 
   @Override
-  public synchronized void delete(byte[] key) {
-    head().remove(key);
+  public void delete(byte[] key) {
+    Speculation speculation = speculation();
+    if (speculation != null) {
+      speculation.delete(this, key);
+      if (speculation.isBuffered()) {
+        return;
+      }
+    }
+
+    lock.writeLock().lock();
+    try {
+      Snapshot snapshot = head();
+      snapshot.remove(key);
+      afterWrite(snapshot, key);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  private void afterWrite(Snapshot snapshot, byte[] key) {
+    listeners.forEach(l -> l.onChange(key));
+    if (index == null || !Snapshot.isImpl(snapshot)) {
+      return;
+    }
+
+    if (snapshot == head) {
+      index.put(snapshot, key);
+    } else {
+      index.rebuild(head);
+    }
   }
 
   @Override
-  public synchronized byte[] get(byte[] key) throws ItemNotFoundException {
+  public byte[] get(byte[] key) throws ItemNotFoundException {
     byte[] value = getUnchecked(key);
     if (value == null) {
       throw new ItemNotFoundException();
@@ -139,22 +301,101 @@ public class Chainbase implements IRevokingDB {
   }
 
   @Override
-  public synchronized byte[] getUnchecked(byte[] key) {
-    return head().get(key);
+  public byte[] getUnchecked(byte[] key) {
+    Speculation speculation = speculation();
+    if (speculation != null) {
+      Value written = speculation.get(this, key);
+      if (written != null) {
+        return written.getBytes();
+      }
+    }
+
+    lock.readLock().lock();
+    try {
+      Snapshot snapshot = head();
+      if (index == null || snapshot != head) {
+        return snapshot.get(key);
+      }
+
+      Value value = index.get(key);
+      if (value != null) {
+        return value.getBytes();
+      }
+
+      return snapshot.getRoot().get(key);
+    } finally {
+      lock.readLock().unlock();
+    }
   }
 
   @Override
-  public synchronized boolean has(byte[] key) {
+  public Map<WrappedByteArray, byte[]> getBatch(Collection<byte[]> keys) {
+    Speculation speculation = speculation();
+    if (speculation == null) {
+      return getBatchFromHead(keys);
+    }
+
+    Map<WrappedByteArray, byte[]> written = new HashMap<>();
+    List<byte[]> remaining = new ArrayList<>(keys.size());
+    for (byte[] key : keys) {
+      Value value = speculation.get(this, key);
+      if (value == null) {
+        remaining.add(key);
+      } else if (value.getBytes() != null) {
+        written.put(WrappedByteArray.of(key), value.getBytes());
+      }
+    }
+    if (written.isEmpty()) {
+      return getBatchFromHead(remaining);
+    }
+
+    Map<WrappedByteArray, byte[]> result = new HashMap<>(getBatchFromHead(remaining));
+    result.putAll(written);
+    return result;
+  }
+
+  private Map<WrappedByteArray, byte[]> getBatchFromHead(Collection<byte[]> keys) {
+    lock.readLock().lock();
+    try {
+      Snapshot snapshot = head();
+      if (index == null || snapshot != head) {
+        return snapshot.getBatch(keys);
+      }
+
+      Map<WrappedByteArray, byte[]> result = new HashMap<>();
+      List<byte[]> remaining = new ArrayList<>(keys.size());
+      for (byte[] key : keys) {
+        Value value = index.get(key);
+        if (value == null) {
+          remaining.add(key);
+        } else if (value.getBytes() != null) {
+          result.put(WrappedByteArray.of(key), value.getBytes());
+        }
+      }
+
+      if (!remaining.isEmpty()) {
+        result.putAll(snapshot.getRoot().getBatch(remaining));
+      }
+      return result;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  @Override
+  public boolean has(byte[] key) {
     return getUnchecked(key) != null;
   }
 
   @Override
-  public synchronized Iterator<Map.Entry<byte[], byte[]>> iterator() {
-    return head().iterator();
+  public Iterator<Map.Entry<byte[], byte[]>> iterator() {
+    rangeRead();
+    return getHead().iterator();
   }
 
   @Override
   public Set<byte[]> getValuesNext(byte[] key, long limit) {
+    rangeRead();
     return getValuesNext(head(), key, limit);
   }
 
@@ -196,6 +437,7 @@ public class Chainbase implements IRevokingDB {
 
   @Override
   public List<byte[]> getKeysNext(byte[] key, long limit) {
+    rangeRead();
     return getKeysNext(head(), key, limit);
   }
 
@@ -265,11 +507,17 @@ public class Chainbase implements IRevokingDB {
   // for blockstore
   @Override
   public Set<byte[]> getlatestValues(long limit) {
-    return getlatestValues(head(), limit);
+    rangeRead();
+    lock.readLock().lock();
+    try {
+      return getlatestValues(head(), limit);
+    } finally {
+      lock.readLock().unlock();
+    }
   }
 
   // for blockstore
-  private synchronized Set<byte[]> getlatestValues(Snapshot head, long limit) {
+  private Set<byte[]> getlatestValues(Snapshot head, long limit) {
     if (limit <= 0) {
       return Collections.emptySet();
     }
@@ -299,6 +547,7 @@ public class Chainbase implements IRevokingDB {
   }
   @Override
   public Map<byte[], byte[]> getNext(byte[] key, long limit) {
+    rangeRead();
     return getNext(head(), key, limit);
   }
   private Map<byte[], byte[]> getNext(Snapshot head, byte[] key, long limit) {
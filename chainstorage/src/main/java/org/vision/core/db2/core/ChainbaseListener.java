@@ -0,0 +1,11 @@
+package org.vision.core.db2.core;
+
+/**
+ * Notified when values on the head state of a {@link Chainbase} may have changed.
+ */
+public interface ChainbaseListener {
+
+  void onChange(byte[] key);
+
+  void onReset();
+}
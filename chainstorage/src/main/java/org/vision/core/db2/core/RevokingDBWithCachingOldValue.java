@@ -1,5 +1,6 @@
 package org.vision.core.db2.core;
 
+import java.util.Collection;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -16,6 +17,7 @@ import org.vision.common.utils.StorageUtils;
 import org.vision.core.db.AbstractRevokingStore;
 import org.vision.core.db.RevokingStore;
 import org.vision.core.db2.common.IRevokingDB;
+import org.vision.core.db2.common.WrappedByteArray;
 import org.vision.core.exception.ItemNotFoundException;
 
 @Slf4j
@@ -91,6 +93,13 @@ public class RevokingDBWithCachingOldValue implements IRevokingDB {
     return value;
   }
 
+  @Override
+  public Map<WrappedByteArray, byte[]> getBatch(Collection<byte[]> keys) {
+    Map<WrappedByteArray, byte[]> values = dbSource.getBatch(keys);
+    values.values().removeIf(ArrayUtils::isEmpty);
+    return values;
+  }
+
   @Override
   public byte[] getUnchecked(byte[] key) {
     try {
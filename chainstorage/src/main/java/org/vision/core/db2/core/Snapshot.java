@@ -1,8 +1,10 @@
 package org.vision.core.db2.core;
 
+import java.util.Collection;
 import java.util.Map;
 
 import org.vision.core.db2.common.Instance;
+import org.vision.core.db2.common.WrappedByteArray;
 
 public interface Snapshot extends Iterable<Map.Entry<byte[], byte[]>>, Instance<Snapshot> {
 
@@ -16,6 +18,12 @@ public interface Snapshot extends Iterable<Map.Entry<byte[], byte[]>>, Instance<
 
   byte[] get(byte[] key);
 
+  /**
+   * @return the values of the keys found, the keys not in the layers are read from the root in
+   *     one batch.
+   */
+  Map<WrappedByteArray, byte[]> getBatch(Collection<byte[]> keys);
+
   void put(byte[] key, byte[] value);
 
   void remove(byte[] key);
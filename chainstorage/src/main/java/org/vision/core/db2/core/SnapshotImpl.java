@@ -4,6 +4,8 @@ import com.google.common.base.Preconditions;
 import com.google.common.collect.Iterators;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Streams;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -50,6 +52,31 @@ public class SnapshotImpl extends AbstractSnapshot<Key, Value> {
     return snapshot == null ? null : snapshot.get(key);
   }
 
+  @Override
+  public Map<WrappedByteArray, byte[]> getBatch(Collection<byte[]> keys) {
+    Map<WrappedByteArray, byte[]> result = new HashMap<>();
+    List<byte[]> remaining = new ArrayList<>(keys);
+    Snapshot snapshot = this;
+    while (Snapshot.isImpl(snapshot) && !remaining.isEmpty()) {
+      List<byte[]> next = new ArrayList<>(remaining.size());
+      for (byte[] key : remaining) {
+        Value value = ((SnapshotImpl) snapshot).db.get(Key.of(key));
+        if (value == null) {
+          next.add(key);
+        } else if (value.getBytes() != null) {
+          result.put(WrappedByteArray.of(key), value.getBytes());
+        }
+      }
+      remaining = next;
+      snapshot = snapshot.getPrevious();
+    }
+
+    if (snapshot != null && !remaining.isEmpty()) {
+      result.putAll(snapshot.getBatch(remaining));
+    }
+    return result;
+  }
+
   @Override
   public void put(byte[] key, byte[] value) {
     Preconditions.checkNotNull(key, "key in db is not null.");
@@ -0,0 +1,145 @@
+package org.vision.core.db2.core;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.vision.core.db2.common.Key;
+import org.vision.core.db2.common.Value;
+
+/**
+ * Merged view of all the {@link SnapshotImpl} layers above a {@link SnapshotRoot}.
+ *
+ * For every key written in any layer it keeps a stack of (layer, value), the newest layer on top,
+ * so a read is one hash lookup instead of walking the whole snapshot chain. Keys missing here
+ * only live in the root db.
+ *
+ * Not thread safe, the owner {@link Chainbase} guards it.
+ */
+class SnapshotIndex {
+
+  private final Map<Key, Deque<Entry>> index = new HashMap<>();
+
+  /**
+   * @return the newest value of the key in the layers, the value of a deleted key has null bytes.
+   * null if the key is not in any layer.
+   */
+  Value get(byte[] key) {
+    Deque<Entry> versions = index.get(Key.of(key));
+    return versions == null ? null : versions.peekLast().value;
+  }
+
+  /**
+   * Record a write into the head layer.
+   */
+  void put(Snapshot layer, byte[] key) {
+    Value value = ((SnapshotImpl) layer).db.get(Key.of(key));
+    if (value == null) {
+      return;
+    }
+
+    Key k = Key.copyOf(key);
+    Deque<Entry> versions = index.computeIfAbsent(k, x -> new ArrayDeque<>());
+    Entry top = versions.peekLast();
+    if (top != null && top.layer == layer) {
+      top.value = value;
+    } else {
+      versions.addLast(new Entry(layer, value));
+    }
+  }
+
+  /**
+   * The head layer was dropped, either revoked or merged into its previous one.
+   * Pop its versions and pick up the current values of the previous layer.
+   */
+  void retreat(Snapshot from, Snapshot to) {
+    for (Map.Entry<Key, Value> e : ((SnapshotImpl) from).db) {
+      Key key = e.getKey();
+      Deque<Entry> versions = index.get(key);
+      if (versions != null && versions.peekLast().layer == from) {
+        versions.removeLast();
+      }
+
+      Value value = Snapshot.isImpl(to) ? ((SnapshotImpl) to).db.get(key) : null;
+      if (value != null) {
+        if (versions == null) {
+          versions = new ArrayDeque<>();
+          index.put(key, versions);
+        }
+
+        Entry top = versions.peekLast();
+        if (top != null && top.layer == to) {
+          top.value = value;
+        } else {
+          versions.addLast(new Entry(to, value));
+        }
+      }
+
+      if (versions != null && versions.isEmpty()) {
+        index.remove(key);
+      }
+    }
+  }
+
+  /**
+   * The oldest layers were flushed into root, forget their versions.
+   */
+  void evict(List<Snapshot> flushed) {
+    Set<Snapshot> layers = Collections.newSetFromMap(new IdentityHashMap<>());
+    layers.addAll(flushed);
+    for (Snapshot snapshot : flushed) {
+      for (Map.Entry<Key, Value> e : ((SnapshotImpl) snapshot).db) {
+        Deque<Entry> versions = index.get(e.getKey());
+        if (versions == null) {
+          continue;
+        }
+
+        while (!versions.isEmpty() && layers.contains(versions.peekFirst().layer)) {
+          versions.removeFirst();
+        }
+
+        if (versions.isEmpty()) {
+          index.remove(e.getKey());
+        }
+      }
+    }
+  }
+
+  /**
+   * Replay all layers from the oldest one up to head.
+   */
+  void rebuild(Snapshot head) {
+    index.clear();
+    Snapshot next = head.getRoot().getNext();
+    while (Snapshot.isImpl(next)) {
+      for (Map.Entry<Key, Value> e : ((SnapshotImpl) next).db) {
+        Deque<Entry> versions = index.computeIfAbsent(e.getKey(), x -> new ArrayDeque<>());
+        versions.addLast(new Entry(next, e.getValue()));
+      }
+
+      if (next == head) {
+        break;
+      }
+      next = next.getNext();
+    }
+  }
+
+  int size() {
+    return index.size();
+  }
+
+  private static class Entry {
+
+    private final Snapshot layer;
+    private Value value;
+
+    private Entry(Snapshot layer, Value value) {
+      this.layer = layer;
+      this.value = value;
+    }
+  }
+}
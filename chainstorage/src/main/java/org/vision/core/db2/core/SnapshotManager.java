@@ -3,16 +3,25 @@ package org.vision.core.db2.core;
 import com.google.common.collect.Maps;
 import com.google.common.primitives.Bytes;
 import com.google.common.primitives.Ints;
+import com.google.common.primitives.Longs;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.ListeningExecutorService;
 import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -22,14 +31,16 @@ import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.vision.common.parameter.CommonParameter;
+import org.vision.common.storage.WriteBatchWrapper;
 import org.vision.common.storage.WriteOptionsWrapper;
+import org.vision.common.storage.rocksdb.RocksDbDataSourceImpl;
+import org.vision.common.storage.rocksdb.SharedRocksDb;
+import org.vision.common.utils.StorageUtils;
 import org.vision.core.db.RevokingDatabase;
 import org.vision.core.db2.ISession;
-import org.vision.core.db2.common.DB;
 import org.vision.core.db2.common.IRevokingDB;
 import org.vision.core.db2.common.Key;
 import org.vision.core.db2.common.Value;
-import org.vision.core.db2.common.WrappedByteArray;
 import org.vision.core.exception.RevokingStoreIllegalStateException;
 import org.vision.core.store.CheckTmpStore;
 
@@ -39,6 +50,10 @@ public class SnapshotManager implements RevokingDatabase {
   public static final int DEFAULT_MAX_FLUSH_COUNT = 500;
   public static final int DEFAULT_MIN_FLUSH_COUNT = 1;
   private static final int DEFAULT_STACK_MAX_SIZE = 256;
+  // the second checkpoint db of the async flush, the two dbs take turns
+  public static final String CHECKPOINT_STANDBY_DB = "tmp-standby";
+  // name under which a checkpoint records its generation, it matches no db so replay skips it
+  public static final String CHECKPOINT_GENERATION = "@generation";
   @Getter
   private List<Chainbase> dbs = new ArrayList<>();
   @Getter
@@ -55,7 +70,10 @@ public class SnapshotManager implements RevokingDatabase {
 
   private volatile int flushCount = 0;
 
-  private Map<String, ListeningExecutorService> flushServices = new HashMap<>();
+  // shared by all dbs, a db of many entries is split into shards written in parallel
+  private ListeningExecutorService flushService;
+  private int flushThreads;
+  private int flushShardSize;
 
   @Autowired
   @Setter
@@ -65,7 +83,29 @@ public class SnapshotManager implements RevokingDatabase {
   @Setter
   private volatile int maxFlushCount = DEFAULT_MIN_FLUSH_COUNT;
 
+  @Setter
+  private boolean checkpointAsync;
+  // opened on first use, or at check() if a previous run left it
+  private CheckTmpStore standbyStore;
+  // the checkpoint db holding the latest generation, null for checkTmpStore
+  private CheckTmpStore activeStore;
+  private long generation;
+  private ExecutorService checkpointService;
+  // the async flush in progress, its layers stay linked until it is done
+  private Future<?> pendingFlush;
+  private Map<Chainbase, List<Snapshot>> pendingLayers;
+  private CheckTmpStore pendingStore;
+  private int pendingCount;
+  // layers a sync flush failed to write into the root of a db, still linked and flushed with
+  // the next ones
+  private final Map<Chainbase, Integer> unflushed = new HashMap<>();
+
   public SnapshotManager(String checkpointPath) {
+    checkpointAsync = CommonParameter.getInstance().getStorage().isCheckpointAsync();
+    flushThreads = Math.max(1, CommonParameter.getInstance().getStorage().getFlushThreads());
+    flushShardSize = Math.max(1, CommonParameter.getInstance().getStorage().getFlushShardSize());
+    flushService = MoreExecutors.listeningDecorator(Executors.newFixedThreadPool(flushThreads,
+        new ThreadFactoryBuilder().setNameFormat("snapshot-flush-%d").build()));
   }
 
   public static String simpleDecode(byte[] bytes) {
@@ -113,10 +153,7 @@ public class SnapshotManager implements RevokingDatabase {
 
   @Override
   public void add(IRevokingDB db) {
-    Chainbase revokingDB = (Chainbase) db;
-    dbs.add(revokingDB);
-    flushServices.put(revokingDB.getDbName(),
-        MoreExecutors.listeningDecorator(Executors.newSingleThreadExecutor()));
+    dbs.add((Chainbase) db);
   }
 
   private void advance() {
@@ -223,7 +260,15 @@ public class SnapshotManager implements RevokingDatabase {
   public void shutdown() {
     System.err.println("******** begin to pop revokingDb ********");
     System.err.println("******** before revokingDb size:" + size);
+    finishFlush();
+    if (checkpointService != null) {
+      checkpointService.shutdown();
+    }
+    flushService.shutdown();
     checkTmpStore.close();
+    if (standbyStore != null) {
+      standbyStore.close();
+    }
     System.err.println("******** end to pop revokingDb ********");
   }
 
@@ -239,43 +284,131 @@ public class SnapshotManager implements RevokingDatabase {
     return flushCount >= maxFlushCount;
   }
 
-  private void refresh() {
-    List<ListenableFuture<?>> futures = new ArrayList<>(dbs.size());
+  /**
+   * The oldest flushCount layers of every db, the ones to flush into the roots, plus the layers
+   * a failed flush left linked.
+   */
+  private Map<Chainbase, List<Snapshot>> collectLayers() {
+    Map<Chainbase, List<Snapshot>> layers = new LinkedHashMap<>();
     for (Chainbase db : dbs) {
-      futures.add(flushServices.get(db.getDbName()).submit(() -> refreshOne(db)));
+      if (Snapshot.isRoot(db.getHead())) {
+        continue;
+      }
+
+      int count = flushCount + unflushed.getOrDefault(db, 0);
+      List<Snapshot> snapshots = new ArrayList<>(count);
+      Snapshot next = db.getHead().getRoot();
+      for (int i = 0; i < count; ++i) {
+        next = next.getNext();
+        snapshots.add(next);
+      }
+      layers.put(db, snapshots);
     }
-    Future<?> future = Futures.allAsList(futures);
+    return layers;
+  }
+
+  /**
+   * Unlink the layers written into the roots. The layers of a root that failed stay linked and
+   * go into the next checkpoint, so deleting this one loses nothing.
+   */
+  private void refresh(Map<Chainbase, List<Snapshot>> layers,
+      Map<String, List<WriteBatchWrapper>> batches) {
+    Set<Chainbase> failed;
     try {
-      future.get();
+      failed = flushRoots(layers, batches);
     } catch (InterruptedException e) {
       Thread.currentThread().interrupt();
-    } catch (ExecutionException e) {
-      logger.error(e.getMessage(), e);
+      failed = layers.keySet();
     }
-  }
 
-  private void refreshOne(Chainbase db) {
-    if (Snapshot.isRoot(db.getHead())) {
-      return;
+    for (Map.Entry<Chainbase, List<Snapshot>> e : layers.entrySet()) {
+      Chainbase db = e.getKey();
+      if (failed.contains(db)) {
+        unflushed.put(db, e.getValue().size());
+        continue;
+      }
+
+      SnapshotRoot root = (SnapshotRoot) db.getHead().getRoot();
+      root.resetSolidity();
+      relink(db, root, e.getValue());
+      unflushed.remove(db);
     }
+  }
 
-    List<Snapshot> snapshots = new ArrayList<>();
+  /**
+   * Write every root in the shared flush threads, shard by shard from its batches if it has them,
+   * otherwise by merging its layers. The batches are closed once written. Waits for all the
+   * writes, even after one failed.
+   *
+   * @return the dbs whose root failed to be written
+   */
+  private Set<Chainbase> flushRoots(Map<Chainbase, List<Snapshot>> layers,
+      Map<String, List<WriteBatchWrapper>> batches) throws InterruptedException {
+    Map<Chainbase, List<ListenableFuture<?>>> futures = new LinkedHashMap<>();
+    for (Map.Entry<Chainbase, List<Snapshot>> e : layers.entrySet()) {
+      List<Snapshot> snapshots = e.getValue();
+      if (snapshots.isEmpty()) {
+        continue;
+      }
 
-    SnapshotRoot root = (SnapshotRoot) db.getHead().getRoot();
-    Snapshot next = root;
-    for (int i = 0; i < flushCount; ++i) {
-      next = next.getNext();
-      snapshots.add(next);
+      SnapshotRoot root = (SnapshotRoot) snapshots.get(0).getRoot();
+      List<WriteBatchWrapper> shards = batches.get(e.getKey().getDbName());
+      if (shards != null && shards.isEmpty()) {
+        // written along with the checkpoint
+        continue;
+      }
+      long start = System.currentTimeMillis();
+      List<ListenableFuture<?>> rootFutures = new ArrayList<>();
+      long bytes = 0;
+      if (shards == null) {
+        rootFutures.add(flushService.submit(() -> root.merge(snapshots)));
+      } else {
+        for (WriteBatchWrapper shard : shards) {
+          bytes += shard.dataSize();
+          rootFutures.add(flushService.submit(() -> {
+            try (WriteBatchWrapper batch = shard) {
+              root.flush(batch);
+            }
+          }));
+        }
+      }
+
+      long rootBytes = bytes;
+      Futures.successfulAsList(rootFutures).addListener(() -> root.recordFlush(
+          System.currentTimeMillis() - start, rootBytes), MoreExecutors.directExecutor());
+      futures.put(e.getKey(), rootFutures);
+    }
+
+    Set<Chainbase> failed = new HashSet<>();
+    for (Map.Entry<Chainbase, List<ListenableFuture<?>>> e : futures.entrySet()) {
+      for (ListenableFuture<?> future : e.getValue()) {
+        try {
+          future.get();
+        } catch (ExecutionException ex) {
+          logger.error("flush " + e.getKey().getDbName() + " failed, retry it at the next flush",
+              ex.getCause());
+          failed.add(e.getKey());
+        }
+      }
     }
+    return failed;
+  }
 
-    root.merge(snapshots);
+  /**
+   * Unlink the layers merged into root.
+   */
+  private void relink(Chainbase db, SnapshotRoot root, List<Snapshot> snapshots) {
+    if (snapshots.isEmpty()) {
+      return;
+    }
 
-    root.resetSolidity();
-    if (db.getHead() == next) {
+    Snapshot last = snapshots.get(snapshots.size() - 1);
+    if (db.getHead() == last) {
       db.setHead(root);
     } else {
-      next.getNext().setPrevious(root);
-      root.setNext(next.getNext());
+      last.getNext().setPrevious(root);
+      root.setNext(last.getNext());
+      db.evict(snapshots);
     }
   }
 
@@ -284,12 +417,20 @@ public class SnapshotManager implements RevokingDatabase {
       return;
     }
 
+    if (checkpointAsync) {
+      flushAsync();
+      return;
+    }
+
+    finishFlush();
     if (shouldBeRefreshed()) {
       long start = System.currentTimeMillis();
       deleteCheckpoint();
-      createCheckpoint();
+      Map<Chainbase, List<Snapshot>> layers = collectLayers();
+      Map<String, List<WriteBatchWrapper>> batches =
+          createCheckpoint(checkTmpStore, layers, null);
       long checkPointEnd = System.currentTimeMillis();
-      refresh();
+      refresh(layers, batches);
       flushCount = 0;
       logger.info("flush cost:{}, create checkpoint cost:{}, refresh cost:{}",
           System.currentTimeMillis() - start,
@@ -299,34 +440,95 @@ public class SnapshotManager implements RevokingDatabase {
     }
   }
 
-  private void createCheckpoint() {
-    Map<WrappedByteArray, WrappedByteArray> batch = new HashMap<>();
-    for (Chainbase db : dbs) {
-      Snapshot head = db.getHead();
-      if (Snapshot.isRoot(head)) {
-        return;
-      }
+  /**
+   * One pass over the layers fills both the checkpoint and the batches of the roots, entries go
+   * straight into native batches from the oldest layer to the newest so the newest value wins.
+   * The checkpoint is written here, the root batches are left to {@link #flushRoots}.
+   *
+   * <p>If the checkpoint is a column family of a shared rocksdb, the roots in the same instance
+   * skip the checkpoint and are written with it in one atomic batch, so they need no replay.
+   *
+   * @param generation recorded in the checkpoint, null if it has none
+   * @return the shards of the root batches by db name, roots without native batch are absent
+   *     and the roots written with the checkpoint have none
+   */
+  private Map<String, List<WriteBatchWrapper>> createCheckpoint(CheckTmpStore store,
+      Map<Chainbase, List<Snapshot>> layers, Long generation) {
+    Map<String, List<WriteBatchWrapper>> batches = new HashMap<>();
+    SharedRocksDb shared = getSharedDb(store);
+    Map<SnapshotRoot, WriteBatchWrapper> members = new LinkedHashMap<>();
+    try (WriteBatchWrapper atomic = shared == null ? null : shared.newWriteBatch();
+        WriteBatchWrapper checkpoint = shared == null ? store.getDbSource().newWriteBatch()
+            : ((RocksDbDataSourceImpl) store.getDbSource()).newWriteBatch(atomic)) {
+      for (Map.Entry<Chainbase, List<Snapshot>> e : layers.entrySet()) {
+        List<Snapshot> snapshots = e.getValue();
+        if (snapshots.isEmpty()) {
+          continue;
+        }
 
-      String dbName = db.getDbName();
-      Snapshot next = head.getRoot();
-      for (int i = 0; i < flushCount; ++i) {
-        next = next.getNext();
-        SnapshotImpl snapshot = (SnapshotImpl) next;
-        DB<Key, Value> keyValueDB = snapshot.getDb();
-        for (Map.Entry<Key, Value> e : keyValueDB) {
-          Key k = e.getKey();
-          Value v = e.getValue();
-          batch.put(WrappedByteArray.of(Bytes.concat(simpleEncode(dbName), k.getBytes())),
-              WrappedByteArray.of(v.encode()));
+        String dbName = e.getKey().getDbName();
+        SnapshotRoot root = (SnapshotRoot) snapshots.get(0).getRoot();
+        if (shared != null && root.getSharedDb() == shared) {
+          WriteBatchWrapper batch = root.newBatch(atomic);
+          members.put(root, batch);
+          batches.put(dbName, Collections.emptyList());
+          for (Snapshot snapshot : snapshots) {
+            for (Map.Entry<Key, Value> entry : ((SnapshotImpl) snapshot).getDb()) {
+              root.append(batch, entry.getKey(), entry.getValue());
+            }
+          }
+          continue;
+        }
+
+        List<WriteBatchWrapper> shards = null;
+        if (root.isBatchFlusher()) {
+          long entries = snapshots.stream().mapToLong(x -> ((SnapshotImpl) x).getDb().size())
+              .sum();
+          int count = (int) Math.min(flushThreads, entries / flushShardSize + 1);
+          shards = new ArrayList<>(count);
+          batches.put(dbName, shards);
+          for (int i = 0; i < count; i++) {
+            shards.add(root.newBatch());
+          }
+        }
+
+        byte[] prefix = simpleEncode(dbName);
+        for (Snapshot snapshot : snapshots) {
+          for (Map.Entry<Key, Value> entry : ((SnapshotImpl) snapshot).getDb()) {
+            Key k = entry.getKey();
+            Value v = entry.getValue();
+            checkpoint.put(Bytes.concat(prefix, k.getRawBytes()), v.encode());
+            if (shards != null) {
+              // a key always goes to the same shard, so its newest value still wins
+              root.append(shards.get((k.hashCode() & Integer.MAX_VALUE) % shards.size()), k, v);
+            }
+          }
         }
       }
+
+      if (generation != null) {
+        checkpoint.put(simpleEncode(CHECKPOINT_GENERATION), Longs.toByteArray(generation));
+      }
+      WriteOptionsWrapper options = WriteOptionsWrapper.getInstance()
+          .sync(CommonParameter.getInstance().getStorage().isDbSync());
+      if (shared == null) {
+        store.getDbSource().updateByBatch(checkpoint, options);
+      } else {
+        long start = System.currentTimeMillis();
+        shared.write(atomic, options);
+        long elapsed = System.currentTimeMillis() - start;
+        members.forEach((root, batch) -> root.recordFlush(elapsed, batch.dataSize()));
+      }
+    } catch (RuntimeException e) {
+      batches.values().forEach(shards -> shards.forEach(WriteBatchWrapper::close));
+      throw e;
     }
+    return batches;
+  }
 
-    checkTmpStore.getDbSource().updateByBatch(batch.entrySet().stream()
-            .map(e -> Maps.immutableEntry(e.getKey().getBytes(), e.getValue().getBytes()))
-            .collect(HashMap::new, (m, k) -> m.put(k.getKey(), k.getValue()), HashMap::putAll),
-        WriteOptionsWrapper.getInstance().sync(CommonParameter
-            .getInstance().getStorage().isDbSync()));
+  private static SharedRocksDb getSharedDb(CheckTmpStore store) {
+    return store.getDbSource() instanceof RocksDbDataSourceImpl
+        ? ((RocksDbDataSourceImpl) store.getDbSource()).getSharedDb() : null;
   }
 
   private void deleteCheckpoint() {
@@ -338,6 +540,126 @@ public class SnapshotManager implements RevokingDatabase {
     }
 
     checkTmpStore.getDbSource().updateByBatch(hmap);
+    // left by the async mode, it is older than what checkTmpStore is about to hold
+    if (standbyStore != null) {
+      standbyStore.reset();
+    }
+    activeStore = null;
+    generation = 0;
+  }
+
+  /**
+   * Double-buffered flush: the layers are written to the standby checkpoint db and merged into
+   * the roots in background, then the previous checkpoint db is dropped as a whole. The layers
+   * stay linked until the next flush, so block processing goes on meanwhile.
+   */
+  private void flushAsync() {
+    if (pendingFlush != null && (pendingFlush.isDone() || shouldBeRefreshed())) {
+      finishFlush();
+    }
+
+    if (pendingFlush != null || !shouldBeRefreshed()) {
+      return;
+    }
+
+    Map<Chainbase, List<Snapshot>> layers = collectLayers();
+    CheckTmpStore previous = activeStore == null ? checkTmpStore : activeStore;
+    CheckTmpStore target = previous == checkTmpStore ? getStandbyStore() : checkTmpStore;
+    long nextGeneration = generation + 1;
+    pendingLayers = layers;
+    pendingStore = target;
+    pendingCount = flushCount;
+    pendingFlush = getCheckpointService().submit(() -> {
+      persist(layers, target, previous, nextGeneration);
+      return null;
+    });
+    flushCount = 0;
+  }
+
+  private void persist(Map<Chainbase, List<Snapshot>> layers, CheckTmpStore target,
+      CheckTmpStore previous, long nextGeneration)
+      throws InterruptedException {
+    long start = System.currentTimeMillis();
+    // a crash may have left an older generation in it
+    target.reset();
+    Map<String, List<WriteBatchWrapper>> batches =
+        createCheckpoint(target, layers, nextGeneration);
+    long checkPointEnd = System.currentTimeMillis();
+    if (!flushRoots(layers, batches).isEmpty()) {
+      throw new IllegalStateException("flush roots failed");
+    }
+
+    // the roots hold this generation now, the previous one is no longer needed
+    previous.reset();
+    logger.info("async flush cost:{}, create checkpoint cost:{}, refresh cost:{}",
+        System.currentTimeMillis() - start,
+        checkPointEnd - start,
+        System.currentTimeMillis() - checkPointEnd
+    );
+  }
+
+  /**
+   * Wait for the async flush in progress and unlink its layers. If it failed, the layers are
+   * still linked and are flushed again next time.
+   */
+  private synchronized void finishFlush() {
+    if (pendingFlush == null) {
+      return;
+    }
+
+    try {
+      pendingFlush.get();
+      for (Map.Entry<Chainbase, List<Snapshot>> e : pendingLayers.entrySet()) {
+        List<Snapshot> snapshots = e.getValue();
+        if (snapshots.isEmpty()) {
+          continue;
+        }
+
+        SnapshotRoot root = (SnapshotRoot) snapshots.get(0).getRoot();
+        if (root.getSolidity() == snapshots.get(snapshots.size() - 1)) {
+          root.resetSolidity();
+        }
+        relink(e.getKey(), root, snapshots);
+        unflushed.remove(e.getKey());
+      }
+      activeStore = pendingStore;
+      ++generation;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return;
+    } catch (ExecutionException e) {
+      logger.error("async flush failed, retry it at the next flush", e);
+      flushCount += pendingCount;
+    }
+
+    pendingFlush = null;
+    pendingLayers = null;
+    pendingStore = null;
+  }
+
+  private synchronized CheckTmpStore getStandbyStore() {
+    if (standbyStore == null) {
+      standbyStore = new CheckTmpStore(CHECKPOINT_STANDBY_DB);
+    }
+    return standbyStore;
+  }
+
+  private boolean hasStandbyStore() {
+    return Paths.get(StorageUtils.getOutputDirectoryByDbName(CHECKPOINT_STANDBY_DB),
+        CommonParameter.getInstance().getStorage().getDbDirectory(), CHECKPOINT_STANDBY_DB)
+        .toFile().exists();
+  }
+
+  private synchronized ExecutorService getCheckpointService() {
+    if (checkpointService == null) {
+      checkpointService = Executors.newSingleThreadExecutor();
+    }
+    return checkpointService;
+  }
+
+  private static long getGeneration(CheckTmpStore store) {
+    byte[] value = store.getDbSource().getData(simpleEncode(CHECKPOINT_GENERATION));
+    return value == null ? 0 : Longs.fromByteArray(value);
   }
 
   // ensure run this method first after process start.
@@ -349,12 +671,28 @@ public class SnapshotManager implements RevokingDatabase {
       }
     }
 
-    if (!checkTmpStore.getDbSource().allKeys().isEmpty()) {
+    // replay the older generation first, the newer one overrides it
+    List<CheckTmpStore> checkpoints = new ArrayList<>();
+    checkpoints.add(checkTmpStore);
+    if (checkpointAsync || hasStandbyStore()) {
+      checkpoints.add(getStandbyStore());
+    }
+    checkpoints.sort(Comparator.comparingLong(SnapshotManager::getGeneration));
+
+    boolean advanced = false;
+    for (CheckTmpStore checkpoint : checkpoints) {
+      if (checkpoint.getDbSource().allKeys().isEmpty()) {
+        continue;
+      }
+
+      if (!advanced) {
+        advance();
+        advanced = true;
+      }
       Map<String, Chainbase> dbMap = dbs.stream()
           .map(db -> Maps.immutableEntry(db.getDbName(), db))
           .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
-      advance();
-      for (Map.Entry<byte[], byte[]> e : checkTmpStore.getDbSource()) {
+      for (Map.Entry<byte[], byte[]> e : checkpoint.getDbSource()) {
         byte[] key = e.getKey();
         byte[] value = e.getValue();
         String db = simpleDecode(key);
@@ -371,7 +709,11 @@ public class SnapshotManager implements RevokingDatabase {
         }
 
       }
+      activeStore = checkpoint;
+      generation = getGeneration(checkpoint);
+    }
 
+    if (advanced) {
       dbs.forEach(db -> db.getHead().getRoot().merge(db.getHead()));
       retreat();
     }
@@ -379,7 +721,7 @@ public class SnapshotManager implements RevokingDatabase {
     unChecked = false;
   }
 
-  private byte[] simpleEncode(String s) {
+  private static byte[] simpleEncode(String s) {
     byte[] bytes = s.getBytes();
     byte[] length = Ints.toByteArray(bytes.length);
     byte[] r = new byte[4 + bytes.length];
@@ -2,33 +2,101 @@ package org.vision.core.db2.core;
 
 import com.google.common.collect.Maps;
 import com.google.common.collect.Streams;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.stream.Collectors;
 import lombok.Getter;
+import org.vision.common.storage.WriteBatchWrapper;
+import org.vision.common.storage.rocksdb.SharedRocksDb;
+import org.vision.core.db2.common.BatchFlusher;
 import org.vision.core.db2.common.DB;
 import org.vision.core.db2.common.Flusher;
+import org.vision.core.db2.common.Key;
+import org.vision.core.db2.common.KeyBloomFilter;
+import org.vision.core.db2.common.LevelDB;
+import org.vision.core.db2.common.RocksDB;
+import org.vision.core.db2.common.Value;
 import org.vision.core.db2.common.WrappedByteArray;
 
 public class SnapshotRoot extends AbstractSnapshot<byte[], byte[]> {
 
   @Getter
   private Snapshot solidity;
+  // null if the negative lookup filter is disabled for this db
+  @Getter
+  private KeyBloomFilter filter;
+  // flush statistics, time in ms
+  @Getter
+  private final LongAdder flushTime = new LongAdder();
+  @Getter
+  private final LongAdder flushBytes = new LongAdder();
+  @Getter
+  private volatile long lastFlushTime;
 
   public SnapshotRoot(DB<byte[], byte[]> db) {
     this.db = db;
     solidity = this;
+    filter = KeyBloomFilter.of(db);
   }
 
   @Override
   public byte[] get(byte[] key) {
-    return db.get(key);
+    if (filter != null && !filter.mightContain(key)) {
+      return null;
+    }
+
+    byte[] value = db.get(key);
+    if (value == null && filter != null) {
+      filter.markFalsePositive();
+    }
+    return value;
+  }
+
+  @Override
+  public Map<WrappedByteArray, byte[]> getBatch(Collection<byte[]> keys) {
+    Collection<byte[]> candidates = keys;
+    if (filter != null) {
+      candidates = new ArrayList<>(keys.size());
+      for (byte[] key : keys) {
+        if (filter.mightContain(key)) {
+          candidates.add(key);
+        }
+      }
+    }
+
+    Map<WrappedByteArray, byte[]> values;
+    if (db instanceof RocksDB) {
+      values = ((RocksDB) db).getDb().getBatch(candidates);
+    } else if (db instanceof LevelDB) {
+      values = ((LevelDB) db).getDb().getBatch(candidates);
+    } else {
+      values = new HashMap<>();
+      for (byte[] key : candidates) {
+        byte[] value = db.get(key);
+        if (value != null) {
+          values.put(WrappedByteArray.of(key), value);
+        }
+      }
+    }
+
+    if (filter != null) {
+      for (int i = values.size(); i < candidates.size(); i++) {
+        filter.markFalsePositive();
+      }
+    }
+    return values;
   }
 
   @Override
   public void put(byte[] key, byte[] value) {
+    if (filter != null) {
+      filter.put(key);
+    }
     db.put(key, value);
   }
 
@@ -44,10 +112,22 @@ public class SnapshotRoot extends AbstractSnapshot<byte[], byte[]> {
         .map(e -> Maps.immutableEntry(WrappedByteArray.of(e.getKey().getBytes()),
             WrappedByteArray.of(e.getValue().getBytes())))
         .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
-    ((Flusher) db).flush(batch);
+    flush(batch);
   }
 
   public void merge(List<Snapshot> snapshots) {
+    if (isBatchFlusher()) {
+      try (WriteBatchWrapper batch = newBatch()) {
+        for (Snapshot snapshot : snapshots) {
+          for (Map.Entry<Key, Value> e : ((SnapshotImpl) snapshot).db) {
+            append(batch, e.getKey(), e.getValue());
+          }
+        }
+        flush(batch);
+      }
+      return;
+    }
+
     Map<WrappedByteArray, WrappedByteArray> batch = new HashMap<>();
     for (Snapshot snapshot : snapshots) {
       SnapshotImpl from = (SnapshotImpl) snapshot;
@@ -57,6 +137,67 @@ public class SnapshotRoot extends AbstractSnapshot<byte[], byte[]> {
           .forEach(e -> batch.put(e.getKey(), e.getValue()));
     }
 
+    flush(batch);
+  }
+
+  /**
+   * Whether the db takes a native batch of {@link #newBatch()}.
+   */
+  public boolean isBatchFlusher() {
+    return db instanceof BatchFlusher;
+  }
+
+  public WriteBatchWrapper newBatch() {
+    return ((BatchFlusher) db).newBatch();
+  }
+
+  /**
+   * @return the instance holding the db as a column family, null if it has its own.
+   */
+  public SharedRocksDb getSharedDb() {
+    return db instanceof RocksDB ? ((RocksDB) db).getDb().getSharedDb() : null;
+  }
+
+  /**
+   * A view adding to the db in a batch of {@link #getSharedDb()}.
+   */
+  public WriteBatchWrapper newBatch(WriteBatchWrapper shared) {
+    return ((RocksDB) db).getDb().newWriteBatch(shared);
+  }
+
+  /**
+   * Append an entry of a layer to the batch. Append the layers from the oldest to the newest, a
+   * later entry of a key overrides an earlier one when the batch is written.
+   */
+  public void append(WriteBatchWrapper batch, Key key, Value value) {
+    byte[] bytes = value.getRawBytes();
+    if (bytes == null) {
+      batch.delete(key.getRawBytes());
+      return;
+    }
+
+    // the filter must know the keys before readers can find them in db
+    if (filter != null) {
+      filter.put(key.getRawBytes());
+    }
+    batch.put(key.getRawBytes(), bytes);
+  }
+
+  public void flush(WriteBatchWrapper batch) {
+    ((BatchFlusher) db).flush(batch);
+  }
+
+  public void recordFlush(long time, long bytes) {
+    lastFlushTime = time;
+    flushTime.add(time);
+    flushBytes.add(bytes);
+  }
+
+  private void flush(Map<WrappedByteArray, WrappedByteArray> batch) {
+    // the filter must know the keys before readers can find them in db
+    if (filter != null) {
+      filter.putAll(batch);
+    }
     ((Flusher) db).flush(batch);
   }
 
@@ -77,12 +218,18 @@ public class SnapshotRoot extends AbstractSnapshot<byte[], byte[]> {
 
   @Override
   public void close() {
+    if (filter != null) {
+      filter.persist();
+    }
     ((Flusher) db).close();
   }
 
   @Override
   public void reset() {
     ((Flusher) db).reset();
+    if (filter != null) {
+      filter.reset();
+    }
   }
 
   @Override
@@ -0,0 +1,142 @@
+package org.vision.core.db2.core;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import lombok.Getter;
+import org.vision.core.db2.common.Value;
+import org.vision.core.db2.common.Value.Operator;
+import org.vision.core.db2.common.WrappedByteArray;
+
+/**
+ * The keys a thread reads and writes on the head of the chainbases while it executes one
+ * transaction. A buffered speculation keeps its writes to itself and reads them back, they reach
+ * the chainbases by {@link #commit} once no earlier transaction of the block wrote what it read.
+ * An unbuffered one lets the writes through and records them without its reads, so
+ * {@link #commit} replays them onto a state without them, as the replay of a generated block does.
+ */
+public class Speculation {
+
+  private static final ThreadLocal<Speculation> CURRENT = new ThreadLocal<>();
+
+  @Getter
+  private final boolean buffered;
+  // Chainbase keeps the identity equality, one entry per store
+  private final Map<Chainbase, Set<WrappedByteArray>> reads = new HashMap<>();
+  // the last value of each key, a DELETE for a removal
+  private final Map<Chainbase, Map<WrappedByteArray, Value>> writes = new LinkedHashMap<>();
+  // an iteration or a range read, its keys cannot be checked one by one
+  @Getter
+  private boolean rangeRead;
+
+  private Speculation(boolean buffered) {
+    this.buffered = buffered;
+  }
+
+  /**
+   * Start recording the chainbase accesses of the current thread, until {@link #end}.
+   */
+  public static Speculation begin(boolean buffered) {
+    Speculation speculation = new Speculation(buffered);
+    CURRENT.set(speculation);
+    return speculation;
+  }
+
+  public static Speculation current() {
+    return CURRENT.get();
+  }
+
+  /**
+   * @return true if the current thread writes to its own buffer, caches of the head must not
+   *     serve or keep its values
+   */
+  public static boolean isBuffering() {
+    Speculation speculation = CURRENT.get();
+    return speculation != null && speculation.buffered;
+  }
+
+  public void end() {
+    if (CURRENT.get() == this) {
+      CURRENT.remove();
+    }
+  }
+
+  /**
+   * @return the value this speculation wrote, null to read the key from the chainbase, the read
+   *     is recorded then
+   */
+  Value get(Chainbase db, byte[] key) {
+    if (!buffered) {
+      return null;
+    }
+
+    WrappedByteArray k = WrappedByteArray.of(key);
+    Map<WrappedByteArray, Value> written = writes.get(db);
+    Value value = written == null ? null : written.get(k);
+    if (value == null) {
+      reads.computeIfAbsent(db, d -> new HashSet<>()).add(WrappedByteArray.copyOf(key));
+    }
+    return value;
+  }
+
+  void put(Chainbase db, byte[] key, byte[] value) {
+    writes.computeIfAbsent(db, d -> new LinkedHashMap<>())
+        .put(WrappedByteArray.copyOf(key), Value.copyOf(Operator.PUT, value));
+  }
+
+  void delete(Chainbase db, byte[] key) {
+    writes.computeIfAbsent(db, d -> new LinkedHashMap<>())
+        .put(WrappedByteArray.copyOf(key), Value.of(Operator.DELETE, null));
+  }
+
+  void rangeRead() {
+    rangeRead = true;
+  }
+
+  /**
+   * @param written the keys the earlier transactions wrote, by store
+   * @return true if this speculation may have read a value they changed
+   */
+  public boolean conflicts(Map<Chainbase, Set<WrappedByteArray>> written) {
+    if (rangeRead) {
+      return true;
+    }
+
+    for (Map.Entry<Chainbase, Set<WrappedByteArray>> e : reads.entrySet()) {
+      Set<WrappedByteArray> keys = written.get(e.getKey());
+      if (keys == null) {
+        continue;
+      }
+      for (WrappedByteArray key : e.getValue()) {
+        if (keys.contains(key)) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Add the keys this speculation wrote to the written keys of the block.
+   */
+  public void collectWrites(Map<Chainbase, Set<WrappedByteArray>> written) {
+    writes.forEach((db, values) ->
+        written.computeIfAbsent(db, d -> new HashSet<>()).addAll(values.keySet()));
+  }
+
+  /**
+   * Write the recorded values to the chainbases, from a thread without speculation. The values of
+   * an unbuffered one are already there, they are written again onto a state without them.
+   */
+  public void commit() {
+    writes.forEach((db, values) -> values.forEach((key, value) -> {
+      if (value.getOperator() == Operator.DELETE) {
+        db.delete(key.getBytes());
+      } else {
+        db.put(key.getBytes(), value.getRawBytes());
+      }
+    }));
+  }
+}
@@ -13,6 +13,7 @@ import org.vision.core.capsule.AccountCapsule;
 import org.vision.core.capsule.SpreadRelationShipCapsule;
 import org.vision.core.capsule.WitnessCapsule;
 import org.vision.core.config.Parameter.ChainConstant;
+import org.vision.core.db2.common.WrappedByteArray;
 import org.vision.core.exception.BalanceInsufficientException;
 import org.vision.core.store.*;
 import org.vision.protos.Protocol.Vote;
@@ -362,10 +363,16 @@ public class MortgageService {
 
   private long computeReward(long cycle, AccountCapsule accountCapsule) {
     long reward = 0;
+    List<byte[]> srAddresses = new ArrayList<>();
+    accountCapsule.getVotesList()
+        .forEach(vote -> srAddresses.add(vote.getVoteAddress().toByteArray()));
+    Map<WrappedByteArray, Long> totalRewards = delegationStore.getRewards(cycle, srAddresses);
+    Map<WrappedByteArray, Long> totalVotes =
+        delegationStore.getWitnessVoteWeights(cycle, srAddresses);
     for (Vote vote : accountCapsule.getVotesList()) {
       byte[] srAddress = vote.getVoteAddress().toByteArray();
-      long totalReward = delegationStore.getReward(cycle, srAddress);
-      long totalVote = delegationStore.getWitnessVoteWeight(cycle, srAddress);
+      long totalReward = totalRewards.get(WrappedByteArray.of(srAddress));
+      long totalVote = totalVotes.get(WrappedByteArray.of(srAddress));
       if (totalVote == DelegationStore.REMARK || totalVote == 0) {
         continue;
       }
@@ -18,6 +18,10 @@ public class CheckTmpStore extends VisionDatabase<byte[]> {
     super("tmp");
   }
 
+  public CheckTmpStore(String dbName) {
+    super(dbName);
+  }
+
   @Override
   public void put(byte[] key, byte[] item) {
   }
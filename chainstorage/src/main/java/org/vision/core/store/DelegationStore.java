@@ -1,7 +1,10 @@
 package org.vision.core.store;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.commons.lang3.ArrayUtils;
 import org.spongycastle.util.encoders.Hex;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
@@ -10,6 +13,7 @@ import org.vision.common.utils.ByteArray;
 import org.vision.core.capsule.AccountCapsule;
 import org.vision.core.capsule.BytesCapsule;
 import org.vision.core.db.VisionStoreWithRevoking;
+import org.vision.core.db2.common.WrappedByteArray;
 
 @Slf4j
 @Component
@@ -25,8 +29,7 @@ public class DelegationStore extends VisionStoreWithRevoking<BytesCapsule> {
 
   @Override
   public BytesCapsule get(byte[] key) {
-    byte[] value = revokingDB.getUnchecked(key);
-    return ArrayUtils.isEmpty(value) ? null : new BytesCapsule(value);
+    return getNonEmpty(key);
   }
 
   public void addReward(long cycle, byte[] address, long value) {
@@ -49,6 +52,22 @@ public class DelegationStore extends VisionStoreWithRevoking<BytesCapsule> {
     }
   }
 
+  /**
+   * {@link #getReward} of the witnesses, read in one batch.
+   */
+  public Map<WrappedByteArray, Long> getRewards(long cycle, List<byte[]> addresses) {
+    List<byte[]> keys = new ArrayList<>(addresses.size());
+    addresses.forEach(address -> keys.add(buildRewardKey(cycle, address)));
+    Map<WrappedByteArray, BytesCapsule> values = getBatch(keys);
+    Map<WrappedByteArray, Long> rewards = new HashMap<>();
+    for (int i = 0; i < addresses.size(); i++) {
+      BytesCapsule bytesCapsule = values.get(WrappedByteArray.of(keys.get(i)));
+      rewards.put(WrappedByteArray.of(addresses.get(i)),
+          bytesCapsule == null ? 0L : ByteArray.toLong(bytesCapsule.getData()));
+    }
+    return rewards;
+  }
+
   public void addCyclePledgeRate(long cycle, long value) {
     byte[] key = buildCyclePledgeRateKey(cycle);
     put(key, new BytesCapsule(ByteArray.fromLong(value)));
@@ -150,7 +169,25 @@ public class DelegationStore extends VisionStoreWithRevoking<BytesCapsule> {
   }
 
   public long getWitnessVoteWeight(long cycle, byte[] address) {
-    BytesCapsule bytesCapsule = get(buildVoteWeightKey(cycle, address));
+    return toWitnessVoteWeight(cycle, address, get(buildVoteWeightKey(cycle, address)));
+  }
+
+  /**
+   * {@link #getWitnessVoteWeight} of the witnesses, read in one batch.
+   */
+  public Map<WrappedByteArray, Long> getWitnessVoteWeights(long cycle, List<byte[]> addresses) {
+    List<byte[]> keys = new ArrayList<>(addresses.size());
+    addresses.forEach(address -> keys.add(buildVoteWeightKey(cycle, address)));
+    Map<WrappedByteArray, BytesCapsule> values = getBatch(keys);
+    Map<WrappedByteArray, Long> weights = new HashMap<>();
+    for (int i = 0; i < addresses.size(); i++) {
+      weights.put(WrappedByteArray.of(addresses.get(i)), toWitnessVoteWeight(cycle,
+          addresses.get(i), values.get(WrappedByteArray.of(keys.get(i)))));
+    }
+    return weights;
+  }
+
+  private long toWitnessVoteWeight(long cycle, byte[] address, BytesCapsule bytesCapsule) {
     if (bytesCapsule == null) {
       logger.info("patch voteWeight");
       return getWitnessVote(cycle, address);
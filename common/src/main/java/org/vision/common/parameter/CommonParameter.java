@@ -67,6 +67,9 @@ public class CommonParameter {
   public int longRunningTime = 10;
   @Getter
   @Setter
+  public int codeCacheSize = 64;
+  @Getter
+  @Setter
   @Parameter(names = {"--max-connect-number"})
   public int maxHttpConnectNumber = 50;
   @Getter
@@ -212,6 +215,9 @@ public class CommonParameter {
   public int validateSignThreadNum;
   @Getter
   @Setter
+  public int validateSignCacheSize;
+  @Getter
+  @Setter
   public long maintenanceTimeInterval; // (ms)
   @Getter
   @Setter
@@ -307,6 +313,9 @@ public class CommonParameter {
   public boolean vmTrace;
   @Getter
   @Setter
+  public boolean vmPreDecode;
+  @Getter
+  @Setter
   public boolean needToUpdateAsset;
   @Getter
   @Setter
@@ -354,6 +363,24 @@ public class CommonParameter {
   public int validContractProtoThreadNum;
   @Getter
   @Setter
+  public boolean parallelExecutionEnable;
+  @Getter
+  @Setter
+  public int parallelExecutionThreadNum;
+  @Getter
+  @Setter
+  public String blockAssemblyStrategy;
+  @Getter
+  @Setter
+  public boolean generatedBlockReplayEnable;
+  @Getter
+  @Setter
+  public boolean txCacheSnapshotEnable;
+  @Getter
+  @Setter
+  public int txCacheSnapshotInterval;
+  @Getter
+  @Setter
   public int shieldedTransInPendingMaxCounts;
   @Getter
   @Setter
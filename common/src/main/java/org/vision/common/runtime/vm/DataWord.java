@@ -294,32 +294,15 @@ public class DataWord implements Comparable<DataWord> {
   }
 
   public void negate() {
-    if (this.isZero()) {
-      return;
-    }
-
-    bnot();
-    add(DataWord.ONE());
+    DataWordMath.negate(word(), this.data);
   }
 
   public void bnot() {
-    if (this.isZero()) {
-      this.data = ByteUtil.copyToArray(MAX_VALUE);
-      return;
-    }
-    this.data = ByteUtil.copyToArray(MAX_VALUE.subtract(this.value()));
+    DataWordMath.not(word(), this.data);
   }
 
-  // By   : Holger
-  // From : http://stackoverflow.com/a/24023466/459349
   public void add(DataWord word) {
-    byte[] result = new byte[WORD_SIZE];
-    for (int i = 31, overflow = 0; i >= 0; i--) {
-      int v = (this.data[i] & 0xff) + (word.data[i] & 0xff) + overflow;
-      result[i] = (byte) v;
-      overflow = v >>> 8;
-    }
-    this.data = result;
+    DataWordMath.add(word(), word.word(), this.data);
   }
 
   // old add-method with BigInteger quick hack
@@ -328,94 +311,40 @@ public class DataWord implements Comparable<DataWord> {
     this.data = ByteUtil.copyToArray(result.and(MAX_VALUE));
   }
 
-  // TODO: mul can be done in more efficient way
-  // TODO:     with shift left shift right trick
-  // TODO      without BigInteger quick hack
   public void mul(DataWord word) {
-    BigInteger result = value().multiply(word.value());
-    this.data = ByteUtil.copyToArray(result.and(MAX_VALUE));
+    DataWordMath.mul(word(), word.word(), this.data);
   }
 
-  // TODO: improve with no BigInteger
   public void div(DataWord word) {
-
-    if (word.isZero()) {
-      this.and(ZERO);
-      return;
-    }
-
-    BigInteger result = value().divide(word.value());
-    this.data = ByteUtil.copyToArray(result.and(MAX_VALUE));
+    DataWordMath.div(word(), word.word(), this.data);
   }
 
-  // TODO: improve with no BigInteger
   public void sDiv(DataWord word) {
-
-    if (word.isZero()) {
-      this.and(ZERO);
-      return;
-    }
-
-    BigInteger result = sValue().divide(word.sValue());
-    this.data = ByteUtil.copyToArray(result.and(MAX_VALUE));
+    DataWordMath.sDiv(word(), word.word(), this.data);
   }
 
-  // TODO: improve with no BigInteger
   public void sub(DataWord word) {
-    BigInteger result = value().subtract(word.value());
-    this.data = ByteUtil.copyToArray(result.and(MAX_VALUE));
+    DataWordMath.sub(word(), word.word(), this.data);
   }
 
-  // TODO: improve with no BigInteger
   public void exp(DataWord word) {
-    BigInteger result = value().modPow(word.value(), _2_256);
-    this.data = ByteUtil.copyToArray(result);
+    DataWordMath.exp(word(), word.word(), this.data);
   }
 
-  // TODO: improve with no BigInteger
   public void mod(DataWord word) {
-
-    if (word.isZero()) {
-      this.and(ZERO);
-      return;
-    }
-
-    BigInteger result = value().mod(word.value());
-    this.data = ByteUtil.copyToArray(result.and(MAX_VALUE));
+    DataWordMath.mod(word(), word.word(), this.data);
   }
 
   public void sMod(DataWord word) {
-
-    if (word.isZero()) {
-      this.and(ZERO());
-      return;
-    }
-
-    BigInteger result = sValue().abs().mod(word.sValue().abs());
-    result = (sValue().signum() == -1) ? result.negate() : result;
-
-    this.data = ByteUtil.copyToArray(result.and(MAX_VALUE));
+    DataWordMath.sMod(word(), word.word(), this.data);
   }
 
   public void addmod(DataWord word1, DataWord word2) {
-    if (word2.isZero()) {
-      this.data = new byte[WORD_SIZE];
-      return;
-    }
-
-    BigInteger result = value().add(word1.value()).mod(word2.value());
-    this.data = ByteUtil.copyToArray(result.and(MAX_VALUE));
+    DataWordMath.addMod(word(), word1.word(), word2.word(), this.data);
   }
 
   public void mulmod(DataWord word1, DataWord word2) {
-
-    if (this.isZero() || word1.isZero() || word2.isZero()) {
-      this.data = new byte[WORD_SIZE];
-      return;
-    }
-
-    BigInteger result = value().multiply(word1.value()).mod(word2.value());
-    this.data = ByteUtil.copyToArray(result.and(MAX_VALUE));
+    DataWordMath.mulMod(word(), word1.word(), word2.word(), this.data);
   }
 
   @JsonValue
@@ -483,7 +412,7 @@ public class DataWord implements Comparable<DataWord> {
     if (0 > k || k > 31) {
       throw new IndexOutOfBoundsException();
     }
-    byte mask = this.sValue().testBit((k * 8) + 7) ? (byte) 0xff : 0;
+    byte mask = (this.data[31 - k] & 0x80) != 0 ? (byte) 0xff : 0;
     for (int i = 31; i > k; i--) {
       this.data[31 - i] = mask;
     }
@@ -515,12 +444,13 @@ public class DataWord implements Comparable<DataWord> {
    * @return this << arg
    */
   public DataWord shiftLeft(DataWord arg) {
-    if (arg.value().compareTo(BigInteger.valueOf(MAX_POW)) >= 0) {
+    if (arg.bytesOccupied() > 1) {
       return DataWord.ZERO();
     }
 
-    BigInteger result = value().shiftLeft(arg.intValueSafe());
-    return new DataWord(ByteUtil.copyToArray(result.and(MAX_VALUE)));
+    DataWord result = new DataWord();
+    DataWordMath.shiftLeft(word(), arg.intValue(), result.data);
+    return result;
   }
 
   /**
@@ -529,12 +459,13 @@ public class DataWord implements Comparable<DataWord> {
    * @return this >> arg
    */
   public DataWord shiftRight(DataWord arg) {
-    if (arg.value().compareTo(BigInteger.valueOf(MAX_POW)) >= 0) {
+    if (arg.bytesOccupied() > 1) {
       return DataWord.ZERO();
     }
 
-    BigInteger result = value().shiftRight(arg.intValueSafe());
-    return new DataWord(ByteUtil.copyToArray(result.and(MAX_VALUE)));
+    DataWord result = new DataWord();
+    DataWordMath.shiftRight(word(), arg.intValue(), false, result.data);
+    return result;
   }
 
   /**
@@ -543,7 +474,7 @@ public class DataWord implements Comparable<DataWord> {
    * @return this >> arg
    */
   public DataWord shiftRightSigned(DataWord arg) {
-    if (arg.value().compareTo(BigInteger.valueOf(MAX_POW)) >= 0) {
+    if (arg.bytesOccupied() > 1) {
       if (this.isNegative()) {
         DataWord result = ONE();
         result.negate();
@@ -553,7 +484,18 @@ public class DataWord implements Comparable<DataWord> {
       }
     }
 
-    BigInteger result = sValue().shiftRight(arg.intValueSafe());
-    return new DataWord(ByteUtil.copyToArray(result.and(MAX_VALUE)));
+    DataWord result = new DataWord();
+    DataWordMath.shiftRight(word(), arg.intValue(), true, result.data);
+    return result;
+  }
+
+  /**
+   * The 32 bytes to compute on, in place of the empty data of a word made of null.
+   */
+  private byte[] word() {
+    if (data.length != WORD_SIZE) {
+      data = new byte[WORD_SIZE];
+    }
+    return data;
   }
 }
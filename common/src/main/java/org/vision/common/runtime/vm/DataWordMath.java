@@ -0,0 +1,565 @@
+package org.vision.common.runtime.vm;
+
+import java.util.Arrays;
+
+/**
+ * The 256-bit arithmetic of {@link DataWord} on its 32-byte big-endian words: sums, products and
+ * shifts on four 64-bit limbs, divisions on eight 32-bit digits. The operands are read before the
+ * result is written, so the result may be one of them. The work arrays are kept per thread, so an
+ * operation allocates nothing.
+ */
+final class DataWordMath {
+
+  private static final int WORD_SIZE = 32;
+  private static final int LIMBS = 4;
+  private static final int DIGITS = 8;
+  private static final long DIGIT_MASK = 0xffffffffL;
+
+  private static final ThreadLocal<Scratch> SCRATCH = ThreadLocal.withInitial(Scratch::new);
+
+  private DataWordMath() {
+  }
+
+  static void add(byte[] a, byte[] b, byte[] r) {
+    long a0 = getLimb(a, 0);
+    long a1 = getLimb(a, 1);
+    long a2 = getLimb(a, 2);
+    long a3 = getLimb(a, 3);
+    long b0 = getLimb(b, 0);
+    long b1 = getLimb(b, 1);
+    long b2 = getLimb(b, 2);
+    long b3 = getLimb(b, 3);
+
+    long r0 = a0 + b0;
+    long carry = addCarry(a0, b0, r0);
+    long r1 = a1 + b1 + carry;
+    carry = addCarry(a1, b1, r1);
+    long r2 = a2 + b2 + carry;
+    carry = addCarry(a2, b2, r2);
+    long r3 = a3 + b3 + carry;
+    setLimbs(r, r0, r1, r2, r3);
+  }
+
+  static void sub(byte[] a, byte[] b, byte[] r) {
+    long a0 = getLimb(a, 0);
+    long a1 = getLimb(a, 1);
+    long a2 = getLimb(a, 2);
+    long a3 = getLimb(a, 3);
+    long b0 = getLimb(b, 0);
+    long b1 = getLimb(b, 1);
+    long b2 = getLimb(b, 2);
+    long b3 = getLimb(b, 3);
+
+    long r0 = a0 - b0;
+    long borrow = subBorrow(a0, b0, r0);
+    long r1 = a1 - b1 - borrow;
+    borrow = subBorrow(a1, b1, r1);
+    long r2 = a2 - b2 - borrow;
+    borrow = subBorrow(a2, b2, r2);
+    long r3 = a3 - b3 - borrow;
+    setLimbs(r, r0, r1, r2, r3);
+  }
+
+  static void not(byte[] a, byte[] r) {
+    for (int i = 0; i < WORD_SIZE; i++) {
+      r[i] = (byte) ~a[i];
+    }
+  }
+
+  /**
+   * Two's complement, the word itself for zero.
+   */
+  static void negate(byte[] a, byte[] r) {
+    long r0 = -getLimb(a, 0);
+    long borrow = r0 != 0 ? 1 : 0;
+    long r1 = -getLimb(a, 1) - borrow;
+    borrow |= r1 != 0 ? 1 : 0;
+    long r2 = -getLimb(a, 2) - borrow;
+    borrow |= r2 != 0 ? 1 : 0;
+    long r3 = -getLimb(a, 3) - borrow;
+    setLimbs(r, r0, r1, r2, r3);
+  }
+
+  static void mul(byte[] a, byte[] b, byte[] r) {
+    Scratch scratch = SCRATCH.get();
+    getLimbs(a, scratch.x);
+    getLimbs(b, scratch.y);
+    mul(scratch.x, scratch.y, scratch.x);
+    setLimbs(r, scratch.x);
+  }
+
+  /**
+   * a to the power of e, modulo 2^256.
+   */
+  static void exp(byte[] a, byte[] e, byte[] r) {
+    Scratch scratch = SCRATCH.get();
+    long[] base = scratch.x;
+    long[] result = scratch.y;
+    getLimbs(a, base);
+    result[0] = 1;
+    result[1] = 0;
+    result[2] = 0;
+    result[3] = 0;
+
+    int bits = bitLength(e);
+    for (int i = bits - 1; i >= 0; i--) {
+      mul(result, result, result);
+      if ((e[WORD_SIZE - 1 - (i >>> 3)] & (1 << (i & 7))) != 0) {
+        mul(result, base, result);
+      }
+    }
+    setLimbs(r, result);
+  }
+
+  /**
+   * Unsigned a / b, zero for a zero b.
+   */
+  static void div(byte[] a, byte[] b, byte[] r) {
+    Scratch scratch = SCRATCH.get();
+    int n = getDigits(b, scratch.v, false);
+    if (n == 0) {
+      Arrays.fill(r, (byte) 0);
+      return;
+    }
+    int m = getDigits(a, scratch.u, false);
+    divide(scratch, m, n);
+    setDigits(r, scratch.q, false);
+  }
+
+  /**
+   * Unsigned a % b, zero for a zero b.
+   */
+  static void mod(byte[] a, byte[] b, byte[] r) {
+    Scratch scratch = SCRATCH.get();
+    int n = getDigits(b, scratch.v, false);
+    if (n == 0) {
+      Arrays.fill(r, (byte) 0);
+      return;
+    }
+    int m = getDigits(a, scratch.u, false);
+    divide(scratch, m, n);
+    setDigits(r, scratch.r, false);
+  }
+
+  /**
+   * Signed a / b rounded toward zero, zero for a zero b.
+   */
+  static void sDiv(byte[] a, byte[] b, byte[] r) {
+    Scratch scratch = SCRATCH.get();
+    boolean negativeA = isNegative(a);
+    boolean negativeB = isNegative(b);
+    int n = getDigits(b, scratch.v, negativeB);
+    if (n == 0) {
+      Arrays.fill(r, (byte) 0);
+      return;
+    }
+    int m = getDigits(a, scratch.u, negativeA);
+    divide(scratch, m, n);
+    setDigits(r, scratch.q, negativeA != negativeB);
+  }
+
+  /**
+   * Signed a % b with the sign of a, zero for a zero b.
+   */
+  static void sMod(byte[] a, byte[] b, byte[] r) {
+    Scratch scratch = SCRATCH.get();
+    boolean negativeA = isNegative(a);
+    int n = getDigits(b, scratch.v, isNegative(b));
+    if (n == 0) {
+      Arrays.fill(r, (byte) 0);
+      return;
+    }
+    int m = getDigits(a, scratch.u, negativeA);
+    divide(scratch, m, n);
+    setDigits(r, scratch.r, negativeA);
+  }
+
+  /**
+   * (a + b) % m without the sum wrapping, zero for a zero m.
+   */
+  static void addMod(byte[] a, byte[] b, byte[] m, byte[] r) {
+    Scratch scratch = SCRATCH.get();
+    int n = getDigits(m, scratch.v, false);
+    if (n == 0) {
+      Arrays.fill(r, (byte) 0);
+      return;
+    }
+    int[] u = scratch.u;
+    long carry = 0;
+    for (int i = 0; i < DIGITS; i++) {
+      carry += getDigit(a, i) + getDigit(b, i);
+      u[i] = (int) carry;
+      carry >>>= 32;
+    }
+    u[DIGITS] = (int) carry;
+    divide(scratch, digitCount(u, DIGITS + 1), n);
+    setDigits(r, scratch.r, false);
+  }
+
+  /**
+   * (a * b) % m without the product wrapping, zero for a zero m.
+   */
+  static void mulMod(byte[] a, byte[] b, byte[] m, byte[] r) {
+    Scratch scratch = SCRATCH.get();
+    int n = getDigits(m, scratch.v, false);
+    if (n == 0) {
+      Arrays.fill(r, (byte) 0);
+      return;
+    }
+    int[] x = scratch.x32;
+    int[] y = scratch.y32;
+    getDigits(a, x, false);
+    getDigits(b, y, false);
+    int[] u = scratch.u;
+    Arrays.fill(u, 0, 2 * DIGITS, 0);
+    for (int i = 0; i < DIGITS; i++) {
+      long xi = x[i] & DIGIT_MASK;
+      long carry = 0;
+      for (int j = 0; j < DIGITS; j++) {
+        long t = xi * (y[j] & DIGIT_MASK) + (u[i + j] & DIGIT_MASK) + carry;
+        u[i + j] = (int) t;
+        carry = t >>> 32;
+      }
+      u[i + DIGITS] = (int) carry;
+    }
+    divide(scratch, digitCount(u, 2 * DIGITS), n);
+    setDigits(r, scratch.r, false);
+  }
+
+  /**
+   * a << shift for a shift below 256, into another word.
+   */
+  static void shiftLeft(byte[] a, int shift, byte[] r) {
+    int limbShift = shift >>> 6;
+    int bitShift = shift & 63;
+    for (int i = 0; i < LIMBS; i++) {
+      int from = i - limbShift;
+      long v = from >= 0 ? getLimb(a, from) << bitShift : 0;
+      if (bitShift != 0 && from > 0) {
+        v |= getLimb(a, from - 1) >>> (64 - bitShift);
+      }
+      setLimb(r, i, v);
+    }
+  }
+
+  /**
+   * a >> shift for a shift below 256, into another word, arithmetic if signed.
+   */
+  static void shiftRight(byte[] a, int shift, boolean signed, byte[] r) {
+    long fill = signed && isNegative(a) ? -1L : 0;
+    int limbShift = shift >>> 6;
+    int bitShift = shift & 63;
+    for (int i = 0; i < LIMBS; i++) {
+      int from = i + limbShift;
+      long v = (from < LIMBS ? getLimb(a, from) : fill) >>> bitShift;
+      if (bitShift != 0) {
+        v |= (from + 1 < LIMBS ? getLimb(a, from + 1) : fill) << (64 - bitShift);
+      }
+      setLimb(r, i, v);
+    }
+  }
+
+  static boolean isNegative(byte[] a) {
+    return a[0] < 0;
+  }
+
+  /**
+   * The truncated product of the limbs, r may be a or b.
+   */
+  private static void mul(long[] a, long[] b, long[] r) {
+    long a0 = a[0];
+    long a1 = a[1];
+    long a2 = a[2];
+    long a3 = a[3];
+    long b0 = b[0];
+    long b1 = b[1];
+    long b2 = b[2];
+    long b3 = b[3];
+
+    // a0 * b
+    long r0 = a0 * b0;
+    long carry = multiplyHigh(a0, b0);
+    long lo = a0 * b1;
+    long r1 = lo + carry;
+    carry = multiplyHigh(a0, b1) + addCarry(lo, carry, r1);
+    lo = a0 * b2;
+    long r2 = lo + carry;
+    carry = multiplyHigh(a0, b2) + addCarry(lo, carry, r2);
+    long r3 = a0 * b3 + carry;
+
+    // a1 * b, shifted by one limb
+    lo = a1 * b0;
+    long sum = r1 + lo;
+    carry = multiplyHigh(a1, b0) + addCarry(r1, lo, sum);
+    r1 = sum;
+    lo = a1 * b1;
+    sum = r2 + lo;
+    long high = multiplyHigh(a1, b1) + addCarry(r2, lo, sum);
+    r2 = sum + carry;
+    carry = high + addCarry(sum, carry, r2);
+    r3 += a1 * b2 + carry;
+
+    // a2 * b, shifted by two limbs
+    lo = a2 * b0;
+    sum = r2 + lo;
+    carry = multiplyHigh(a2, b0) + addCarry(r2, lo, sum);
+    r2 = sum;
+    r3 += a2 * b1 + carry;
+
+    // a3 * b, shifted by three limbs
+    r3 += a3 * b0;
+
+    r[0] = r0;
+    r[1] = r1;
+    r[2] = r2;
+    r[3] = r3;
+  }
+
+  /**
+   * The quotient into q and the remainder into r of the m digits of u by the n digits of v, the
+   * top digit of v not zero. Knuth's algorithm D, as of Hacker's Delight divmnu.
+   */
+  private static void divide(Scratch scratch, int m, int n) {
+    int[] u = scratch.u;
+    int[] v = scratch.v;
+    int[] q = scratch.q;
+    int[] r = scratch.r;
+    Arrays.fill(q, 0);
+    Arrays.fill(r, 0);
+
+    if (m < n) {
+      System.arraycopy(u, 0, r, 0, m);
+      return;
+    }
+
+    if (n == 1) {
+      long divisor = v[0] & DIGIT_MASK;
+      long remainder = 0;
+      for (int j = m - 1; j >= 0; j--) {
+        long dividend = (remainder << 32) | (u[j] & DIGIT_MASK);
+        long quotient = divideUnsigned(dividend, divisor);
+        q[j] = (int) quotient;
+        remainder = dividend - quotient * divisor;
+      }
+      r[0] = (int) remainder;
+      return;
+    }
+
+    // normalize, so the top digit of the divisor has its high bit set
+    int s = Integer.numberOfLeadingZeros(v[n - 1]);
+    int[] vn = scratch.vn;
+    int[] un = scratch.un;
+    for (int i = n - 1; i > 0; i--) {
+      vn[i] = shiftDigits(v[i], v[i - 1], s);
+    }
+    vn[0] = v[0] << s;
+    un[m] = s == 0 ? 0 : u[m - 1] >>> (32 - s);
+    for (int i = m - 1; i > 0; i--) {
+      un[i] = shiftDigits(u[i], u[i - 1], s);
+    }
+    un[0] = u[0] << s;
+
+    long vTop = vn[n - 1] & DIGIT_MASK;
+    long vNext = vn[n - 2] & DIGIT_MASK;
+    for (int j = m - n; j >= 0; j--) {
+      // estimate the quotient digit from the top two digits, and correct it by the next one
+      long dividend = ((un[j + n] & DIGIT_MASK) << 32) | (un[j + n - 1] & DIGIT_MASK);
+      long qhat = divideUnsigned(dividend, vTop);
+      long rhat = dividend - qhat * vTop;
+      while (qhat > DIGIT_MASK || Long.compareUnsigned(qhat * vNext,
+          (rhat << 32) | (un[j + n - 2] & DIGIT_MASK)) > 0) {
+        qhat--;
+        rhat += vTop;
+        if (rhat > DIGIT_MASK) {
+          break;
+        }
+      }
+
+      // multiply and subtract
+      long borrow = 0;
+      long t;
+      for (int i = 0; i < n; i++) {
+        long p = qhat * (vn[i] & DIGIT_MASK);
+        t = (un[i + j] & DIGIT_MASK) - borrow - (p & DIGIT_MASK);
+        un[i + j] = (int) t;
+        borrow = (p >>> 32) - (t >> 32);
+      }
+      t = (un[j + n] & DIGIT_MASK) - borrow;
+      un[j + n] = (int) t;
+
+      q[j] = (int) qhat;
+      if (t < 0) {
+        // subtracted too much, add one divisor back
+        q[j]--;
+        long carry = 0;
+        for (int i = 0; i < n; i++) {
+          t = (un[i + j] & DIGIT_MASK) + (vn[i] & DIGIT_MASK) + carry;
+          un[i + j] = (int) t;
+          carry = t >>> 32;
+        }
+        un[j + n] += (int) carry;
+      }
+    }
+
+    // unnormalize the remainder
+    for (int i = 0; i < n - 1; i++) {
+      r[i] = s == 0 ? un[i] : (un[i] >>> s) | (un[i + 1] << (32 - s));
+    }
+    r[n - 1] = un[n - 1] >>> s;
+    if (s != 0) {
+      r[n - 1] |= un[n] << (32 - s);
+    }
+  }
+
+  /**
+   * Unsigned division by a divisor of a digit, as Long.divideUnsigned of Java 8 goes through
+   * BigInteger for a dividend with the high bit set.
+   */
+  private static long divideUnsigned(long dividend, long divisor) {
+    if (dividend >= 0) {
+      return dividend / divisor;
+    }
+    long quotient = ((dividend >>> 1) / divisor) << 1;
+    long remainder = dividend - quotient * divisor;
+    return quotient + (Long.compareUnsigned(remainder, divisor) >= 0 ? 1 : 0);
+  }
+
+  private static int shiftDigits(int high, int low, int s) {
+    return s == 0 ? high : (high << s) | (low >>> (32 - s));
+  }
+
+  private static long addCarry(long a, long b, long sum) {
+    return ((a & b) | ((a | b) & ~sum)) >>> 63;
+  }
+
+  private static long subBorrow(long a, long b, long diff) {
+    return ((~a & b) | (~(a ^ b) & diff)) >>> 63;
+  }
+
+  /**
+   * The high 64 bits of the unsigned 128-bit product.
+   */
+  private static long multiplyHigh(long x, long y) {
+    long x1 = x >>> 32;
+    long x0 = x & DIGIT_MASK;
+    long y1 = y >>> 32;
+    long y0 = y & DIGIT_MASK;
+    long p01 = x0 * y1;
+    long p10 = x1 * y0;
+    long middle = ((x0 * y0) >>> 32) + (p01 & DIGIT_MASK) + (p10 & DIGIT_MASK);
+    return x1 * y1 + (p01 >>> 32) + (p10 >>> 32) + (middle >>> 32);
+  }
+
+  private static int bitLength(byte[] a) {
+    for (int i = 0; i < WORD_SIZE; i++) {
+      if (a[i] != 0) {
+        return (WORD_SIZE - i) * 8 - Integer.numberOfLeadingZeros(a[i] & 0xff) + 24;
+      }
+    }
+    return 0;
+  }
+
+  /**
+   * @param index 0 for the least significant limb
+   */
+  private static long getLimb(byte[] a, int index) {
+    int offset = WORD_SIZE - 8 - (index << 3);
+    long v = 0;
+    for (int i = offset; i < offset + 8; i++) {
+      v = (v << 8) | (a[i] & 0xff);
+    }
+    return v;
+  }
+
+  private static void setLimb(byte[] r, int index, long v) {
+    for (int i = WORD_SIZE - 1 - (index << 3), end = i - 8; i > end; i--) {
+      r[i] = (byte) v;
+      v >>>= 8;
+    }
+  }
+
+  private static void getLimbs(byte[] a, long[] limbs) {
+    for (int i = 0; i < LIMBS; i++) {
+      limbs[i] = getLimb(a, i);
+    }
+  }
+
+  private static void setLimbs(byte[] r, long[] limbs) {
+    setLimbs(r, limbs[0], limbs[1], limbs[2], limbs[3]);
+  }
+
+  private static void setLimbs(byte[] r, long r0, long r1, long r2, long r3) {
+    setLimb(r, 0, r0);
+    setLimb(r, 1, r1);
+    setLimb(r, 2, r2);
+    setLimb(r, 3, r3);
+  }
+
+  private static long getDigit(byte[] a, int index) {
+    int offset = WORD_SIZE - 4 - (index << 2);
+    return ((a[offset] & 0xffL) << 24) | ((a[offset + 1] & 0xff) << 16)
+        | ((a[offset + 2] & 0xff) << 8) | (a[offset + 3] & 0xff);
+  }
+
+  /**
+   * The digits of a, or of its two's complement if negate, least significant first.
+   *
+   * @return the count of digits up to the top one that is not zero
+   */
+  private static int getDigits(byte[] a, int[] digits, boolean negate) {
+    long carry = 1;
+    for (int i = 0; i < DIGITS; i++) {
+      long d = getDigit(a, i);
+      if (negate) {
+        carry += ~d & DIGIT_MASK;
+        d = carry & DIGIT_MASK;
+        carry >>>= 32;
+      }
+      digits[i] = (int) d;
+    }
+    return digitCount(digits, DIGITS);
+  }
+
+  /**
+   * The eight low digits into r, or their two's complement if negate.
+   */
+  private static void setDigits(byte[] r, int[] digits, boolean negate) {
+    long carry = 1;
+    for (int i = 0; i < DIGITS; i++) {
+      long d = digits[i] & DIGIT_MASK;
+      if (negate) {
+        carry += ~d & DIGIT_MASK;
+        d = carry & DIGIT_MASK;
+        carry >>>= 32;
+      }
+      int offset = WORD_SIZE - 4 - (i << 2);
+      r[offset] = (byte) (d >>> 24);
+      r[offset + 1] = (byte) (d >>> 16);
+      r[offset + 2] = (byte) (d >>> 8);
+      r[offset + 3] = (byte) d;
+    }
+  }
+
+  private static int digitCount(int[] digits, int length) {
+    int n = length;
+    while (n > 0 && digits[n - 1] == 0) {
+      n--;
+    }
+    return n;
+  }
+
+  private static class Scratch {
+
+    private final long[] x = new long[LIMBS];
+    private final long[] y = new long[LIMBS];
+    private final int[] x32 = new int[DIGITS];
+    private final int[] y32 = new int[DIGITS];
+    // the dividend of up to a full product, and its normalized copy with one more digit
+    private final int[] u = new int[2 * DIGITS];
+    private final int[] un = new int[2 * DIGITS + 1];
+    private final int[] v = new int[DIGITS];
+    private final int[] vn = new int[DIGITS];
+    private final int[] q = new int[2 * DIGITS];
+    private final int[] r = new int[DIGITS];
+  }
+}
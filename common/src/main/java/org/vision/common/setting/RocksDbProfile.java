@@ -0,0 +1,109 @@
+package org.vision.common.setting;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import lombok.Getter;
+
+/**
+ * Table options of one rocksdb store. A known store starts from the defaults of its access
+ * pattern, any other from the options every store had before profiles. The defaults keep the
+ * table format of an existing store, the hash index is only taken when configured.
+ */
+@Getter
+public class RocksDbProfile {
+
+  // random point reads, the hash index suits them but changes the format of an existing store
+  private static final List<String> POINT_LOOKUP_DBS = Arrays.asList("account", "storage-row",
+      "code", "contract");
+  // written once in key order, read back rarely
+  private static final List<String> APPEND_DBS = Arrays.asList("block", "trans", "block-index",
+      "transactionRetStore", "transactionHistoryStore", "eth-rlp-trans");
+  // read by range scans only
+  private static final List<String> SCAN_DBS = Arrays.asList("section-bloom",
+      "market_pair_price_to_order");
+  // cold bottom levels hold most of the data
+  private static final List<String> TIERED_COMPRESSION = Arrays.asList("no", "no", "lz4", "lz4",
+      "lz4", "zstd", "zstd");
+
+  public static final int POINT_LOOKUP_PREFIX_LENGTH = 32;
+
+  private String name;
+  // portion of blockCacheSize for the block cache of a separate store, 0 for 32 MB
+  private double cacheShare;
+  // 0 for no filter
+  private int bloomBitsPerKey = 10;
+  private boolean wholeKeyFiltering = true;
+  // the filter holds the key prefixes of this length too, 0 for none
+  private int prefixLength;
+  // compression library names by level (no, snappy, z, bzip2, lz4, lz4hc, zstd), the last one
+  // goes for the deeper levels, empty for the engine default
+  private List<String> compressionPerLevel = Collections.emptyList();
+  // hash index on the keys up to POINT_LOOKUP_PREFIX_LENGTH bytes, it takes precedence over the
+  // prefix and the partitioned index
+  private boolean optimizeForPointLookup;
+  private boolean partitionedIndex;
+
+  private RocksDbProfile(String name) {
+    this.name = name;
+  }
+
+  /**
+   * @return a new profile holding the defaults of the store.
+   */
+  public static RocksDbProfile of(String name) {
+    RocksDbProfile profile = new RocksDbProfile(name);
+    if (POINT_LOOKUP_DBS.contains(name)) {
+      profile.withCacheShare(0.125);
+    } else if (APPEND_DBS.contains(name)) {
+      profile.withCacheShare(0.03125).withCompressionPerLevel(TIERED_COMPRESSION)
+          .withPartitionedIndex(true);
+    } else if (SCAN_DBS.contains(name)) {
+      profile.withCacheShare(0.0625).withBloomBitsPerKey(0);
+    }
+    return profile;
+  }
+
+  @Override
+  public String toString() {
+    return String.format("%s: cacheShare: %f, bloomBitsPerKey: %d, wholeKeyFiltering: %s, "
+            + "prefixLength: %d, compressionPerLevel: %s, optimizeForPointLookup: %s, "
+            + "partitionedIndex: %s", name, cacheShare, bloomBitsPerKey, wholeKeyFiltering,
+        prefixLength, compressionPerLevel, optimizeForPointLookup, partitionedIndex);
+  }
+
+  public RocksDbProfile withCacheShare(double cacheShare) {
+    this.cacheShare = cacheShare;
+    return this;
+  }
+
+  public RocksDbProfile withBloomBitsPerKey(int bloomBitsPerKey) {
+    this.bloomBitsPerKey = bloomBitsPerKey;
+    return this;
+  }
+
+  public RocksDbProfile withWholeKeyFiltering(boolean wholeKeyFiltering) {
+    this.wholeKeyFiltering = wholeKeyFiltering;
+    return this;
+  }
+
+  public RocksDbProfile withPrefixLength(int prefixLength) {
+    this.prefixLength = prefixLength;
+    return this;
+  }
+
+  public RocksDbProfile withCompressionPerLevel(List<String> compressionPerLevel) {
+    this.compressionPerLevel = compressionPerLevel;
+    return this;
+  }
+
+  public RocksDbProfile withOptimizeForPointLookup(boolean optimizeForPointLookup) {
+    this.optimizeForPointLookup = optimizeForPointLookup;
+    return this;
+  }
+
+  public RocksDbProfile withPartitionedIndex(boolean partitionedIndex) {
+    this.partitionedIndex = partitionedIndex;
+    return this;
+  }
+}
@@ -1,5 +1,7 @@
 package org.vision.common.setting;
 
+import java.util.HashMap;
+import java.util.Map;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
@@ -31,6 +33,16 @@ public class RocksDbSettings {
   private int targetFileSizeMultiplier;
   @Getter
   private boolean enableStatistics;
+  // all stores of a directory as column families of one instance
+  @Getter
+  private boolean columnFamily;
+  // shared by the column families
+  @Getter
+  private long blockCacheSize;
+  @Getter
+  private long writeBufferSize;
+  // configured profiles by db name, the others have the defaults of RocksDbProfile.of
+  private Map<String, RocksDbProfile> profiles = new HashMap<>();
 
   private RocksDbSettings() {
 
@@ -41,7 +53,8 @@ public class RocksDbSettings {
     return defaultSettings.withLevelNumber(7).withBlockSize(64).withCompactThreads(32)
         .withTargetFileSizeBase(256).withMaxBytesForLevelMultiplier(10)
         .withTargetFileSizeMultiplier(1)
-        .withMaxBytesForLevelBase(256).withMaxOpenFiles(-1).withEnableStatistics(false);
+        .withMaxBytesForLevelBase(256).withMaxOpenFiles(-1).withEnableStatistics(false)
+        .withColumnFamily(false).withBlockCacheSize(1024).withWriteBufferSize(256);
   }
 
   public static RocksDbSettings getSettings() {
@@ -64,23 +77,34 @@ public class RocksDbSettings {
         .withMaxBytesForLevelMultiplier(maxBytesForLevelMultiplier)
         .withLevel0FileNumCompactionTrigger(level0FileNumCompactionTrigger)
         .withTargetFileSizeBase(targetFileSizeBase)
-        .withTargetFileSizeMultiplier(targetFileSizeMultiplier);
+        .withTargetFileSizeMultiplier(targetFileSizeMultiplier)
+        .withColumnFamily(false)
+        .withBlockCacheSize(1024)
+        .withWriteBufferSize(256);
     return rocksDbSettings;
   }
 
+  public RocksDbProfile getProfile(String dbName) {
+    RocksDbProfile profile = profiles.get(dbName);
+    return profile == null ? RocksDbProfile.of(dbName) : profile;
+  }
+
   public static void loggingSettings() {
     logger.info(String.format(
         "level number: %d, CompactThreads: %d, Blocksize: %d, maxBytesForLevelBase: %d,"
             + " withMaxBytesForLevelMultiplier: %f, level0FileNumCompactionTrigger: %d, "
             + "withTargetFileSizeBase: %d, withTargetFileSizeMultiplier: %d, "
-            + "withEnableStatistics: %s",
+            + "withEnableStatistics: %s, columnFamily: %s, blockCacheSize: %d, "
+            + "writeBufferSize: %d",
         rocksDbSettings.getLevelNumber(),
         rocksDbSettings.getCompactThreads(), rocksDbSettings.getBlockSize(),
         rocksDbSettings.getMaxBytesForLevelBase(),
         rocksDbSettings.getMaxBytesForLevelMultiplier(),
         rocksDbSettings.getLevel0FileNumCompactionTrigger(),
         rocksDbSettings.getTargetFileSizeBase(), rocksDbSettings.getTargetFileSizeMultiplier(),
-        rocksDbSettings.isEnableStatistics()));
+        rocksDbSettings.isEnableStatistics(), rocksDbSettings.isColumnFamily(),
+        rocksDbSettings.getBlockCacheSize(), rocksDbSettings.getWriteBufferSize()));
+    rocksDbSettings.profiles.values().forEach(profile -> logger.info("profile {}", profile));
   }
 
   public RocksDbSettings withMaxOpenFiles(int maxOpenFiles) {
@@ -132,4 +156,24 @@ public class RocksDbSettings {
     this.targetFileSizeMultiplier = targetFileSizeMultiplier;
     return this;
   }
+
+  public RocksDbSettings withColumnFamily(boolean columnFamily) {
+    this.columnFamily = columnFamily;
+    return this;
+  }
+
+  public RocksDbSettings withBlockCacheSize(long blockCacheSize) {
+    this.blockCacheSize = blockCacheSize * 1024 * 1024;
+    return this;
+  }
+
+  public RocksDbSettings withWriteBufferSize(long writeBufferSize) {
+    this.writeBufferSize = writeBufferSize * 1024 * 1024;
+    return this;
+  }
+
+  public RocksDbSettings withProfile(RocksDbProfile profile) {
+    profiles.put(profile.getName(), profile);
+    return this;
+  }
 }
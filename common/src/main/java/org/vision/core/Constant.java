@@ -66,6 +66,7 @@ public class Constant {
   public static final String VM_MIN_TIME_RATIO = "vm.minTimeRatio";
   public static final String VM_MAX_TIME_RATIO = "vm.maxTimeRatio";
   public static final String VM_LONG_RUNNING_TIME = "vm.longRunningTime";
+  public static final String VM_CODE_CACHE_SIZE = "vm.codeCacheSize";
   public static final String VM_ESTIMATE_ENTROPY = "vm.estimateEntropy";
 
   public static final String VM_ESTIMATE_ENTROPY_MAX_RETRY = "vm.estimateEntropyMaxRetry";
@@ -151,6 +152,8 @@ public class Constant {
 
   public static final String NODE_VALIDATE_SIGN_THREAD_NUM = "node.validateSignThreadNum";
 
+  public static final String NODE_VALIDATE_SIGN_CACHE_SIZE = "node.validateSignCacheSize";
+
   public static final String NODE_WALLET_EXTENSION_API = "node.walletExtensionApi";
 
   public static final String NODE_CONNECT_FACTOR = "node.connectFactor";
@@ -180,6 +183,7 @@ public class Constant {
   public static final String ENTROPY_LIMIT_BLOCK_NUM = "entropy.limit.block.num";
 
   public static final String VM_TRACE = "vm.vmTrace";
+  public static final String VM_PRE_DECODE = "vm.preDecode";
 
   public static final String VM_SAVE_INTERNAL_TX = "vm.saveInternalTx";
 
@@ -209,6 +213,19 @@ public class Constant {
 
   public static final String NODE_VALID_CONTRACT_PROTO_THREADS = "node.validContractProto.threads";
 
+  public static final String NODE_PARALLEL_EXECUTION_ENABLE = "node.parallelExecution.enable";
+
+  public static final String NODE_PARALLEL_EXECUTION_THREADS = "node.parallelExecution.threads";
+
+  public static final String NODE_BLOCK_ASSEMBLY_STRATEGY = "node.blockAssembly.strategy";
+
+  public static final String NODE_GENERATED_BLOCK_REPLAY_ENABLE =
+      "node.generatedBlockReplay.enable";
+
+  public static final String NODE_TX_CACHE_SNAPSHOT_ENABLE = "node.txCacheSnapshot.enable";
+
+  public static final String NODE_TX_CACHE_SNAPSHOT_INTERVAL = "node.txCacheSnapshot.interval";
+
   public static final String NODE_ACTIVE = "node.active";
 
   public static final String NODE_PASSIVE = "node.passive";
@@ -18,7 +18,11 @@ package org.vision.core.config.args;
 import com.typesafe.config.Config;
 import com.typesafe.config.ConfigObject;
 import java.io.File;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 import lombok.Getter;
 import lombok.Setter;
@@ -50,6 +54,15 @@ public class Storage {
   private static final String INDEX_SWITCH_CONFIG_KEY = "storage.index.switch";
   private static final String TRANSACTIONHISTORY_SWITCH_CONFIG_KEY = "storage.transHistory.switch";
   private static final String PROPERTIES_CONFIG_KEY = "storage.properties";
+  private static final String SNAPSHOT_INDEX_ENABLE_CONFIG_KEY = "storage.snapshot.index.enable";
+  private static final String BLOOM_FILTER_DBS_CONFIG_KEY = "storage.bloomFilter.dbs";
+  private static final String BLOOM_FILTER_EXPECTED_INSERTIONS_CONFIG_KEY =
+      "storage.bloomFilter.expectedInsertions";
+  private static final String BLOOM_FILTER_FPP_CONFIG_KEY = "storage.bloomFilter.fpp";
+  private static final String CAPSULE_CACHE_CONFIG_KEY = "storage.capsuleCache";
+  private static final String CHECKPOINT_ASYNC_CONFIG_KEY = "storage.checkpoint.async";
+  private static final String FLUSH_THREADS_CONFIG_KEY = "storage.flush.threads";
+  private static final String FLUSH_SHARD_SIZE_CONFIG_KEY = "storage.flush.shardSize";
   private static final String DEFAULT_TRANSACTIONHISTORY_SWITCH = "on";
 
   private static final String NAME_CONFIG_KEY = "name";
@@ -74,6 +87,11 @@ public class Storage {
   private static final String DEFAULT_DB_DIRECTORY = "database";
   private static final String DEFAULT_INDEX_DIRECTORY = "index";
   private static final String DEFAULT_INDEX_SWITCH = "on";
+  private static final boolean DEFAULT_SNAPSHOT_INDEX_ENABLE = false;
+  private static final long DEFAULT_BLOOM_FILTER_EXPECTED_INSERTIONS = 5_000_000L;
+  private static final double DEFAULT_BLOOM_FILTER_FPP = 0.01;
+  private static final boolean DEFAULT_CHECKPOINT_ASYNC = false;
+  private static final int DEFAULT_FLUSH_SHARD_SIZE = 100_000;
 
   /**
    * Database storage directory: /path/to/{dbDirectory}
@@ -113,6 +131,56 @@ public class Storage {
   @Setter
   private String transactionHistorySwitch;
 
+  /**
+   * Read the snapshot layers through one merged index instead of walking them one by one
+   */
+  @Getter
+  @Setter
+  private boolean snapshotIndexEnable;
+
+  /**
+   * Databases whose misses are answered by an in-memory bloom filter
+   */
+  @Getter
+  @Setter
+  private Set<String> bloomFilterDbs = Collections.emptySet();
+
+  @Getter
+  @Setter
+  private long bloomFilterExpectedInsertions = DEFAULT_BLOOM_FILTER_EXPECTED_INSERTIONS;
+
+  @Getter
+  @Setter
+  private double bloomFilterFpp = DEFAULT_BLOOM_FILTER_FPP;
+
+  /**
+   * Key: dbName, Value: max decoded values cached for that database
+   */
+  @Getter
+  @Setter
+  private Map<String, Long> capsuleCacheSize = Collections.emptyMap();
+
+  /**
+   * Write the checkpoint and flush the snapshots in background, alternating two checkpoint dbs
+   */
+  @Getter
+  @Setter
+  private boolean checkpointAsync;
+
+  /**
+   * Threads shared by all databases to write the flushed snapshots
+   */
+  @Getter
+  @Setter
+  private int flushThreads = Runtime.getRuntime().availableProcessors();
+
+  /**
+   * Entries of a database per shard, by key hash, the shards of one flush are written in parallel
+   */
+  @Getter
+  @Setter
+  private int flushShardSize = DEFAULT_FLUSH_SHARD_SIZE;
+
   /**
    * Key: dbName, Value: Property object of that database
    */
@@ -162,6 +230,61 @@ public class Storage {
         : DEFAULT_TRANSACTIONHISTORY_SWITCH;
   }
 
+  public static boolean getSnapshotIndexEnableFromConfig(final Config config) {
+    return config.hasPath(SNAPSHOT_INDEX_ENABLE_CONFIG_KEY)
+        ? config.getBoolean(SNAPSHOT_INDEX_ENABLE_CONFIG_KEY) : DEFAULT_SNAPSHOT_INDEX_ENABLE;
+  }
+
+  public static boolean getCheckpointAsyncFromConfig(final Config config) {
+    return config.hasPath(CHECKPOINT_ASYNC_CONFIG_KEY)
+        ? config.getBoolean(CHECKPOINT_ASYNC_CONFIG_KEY) : DEFAULT_CHECKPOINT_ASYNC;
+  }
+
+  public static int getFlushThreadsFromConfig(final Config config) {
+    return config.hasPath(FLUSH_THREADS_CONFIG_KEY)
+        ? config.getInt(FLUSH_THREADS_CONFIG_KEY) : Runtime.getRuntime().availableProcessors();
+  }
+
+  public static int getFlushShardSizeFromConfig(final Config config) {
+    return config.hasPath(FLUSH_SHARD_SIZE_CONFIG_KEY)
+        ? config.getInt(FLUSH_SHARD_SIZE_CONFIG_KEY) : DEFAULT_FLUSH_SHARD_SIZE;
+  }
+
+  public static Set<String> getBloomFilterDbsFromConfig(final Config config) {
+    return config.hasPath(BLOOM_FILTER_DBS_CONFIG_KEY)
+        ? new HashSet<>(config.getStringList(BLOOM_FILTER_DBS_CONFIG_KEY))
+        : Collections.emptySet();
+  }
+
+  public static long getBloomFilterExpectedInsertionsFromConfig(final Config config) {
+    return config.hasPath(BLOOM_FILTER_EXPECTED_INSERTIONS_CONFIG_KEY)
+        ? config.getLong(BLOOM_FILTER_EXPECTED_INSERTIONS_CONFIG_KEY)
+        : DEFAULT_BLOOM_FILTER_EXPECTED_INSERTIONS;
+  }
+
+  public static double getBloomFilterFppFromConfig(final Config config) {
+    return config.hasPath(BLOOM_FILTER_FPP_CONFIG_KEY)
+        ? config.getDouble(BLOOM_FILTER_FPP_CONFIG_KEY) : DEFAULT_BLOOM_FILTER_FPP;
+  }
+
+  public static Map<String, Long> getCapsuleCacheSizeFromConfig(final Config config) {
+    if (!config.hasPath(CAPSULE_CACHE_CONFIG_KEY)) {
+      return Collections.emptyMap();
+    }
+
+    ConfigObject conf = config.getObject(CAPSULE_CACHE_CONFIG_KEY);
+    Map<String, Long> sizes = new HashMap<>();
+    for (String dbName : conf.keySet()) {
+      try {
+        sizes.put(dbName, Long.parseLong(conf.get(dbName).unwrapped().toString()));
+      } catch (NumberFormatException e) {
+        throw new IllegalArgumentException(
+            "[storage.capsuleCache] size of " + dbName + " must be Long type.");
+      }
+    }
+    return sizes;
+  }
+
   private static Property createProperty(final ConfigObject conf) {
 
     Property property = new Property();
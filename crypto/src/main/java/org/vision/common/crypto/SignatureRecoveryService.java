@@ -0,0 +1,245 @@
+package org.vision.common.crypto;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.security.SignatureException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import lombok.extern.slf4j.Slf4j;
+import org.vision.common.parameter.CommonParameter;
+
+/**
+ * Recovers the signer addresses of the signatures, for the transaction validation, the block
+ * pre-validation and the signature precompiles alike. The address is kept by message hash and
+ * signature, so a transaction validated when it arrives, when it is packed and when its block is
+ * applied recovers once. The batches run in chunks on a bounded pool, a full pool runs the chunk
+ * on the caller. A chunk checks the deadline of its batch before each item, wherever it runs.
+ */
+@Slf4j(topic = "crypto")
+public class SignatureRecoveryService {
+
+  private static final int DEFAULT_CACHE_SIZE = 100_000;
+  private static final int QUEUE_SIZE = 1_000;
+  // smaller chunks even out the items of uneven cost
+  private static final int CHUNKS_PER_THREAD = 4;
+
+  private static volatile SignatureRecoveryService instance;
+
+  private final boolean isECKeyCryptoEngine;
+  private final int threads;
+  private final Cache<RecoveryKey, byte[]> recovered;
+  private final ExecutorService workers;
+
+  public SignatureRecoveryService(int threads, int cacheSize, boolean isECKeyCryptoEngine) {
+    this.isECKeyCryptoEngine = isECKeyCryptoEngine;
+    this.threads = Math.max(1, threads);
+    this.recovered = CacheBuilder.newBuilder().maximumSize(Math.max(0, cacheSize))
+        .recordStats().build();
+    this.workers = new ThreadPoolExecutor(this.threads, this.threads, 0L, TimeUnit.MILLISECONDS,
+        new ArrayBlockingQueue<>(QUEUE_SIZE),
+        new ThreadFactoryBuilder().setNameFormat("sign-recovery-%d").setDaemon(true).build(),
+        new ThreadPoolExecutor.CallerRunsPolicy());
+  }
+
+  /**
+   * The service of the node, sized by the validate sign threads and cache size of the parameters
+   * at the first call.
+   */
+  public static SignatureRecoveryService getInstance() {
+    if (instance == null) {
+      synchronized (SignatureRecoveryService.class) {
+        if (instance == null) {
+          CommonParameter parameter = CommonParameter.getInstance();
+          int threads = parameter.getValidateSignThreadNum() > 0
+              ? parameter.getValidateSignThreadNum()
+              : (Runtime.getRuntime().availableProcessors() + 1) / 2;
+          int cacheSize = parameter.getValidateSignCacheSize() > 0
+              ? parameter.getValidateSignCacheSize() : DEFAULT_CACHE_SIZE;
+          instance = new SignatureRecoveryService(threads, cacheSize,
+              parameter.isECKeyCryptoEngine());
+        }
+      }
+    }
+    return instance;
+  }
+
+  /**
+   * @param signature r, s and v of 65 bytes, v either the recovery id or the header byte
+   * @return the address of the signer, shared with the cache so not to be modified
+   */
+  public byte[] recover(byte[] hash, byte[] signature) throws SignatureException {
+    if (signature.length < 65) {
+      throw new SignatureException("Signature size is " + signature.length);
+    }
+    RecoveryKey key = new RecoveryKey(hash, signature);
+    byte[] address = recovered.getIfPresent(key);
+    if (address == null) {
+      address = SignUtils.signatureToAddress(hash, toSignature(signature), isECKeyCryptoEngine);
+      recovered.put(key, address);
+    }
+    return address;
+  }
+
+  /**
+   * Recover the signatures of the hashes on the pool.
+   *
+   * @return the addresses by index, null for a signature that does not recover
+   * @throws TimeoutException if the batch did not finish in time, the rest of it is cancelled
+   */
+  public byte[][] recoverAll(byte[][] hashes, byte[][] signatures, long timeout, TimeUnit unit)
+      throws InterruptedException, TimeoutException {
+    byte[][] addresses = new byte[signatures.length][];
+    List<Integer> missed = new ArrayList<>();
+    for (int i = 0; i < signatures.length; i++) {
+      if (signatures[i].length >= 65) {
+        addresses[i] = recovered.getIfPresent(new RecoveryKey(hashes[i], signatures[i]));
+        if (addresses[i] == null) {
+          missed.add(i);
+        }
+      }
+    }
+    if (missed.isEmpty()) {
+      return addresses;
+    }
+
+    long deadline = System.nanoTime() + unit.toNanos(timeout);
+    int chunk = (missed.size() + threads - 1) / threads;
+    List<Future<?>> futures = new ArrayList<>();
+    for (int from = 0; from < missed.size(); from += chunk) {
+      List<Integer> indexes = missed.subList(from, Math.min(from + chunk, missed.size()));
+      futures.add(workers.submit(() -> {
+        for (int i : indexes) {
+          // a chunk run on the caller is out of the reach of the cancellation
+          if (deadline - System.nanoTime() <= 0) {
+            throw new TimeoutException("recover signatures timeout");
+          }
+          if (Thread.currentThread().isInterrupted()) {
+            throw new InterruptedException();
+          }
+          try {
+            addresses[i] = recover(hashes[i], signatures[i]);
+          } catch (SignatureException | RuntimeException e) {
+            logger.debug("recover signature failed: {}", e.getMessage());
+          }
+        }
+        return null;
+      }));
+    }
+    try {
+      for (Future<?> future : futures) {
+        future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+      }
+    } catch (ExecutionException e) {
+      futures.forEach(future -> future.cancel(true));
+      if (e.getCause() instanceof TimeoutException) {
+        throw (TimeoutException) e.getCause();
+      }
+      if (e.getCause() instanceof InterruptedException) {
+        throw (InterruptedException) e.getCause();
+      }
+      throw new IllegalStateException(e.getCause());
+    } catch (TimeoutException | InterruptedException e) {
+      futures.forEach(future -> future.cancel(true));
+      throw e;
+    }
+    return addresses;
+  }
+
+  /**
+   * Run the check of every item on the pool, in a few chunks a worker.
+   *
+   * @throws ExecutionException with the failure of the earliest item that failed, after the
+   *     batch is done
+   */
+  public <T> void checkAll(List<T> items, Check<T> check)
+      throws InterruptedException, ExecutionException {
+    int chunk = Math.max(1, items.size() / (threads * CHUNKS_PER_THREAD));
+    List<Future<?>> futures = new ArrayList<>();
+    for (int from = 0; from < items.size(); from += chunk) {
+      List<T> part = items.subList(from, Math.min(from + chunk, items.size()));
+      futures.add(workers.submit(() -> {
+        for (T item : part) {
+          check.check(item);
+        }
+        return null;
+      }));
+    }
+
+    ExecutionException failure = null;
+    for (Future<?> future : futures) {
+      try {
+        future.get();
+      } catch (ExecutionException e) {
+        if (failure == null) {
+          failure = e;
+        }
+      }
+    }
+    if (failure != null) {
+      throw failure;
+    }
+  }
+
+  public long getCacheSize() {
+    return recovered.size();
+  }
+
+  public double getCacheHitRate() {
+    return recovered.stats().hitRate();
+  }
+
+  private SignatureInterface toSignature(byte[] signature) {
+    byte[] r = Arrays.copyOfRange(signature, 0, 32);
+    byte[] s = Arrays.copyOfRange(signature, 32, 64);
+    byte v = signature[64];
+    if (v < 27) {
+      v += 27;
+    }
+    return SignUtils.fromComponents(r, s, v, isECKeyCryptoEngine);
+  }
+
+  public interface Check<T> {
+
+    void check(T item) throws Exception;
+  }
+
+  private static class RecoveryKey {
+
+    private final byte[] hash;
+    private final byte[] signature;
+    private final int hashCode;
+
+    private RecoveryKey(byte[] hash, byte[] signature) {
+      this.hash = hash.clone();
+      // only r, s and v take part in the recovery
+      this.signature = Arrays.copyOf(signature, 65);
+      this.hashCode = 31 * Arrays.hashCode(hash) + Arrays.hashCode(this.signature);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof RecoveryKey)) {
+        return false;
+      }
+      RecoveryKey that = (RecoveryKey) o;
+      return Arrays.equals(hash, that.hash) && Arrays.equals(signature, that.signature);
+    }
+
+    @Override
+    public int hashCode() {
+      return hashCode;
+    }
+  }
+}
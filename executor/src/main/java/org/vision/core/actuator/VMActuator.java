@@ -513,6 +513,7 @@ public class VMActuator implements Actuator2 {
       this.vm = new VM();
       rootInternalTransaction = new InternalTransaction(trx, trxType);
       this.program = new Program(code, programInvoke, rootInternalTransaction, vmConfig);
+      this.program.setCodeHash(deployedContract.getCodeHash());
       byte[] txId = TransactionUtil.getTransactionId(trx).getBytes();
       this.program.setRootTransactionId(txId);
 
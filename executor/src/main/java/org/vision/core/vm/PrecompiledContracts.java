@@ -37,12 +37,11 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.concurrent.Callable;
 import java.util.concurrent.CountDownLatch;
-import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
-import lombok.AllArgsConstructor;
+import java.util.concurrent.TimeoutException;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
@@ -59,6 +58,7 @@ import org.vision.core.vm.program.Program;
 import org.vision.core.vm.repository.Repository;
 import org.vision.common.crypto.SignUtils;
 import org.vision.common.crypto.SignatureInterface;
+import org.vision.common.crypto.SignatureRecoveryService;
 import org.vision.common.crypto.zksnark.BN128;
 import org.vision.common.crypto.zksnark.BN128Fp;
 import org.vision.common.crypto.zksnark.BN128G1;
@@ -213,8 +213,7 @@ public class PrecompiledContracts {
       SignatureInterface signature = SignUtils.fromComponents(r, s, v,
           CommonParameter.getInstance().isECKeyCryptoEngine());
       if (signature.validateComponents()) {
-        out = SignUtils.signatureToAddress(hash, signature,
-            CommonParameter.getInstance().isECKeyCryptoEngine());
+        out = SignatureRecoveryService.getInstance().recover(hash, sign);
       }
     } catch (Throwable any) {
       logger.info("ECRecover error", any.getMessage());
@@ -829,14 +828,9 @@ public class PrecompiledContracts {
 
   public static class BatchValidateSign extends PrecompiledContract {
 
-    private static final ExecutorService workers;
     private static final int ENGERYPERSIGN = 1500;
     private static final int MAX_SIZE = 16;
 
-    static {
-      workers = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors() / 2);
-    }
-
     @Override
     public long getEntropyForData(byte[] data) {
       int cnt = (data.length / WORD_SIZE - 5) / 6;
@@ -854,7 +848,7 @@ public class PrecompiledContracts {
     }
 
     private Pair<Boolean, byte[]> doExecute(byte[] data)
-        throws InterruptedException, ExecutionException {
+        throws InterruptedException {
       DataWord[] words = DataWord.parseArray(data);
       byte[] hash = words[0].getData();
       byte[][] signatures = extractBytesArray(
@@ -875,60 +869,47 @@ public class PrecompiledContracts {
           }
         }
       } else {
-        // add check
-        CountDownLatch countDownLatch = new CountDownLatch(cnt);
-        List<Future<RecoverAddrResult>> futures = new ArrayList<>(cnt);
-
+        // the signatures recoverAddrBySign rejects go to the pool empty, so they recover none
+        byte[][] hashes = new byte[cnt][];
+        byte[][] valid = new byte[cnt][];
         for (int i = 0; i < cnt; i++) {
-          Future<RecoverAddrResult> future = workers
-              .submit(new RecoverAddrTask(countDownLatch, hash, signatures[i], i));
-          futures.add(future);
+          hashes[i] = hash;
+          valid[i] = hasValidComponents(signatures[i]) ? signatures[i] : EMPTY_BYTE_ARRAY;
         }
-        boolean withNoTimeout = countDownLatch
-            .await(getCPUTimeLeftInNanoSecond(), TimeUnit.NANOSECONDS);
-
-        if (!withNoTimeout) {
+        byte[][] recovered;
+        try {
+          recovered = SignatureRecoveryService.getInstance()
+              .recoverAll(hashes, valid, getCPUTimeLeftInNanoSecond(), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
           logger.info("BatchValidateSign timeout");
           throw Program.Exception.notEnoughTime("call BatchValidateSign precompile method");
         }
 
-        for (Future<RecoverAddrResult> future : futures) {
-          RecoverAddrResult result = future.get();
-          int index = result.nonce;
-          if (DataWord.equalAddressByteArray(result.addr, addresses[index])) {
-            res[index] = 1;
+        for (int i = 0; i < cnt; i++) {
+          if (DataWord.equalAddressByteArray(recovered[i], addresses[i])) {
+            res[i] = 1;
           }
         }
       }
       return Pair.of(true, res);
     }
 
-    @AllArgsConstructor
-    private static class RecoverAddrTask implements Callable<RecoverAddrResult> {
-
-      private CountDownLatch countDownLatch;
-      private byte[] hash;
-      private byte[] signature;
-      private int nonce;
-
-      @Override
-      public RecoverAddrResult call() {
-        try {
-          return new RecoverAddrResult(recoverAddrBySign(this.signature, this.hash), nonce);
-        } finally {
-          countDownLatch.countDown();
-        }
+    private static boolean hasValidComponents(byte[] sign) {
+      if (ArrayUtils.isEmpty(sign) || sign.length < 65) {
+        return false;
+      }
+      byte v = sign[64];
+      if (v < 27) {
+        v += 27;
+      }
+      try {
+        return SignUtils.fromComponents(Arrays.copyOfRange(sign, 0, 32),
+            Arrays.copyOfRange(sign, 32, 64), v,
+            CommonParameter.getInstance().isECKeyCryptoEngine()).validateComponents();
+      } catch (Throwable any) {
+        return false;
       }
     }
-
-    @AllArgsConstructor
-    private static class RecoverAddrResult {
-
-      private byte[] addr;
-      private int nonce;
-    }
-
-
   }
 
   public abstract static class VerifyProof extends PrecompiledContract {
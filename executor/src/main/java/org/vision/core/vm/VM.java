@@ -8,6 +8,7 @@ import static org.vision.core.vm.OpCode.*;
 import java.math.BigInteger;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
 import lombok.extern.slf4j.Slf4j;
 import org.spongycastle.util.encoders.Hex;
 import org.springframework.util.StringUtils;
@@ -20,6 +21,8 @@ import org.vision.core.vm.program.Program.JVMStackOverFlowException;
 import org.vision.core.vm.program.Program.OutOfEntropyException;
 import org.vision.core.vm.program.Program.OutOfTimeException;
 import org.vision.core.vm.program.Program.TransferException;
+import org.vision.core.vm.program.ProgramPrecompile;
+import org.vision.core.vm.program.ProgramPrecompile.Block;
 import org.vision.core.vm.program.Stack;
 
 @Slf4j(topic = "VM")
@@ -33,6 +36,8 @@ public class VM {
   private static final String ENTROPY_LOG_FORMATE = "{} Op:[{}]  Entropy:[{}] Deep:[{}] Hint:[{}]";
   // 3MB
   private static final BigInteger MEM_LIMIT = BigInteger.valueOf(3L * 1024 * 1024);
+  // the basic blocks run as one, by all the vms
+  private static final LongAdder blocksPlayed = new LongAdder();
   private final VMConfig config;
 
   public VM() {
@@ -91,18 +96,8 @@ public class VM {
 
     try {
       OpCode op = OpCode.code(program.getCurrentOp());
-      if (op == null
-          || (!VMConfig.allowVvmTransferVrc10()
-              && (op == CALLTOKEN || op == TOKENBALANCE || op == CALLTOKENVALUE
-          || op == CALLTOKENID))
-          || (!VMConfig.allowVvmConstantinople()
-              && (op == SHL || op == SHR || op == SAR || op == CREATE2 || op == EXTCODEHASH))
-          || (!VMConfig.allowVvmSolidity059() && op == ISCONTRACT)
-          || (!VMConfig.allowVvmIstanbul() && (op == SELFBALANCE || op == CHAINID))
-          ) {
-        if (!allowChainId(op)) {
-          throw Program.Exception.invalidOpCode(program.getCurrentOp());
-        }
+      if (isInvalid(op)) {
+        throw Program.Exception.invalidOpCode(program.getCurrentOp());
       }
 
       program.setLastOp(op.val());
@@ -112,7 +107,6 @@ public class VM {
       long oldMemSize = program.getMemSize();
       Stack stack = program.getStack();
 
-      String hint = "";
       long entropyCost = op.getTier().asInt();
       EntropyCost entropyCosts = EntropyCost.getInstance();
       DataWord adjustedCallEntropy = null;
@@ -302,884 +296,949 @@ public class VM {
       program.spendEntropy(entropyCost, op.name());
       program.checkCPUTimeLimit(op.name());
 
-      // Execute operation
-      switch (op) {
-        /**
-         * Stop and Arithmetic Operations
-         */
-        case STOP: {
-          program.setHReturn(EMPTY_BYTE_ARRAY);
-          program.stop();
-        }
-        break;
-        case ADD: {
-          DataWord word1 = program.stackPop();
-          DataWord word2 = program.stackPop();
+      execute(program, op, adjustedCallEntropy);
 
-          if (logger.isDebugEnabled()) {
-            hint = word1.value() + " + " + word2.value();
-          }
+      program.setPreviouslyExecutedOp(op.val());
+    } catch (RuntimeException e) {
+      halt(program, e);
+      throw e;
+    } finally {
+      program.fullTrace();
 
-          word1.add(word2);
-          program.stackPush(word1);
-          program.step();
+    }
+  }
+
+  /**
+   * Runs the ops of a basic block, with the entropy of all of them spent and the cpu time checked
+   * once. Only ops of a fixed cost, that neither read the entropy left nor fail a transfer, make a
+   * block, so when the entropy left pays for the block, they end as stepped one by one.
+   */
+  private void step(Program program, Block block) {
+    OpCode[] ops = block.getOps();
+    try {
+      program.spendEntropy(block.getEntropyCost(), ops[0].name());
+      program.checkCPUTimeLimit(ops[0].name());
 
+      for (OpCode op : ops) {
+        if (isInvalid(op)) {
+          throw Program.Exception.invalidOpCode(op.val());
         }
-        break;
-        case MUL: {
-          DataWord word1 = program.stackPop();
-          DataWord word2 = program.stackPop();
 
-          if (logger.isDebugEnabled()) {
-            hint = word1.value() + " * " + word2.value();
-          }
+        program.setLastOp(op.val());
+        program.verifyStackSize(op.require());
+        program.verifyStackOverflow(op.require(), op.ret());
 
-          word1.mul(word2);
-          program.stackPush(word1);
-          program.step();
+        execute(program, op, null);
+
+        program.setPreviouslyExecutedOp(op.val());
+        program.fullTrace();
+      }
+    } catch (RuntimeException e) {
+      halt(program, e);
+      program.fullTrace();
+      throw e;
+    }
+  }
+
+  private void execute(Program program, OpCode op, DataWord adjustedCallEntropy) {
+    Stack stack = program.getStack();
+
+    String hint = "";
+    EntropyCost entropyCosts = EntropyCost.getInstance();
+
+    // Execute operation
+    switch (op) {
+      /**
+       * Stop and Arithmetic Operations
+       */
+      case STOP: {
+        program.setHReturn(EMPTY_BYTE_ARRAY);
+        program.stop();
+      }
+      break;
+      case ADD: {
+        DataWord word1 = program.stackPop();
+        DataWord word2 = program.stackPop();
+
+        if (logger.isDebugEnabled()) {
+          hint = word1.value() + " + " + word2.value();
         }
-        break;
-        case SUB: {
-          DataWord word1 = program.stackPop();
-          DataWord word2 = program.stackPop();
 
-          if (logger.isDebugEnabled()) {
-            hint = word1.value() + " - " + word2.value();
-          }
+        word1.add(word2);
+        program.stackPush(word1);
+        program.step();
 
-          word1.sub(word2);
-          program.stackPush(word1);
-          program.step();
+      }
+      break;
+      case MUL: {
+        DataWord word1 = program.stackPop();
+        DataWord word2 = program.stackPop();
+
+        if (logger.isDebugEnabled()) {
+          hint = word1.value() + " * " + word2.value();
         }
-        break;
-        case DIV: {
-          DataWord word1 = program.stackPop();
-          DataWord word2 = program.stackPop();
 
-          if (logger.isDebugEnabled()) {
-            hint = word1.value() + " / " + word2.value();
-          }
+        word1.mul(word2);
+        program.stackPush(word1);
+        program.step();
+      }
+      break;
+      case SUB: {
+        DataWord word1 = program.stackPop();
+        DataWord word2 = program.stackPop();
 
-          word1.div(word2);
-          program.stackPush(word1);
-          program.step();
+        if (logger.isDebugEnabled()) {
+          hint = word1.value() + " - " + word2.value();
         }
-        break;
-        case SDIV: {
-          DataWord word1 = program.stackPop();
-          DataWord word2 = program.stackPop();
 
-          if (logger.isDebugEnabled()) {
-            hint = word1.sValue() + " / " + word2.sValue();
-          }
+        word1.sub(word2);
+        program.stackPush(word1);
+        program.step();
+      }
+      break;
+      case DIV: {
+        DataWord word1 = program.stackPop();
+        DataWord word2 = program.stackPop();
 
-          word1.sDiv(word2);
-          program.stackPush(word1);
-          program.step();
+        if (logger.isDebugEnabled()) {
+          hint = word1.value() + " / " + word2.value();
         }
-        break;
-        case MOD: {
-          DataWord word1 = program.stackPop();
-          DataWord word2 = program.stackPop();
 
-          if (logger.isDebugEnabled()) {
-            hint = word1.value() + " % " + word2.value();
-          }
+        word1.div(word2);
+        program.stackPush(word1);
+        program.step();
+      }
+      break;
+      case SDIV: {
+        DataWord word1 = program.stackPop();
+        DataWord word2 = program.stackPop();
 
-          word1.mod(word2);
-          program.stackPush(word1);
-          program.step();
+        if (logger.isDebugEnabled()) {
+          hint = word1.sValue() + " / " + word2.sValue();
         }
-        break;
-        case SMOD: {
-          DataWord word1 = program.stackPop();
-          DataWord word2 = program.stackPop();
 
-          if (logger.isDebugEnabled()) {
-            hint = word1.sValue() + " #% " + word2.sValue();
-          }
+        word1.sDiv(word2);
+        program.stackPush(word1);
+        program.step();
+      }
+      break;
+      case MOD: {
+        DataWord word1 = program.stackPop();
+        DataWord word2 = program.stackPop();
 
-          word1.sMod(word2);
-          program.stackPush(word1);
-          program.step();
+        if (logger.isDebugEnabled()) {
+          hint = word1.value() + " % " + word2.value();
         }
-        break;
-        case EXP: {
-          DataWord word1 = program.stackPop();
-          DataWord word2 = program.stackPop();
 
-          if (logger.isDebugEnabled()) {
-            hint = word1.value() + " ** " + word2.value();
-          }
+        word1.mod(word2);
+        program.stackPush(word1);
+        program.step();
+      }
+      break;
+      case SMOD: {
+        DataWord word1 = program.stackPop();
+        DataWord word2 = program.stackPop();
 
-          word1.exp(word2);
-          program.stackPush(word1);
-          program.step();
+        if (logger.isDebugEnabled()) {
+          hint = word1.sValue() + " #% " + word2.sValue();
         }
-        break;
-        case SIGNEXTEND: {
-          DataWord word1 = program.stackPop();
-          BigInteger k = word1.value();
-
-          if (k.compareTo(_32_) < 0) {
-            DataWord word2 = program.stackPop();
-            if (logger.isDebugEnabled()) {
-              hint = word1 + "  " + word2.value();
-            }
-            word2.signExtend(k.byteValue());
-            program.stackPush(word2);
-          }
-          program.step();
+
+        word1.sMod(word2);
+        program.stackPush(word1);
+        program.step();
+      }
+      break;
+      case EXP: {
+        DataWord word1 = program.stackPop();
+        DataWord word2 = program.stackPop();
+
+        if (logger.isDebugEnabled()) {
+          hint = word1.value() + " ** " + word2.value();
         }
-        break;
-        case NOT: {
-          DataWord word1 = program.stackPop();
-          word1.bnot();
 
+        word1.exp(word2);
+        program.stackPush(word1);
+        program.step();
+      }
+      break;
+      case SIGNEXTEND: {
+        DataWord word1 = program.stackPop();
+        BigInteger k = word1.value();
+
+        if (k.compareTo(_32_) < 0) {
+          DataWord word2 = program.stackPop();
           if (logger.isDebugEnabled()) {
-            hint = "" + word1.value();
+            hint = word1 + "  " + word2.value();
           }
+          word2.signExtend(k.byteValue());
+          program.stackPush(word2);
+        }
+        program.step();
+      }
+      break;
+      case NOT: {
+        DataWord word1 = program.stackPop();
+        word1.bnot();
 
-          program.stackPush(word1);
-          program.step();
+        if (logger.isDebugEnabled()) {
+          hint = "" + word1.value();
         }
-        break;
-        case LT: {
-          // TODO: can be improved by not using BigInteger
-          DataWord word1 = program.stackPop();
-          DataWord word2 = program.stackPop();
 
-          if (logger.isDebugEnabled()) {
-            hint = word1.value() + " < " + word2.value();
-          }
+        program.stackPush(word1);
+        program.step();
+      }
+      break;
+      case LT: {
+        // TODO: can be improved by not using BigInteger
+        DataWord word1 = program.stackPop();
+        DataWord word2 = program.stackPop();
 
-          if (word1.value().compareTo(word2.value()) < 0) {
-            word1.and(DataWord.ZERO);
-            word1.getData()[31] = 1;
-          } else {
-            word1.and(DataWord.ZERO);
-          }
-          program.stackPush(word1);
-          program.step();
+        if (logger.isDebugEnabled()) {
+          hint = word1.value() + " < " + word2.value();
         }
-        break;
-        case SLT: {
-          // TODO: can be improved by not using BigInteger
-          DataWord word1 = program.stackPop();
-          DataWord word2 = program.stackPop();
 
-          if (logger.isDebugEnabled()) {
-            hint = word1.sValue() + " < " + word2.sValue();
-          }
+        if (word1.value().compareTo(word2.value()) < 0) {
+          word1.and(DataWord.ZERO);
+          word1.getData()[31] = 1;
+        } else {
+          word1.and(DataWord.ZERO);
+        }
+        program.stackPush(word1);
+        program.step();
+      }
+      break;
+      case SLT: {
+        // TODO: can be improved by not using BigInteger
+        DataWord word1 = program.stackPop();
+        DataWord word2 = program.stackPop();
 
-          if (word1.sValue().compareTo(word2.sValue()) < 0) {
-            word1.and(DataWord.ZERO);
-            word1.getData()[31] = 1;
-          } else {
-            word1.and(DataWord.ZERO);
-          }
-          program.stackPush(word1);
-          program.step();
+        if (logger.isDebugEnabled()) {
+          hint = word1.sValue() + " < " + word2.sValue();
         }
-        break;
-        case SGT: {
-          // TODO: can be improved by not using BigInteger
-          DataWord word1 = program.stackPop();
-          DataWord word2 = program.stackPop();
 
-          if (logger.isDebugEnabled()) {
-            hint = word1.sValue() + " > " + word2.sValue();
-          }
+        if (word1.sValue().compareTo(word2.sValue()) < 0) {
+          word1.and(DataWord.ZERO);
+          word1.getData()[31] = 1;
+        } else {
+          word1.and(DataWord.ZERO);
+        }
+        program.stackPush(word1);
+        program.step();
+      }
+      break;
+      case SGT: {
+        // TODO: can be improved by not using BigInteger
+        DataWord word1 = program.stackPop();
+        DataWord word2 = program.stackPop();
 
-          if (word1.sValue().compareTo(word2.sValue()) > 0) {
-            word1.and(DataWord.ZERO);
-            word1.getData()[31] = 1;
-          } else {
-            word1.and(DataWord.ZERO);
-          }
-          program.stackPush(word1);
-          program.step();
+        if (logger.isDebugEnabled()) {
+          hint = word1.sValue() + " > " + word2.sValue();
         }
-        break;
-        case GT: {
-          // TODO: can be improved by not using BigInteger
-          DataWord word1 = program.stackPop();
-          DataWord word2 = program.stackPop();
 
-          if (logger.isDebugEnabled()) {
-            hint = word1.value() + " > " + word2.value();
-          }
+        if (word1.sValue().compareTo(word2.sValue()) > 0) {
+          word1.and(DataWord.ZERO);
+          word1.getData()[31] = 1;
+        } else {
+          word1.and(DataWord.ZERO);
+        }
+        program.stackPush(word1);
+        program.step();
+      }
+      break;
+      case GT: {
+        // TODO: can be improved by not using BigInteger
+        DataWord word1 = program.stackPop();
+        DataWord word2 = program.stackPop();
 
-          if (word1.value().compareTo(word2.value()) > 0) {
-            word1.and(DataWord.ZERO);
-            word1.getData()[31] = 1;
-          } else {
-            word1.and(DataWord.ZERO);
-          }
-          program.stackPush(word1);
-          program.step();
+        if (logger.isDebugEnabled()) {
+          hint = word1.value() + " > " + word2.value();
         }
-        break;
-        case EQ: {
-          DataWord word1 = program.stackPop();
-          DataWord word2 = program.stackPop();
 
-          if (logger.isDebugEnabled()) {
-            hint = word1.value() + " == " + word2.value();
-          }
+        if (word1.value().compareTo(word2.value()) > 0) {
+          word1.and(DataWord.ZERO);
+          word1.getData()[31] = 1;
+        } else {
+          word1.and(DataWord.ZERO);
+        }
+        program.stackPush(word1);
+        program.step();
+      }
+      break;
+      case EQ: {
+        DataWord word1 = program.stackPop();
+        DataWord word2 = program.stackPop();
 
-          if (word1.xor(word2).isZero()) {
-            word1.and(DataWord.ZERO);
-            word1.getData()[31] = 1;
-          } else {
-            word1.and(DataWord.ZERO);
-          }
-          program.stackPush(word1);
-          program.step();
+        if (logger.isDebugEnabled()) {
+          hint = word1.value() + " == " + word2.value();
         }
-        break;
-        case ISZERO: {
-          DataWord word1 = program.stackPop();
-          if (word1.isZero()) {
-            word1.getData()[31] = 1;
-          } else {
-            word1.and(DataWord.ZERO);
-          }
 
-          if (logger.isDebugEnabled()) {
-            hint = "" + word1.value();
-          }
+        if (word1.xor(word2).isZero()) {
+          word1.and(DataWord.ZERO);
+          word1.getData()[31] = 1;
+        } else {
+          word1.and(DataWord.ZERO);
+        }
+        program.stackPush(word1);
+        program.step();
+      }
+      break;
+      case ISZERO: {
+        DataWord word1 = program.stackPop();
+        if (word1.isZero()) {
+          word1.getData()[31] = 1;
+        } else {
+          word1.and(DataWord.ZERO);
+        }
 
-          program.stackPush(word1);
-          program.step();
+        if (logger.isDebugEnabled()) {
+          hint = "" + word1.value();
         }
-        break;
 
-        /**
-         * Bitwise Logic Operations
-         */
-        case AND: {
-          DataWord word1 = program.stackPop();
-          DataWord word2 = program.stackPop();
+        program.stackPush(word1);
+        program.step();
+      }
+      break;
 
-          if (logger.isDebugEnabled()) {
-            hint = word1.value() + " && " + word2.value();
-          }
+      /**
+       * Bitwise Logic Operations
+       */
+      case AND: {
+        DataWord word1 = program.stackPop();
+        DataWord word2 = program.stackPop();
 
-          word1.and(word2);
-          program.stackPush(word1);
-          program.step();
+        if (logger.isDebugEnabled()) {
+          hint = word1.value() + " && " + word2.value();
         }
-        break;
-        case OR: {
-          DataWord word1 = program.stackPop();
-          DataWord word2 = program.stackPop();
 
-          if (logger.isDebugEnabled()) {
-            hint = word1.value() + " || " + word2.value();
-          }
+        word1.and(word2);
+        program.stackPush(word1);
+        program.step();
+      }
+      break;
+      case OR: {
+        DataWord word1 = program.stackPop();
+        DataWord word2 = program.stackPop();
 
-          word1.or(word2);
-          program.stackPush(word1);
-          program.step();
+        if (logger.isDebugEnabled()) {
+          hint = word1.value() + " || " + word2.value();
         }
-        break;
-        case XOR: {
-          DataWord word1 = program.stackPop();
-          DataWord word2 = program.stackPop();
 
-          if (logger.isDebugEnabled()) {
-            hint = word1.value() + " ^ " + word2.value();
-          }
+        word1.or(word2);
+        program.stackPush(word1);
+        program.step();
+      }
+      break;
+      case XOR: {
+        DataWord word1 = program.stackPop();
+        DataWord word2 = program.stackPop();
 
-          word1.xor(word2);
-          program.stackPush(word1);
-          program.step();
+        if (logger.isDebugEnabled()) {
+          hint = word1.value() + " ^ " + word2.value();
         }
-        break;
-        case BYTE: {
-          DataWord word1 = program.stackPop();
-          DataWord word2 = program.stackPop();
-          final DataWord result;
-          if (word1.value().compareTo(_32_) < 0) {
-            byte tmp = word2.getData()[word1.intValue()];
-            word2.and(DataWord.ZERO);
-            word2.getData()[31] = tmp;
-            result = word2;
-          } else {
-            result = new DataWord();
-          }
 
-          if (logger.isDebugEnabled()) {
-            hint = "" + result.value();
-          }
+        word1.xor(word2);
+        program.stackPush(word1);
+        program.step();
+      }
+      break;
+      case BYTE: {
+        DataWord word1 = program.stackPop();
+        DataWord word2 = program.stackPop();
+        final DataWord result;
+        if (word1.value().compareTo(_32_) < 0) {
+          byte tmp = word2.getData()[word1.intValue()];
+          word2.and(DataWord.ZERO);
+          word2.getData()[31] = tmp;
+          result = word2;
+        } else {
+          result = new DataWord();
+        }
+
+        if (logger.isDebugEnabled()) {
+          hint = "" + result.value();
+        }
+
+        program.stackPush(result);
+        program.step();
+      }
+      break;
+      case SHL: {
+        DataWord word1 = program.stackPop();
+        DataWord word2 = program.stackPop();
+        final DataWord result = word2.shiftLeft(word1);
 
-          program.stackPush(result);
-          program.step();
+        if (logger.isInfoEnabled()) {
+          hint = "" + result.value();
         }
-        break;
-        case SHL: {
-          DataWord word1 = program.stackPop();
-          DataWord word2 = program.stackPop();
-          final DataWord result = word2.shiftLeft(word1);
 
-          if (logger.isInfoEnabled()) {
-            hint = "" + result.value();
-          }
+        program.stackPush(result);
+        program.step();
+      }
+      break;
+      case SHR: {
+        DataWord word1 = program.stackPop();
+        DataWord word2 = program.stackPop();
+        final DataWord result = word2.shiftRight(word1);
 
-          program.stackPush(result);
-          program.step();
+        if (logger.isInfoEnabled()) {
+          hint = "" + result.value();
         }
-        break;
-        case SHR: {
-          DataWord word1 = program.stackPop();
-          DataWord word2 = program.stackPop();
-          final DataWord result = word2.shiftRight(word1);
 
-          if (logger.isInfoEnabled()) {
-            hint = "" + result.value();
-          }
+        program.stackPush(result);
+        program.step();
+      }
+      break;
+      case SAR: {
+        DataWord word1 = program.stackPop();
+        DataWord word2 = program.stackPop();
+        final DataWord result = word2.shiftRightSigned(word1);
 
-          program.stackPush(result);
-          program.step();
+        if (logger.isInfoEnabled()) {
+          hint = "" + result.value();
         }
-        break;
-        case SAR: {
-          DataWord word1 = program.stackPop();
-          DataWord word2 = program.stackPop();
-          final DataWord result = word2.shiftRightSigned(word1);
 
-          if (logger.isInfoEnabled()) {
-            hint = "" + result.value();
-          }
+        program.stackPush(result);
+        program.step();
+      }
+      break;
+      case ADDMOD: {
+        DataWord word1 = program.stackPop();
+        DataWord word2 = program.stackPop();
+        DataWord word3 = program.stackPop();
+        word1.addmod(word2, word3);
+        program.stackPush(word1);
+        program.step();
+      }
+      break;
+      case MULMOD: {
+        DataWord word1 = program.stackPop();
+        DataWord word2 = program.stackPop();
+        DataWord word3 = program.stackPop();
+        word1.mulmod(word2, word3);
+        program.stackPush(word1);
+        program.step();
+      }
+      break;
 
-          program.stackPush(result);
-          program.step();
+      /**
+       * SHA3
+       */
+      case SHA3: {
+        DataWord memOffsetData = program.stackPop();
+        DataWord lengthData = program.stackPop();
+        byte[] buffer = program
+            .memoryChunk(memOffsetData.intValueSafe(), lengthData.intValueSafe());
+
+        byte[] encoded = sha3(buffer);
+        DataWord word = new DataWord(encoded);
+
+        if (logger.isDebugEnabled()) {
+          hint = word.toString();
         }
-        break;
-        case ADDMOD: {
-          DataWord word1 = program.stackPop();
-          DataWord word2 = program.stackPop();
-          DataWord word3 = program.stackPop();
-          word1.addmod(word2, word3);
-          program.stackPush(word1);
-          program.step();
+
+        program.stackPush(word);
+        program.step();
+      }
+      break;
+
+      /**
+       * Environmental Information
+       */
+      case ADDRESS: {
+        DataWord address = program.getContractAddress();
+        if (VMConfig.allowMultiSign()) { // allowMultiSigns proposal
+          address = new DataWord(address.getLast20Bytes());
         }
-        break;
-        case MULMOD: {
-          DataWord word1 = program.stackPop();
-          DataWord word2 = program.stackPop();
-          DataWord word3 = program.stackPop();
-          word1.mulmod(word2, word3);
-          program.stackPush(word1);
-          program.step();
+
+        if (logger.isDebugEnabled()) {
+          hint = ADDRESS_LOG + Hex.toHexString(address.getLast20Bytes());
         }
-        break;
 
-        /**
-         * SHA3
-         */
-        case SHA3: {
-          DataWord memOffsetData = program.stackPop();
-          DataWord lengthData = program.stackPop();
-          byte[] buffer = program
-              .memoryChunk(memOffsetData.intValueSafe(), lengthData.intValueSafe());
+        program.stackPush(address);
+        program.step();
+      }
+      break;
+      case BALANCE: {
+        DataWord address = program.stackPop();
+        DataWord balance = program.getBalance(address);
 
-          byte[] encoded = sha3(buffer);
-          DataWord word = new DataWord(encoded);
+        if (logger.isDebugEnabled()) {
+          hint = ADDRESS_LOG
+              + Hex.toHexString(address.getLast20Bytes())
+              + " balance: " + balance.toString();
+        }
 
-          if (logger.isDebugEnabled()) {
-            hint = word.toString();
-          }
+        program.stackPush(balance);
+        program.step();
+      }
+      break;
+      case ISCONTRACT: {
+        DataWord address = program.stackPop();
+        DataWord isContract = program.isContract(address);
 
-          program.stackPush(word);
-          program.step();
+        program.stackPush(isContract);
+        program.step();
+      }
+      break;
+      case ORIGIN: {
+        DataWord originAddress = program.getOriginAddress();
+
+        if (VMConfig.allowMultiSign()) { //allowMultiSign proposal
+          originAddress = new DataWord(originAddress.getLast20Bytes());
+        }
+
+        if (logger.isDebugEnabled()) {
+          hint = ADDRESS_LOG + Hex.toHexString(originAddress.getLast20Bytes());
         }
-        break;
 
+        program.stackPush(originAddress);
+        program.step();
+      }
+      break;
+      case CALLER: {
+        DataWord callerAddress = program.getCallerAddress();
         /**
-         * Environmental Information
+         since we use 21 bytes address instead of 20 as etherum, we need to make sure
+         the address length in vm is matching with 20
          */
-        case ADDRESS: {
-          DataWord address = program.getContractAddress();
-          if (VMConfig.allowMultiSign()) { // allowMultiSigns proposal
-            address = new DataWord(address.getLast20Bytes());
-          }
+        callerAddress = new DataWord(callerAddress.getLast20Bytes());
+        if (logger.isDebugEnabled()) {
+          hint = ADDRESS_LOG + Hex.toHexString(callerAddress.getLast20Bytes());
+        }
 
-          if (logger.isDebugEnabled()) {
-            hint = ADDRESS_LOG + Hex.toHexString(address.getLast20Bytes());
-          }
+        program.stackPush(callerAddress);
+        program.step();
+      }
+      break;
+      case CALLVALUE: {
+        DataWord callValue = program.getCallValue();
 
-          program.stackPush(address);
-          program.step();
+        if (logger.isDebugEnabled()) {
+          hint = "value: " + callValue;
         }
-        break;
-        case BALANCE: {
-          DataWord address = program.stackPop();
-          DataWord balance = program.getBalance(address);
 
-          if (logger.isDebugEnabled()) {
-            hint = ADDRESS_LOG
-                + Hex.toHexString(address.getLast20Bytes())
-                + " balance: " + balance.toString();
-          }
+        program.stackPush(callValue);
+        program.step();
+      }
+      break;
+      case CALLTOKENVALUE:
+        DataWord tokenValue = program.getTokenValue();
 
-          program.stackPush(balance);
-          program.step();
+        if (logger.isDebugEnabled()) {
+          hint = "tokenValue: " + tokenValue;
         }
+
+        program.stackPush(tokenValue);
+        program.step();
         break;
-        case ISCONTRACT: {
-          DataWord address = program.stackPop();
-          DataWord isContract = program.isContract(address);
+      case CALLTOKENID:
+        DataWord _tokenId = program.getTokenId();
 
-          program.stackPush(isContract);
-          program.step();
+        if (logger.isDebugEnabled()) {
+          hint = "tokenId: " + _tokenId;
         }
+
+        program.stackPush(_tokenId);
+        program.step();
         break;
-        case ORIGIN: {
-          DataWord originAddress = program.getOriginAddress();
+      case CALLDATALOAD: {
+        DataWord dataOffs = program.stackPop();
+        DataWord value = program.getDataValue(dataOffs);
 
-          if (VMConfig.allowMultiSign()) { //allowMultiSign proposal
-            originAddress = new DataWord(originAddress.getLast20Bytes());
-          }
+        if (logger.isDebugEnabled()) {
+          hint = DATA_LOG + value;
+        }
 
-          if (logger.isDebugEnabled()) {
-            hint = ADDRESS_LOG + Hex.toHexString(originAddress.getLast20Bytes());
-          }
+        program.stackPush(value);
+        program.step();
+      }
+      break;
+      case CALLDATASIZE: {
+        DataWord dataSize = program.getDataSize();
 
-          program.stackPush(originAddress);
-          program.step();
+        if (logger.isDebugEnabled()) {
+          hint = SIZE_LOG + dataSize.value();
         }
-        break;
-        case CALLER: {
-          DataWord callerAddress = program.getCallerAddress();
-          /**
-           since we use 21 bytes address instead of 20 as etherum, we need to make sure
-           the address length in vm is matching with 20
-           */
-          callerAddress = new DataWord(callerAddress.getLast20Bytes());
-          if (logger.isDebugEnabled()) {
-            hint = ADDRESS_LOG + Hex.toHexString(callerAddress.getLast20Bytes());
-          }
 
-          program.stackPush(callerAddress);
-          program.step();
-        }
-        break;
-        case CALLVALUE: {
-          DataWord callValue = program.getCallValue();
+        program.stackPush(dataSize);
+        program.step();
+      }
+      break;
+      case CALLDATACOPY: {
+        DataWord memOffsetData = program.stackPop();
+        DataWord dataOffsetData = program.stackPop();
+        DataWord lengthData = program.stackPop();
 
-          if (logger.isDebugEnabled()) {
-            hint = "value: " + callValue;
-          }
+        byte[] msgData = program.getDataCopy(dataOffsetData, lengthData);
 
-          program.stackPush(callValue);
-          program.step();
+        if (logger.isDebugEnabled()) {
+          hint = DATA_LOG + Hex.toHexString(msgData);
         }
-        break;
-        case CALLTOKENVALUE:
-          DataWord tokenValue = program.getTokenValue();
 
-          if (logger.isDebugEnabled()) {
-            hint = "tokenValue: " + tokenValue;
-          }
+        program.memorySave(memOffsetData.intValueSafe(), msgData);
+        program.step();
+      }
+      break;
+      case RETURNDATASIZE: {
+        DataWord dataSize = program.getReturnDataBufferSize();
 
-          program.stackPush(tokenValue);
-          program.step();
-          break;
-        case CALLTOKENID:
-          DataWord _tokenId = program.getTokenId();
+        if (logger.isDebugEnabled()) {
+          hint = SIZE_LOG + dataSize.value();
+        }
 
-          if (logger.isDebugEnabled()) {
-            hint = "tokenId: " + _tokenId;
-          }
+        program.stackPush(dataSize);
+        program.step();
+      }
+      break;
+      case RETURNDATACOPY: {
+        DataWord memOffsetData = program.stackPop();
+        DataWord dataOffsetData = program.stackPop();
+        DataWord lengthData = program.stackPop();
 
-          program.stackPush(_tokenId);
-          program.step();
-          break;
-        case CALLDATALOAD: {
-          DataWord dataOffs = program.stackPop();
-          DataWord value = program.getDataValue(dataOffs);
-
-          if (logger.isDebugEnabled()) {
-            hint = DATA_LOG + value;
-          }
+        byte[] msgData = program.getReturnDataBufferData(dataOffsetData, lengthData);
 
-          program.stackPush(value);
-          program.step();
+        if (msgData == null) {
+          throw new Program.ReturnDataCopyIllegalBoundsException(dataOffsetData, lengthData,
+              program.getReturnDataBufferSize().longValueSafe());
         }
-        break;
-        case CALLDATASIZE: {
-          DataWord dataSize = program.getDataSize();
-
-          if (logger.isDebugEnabled()) {
-            hint = SIZE_LOG + dataSize.value();
-          }
 
-          program.stackPush(dataSize);
-          program.step();
+        if (logger.isDebugEnabled()) {
+          hint = DATA_LOG + Hex.toHexString(msgData);
         }
-        break;
-        case CALLDATACOPY: {
-          DataWord memOffsetData = program.stackPop();
-          DataWord dataOffsetData = program.stackPop();
-          DataWord lengthData = program.stackPop();
 
-          byte[] msgData = program.getDataCopy(dataOffsetData, lengthData);
-
-          if (logger.isDebugEnabled()) {
-            hint = DATA_LOG + Hex.toHexString(msgData);
-          }
+        program.memorySave(memOffsetData.intValueSafe(), msgData);
+        program.step();
+      }
+      break;
+      case CODESIZE:
+      case EXTCODESIZE: {
+
+        int length;
+        if (op == OpCode.CODESIZE) {
+          length = program.getCode().length;
+        } else {
+          DataWord address = program.stackPop();
+          length = program.getCodeAt(address).length;
+        }
+        DataWord codeLength = new DataWord(length);
 
-          program.memorySave(memOffsetData.intValueSafe(), msgData);
-          program.step();
+        if (logger.isDebugEnabled()) {
+          hint = SIZE_LOG + length;
         }
+
+        program.stackPush(codeLength);
+        program.step();
         break;
-        case RETURNDATASIZE: {
-          DataWord dataSize = program.getReturnDataBufferSize();
+      }
+      case CODECOPY:
+      case EXTCODECOPY: {
 
-          if (logger.isDebugEnabled()) {
-            hint = SIZE_LOG + dataSize.value();
-          }
+        byte[] fullCode = EMPTY_BYTE_ARRAY;
+        if (op == OpCode.CODECOPY) {
+          fullCode = program.getCode();
+        }
 
-          program.stackPush(dataSize);
-          program.step();
+        if (op == OpCode.EXTCODECOPY) {
+          DataWord address = program.stackPop();
+          fullCode = program.getCodeAt(address);
         }
-        break;
-        case RETURNDATACOPY: {
-          DataWord memOffsetData = program.stackPop();
-          DataWord dataOffsetData = program.stackPop();
-          DataWord lengthData = program.stackPop();
 
-          byte[] msgData = program.getReturnDataBufferData(dataOffsetData, lengthData);
+        int memOffset = program.stackPop().intValueSafe();
+        int codeOffset = program.stackPop().intValueSafe();
+        int lengthData = program.stackPop().intValueSafe();
 
-          if (msgData == null) {
-            throw new Program.ReturnDataCopyIllegalBoundsException(dataOffsetData, lengthData,
-                program.getReturnDataBufferSize().longValueSafe());
-          }
+        int sizeToBeCopied =
+            (long) codeOffset + lengthData > fullCode.length
+                ? (fullCode.length < codeOffset ? 0 : fullCode.length - codeOffset)
+                : lengthData;
 
-          if (logger.isDebugEnabled()) {
-            hint = DATA_LOG + Hex.toHexString(msgData);
-          }
+        byte[] codeCopy = new byte[lengthData];
 
-          program.memorySave(memOffsetData.intValueSafe(), msgData);
-          program.step();
+        if (codeOffset < fullCode.length) {
+          System.arraycopy(fullCode, codeOffset, codeCopy, 0, sizeToBeCopied);
         }
-        break;
-        case CODESIZE:
-        case EXTCODESIZE: {
-
-          int length;
-          if (op == OpCode.CODESIZE) {
-            length = program.getCode().length;
-          } else {
-            DataWord address = program.stackPop();
-            length = program.getCodeAt(address).length;
-          }
-          DataWord codeLength = new DataWord(length);
-
-          if (logger.isDebugEnabled()) {
-            hint = SIZE_LOG + length;
-          }
 
-          program.stackPush(codeLength);
-          program.step();
-          break;
+        if (logger.isDebugEnabled()) {
+          hint = "code: " + Hex.toHexString(codeCopy);
         }
-        case CODECOPY:
-        case EXTCODECOPY: {
 
-          byte[] fullCode = EMPTY_BYTE_ARRAY;
-          if (op == OpCode.CODECOPY) {
-            fullCode = program.getCode();
-          }
-
-          if (op == OpCode.EXTCODECOPY) {
-            DataWord address = program.stackPop();
-            fullCode = program.getCodeAt(address);
-          }
+        program.memorySave(memOffset, codeCopy);
+        program.step();
+        break;
+      }
+      case EXTCODEHASH: {
+        DataWord address = program.stackPop();
+        byte[] codeHash = program.getCodeHashAt(address);
+        program.stackPush(codeHash);
+        program.step();
+      }
+      break;
+      case GASPRICE: {
+        DataWord entropyPrice = new DataWord(0);
 
-          int memOffset = program.stackPop().intValueSafe();
-          int codeOffset = program.stackPop().intValueSafe();
-          int lengthData = program.stackPop().intValueSafe();
+        if (logger.isDebugEnabled()) {
+          hint = "price: " + entropyPrice.toString();
+        }
 
-          int sizeToBeCopied =
-              (long) codeOffset + lengthData > fullCode.length
-                  ? (fullCode.length < codeOffset ? 0 : fullCode.length - codeOffset)
-                  : lengthData;
+        program.stackPush(entropyPrice);
+        program.step();
+      }
+      break;
 
-          byte[] codeCopy = new byte[lengthData];
+      /**
+       * Block Information
+       */
+      case BLOCKHASH: {
 
-          if (codeOffset < fullCode.length) {
-            System.arraycopy(fullCode, codeOffset, codeCopy, 0, sizeToBeCopied);
-          }
+        int blockIndex = program.stackPop().intValueSafe();
 
-          if (logger.isDebugEnabled()) {
-            hint = "code: " + Hex.toHexString(codeCopy);
-          }
+        DataWord blockHash = program.getBlockHash(blockIndex);
 
-          program.memorySave(memOffset, codeCopy);
-          program.step();
-          break;
+        if (logger.isDebugEnabled()) {
+          hint = "blockHash: " + blockHash;
         }
-        case EXTCODEHASH: {
-          DataWord address = program.stackPop();
-          byte[] codeHash = program.getCodeHashAt(address);
-          program.stackPush(codeHash);
-          program.step();
-        }
-        break;
-        case GASPRICE: {
-          DataWord entropyPrice = new DataWord(0);
 
-          if (logger.isDebugEnabled()) {
-            hint = "price: " + entropyPrice.toString();
-          }
+        program.stackPush(blockHash);
+        program.step();
+      }
+      break;
+      case COINBASE: {
+        DataWord coinbase = program.getCoinbase();
 
-          program.stackPush(entropyPrice);
-          program.step();
+        if (logger.isDebugEnabled()) {
+          hint = "coinbase: " + Hex.toHexString(coinbase.getLast20Bytes());
         }
-        break;
 
-        /**
-         * Block Information
-         */
-        case BLOCKHASH: {
-
-          int blockIndex = program.stackPop().intValueSafe();
-
-          DataWord blockHash = program.getBlockHash(blockIndex);
-
-          if (logger.isDebugEnabled()) {
-            hint = "blockHash: " + blockHash;
-          }
+        program.stackPush(coinbase);
+        program.step();
+      }
+      break;
+      case TIMESTAMP: {
+        DataWord timestamp = program.getTimestamp();
 
-          program.stackPush(blockHash);
-          program.step();
+        if (logger.isDebugEnabled()) {
+          hint = "timestamp: " + timestamp.value();
         }
-        break;
-        case COINBASE: {
-          DataWord coinbase = program.getCoinbase();
 
-          if (logger.isDebugEnabled()) {
-            hint = "coinbase: " + Hex.toHexString(coinbase.getLast20Bytes());
-          }
+        program.stackPush(timestamp);
+        program.step();
+      }
+      break;
+      case NUMBER: {
+        DataWord number = program.getNumber();
 
-          program.stackPush(coinbase);
-          program.step();
+        if (logger.isDebugEnabled()) {
+          hint = "number: " + number.value();
         }
-        break;
-        case TIMESTAMP: {
-          DataWord timestamp = program.getTimestamp();
 
-          if (logger.isDebugEnabled()) {
-            hint = "timestamp: " + timestamp.value();
-          }
+        program.stackPush(number);
+        program.step();
+      }
+      break;
+      case DIFFICULTY: {
+        DataWord difficulty = program.getDifficulty();
 
-          program.stackPush(timestamp);
-          program.step();
+        if (logger.isDebugEnabled()) {
+          hint = "difficulty: " + difficulty;
         }
-        break;
-        case NUMBER: {
-          DataWord number = program.getNumber();
 
-          if (logger.isDebugEnabled()) {
-            hint = "number: " + number.value();
-          }
+        program.stackPush(difficulty);
+        program.step();
+      }
+      break;
+      case GASLIMIT: {
+        // todo: this entropylimit is the block's entropy limit
+        DataWord entropyLimit = new DataWord(0);
 
-          program.stackPush(number);
-          program.step();
+        if (logger.isDebugEnabled()) {
+          hint = "entropylimit: " + entropyLimit;
         }
-        break;
-        case DIFFICULTY: {
-          DataWord difficulty = program.getDifficulty();
-
-          if (logger.isDebugEnabled()) {
-            hint = "difficulty: " + difficulty;
-          }
 
-          program.stackPush(difficulty);
-          program.step();
-        }
+        program.stackPush(entropyLimit);
+        program.step();
+      }
+      break;
+      case CHAINID: {
+        DataWord chainId = program.getChainId();
+        program.stackPush(chainId);
+        program.step();
         break;
-        case GASLIMIT: {
-          // todo: this entropylimit is the block's entropy limit
-          DataWord entropyLimit = new DataWord(0);
-
-          if (logger.isDebugEnabled()) {
-            hint = "entropylimit: " + entropyLimit;
-          }
+      }
+      case SELFBALANCE: {
+        DataWord selfBalance = program.getBalance(program.getContractAddress());
+        program.stackPush(selfBalance);
+        program.step();
+        break;
+      }
+      case POP: {
+        program.stackPop();
+        program.step();
+      }
+      break;
+      case DUP1:
+      case DUP2:
+      case DUP3:
+      case DUP4:
+      case DUP5:
+      case DUP6:
+      case DUP7:
+      case DUP8:
+      case DUP9:
+      case DUP10:
+      case DUP11:
+      case DUP12:
+      case DUP13:
+      case DUP14:
+      case DUP15:
+      case DUP16: {
+
+        int n = op.val() - OpCode.DUP1.val() + 1;
+        DataWord word_1 = stack.get(stack.size() - n);
+        program.stackPush(word_1.clone());
+        program.step();
 
-          program.stackPush(entropyLimit);
-          program.step();
-        }
         break;
-        case CHAINID: {
-          DataWord chainId = program.getChainId();
-          program.stackPush(chainId);
-          program.step();
-          break;
-        }
-        case SELFBALANCE: {
-          DataWord selfBalance = program.getBalance(program.getContractAddress());
-          program.stackPush(selfBalance);
-          program.step();
-          break;
-        }
-        case POP: {
-          program.stackPop();
-          program.step();
-        }
+      }
+      case SWAP1:
+      case SWAP2:
+      case SWAP3:
+      case SWAP4:
+      case SWAP5:
+      case SWAP6:
+      case SWAP7:
+      case SWAP8:
+      case SWAP9:
+      case SWAP10:
+      case SWAP11:
+      case SWAP12:
+      case SWAP13:
+      case SWAP14:
+      case SWAP15:
+      case SWAP16: {
+
+        int n = op.val() - OpCode.SWAP1.val() + 2;
+        stack.swap(stack.size() - 1, stack.size() - n);
+        program.step();
         break;
-        case DUP1:
-        case DUP2:
-        case DUP3:
-        case DUP4:
-        case DUP5:
-        case DUP6:
-        case DUP7:
-        case DUP8:
-        case DUP9:
-        case DUP10:
-        case DUP11:
-        case DUP12:
-        case DUP13:
-        case DUP14:
-        case DUP15:
-        case DUP16: {
-
-          int n = op.val() - OpCode.DUP1.val() + 1;
-          DataWord word_1 = stack.get(stack.size() - n);
-          program.stackPush(word_1.clone());
-          program.step();
+      }
+      case LOG0:
+      case LOG1:
+      case LOG2:
+      case LOG3:
+      case LOG4: {
 
-          break;
-        }
-        case SWAP1:
-        case SWAP2:
-        case SWAP3:
-        case SWAP4:
-        case SWAP5:
-        case SWAP6:
-        case SWAP7:
-        case SWAP8:
-        case SWAP9:
-        case SWAP10:
-        case SWAP11:
-        case SWAP12:
-        case SWAP13:
-        case SWAP14:
-        case SWAP15:
-        case SWAP16: {
-
-          int n = op.val() - OpCode.SWAP1.val() + 2;
-          stack.swap(stack.size() - 1, stack.size() - n);
-          program.step();
-          break;
+        if (program.isStaticCall()) {
+          throw new Program.StaticCallModificationException();
         }
-        case LOG0:
-        case LOG1:
-        case LOG2:
-        case LOG3:
-        case LOG4: {
+        DataWord address = program.getContractAddress();
 
-          if (program.isStaticCall()) {
-            throw new Program.StaticCallModificationException();
-          }
-          DataWord address = program.getContractAddress();
+        DataWord memStart = stack.pop();
+        DataWord memOffset = stack.pop();
 
-          DataWord memStart = stack.pop();
-          DataWord memOffset = stack.pop();
+        int nTopics = op.val() - OpCode.LOG0.val();
 
-          int nTopics = op.val() - OpCode.LOG0.val();
+        List<DataWord> topics = new ArrayList<>();
+        for (int i = 0; i < nTopics; ++i) {
+          DataWord topic = stack.pop();
+          topics.add(topic);
+        }
 
-          List<DataWord> topics = new ArrayList<>();
-          for (int i = 0; i < nTopics; ++i) {
-            DataWord topic = stack.pop();
-            topics.add(topic);
-          }
+        byte[] data = program.memoryChunk(memStart.intValueSafe(), memOffset.intValueSafe());
 
-          byte[] data = program.memoryChunk(memStart.intValueSafe(), memOffset.intValueSafe());
+        LogInfo logInfo =
+            new LogInfo(address.getLast20Bytes(), topics, data);
 
-          LogInfo logInfo =
-              new LogInfo(address.getLast20Bytes(), topics, data);
+        if (logger.isDebugEnabled()) {
+          hint = logInfo.toString();
+        }
 
-          if (logger.isDebugEnabled()) {
-            hint = logInfo.toString();
-          }
+        program.getResult().addLogInfo(logInfo);
+        program.step();
+        break;
+      }
+      case MLOAD: {
+        DataWord addr = program.stackPop();
+        DataWord data = program.memoryLoad(addr.intValue(), addr);
 
-          program.getResult().addLogInfo(logInfo);
-          program.step();
-          break;
+        if (logger.isDebugEnabled()) {
+          hint = DATA_LOG + data;
         }
-        case MLOAD: {
-          DataWord addr = program.stackPop();
-          DataWord data = program.memoryLoad(addr);
 
-          if (logger.isDebugEnabled()) {
-            hint = DATA_LOG + data;
-          }
+        program.stackPush(data);
+        program.step();
+      }
+      break;
+      case MSTORE: {
+        DataWord addr = program.stackPop();
+        DataWord value = program.stackPop();
 
-          program.stackPush(data);
-          program.step();
+        if (logger.isDebugEnabled()) {
+          hint = "addr: " + addr + VALUE_LOG + value;
         }
-        break;
-        case MSTORE: {
-          DataWord addr = program.stackPop();
-          DataWord value = program.stackPop();
 
-          if (logger.isDebugEnabled()) {
-            hint = "addr: " + addr + VALUE_LOG + value;
-          }
+        program.memorySave(addr, value);
+        program.step();
+      }
+      break;
+      case MSTORE8: {
+        DataWord addr = program.stackPop();
+        DataWord value = program.stackPop();
+        byte[] byteVal = {value.getData()[31]};
+        program.memorySave(addr.intValueSafe(), byteVal);
+        program.step();
+      }
+      break;
+      case SLOAD: {
+        DataWord key = program.stackPop();
+        DataWord val = program.storageLoad(key);
 
-          program.memorySave(addr, value);
-          program.step();
+        if (logger.isDebugEnabled()) {
+          hint = "key: " + key + VALUE_LOG + val;
         }
-        break;
-        case MSTORE8: {
-          DataWord addr = program.stackPop();
-          DataWord value = program.stackPop();
-          byte[] byteVal = {value.getData()[31]};
-          program.memorySave(addr.intValueSafe(), byteVal);
-          program.step();
+
+        if (val == null) {
+          val = key.and(DataWord.ZERO);
         }
-        break;
-        case SLOAD: {
-          DataWord key = program.stackPop();
-          DataWord val = program.storageLoad(key);
 
-          if (logger.isDebugEnabled()) {
-            hint = "key: " + key + VALUE_LOG + val;
-          }
+        program.stackPush(val);
+        program.step();
+      }
+      break;
+      case SSTORE: {
+        if (program.isStaticCall()) {
+          throw new Program.StaticCallModificationException();
+        }
 
-          if (val == null) {
-            val = key.and(DataWord.ZERO);
-          }
+        DataWord addr = program.stackPop();
+        DataWord value = program.stackPop();
 
-          program.stackPush(val);
-          program.step();
+        if (logger.isDebugEnabled()) {
+          hint =
+              "[" + program.getContractAddress().toPrefixString() + "] key: " + addr + VALUE_LOG
+                  + value;
         }
-        break;
-        case SSTORE: {
-          if (program.isStaticCall()) {
-            throw new Program.StaticCallModificationException();
-          }
 
-          DataWord addr = program.stackPop();
-          DataWord value = program.stackPop();
-
-          if (logger.isDebugEnabled()) {
-            hint =
-                "[" + program.getContractAddress().toPrefixString() + "] key: " + addr + VALUE_LOG
-                    + value;
-          }
+        program.storageSave(addr, value);
+        program.step();
+      }
+      break;
+      case JUMP: {
+        DataWord pos = program.stackPop();
+        int nextPC = program.verifyJumpDest(pos);
 
-          program.storageSave(addr, value);
-          program.step();
+        if (logger.isDebugEnabled()) {
+          hint = "~> " + nextPC;
         }
-        break;
-        case JUMP: {
-          DataWord pos = program.stackPop();
+
+        program.setPC(nextPC);
+
+      }
+      break;
+      case JUMPI: {
+        DataWord pos = program.stackPop();
+        DataWord cond = program.stackPop();
+
+        if (!cond.isZero()) {
           int nextPC = program.verifyJumpDest(pos);
 
           if (logger.isDebugEnabled()) {
@@ -1187,269 +1246,248 @@ public class VM {
           }
 
           program.setPC(nextPC);
-
+        } else {
+          program.step();
         }
-        break;
-        case JUMPI: {
-          DataWord pos = program.stackPop();
-          DataWord cond = program.stackPop();
-
-          if (!cond.isZero()) {
-            int nextPC = program.verifyJumpDest(pos);
-
-            if (logger.isDebugEnabled()) {
-              hint = "~> " + nextPC;
-            }
 
-            program.setPC(nextPC);
-          } else {
-            program.step();
-          }
+      }
+      break;
+      case PC: {
+        int pc = program.getPC();
+        DataWord pcWord = new DataWord(pc);
 
+        if (logger.isDebugEnabled()) {
+          hint = pcWord.toString();
         }
-        break;
-        case PC: {
-          int pc = program.getPC();
-          DataWord pcWord = new DataWord(pc);
 
-          if (logger.isDebugEnabled()) {
-            hint = pcWord.toString();
-          }
+        program.stackPush(pcWord);
+        program.step();
+      }
+      break;
+      case MSIZE: {
+        int memSize = program.getMemSize();
+        DataWord wordMemSize = new DataWord(memSize);
 
-          program.stackPush(pcWord);
-          program.step();
+        if (logger.isDebugEnabled()) {
+          hint = "" + memSize;
         }
-        break;
-        case MSIZE: {
-          int memSize = program.getMemSize();
-          DataWord wordMemSize = new DataWord(memSize);
 
-          if (logger.isDebugEnabled()) {
-            hint = "" + memSize;
-          }
-
-          program.stackPush(wordMemSize);
-          program.step();
+        program.stackPush(wordMemSize);
+        program.step();
+      }
+      break;
+      case GAS: {
+        DataWord entropy = program.getEntropyLimitLeft();
+        if (logger.isDebugEnabled()) {
+          hint = "" + entropy;
         }
-        break;
-        case GAS: {
-          DataWord entropy = program.getEntropyLimitLeft();
-          if (logger.isDebugEnabled()) {
-            hint = "" + entropy;
-          }
 
-          program.stackPush(entropy);
-          program.step();
-        }
+        program.stackPush(entropy);
+        program.step();
+      }
+      break;
+
+      case PUSH1:
+      case PUSH2:
+      case PUSH3:
+      case PUSH4:
+      case PUSH5:
+      case PUSH6:
+      case PUSH7:
+      case PUSH8:
+      case PUSH9:
+      case PUSH10:
+      case PUSH11:
+      case PUSH12:
+      case PUSH13:
+      case PUSH14:
+      case PUSH15:
+      case PUSH16:
+      case PUSH17:
+      case PUSH18:
+      case PUSH19:
+      case PUSH20:
+      case PUSH21:
+      case PUSH22:
+      case PUSH23:
+      case PUSH24:
+      case PUSH25:
+      case PUSH26:
+      case PUSH27:
+      case PUSH28:
+      case PUSH29:
+      case PUSH30:
+      case PUSH31:
+      case PUSH32: {
+        int nPush = op.val() - PUSH1.val() + 1;
+
+        DataWord data = program.sweepPush(nPush);
+
+        if (logger.isDebugEnabled()) {
+          hint = "" + Hex.toHexString(data.getData(), DataWord.WORD_SIZE - nPush, nPush);
+        }
+
+        program.stackPush(data);
         break;
+      }
+      case JUMPDEST: {
+        program.step();
+      }
+      break;
+      case CREATE: {
+        if (program.isStaticCall()) {
+          throw new Program.StaticCallModificationException();
+        }
+        DataWord value = program.stackPop();
+        DataWord inOffset = program.stackPop();
+        DataWord inSize = program.stackPop();
+        program.createContract(value, inOffset, inSize);
 
-        case PUSH1:
-        case PUSH2:
-        case PUSH3:
-        case PUSH4:
-        case PUSH5:
-        case PUSH6:
-        case PUSH7:
-        case PUSH8:
-        case PUSH9:
-        case PUSH10:
-        case PUSH11:
-        case PUSH12:
-        case PUSH13:
-        case PUSH14:
-        case PUSH15:
-        case PUSH16:
-        case PUSH17:
-        case PUSH18:
-        case PUSH19:
-        case PUSH20:
-        case PUSH21:
-        case PUSH22:
-        case PUSH23:
-        case PUSH24:
-        case PUSH25:
-        case PUSH26:
-        case PUSH27:
-        case PUSH28:
-        case PUSH29:
-        case PUSH30:
-        case PUSH31:
-        case PUSH32: {
-          program.step();
-          int nPush = op.val() - PUSH1.val() + 1;
-
-          byte[] data = program.sweep(nPush);
-
-          if (logger.isDebugEnabled()) {
-            hint = "" + Hex.toHexString(data);
-          }
+        program.step();
+      }
+      break;
+      case CREATE2: {
+        if (program.isStaticCall()) {
+          throw new Program.StaticCallModificationException();
+        }
+        DataWord value = program.stackPop();
+        DataWord inOffset = program.stackPop();
+        DataWord inSize = program.stackPop();
+        DataWord salt = program.stackPop();
+        program.createContract2(value, inOffset, inSize, salt);
+        program.step();
+      }
+      break;
+      case TOKENBALANCE: {
+        DataWord tokenId = program.stackPop();
+        DataWord address = program.stackPop();
+        DataWord tokenBalance = program.getTokenBalance(address, tokenId);
+        program.stackPush(tokenBalance);
+
+        program.step();
+      }
+      break;
+      case CALL:
+      case CALLCODE:
+      case CALLTOKEN:
+      case DELEGATECALL:
+      case STATICCALL: {
+        program.stackPop(); // use adjustedCallEntropy instead of requested
+        DataWord codeAddress = program.stackPop();
 
-          program.stackPush(data);
-          break;
+        DataWord value;
+        if (op.callHasValue()) {
+          value = program.stackPop();
+        } else {
+          value = DataWord.ZERO;
         }
-        case JUMPDEST: {
-          program.step();
-        }
-        break;
-        case CREATE: {
-          if (program.isStaticCall()) {
-            throw new Program.StaticCallModificationException();
-          }
-          DataWord value = program.stackPop();
-          DataWord inOffset = program.stackPop();
-          DataWord inSize = program.stackPop();
-          program.createContract(value, inOffset, inSize);
 
-          program.step();
-        }
-        break;
-        case CREATE2: {
-          if (program.isStaticCall()) {
-            throw new Program.StaticCallModificationException();
-          }
-          DataWord value = program.stackPop();
-          DataWord inOffset = program.stackPop();
-          DataWord inSize = program.stackPop();
-          DataWord salt = program.stackPop();
-          program.createContract2(value, inOffset, inSize, salt);
-          program.step();
+        if (program.isStaticCall() && (op == OpCode.CALL || op == OpCode.CALLTOKEN) && !value.isZero()) {
+          throw new Program.StaticCallModificationException();
         }
-        break;
-        case TOKENBALANCE: {
-          DataWord tokenId = program.stackPop();
-          DataWord address = program.stackPop();
-          DataWord tokenBalance = program.getTokenBalance(address, tokenId);
-          program.stackPush(tokenBalance);
 
-          program.step();
+        if (!value.isZero()) {
+          adjustedCallEntropy.add(new DataWord(entropyCosts.getSTIPEND_CALL()));
         }
-        break;
-        case CALL:
-        case CALLCODE:
-        case CALLTOKEN:
-        case DELEGATECALL:
-        case STATICCALL: {
-          program.stackPop(); // use adjustedCallEntropy instead of requested
-          DataWord codeAddress = program.stackPop();
-
-          DataWord value;
-          if (op.callHasValue()) {
-            value = program.stackPop();
-          } else {
-            value = DataWord.ZERO;
-          }
-
-          if (program.isStaticCall() && (op == OpCode.CALL || op == OpCode.CALLTOKEN) && !value.isZero()) {
-            throw new Program.StaticCallModificationException();
-          }
 
-          if (!value.isZero()) {
-            adjustedCallEntropy.add(new DataWord(entropyCosts.getSTIPEND_CALL()));
-          }
-
-          DataWord tokenId = new DataWord(0);
-          boolean isTokenTransferMsg = false;
-          if (op == CALLTOKEN) {
-            tokenId = program.stackPop();
-            if (VMConfig.allowMultiSign()) { // allowMultiSign proposal
-              isTokenTransferMsg = true;
-            }
+        DataWord tokenId = new DataWord(0);
+        boolean isTokenTransferMsg = false;
+        if (op == CALLTOKEN) {
+          tokenId = program.stackPop();
+          if (VMConfig.allowMultiSign()) { // allowMultiSign proposal
+            isTokenTransferMsg = true;
           }
+        }
 
-          DataWord inDataOffs = program.stackPop();
-          DataWord inDataSize = program.stackPop();
-
-          DataWord outDataOffs = program.stackPop();
-          DataWord outDataSize = program.stackPop();
-
-          if (logger.isDebugEnabled()) {
-            hint = "addr: " + Hex.toHexString(codeAddress.getLast20Bytes())
-                + " entropy: " + adjustedCallEntropy.shortHex()
-                + " inOff: " + inDataOffs.shortHex()
-                + " inSize: " + inDataSize.shortHex();
-            logger.debug(ENTROPY_LOG_FORMATE, String.format("%5s", "[" + program.getPC() + "]"),
-                String.format("%-12s", op.name()),
-                program.getEntropyLimitLeft().value(),
-                program.getCallDeep(), hint);
-          }
+        DataWord inDataOffs = program.stackPop();
+        DataWord inDataSize = program.stackPop();
 
-          program.memoryExpand(outDataOffs, outDataSize);
+        DataWord outDataOffs = program.stackPop();
+        DataWord outDataSize = program.stackPop();
 
-          MessageCall msg = new MessageCall(
-              op, adjustedCallEntropy, codeAddress, value, inDataOffs, inDataSize,
-              outDataOffs, outDataSize, tokenId, isTokenTransferMsg);
+        if (logger.isDebugEnabled()) {
+          hint = "addr: " + Hex.toHexString(codeAddress.getLast20Bytes())
+              + " entropy: " + adjustedCallEntropy.shortHex()
+              + " inOff: " + inDataOffs.shortHex()
+              + " inSize: " + inDataSize.shortHex();
+          logger.debug(ENTROPY_LOG_FORMATE, String.format("%5s", "[" + program.getPC() + "]"),
+              String.format("%-12s", op.name()),
+              program.getEntropyLimitLeft().value(),
+              program.getCallDeep(), hint);
+        }
 
-          PrecompiledContracts.PrecompiledContract contract =
-              PrecompiledContracts.getContractForAddress(codeAddress);
+        program.memoryExpand(outDataOffs, outDataSize);
 
-          if (!op.callIsStateless()) {
-            program.getResult().addTouchAccount(codeAddress.getLast20Bytes());
-          }
+        MessageCall msg = new MessageCall(
+            op, adjustedCallEntropy, codeAddress, value, inDataOffs, inDataSize,
+            outDataOffs, outDataSize, tokenId, isTokenTransferMsg);
 
-          if (contract != null) {
-            program.callToPrecompiledAddress(msg, contract);
-          } else {
-            program.callToAddress(msg);
-          }
+        PrecompiledContracts.PrecompiledContract contract =
+            PrecompiledContracts.getContractForAddress(codeAddress);
 
-          program.step();
-          break;
+        if (!op.callIsStateless()) {
+          program.getResult().addTouchAccount(codeAddress.getLast20Bytes());
         }
-        case RETURN:
-        case REVERT: {
-          DataWord offset = program.stackPop();
-          DataWord size = program.stackPop();
 
-          byte[] hReturn = program.memoryChunk(offset.intValueSafe(), size.intValueSafe());
-          program.setHReturn(hReturn);
+        if (contract != null) {
+          program.callToPrecompiledAddress(msg, contract);
+        } else {
+          program.callToAddress(msg);
+        }
 
-          if (logger.isDebugEnabled()) {
-            hint = DATA_LOG + Hex.toHexString(hReturn)
-                + " offset: " + offset.value()
-                + " size: " + size.value();
-          }
+        program.step();
+        break;
+      }
+      case RETURN:
+      case REVERT: {
+        DataWord offset = program.stackPop();
+        DataWord size = program.stackPop();
 
-          program.step();
-          program.stop();
+        byte[] hReturn = program.memoryChunk(offset.intValueSafe(), size.intValueSafe());
+        program.setHReturn(hReturn);
 
-          if (op == REVERT) {
-            program.getResult().setRevert();
-          }
-          break;
+        if (logger.isDebugEnabled()) {
+          hint = DATA_LOG + Hex.toHexString(hReturn)
+              + " offset: " + offset.value()
+              + " size: " + size.value();
         }
-        case SUICIDE: {
-          if (program.isStaticCall()) {
-            throw new Program.StaticCallModificationException();
-          }
 
-          DataWord address = program.stackPop();
-          program.suicide(address);
-          program.getResult().addTouchAccount(address.getLast20Bytes());
+        program.step();
+        program.stop();
 
-          if (logger.isDebugEnabled()) {
-            hint = ADDRESS_LOG + Hex.toHexString(program.getContractAddress().getLast20Bytes());
-          }
-
-          program.stop();
+        if (op == REVERT) {
+          program.getResult().setRevert();
         }
         break;
-        default:
-          break;
       }
+      case SUICIDE: {
+        if (program.isStaticCall()) {
+          throw new Program.StaticCallModificationException();
+        }
 
-      program.setPreviouslyExecutedOp(op.val());
-    } catch (RuntimeException e) {
-      logger.info("VM halted: [{}]", e.getMessage());
-      if (!(e instanceof TransferException)) {
-        program.spendAllEntropy();
+        DataWord address = program.stackPop();
+        program.suicide(address);
+        program.getResult().addTouchAccount(address.getLast20Bytes());
+
+        if (logger.isDebugEnabled()) {
+          hint = ADDRESS_LOG + Hex.toHexString(program.getContractAddress().getLast20Bytes());
+        }
+
+        program.stop();
       }
-      program.resetFutureRefund();
-      program.stop();
-      throw e;
-    } finally {
-      program.fullTrace();
+      break;
+      default:
+        break;
+    }
+  }
 
+  private void halt(Program program, RuntimeException e) {
+    logger.info("VM halted: [{}]", e.getMessage());
+    if (!(e instanceof TransferException)) {
+      program.spendAllEntropy();
     }
+    program.resetFutureRefund();
+    program.stop();
   }
 
   public void play(Program program) {
@@ -1458,8 +1496,12 @@ public class VM {
         return;
       }
 
-      while (!program.isStopped()) {
-        this.step(program);
+      if (config.vmPreDecode() && !config.vmTrace()) {
+        playBlocks(program);
+      } else {
+        while (!program.isStopped()) {
+          this.step(program);
+        }
       }
 
     } catch (JVMStackOverFlowException | OutOfTimeException e) {
@@ -1479,6 +1521,91 @@ public class VM {
     }
   }
 
+  /**
+   * Plays the program by the basic blocks of its code, the ops out of them, and those of a block
+   * the entropy left does not pay for, stepped one by one.
+   */
+  private void playBlocks(Program program) {
+    ProgramPrecompile precompile = program.getProgramPrecompile();
+    while (!program.isStopped()) {
+      Block block = precompile.getBlock(program.getPC());
+      if (block == null || program.getEntropyLimitLeftLong() < block.getEntropyCost()) {
+        this.step(program);
+      } else {
+        this.step(program, block);
+        blocksPlayed.increment();
+      }
+    }
+  }
+
+  // for test
+  public static long getBlocksPlayed() {
+    return blocksPlayed.sum();
+  }
+
+  /**
+   * @return the entropy the op costs in a basic block, or -1 if it is stepped on its own: its cost
+   * depends on its operands or the state, it reads the entropy left or it may fail a transfer
+   */
+  public static long getBlockEntropyCost(OpCode op) {
+    EntropyCost entropyCosts = EntropyCost.getInstance();
+    switch (op) {
+      case STOP:
+        return entropyCosts.getSTOP();
+      case SLOAD:
+        return entropyCosts.getSLOAD();
+      case BALANCE:
+      case ISCONTRACT:
+        return entropyCosts.getBALANCE();
+      case EXTCODESIZE:
+        return entropyCosts.getEXT_CODE_SIZE();
+      case EXTCODEHASH:
+        return entropyCosts.getEXT_CODE_HASH();
+      case SUICIDE:
+      case SSTORE:
+      case MSTORE:
+      case MSTORE8:
+      case MLOAD:
+      case RETURN:
+      case REVERT:
+      case SHA3:
+      case CALLDATACOPY:
+      case RETURNDATACOPY:
+      case CODECOPY:
+      case EXTCODECOPY:
+      case CALL:
+      case CALLCODE:
+      case DELEGATECALL:
+      case STATICCALL:
+      case CALLTOKEN:
+      case CREATE:
+      case CREATE2:
+      case LOG0:
+      case LOG1:
+      case LOG2:
+      case LOG3:
+      case LOG4:
+      case EXP:
+      case GAS:
+      case TOKENBALANCE:
+        return -1;
+      default:
+        return op.getTier().asInt();
+    }
+  }
+
+  private boolean isInvalid(OpCode op) {
+    return (op == null
+        || (!VMConfig.allowVvmTransferVrc10()
+            && (op == CALLTOKEN || op == TOKENBALANCE || op == CALLTOKENVALUE
+        || op == CALLTOKENID))
+        || (!VMConfig.allowVvmConstantinople()
+            && (op == SHL || op == SHR || op == SAR || op == CREATE2 || op == EXTCODEHASH))
+        || (!VMConfig.allowVvmSolidity059() && op == ISCONTRACT)
+        || (!VMConfig.allowVvmIstanbul() && (op == SELFBALANCE || op == CHAINID)))
+        && !allowChainId(op);
+  }
+
   private boolean isDeadAccount(Program program, DataWord address) {
     return program.getContractState().getAccount(convertToVisionAddress(address.getLast20Bytes()))
         == null;
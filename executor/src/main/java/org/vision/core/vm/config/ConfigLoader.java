@@ -17,6 +17,7 @@ public class ConfigLoader {
     if (!disable) {
       DynamicPropertiesStore ds = storeFactory.getChainBaseManager().getDynamicPropertiesStore();
       VMConfig.setVmTrace(CommonParameter.getInstance().isVmTrace());
+      VMConfig.setVmPreDecode(CommonParameter.getInstance().isVmPreDecode());
       if (ds != null) {
         VMConfig.initVmHardFork(checkForEntropyLimit(ds));
         VMConfig.initAllowMultiSign(ds.getAllowMultiSign());
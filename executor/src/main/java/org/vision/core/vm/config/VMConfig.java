@@ -34,6 +34,9 @@ public class VMConfig {
   @Setter
   private static boolean vmTrace = false;
 
+  @Setter
+  private static boolean vmPreDecode = false;
+
   private static boolean ALLOW_VVM_TRANSFER_VRC10 = false;
 
   private static boolean ALLOW_VVM_CONSTANTINOPLE = false;
@@ -63,6 +66,10 @@ public class VMConfig {
     return vmTrace;
   }
 
+  public static boolean vmPreDecode() {
+    return vmPreDecode;
+  }
+
   public static boolean vmTraceCompressed() {
     return vmTraceCompressed;
   }
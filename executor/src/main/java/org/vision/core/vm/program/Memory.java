@@ -17,25 +17,30 @@
  */
 package org.vision.core.vm.program;
 
-import static java.lang.Math.ceil;
-import static java.lang.Math.min;
 import static java.lang.String.format;
 import static org.vision.common.utils.ByteUtil.EMPTY_BYTE_ARRAY;
 import static org.vision.common.utils.ByteUtil.oneByteToHexString;
 
-import java.util.LinkedList;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import org.vision.core.vm.program.listener.ProgramListener;
 import org.vision.core.vm.program.listener.ProgramListenerAware;
 import org.vision.common.runtime.vm.DataWord;
 
+/**
+ * The memory of a program in one array, allocated in chunks of 1 KB and grown by doubling, so
+ * reads and writes copy at their offset straight away.
+ */
 public class Memory implements ProgramListenerAware {
 
   private static final int CHUNK_SIZE = 1024;
   private static final int WORD_SIZE = 32;
 
-  private List<byte[]> chunks = new LinkedList<>();
+  private byte[] buffer = EMPTY_BYTE_ARRAY;
+  // the size in whole chunks, the buffer may be larger
+  private int internalSize;
   private int softSize;
   private ProgramListener programListener;
 
@@ -50,27 +55,7 @@ public class Memory implements ProgramListenerAware {
     }
 
     extend(address, size);
-    byte[] data = new byte[size];
-
-    int chunkIndex = address / CHUNK_SIZE;
-    int chunkOffset = address % CHUNK_SIZE;
-
-    int toGrab = data.length;
-    int start = 0;
-
-    while (toGrab > 0) {
-      int copied = grabMax(chunkIndex, chunkOffset, toGrab, data, start);
-
-      // read next chunk from the start
-      ++chunkIndex;
-      chunkOffset = 0;
-
-      // mark remind
-      toGrab -= copied;
-      start += copied;
-    }
-
-    return data;
+    return Arrays.copyOfRange(buffer, address, address + size);
   }
 
   public void write(int address, byte[] data, int dataSize, boolean limited) {
@@ -83,27 +68,15 @@ public class Memory implements ProgramListenerAware {
       extend(address, dataSize);
     }
 
-    int chunkIndex = address / CHUNK_SIZE;
-    int chunkOffset = address % CHUNK_SIZE;
-
-    int toCapture = 0;
+    int toCapture;
     if (limited) {
       toCapture = (address + dataSize > softSize) ? softSize - address : dataSize;
     } else {
       toCapture = dataSize;
     }
 
-    int start = 0;
-    while (toCapture > 0) {
-      int captured = captureMax(chunkIndex, chunkOffset, toCapture, data, start);
-
-      // capture next chunk
-      ++chunkIndex;
-      chunkOffset = 0;
-
-      // mark remind
-      toCapture -= captured;
-      start += captured;
+    if (toCapture > 0) {
+      System.arraycopy(data, 0, buffer, address, toCapture);
     }
 
     if (programListener != null) {
@@ -123,14 +96,17 @@ public class Memory implements ProgramListenerAware {
     }
 
     final int newSize = Math.addExact(address, size);
-    int toAllocate = newSize - internalSize();
-    if (toAllocate > 0) {
-      addChunks((int) ceil((double) toAllocate / CHUNK_SIZE));
+    if (newSize > internalSize) {
+      internalSize = Math.toIntExact(((long) newSize + CHUNK_SIZE - 1) / CHUNK_SIZE * CHUNK_SIZE);
+      if (internalSize > buffer.length) {
+        // doubling keeps the copies of a growing memory linear in its size
+        buffer = Arrays.copyOf(buffer, Math.max(internalSize, buffer.length << 1));
+      }
     }
 
-    toAllocate = newSize - softSize;
+    int toAllocate = newSize - softSize;
     if (toAllocate > 0) {
-      toAllocate = (int) ceil((double) toAllocate / WORD_SIZE) * WORD_SIZE;
+      toAllocate = (int) (((long) toAllocate + WORD_SIZE - 1) / WORD_SIZE * WORD_SIZE);
       softSize = Math.addExact(softSize, toAllocate);
 
       if (programListener != null) {
@@ -140,18 +116,26 @@ public class Memory implements ProgramListenerAware {
   }
 
   public DataWord readWord(int address) {
-    return new DataWord(read(address, 32));
+    return new DataWord(read(address, WORD_SIZE));
+  }
+
+  /**
+   * Read the word at the address into the data of the given word, which is returned, or into a
+   * new word if the given one has no 32 bytes of its own.
+   */
+  public DataWord readWord(int address, DataWord word) {
+    byte[] data = word.getData();
+    if (data.length != WORD_SIZE) {
+      return readWord(address);
+    }
+    extend(address, WORD_SIZE);
+    System.arraycopy(buffer, address, data, 0, WORD_SIZE);
+    return word;
   }
 
   // just access expecting all data valid
   public byte readByte(int address) {
-
-    int chunkIndex = address / CHUNK_SIZE;
-    int chunkOffset = address % CHUNK_SIZE;
-
-    byte[] chunk = chunks.get(chunkIndex);
-
-    return chunk[chunkOffset];
+    return buffer[address];
   }
 
   @Override
@@ -192,35 +176,17 @@ public class Memory implements ProgramListenerAware {
   }
 
   public int internalSize() {
-    return chunks.size() * CHUNK_SIZE;
+    return internalSize;
   }
 
+  /**
+   * @return copies of the memory in chunks of 1 KB
+   */
   public List<byte[]> getChunks() {
-    return new LinkedList<>(chunks);
-  }
-
-  private int captureMax(int chunkIndex, int chunkOffset, int size, byte[] src, int srcPos) {
-
-    byte[] chunk = chunks.get(chunkIndex);
-    int toCapture = min(size, chunk.length - chunkOffset);
-
-    System.arraycopy(src, srcPos, chunk, chunkOffset, toCapture);
-    return toCapture;
-  }
-
-  private int grabMax(int chunkIndex, int chunkOffset, int size, byte[] dest, int destPos) {
-
-    byte[] chunk = chunks.get(chunkIndex);
-    int toGrab = min(size, chunk.length - chunkOffset);
-
-    System.arraycopy(chunk, chunkOffset, dest, destPos, toGrab);
-
-    return toGrab;
-  }
-
-  private void addChunks(int num) {
-    for (int i = 0; i < num; ++i) {
-      chunks.add(new byte[CHUNK_SIZE]);
+    List<byte[]> chunks = new ArrayList<>(internalSize / CHUNK_SIZE);
+    for (int offset = 0; offset < internalSize; offset += CHUNK_SIZE) {
+      chunks.add(Arrays.copyOfRange(buffer, offset, offset + CHUNK_SIZE));
     }
+    return chunks;
   }
 }
@@ -74,7 +74,7 @@ public class Program {
 
   private static final int MAX_DEPTH = 64;
   //Max size for stack checks
-  private static final int MAX_STACK_SIZE = 1024;
+  private static final int MAX_STACK_SIZE = Stack.MAX_SIZE;
   private static final String VALIDATE_FOR_SMART_CONTRACT_FAILURE =
       "validateForSmartContract failure:%s";
   private static final String INVALID_TOKEN_ID_MSG = "not valid token id";
@@ -102,6 +102,7 @@ public class Program {
   private byte previouslyExecutedOp;
   private boolean stopped;
   private ProgramPrecompile programPrecompile;
+  private byte[] codeHash;
 
   public Program(byte[] ops, ProgramInvoke programInvoke) {
     this(ops, programInvoke, null);
@@ -120,7 +121,8 @@ public class Program {
 
     traceListener = new ProgramTraceListener(config.vmTrace());
     this.memory = setupProgramListener(new Memory());
-    this.stack = setupProgramListener(new Stack());
+    // only the trace listens to the stack, the hooks are left out of the stack otherwise
+    this.stack = config.vmTrace() ? setupProgramListener(new Stack()) : new Stack();
     this.contractState = setupProgramListener(new ContractState(programInvoke));
     this.trace = new ProgramTrace(config, programInvoke);
     this.nonce = internalTransaction.getNonce();
@@ -282,11 +284,19 @@ public class Program {
 
   public ProgramPrecompile getProgramPrecompile() {
     if (programPrecompile == null) {
-      programPrecompile = ProgramPrecompile.compile(ops);
+      programPrecompile = ProgramPrecompileCache.getInstance().get(codeHash, ops);
     }
     return programPrecompile;
   }
 
+  /**
+   * The code hash kept with the contract of the code, to share the analysis of the code with the
+   * other programs of it.
+   */
+  public void setCodeHash(byte[] codeHash) {
+    this.codeHash = codeHash;
+  }
+
   public int getCallDeep() {
     return invoke.getCallDeep();
   }
@@ -407,6 +417,24 @@ public class Program {
     setPC(pc + 1);
   }
 
+  /**
+   * Sweeps the PUSH at the pc and its immediate.
+   *
+   * @return the word the PUSH pushes
+   */
+  public DataWord sweepPush(int n) {
+    int push = pc;
+    step();
+    if (pc + n > ops.length) {
+      stop();
+    }
+    pc += n;
+    if (pc >= ops.length) {
+      stop();
+    }
+    return getProgramPrecompile().getPushWord(push);
+  }
+
   public byte[] sweep(int n) {
 
     if (pc + n > ops.length) {
@@ -486,6 +514,14 @@ public class Program {
     return memory.readWord(address);
   }
 
+  /**
+   * Loads the word at the address into the given word, a popped one that is not referred to
+   * anymore.
+   */
+  public DataWord memoryLoad(int address, DataWord word) {
+    return memory.readWord(address, word);
+  }
+
   public byte[] memoryChunk(int offset, int size) {
     return memory.read(offset, size);
   }
@@ -1002,6 +1038,10 @@ public class Program {
       VM vm = new VM(config);
       Program program = new Program(programCode, programInvoke, internalTx, config);
       program.setRootTransactionId(this.rootTransactionId);
+      ContractCapsule codeContract = getContractState().getContract(codeAddress);
+      if (codeContract != null) {
+        program.setCodeHash(codeContract.getCodeHash());
+      }
       vm.play(program);
       callResult = program.getResult();
 
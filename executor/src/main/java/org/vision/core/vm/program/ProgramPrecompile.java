@@ -17,24 +17,52 @@
  */
 package org.vision.core.vm.program;
 
-import java.util.HashSet;
-import java.util.Set;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
 import lombok.extern.slf4j.Slf4j;
 import org.vision.common.runtime.vm.DataWord;
 import org.vision.core.vm.OpCode;
+import org.vision.core.vm.VM;
 import org.vision.core.vm.config.VMConfig;
 
 
 @Slf4j(topic = "VM")
 /**
  * Created by Anton Nashatyrev on 06.02.2017.
+ *
+ * The analysis of a code: its jump destinations, the words its PUSHes push and its basic blocks.
  */
 public class ProgramPrecompile {
 
-  private Set<Integer> jumpdest = new HashSet<>();
+  private final byte[] code;
+  private final BitSet jumpdest;
+  // by the pc of the PUSH
+  private final DataWord[] pushWords;
+  // by the pc of the first op, built with the analysis when the vm plays them and on the first
+  // use otherwise
+  private volatile Block[] blocks;
+  private final int size;
+
+  private ProgramPrecompile(byte[] code, BitSet jumpdest, DataWord[] pushWords, int pushes) {
+    this.code = code;
+    this.jumpdest = jumpdest;
+    this.pushWords = pushWords;
+    // the arrays, their headers, the words and the blocks
+    int size = 64 + code.length + jumpdest.size() / 8 + 4 * pushWords.length + 64 * pushes;
+    if (VMConfig.vmPreDecode()) {
+      Block[] blocks = new Block[code.length];
+      size += 4 * blocks.length + 48 * compileBlocks(code, blocks);
+      this.blocks = blocks;
+    }
+    this.size = size;
+  }
 
   public static ProgramPrecompile compile(byte[] ops) {
-    ProgramPrecompile ret = new ProgramPrecompile();
+    BitSet jumpdest = new BitSet(ops.length);
+    DataWord[] pushWords = new DataWord[ops.length];
+    int pushes = 0;
     for (int i = 0; i < ops.length; ++i) {
 
       OpCode op = OpCode.code(ops[i]);
@@ -43,15 +71,62 @@ public class ProgramPrecompile {
       }
 
       if (op.equals(OpCode.JUMPDEST)) {
-        logger.debug("JUMPDEST:" + i);
-        ret.jumpdest.add(i);
+        jumpdest.set(i);
       }
 
       if (op.asInt() >= OpCode.PUSH1.asInt() && op.asInt() <= OpCode.PUSH32.asInt()) {
+        pushWords[i] = decodePush(ops, i);
+        pushes++;
+        i += op.asInt() - OpCode.PUSH1.asInt() + 1;
+      }
+    }
+    return new ProgramPrecompile(ops, jumpdest, pushWords, pushes);
+  }
+
+  /**
+   * @param blocks by the pc of the first op, to add the basic blocks of the code to
+   * @return the ops in the blocks
+   */
+  private static int compileBlocks(byte[] ops, Block[] blocks) {
+    List<OpCode> blockOps = new ArrayList<>();
+    int blockStart = 0;
+    long blockEntropyCost = 0;
+    int blockOpCount = 0;
+    for (int i = 0; i < ops.length; ++i) {
+
+      OpCode op = OpCode.code(ops[i]);
+      long entropyCost = op == null ? -1 : VM.getBlockEntropyCost(op);
+      // a block is entered at its first op only, so a jump destination starts one
+      if (entropyCost < 0 || op == OpCode.JUMPDEST) {
+        addBlock(blocks, blockStart, blockOps, blockEntropyCost);
+      }
+      if (entropyCost >= 0) {
+        if (blockOps.isEmpty()) {
+          blockStart = i;
+          blockEntropyCost = 0;
+        }
+        blockOps.add(op);
+        blockEntropyCost += entropyCost;
+        blockOpCount++;
+      }
+      if (op == OpCode.JUMP || op == OpCode.JUMPI || op == OpCode.STOP) {
+        addBlock(blocks, blockStart, blockOps, blockEntropyCost);
+      }
+
+      if (op != null && op.asInt() >= OpCode.PUSH1.asInt()
+          && op.asInt() <= OpCode.PUSH32.asInt()) {
         i += op.asInt() - OpCode.PUSH1.asInt() + 1;
       }
     }
-    return ret;
+    addBlock(blocks, blockStart, blockOps, blockEntropyCost);
+    return blockOpCount;
+  }
+
+  private static void addBlock(Block[] blocks, int start, List<OpCode> ops, long entropyCost) {
+    if (!ops.isEmpty()) {
+      blocks[start] = new Block(ops.toArray(new OpCode[0]), entropyCost);
+      ops.clear();
+    }
   }
 
   public static byte[] getCode(byte[] ops) {
@@ -87,7 +162,81 @@ public class ProgramPrecompile {
     }
   }
 
+  /**
+   * @return the basic block starting at the pc, null if none does
+   */
+  public Block getBlock(int pc) {
+    Block[] blocks = this.blocks;
+    if (blocks == null) {
+      // the same blocks if built by two threads at once
+      blocks = new Block[code.length];
+      compileBlocks(code, blocks);
+      this.blocks = blocks;
+    }
+    return pc >= 0 && pc < blocks.length ? blocks[pc] : null;
+  }
+
   public boolean hasJumpDest(int pc) {
-    return jumpdest.contains(pc);
+    return pc >= 0 && jumpdest.get(pc);
+  }
+
+  /**
+   * @return a copy of the word the PUSH at the pc pushes
+   */
+  public DataWord getPushWord(int pc) {
+    DataWord word = pushWords[pc];
+    if (word == null) {
+      // a pc the program runs to is always one the analysis decoded
+      word = decodePush(code, pc);
+    }
+    return word.clone();
+  }
+
+  /**
+   * @return if this is the analysis of the code
+   */
+  public boolean isOf(byte[] ops) {
+    return code == ops || Arrays.equals(code, ops);
+  }
+
+  /**
+   * @return an estimate of the bytes held
+   */
+  public int getSize() {
+    return size;
+  }
+
+  private static DataWord decodePush(byte[] ops, int pc) {
+    int n = (ops[pc] & 0xff) - OpCode.PUSH1.asInt() + 1;
+    // an immediate cut by the end of the code is padded with zeros
+    byte[] word = new byte[DataWord.WORD_SIZE];
+    System.arraycopy(ops, pc + 1, word, DataWord.WORD_SIZE - n,
+        Math.max(0, Math.min(n, ops.length - pc - 1)));
+    return new DataWord(word);
+  }
+
+  /**
+   * A run of ops entered at its first op only and left at its last, each of a fixed entropy cost.
+   */
+  public static class Block {
+
+    private final OpCode[] ops;
+    private final long entropyCost;
+
+    private Block(OpCode[] ops, long entropyCost) {
+      this.ops = ops;
+      this.entropyCost = entropyCost;
+    }
+
+    public OpCode[] getOps() {
+      return ops;
+    }
+
+    /**
+     * @return the entropy of all the ops
+     */
+    public long getEntropyCost() {
+      return entropyCost;
+    }
   }
 }
@@ -0,0 +1,74 @@
+package org.vision.core.vm.program;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.cache.Weigher;
+import org.vision.common.parameter.CommonParameter;
+import org.vision.common.utils.ByteUtil;
+import org.vision.core.db.ByteArrayWrapper;
+
+/**
+ * The analyses of the codes run, by the code hash kept with their contract, shared by the
+ * programs of every transaction, constant call and entropy estimate, bounded by the bytes they
+ * hold. The hash a contract keeps was not checked against its code before Constantinople, so an
+ * analysis is only taken for the very code it was made of.
+ */
+public class ProgramPrecompileCache {
+
+  private static final long MB = 1024 * 1024L;
+
+  private static volatile ProgramPrecompileCache instance;
+
+  private final Cache<ByteArrayWrapper, ProgramPrecompile> precompiles;
+
+  public ProgramPrecompileCache(long maxBytes) {
+    this.precompiles = CacheBuilder.newBuilder().maximumWeight(Math.max(0, maxBytes))
+        .weigher((Weigher<ByteArrayWrapper, ProgramPrecompile>) (codeHash, precompile) ->
+            precompile.getSize())
+        .recordStats().build();
+  }
+
+  /**
+   * The cache of the node, sized by the code cache size of the parameters at the first call.
+   */
+  public static ProgramPrecompileCache getInstance() {
+    if (instance == null) {
+      synchronized (ProgramPrecompileCache.class) {
+        if (instance == null) {
+          instance = new ProgramPrecompileCache(
+              CommonParameter.getInstance().getCodeCacheSize() * MB);
+        }
+      }
+    }
+    return instance;
+  }
+
+  /**
+   * @param codeHash the code hash of the contract of the code, empty if it has none
+   */
+  public ProgramPrecompile get(byte[] codeHash, byte[] code) {
+    if (ByteUtil.isNullOrZeroArray(codeHash)) {
+      return ProgramPrecompile.compile(code);
+    }
+
+    ByteArrayWrapper key = new ByteArrayWrapper(codeHash);
+    ProgramPrecompile precompile = precompiles.getIfPresent(key);
+    if (precompile != null && precompile.isOf(code)) {
+      return precompile;
+    }
+    ProgramPrecompile compiled = ProgramPrecompile.compile(code);
+    if (precompile == null) {
+      precompiles.put(key, compiled);
+    }
+    return compiled;
+  }
+
+  public long size() {
+    return precompiles.size();
+  }
+
+  public CacheStats stats() {
+    return precompiles.stats();
+  }
+}
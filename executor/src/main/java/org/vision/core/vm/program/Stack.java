@@ -17,37 +17,79 @@
  */
 package org.vision.core.vm.program;
 
+import java.util.Arrays;
+import java.util.EmptyStackException;
 import java.util.Objects;
 
 import org.vision.core.vm.program.listener.ProgramListener;
 import org.vision.core.vm.program.listener.ProgramListenerAware;
 import org.vision.common.runtime.vm.DataWord;
 
-public class Stack extends java.util.Stack<DataWord> implements ProgramListenerAware {
+/**
+ * The operand stack of a program, in an array of the 1024 words a program may hold, not
+ * synchronized as a program runs on one thread. The words are the ones pushed: the operations
+ * keep popped words in messages, logs and the storage, so the slots do not own words to reuse.
+ */
+public class Stack implements ProgramListenerAware {
 
-  private static final long serialVersionUID = 1;
+  public static final int MAX_SIZE = 1024;
 
-  private transient ProgramListener programListener;
+  private final DataWord[] words = new DataWord[MAX_SIZE];
+  private int size;
+  private ProgramListener programListener;
 
   @Override
   public void setProgramListener(ProgramListener listener) {
     this.programListener = listener;
   }
 
-  @Override
-  public synchronized DataWord pop() {
+  public DataWord pop() {
+    if (size == 0) {
+      throw new EmptyStackException();
+    }
     if (programListener != null) {
       programListener.onStackPop();
     }
-    return super.pop();
+    DataWord word = words[--size];
+    words[size] = null;
+    return word;
   }
 
-  @Override
+  /**
+   * The program checks the limit of its stack before each operation, a push past it throws an
+   * ArrayIndexOutOfBoundsException.
+   */
   public DataWord push(DataWord item) {
     if (programListener != null) {
       programListener.onStackPush(item);
     }
-    return super.push(item);
+    words[size++] = item;
+    return item;
+  }
+
+  public DataWord peek() {
+    if (size == 0) {
+      throw new EmptyStackException();
+    }
+    return words[size - 1];
+  }
+
+  /**
+   * @param index from the bottom of the stack
+   */
+  public DataWord get(int index) {
+    if (index < 0 || index >= size) {
+      throw new ArrayIndexOutOfBoundsException(index);
+    }
+    return words[index];
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
   }
 
   public void swap(int from, int to) {
@@ -55,13 +97,14 @@ public class Stack extends java.util.Stack<DataWord> implements ProgramListenerA
       if (programListener != null) {
         programListener.onStackSwap(from, to);
       }
-      DataWord tmp = get(from);
-      set(from, set(to, tmp));
+      DataWord tmp = words[from];
+      words[from] = words[to];
+      words[to] = tmp;
     }
   }
 
   private boolean isAccessible(int from) {
-    return from >= 0 && from < size();
+    return from >= 0 && from < size;
   }
 
   @Override
@@ -75,16 +118,23 @@ public class Stack extends java.util.Stack<DataWord> implements ProgramListenerA
     if (o.getClass() != this.getClass()) {
       return false;
     }
-    if (!super.equals(o)) {
-      return false;
-    }
     Stack dataWords = (Stack) o;
-    return Objects.equals(programListener, dataWords.programListener);
+    return size == dataWords.size
+        && Arrays.equals(Arrays.copyOf(words, size), Arrays.copyOf(dataWords.words, size))
+        && Objects.equals(programListener, dataWords.programListener);
   }
 
-
   @Override
   public int hashCode() {
-    return Objects.hash(super.hashCode(), programListener);
+    int result = 1;
+    for (int i = 0; i < size; i++) {
+      result = 31 * result + Objects.hashCode(words[i]);
+    }
+    return Objects.hash(result, programListener);
+  }
+
+  @Override
+  public String toString() {
+    return Arrays.toString(Arrays.copyOf(words, size));
   }
 }
@@ -413,11 +413,10 @@ public class RepositoryImpl implements Repository {
     if (parent != null) {
       code = parent.getCode(address);
     } else {
-      if (null == getCodeStore().get(address)) {
-        code = null;
-      } else {
-        code = getCodeStore().get(address).getData();
-      }
+      // not served from the analyses by code hash: a contract deployed before Constantinople
+      // keeps the hash of its deploy transaction, which may be of another code
+      CodeCapsule codeCapsule = getCodeStore().get(address);
+      code = codeCapsule == null ? null : codeCapsule.getData();
     }
     if (code != null) {
       codeCache.put(key, Value.create(code));
@@ -551,10 +551,7 @@ public class Wallet {
               return builder.setResult(false).setCode(response_code.DUP_TRANSACTION_ERROR)
                       .setMessage(ByteString.copyFromUtf8("dup eth transaction")).build();
             } else {
-              TransactionCapsule.EthTrx ethTrx = new TransactionCapsule.EthTrx(trx.getEthRlpData(chainBaseManager.getDynamicPropertiesStore()));
-              if (!ethTrx.isParsed()) {
-                ethTrx.rlpParse();
-              }
+              TransactionCapsule.EthTrx ethTrx = trx.getEthTrx(chainBaseManager.getDynamicPropertiesStore());
               long nonce = ByteUtil.byteArrayToLong(ethTrx.getNonce());
               long nowBlock = chainBaseManager.getDynamicPropertiesStore().getLatestBlockHeaderNumber();
               if ((nowBlock - nonce) >= Parameter.ChainConstant.ETH_TRANSACTION_RLP_VALID_NONCE_SCOPE) {
@@ -26,6 +26,7 @@ import org.vision.common.logsfilter.trigger.ContractLogTrigger;
 import org.vision.common.overlay.discover.node.Node;
 import org.vision.common.parameter.CommonParameter;
 import org.vision.common.parameter.RateLimiterInitialization;
+import org.vision.common.setting.RocksDbProfile;
 import org.vision.common.setting.RocksDbSettings;
 import org.vision.common.utils.*;
 import org.vision.core.Constant;
@@ -165,6 +166,12 @@ public class Args extends CommonParameter {
     PARAMETER.allowProtoFilterNum = 0;
     PARAMETER.allowAccountStateRoot = 0;
     PARAMETER.validContractProtoThreadNum = 1;
+    PARAMETER.parallelExecutionEnable = false;
+    PARAMETER.parallelExecutionThreadNum = 1;
+    PARAMETER.blockAssemblyStrategy = "arrival";
+    PARAMETER.generatedBlockReplayEnable = false;
+    PARAMETER.txCacheSnapshotEnable = false;
+    PARAMETER.txCacheSnapshotInterval = 600;
     PARAMETER.shieldedTransInPendingMaxCounts = 10;
     PARAMETER.changedDelegation = 0;
     PARAMETER.fullNodeHttpEnable = true;
@@ -304,6 +311,10 @@ public class Args extends CommonParameter {
       PARAMETER.longRunningTime = config.getInt(Constant.VM_LONG_RUNNING_TIME);
     }
 
+    if (config.hasPath(Constant.VM_CODE_CACHE_SIZE)) {
+      PARAMETER.codeCacheSize = config.getInt(Constant.VM_CODE_CACHE_SIZE);
+    }
+
     PARAMETER.storage = new Storage();
     PARAMETER.storage.setDbVersion(Optional.ofNullable(PARAMETER.storageDbVersion)
         .filter(StringUtils::isNotEmpty)
@@ -347,6 +358,16 @@ public class Args extends CommonParameter {
                 .filter(StringUtils::isNotEmpty)
                 .orElse(Storage.getTransactionHistorySwitchFromConfig(config)));
 
+    PARAMETER.storage.setSnapshotIndexEnable(Storage.getSnapshotIndexEnableFromConfig(config));
+    PARAMETER.storage.setBloomFilterDbs(Storage.getBloomFilterDbsFromConfig(config));
+    PARAMETER.storage.setBloomFilterExpectedInsertions(
+        Storage.getBloomFilterExpectedInsertionsFromConfig(config));
+    PARAMETER.storage.setBloomFilterFpp(Storage.getBloomFilterFppFromConfig(config));
+    PARAMETER.storage.setCapsuleCacheSize(Storage.getCapsuleCacheSizeFromConfig(config));
+    PARAMETER.storage.setCheckpointAsync(Storage.getCheckpointAsyncFromConfig(config));
+    PARAMETER.storage.setFlushThreads(Storage.getFlushThreadsFromConfig(config));
+    PARAMETER.storage.setFlushShardSize(Storage.getFlushShardSizeFromConfig(config));
+
     PARAMETER.storage.setPropertyMapFromConfig(config);
 
     PARAMETER.seedNode = new SeedNode();
@@ -579,6 +600,10 @@ public class Args extends CommonParameter {
             .getInt(Constant.NODE_VALIDATE_SIGN_THREAD_NUM)
             : (Runtime.getRuntime().availableProcessors() + 1) / 2;
 
+    PARAMETER.validateSignCacheSize =
+        config.hasPath(Constant.NODE_VALIDATE_SIGN_CACHE_SIZE) ? config
+            .getInt(Constant.NODE_VALIDATE_SIGN_CACHE_SIZE) : 100_000;
+
     PARAMETER.walletExtensionApi =
         config.hasPath(Constant.NODE_WALLET_EXTENSION_API)
             && config.getBoolean(Constant.NODE_WALLET_EXTENSION_API);
@@ -639,6 +664,9 @@ public class Args extends CommonParameter {
     PARAMETER.vmTrace =
         config.hasPath(Constant.VM_TRACE) && config.getBoolean(Constant.VM_TRACE);
 
+    PARAMETER.vmPreDecode =
+        config.hasPath(Constant.VM_PRE_DECODE) && config.getBoolean(Constant.VM_PRE_DECODE);
+
     PARAMETER.saveInternalTx =
         config.hasPath(Constant.VM_SAVE_INTERNAL_TX)
             && config.getBoolean(Constant.VM_SAVE_INTERNAL_TX);
@@ -692,6 +720,31 @@ public class Args extends CommonParameter {
             .getInt(Constant.NODE_VALID_CONTRACT_PROTO_THREADS)
             : Runtime.getRuntime().availableProcessors();
 
+    PARAMETER.parallelExecutionEnable =
+        config.hasPath(Constant.NODE_PARALLEL_EXECUTION_ENABLE) && config
+            .getBoolean(Constant.NODE_PARALLEL_EXECUTION_ENABLE);
+
+    PARAMETER.parallelExecutionThreadNum =
+        config.hasPath(Constant.NODE_PARALLEL_EXECUTION_THREADS) ? config
+            .getInt(Constant.NODE_PARALLEL_EXECUTION_THREADS)
+            : Runtime.getRuntime().availableProcessors();
+
+    PARAMETER.blockAssemblyStrategy =
+        config.hasPath(Constant.NODE_BLOCK_ASSEMBLY_STRATEGY) ? config
+            .getString(Constant.NODE_BLOCK_ASSEMBLY_STRATEGY) : "arrival";
+
+    PARAMETER.generatedBlockReplayEnable =
+        config.hasPath(Constant.NODE_GENERATED_BLOCK_REPLAY_ENABLE) && config
+            .getBoolean(Constant.NODE_GENERATED_BLOCK_REPLAY_ENABLE);
+
+    PARAMETER.txCacheSnapshotEnable =
+        config.hasPath(Constant.NODE_TX_CACHE_SNAPSHOT_ENABLE) && config
+            .getBoolean(Constant.NODE_TX_CACHE_SNAPSHOT_ENABLE);
+
+    PARAMETER.txCacheSnapshotInterval =
+        config.hasPath(Constant.NODE_TX_CACHE_SNAPSHOT_INTERVAL) ? config
+            .getInt(Constant.NODE_TX_CACHE_SNAPSHOT_INTERVAL) : 600;
+
     PARAMETER.activeNodes = getNodes(config, Constant.NODE_ACTIVE);
 
     PARAMETER.passiveNodes = getNodes(config, Constant.NODE_PASSIVE);
@@ -1064,9 +1117,55 @@ public class Args extends CommonParameter {
         .initCustomSettings(levelNumber, compactThreads, blocksize, maxBytesForLevelBase,
             maxBytesForLevelMultiplier, level0FileNumCompactionTrigger,
             targetFileSizeBase, targetFileSizeMultiplier, enableStatistics);
+    if (config.hasPath(prefix + "columnFamily")) {
+      PARAMETER.rocksDBCustomSettings
+          .withColumnFamily(config.getBoolean(prefix + "columnFamily"));
+    }
+    if (config.hasPath(prefix + "blockCacheSize")) {
+      PARAMETER.rocksDBCustomSettings
+          .withBlockCacheSize(config.getLong(prefix + "blockCacheSize"));
+    }
+    if (config.hasPath(prefix + "writeBufferSize")) {
+      PARAMETER.rocksDBCustomSettings
+          .withWriteBufferSize(config.getLong(prefix + "writeBufferSize"));
+    }
+    if (config.hasPath(prefix + "profiles")) {
+      for (Config profile : config.getConfigList(prefix + "profiles")) {
+        PARAMETER.rocksDBCustomSettings.withProfile(createRocksDbProfile(profile));
+      }
+    }
     RocksDbSettings.loggingSettings();
   }
 
+  /**
+   * A profile of storage.dbSettings.profiles, the options it lacks keep the defaults of its db.
+   */
+  private static RocksDbProfile createRocksDbProfile(Config config) {
+    RocksDbProfile profile = RocksDbProfile.of(config.getString("name"));
+    if (config.hasPath("cacheShare")) {
+      profile.withCacheShare(config.getDouble("cacheShare"));
+    }
+    if (config.hasPath("bloomBitsPerKey")) {
+      profile.withBloomBitsPerKey(config.getInt("bloomBitsPerKey"));
+    }
+    if (config.hasPath("wholeKeyFiltering")) {
+      profile.withWholeKeyFiltering(config.getBoolean("wholeKeyFiltering"));
+    }
+    if (config.hasPath("prefixLength")) {
+      profile.withPrefixLength(config.getInt("prefixLength"));
+    }
+    if (config.hasPath("compressionPerLevel")) {
+      profile.withCompressionPerLevel(config.getStringList("compressionPerLevel"));
+    }
+    if (config.hasPath("optimizeForPointLookup")) {
+      profile.withOptimizeForPointLookup(config.getBoolean("optimizeForPointLookup"));
+    }
+    if (config.hasPath("partitionedIndex")) {
+      profile.withPartitionedIndex(config.getBoolean("partitionedIndex"));
+    }
+    return profile;
+  }
+
   private static void initRocksDbBackupProperty(Config config) {
     boolean enable =
         config.hasPath(Constant.STORAGE_BACKUP_ENABLE)
@@ -1124,6 +1223,11 @@ public class Args extends CommonParameter {
     logger.info("************************ DB config *************************");
     logger.info("DB version : {}", parameter.getStorage().getDbVersion());
     logger.info("DB engine : {}", parameter.getStorage().getDbEngine());
+    logger.info("Snapshot index : {}", parameter.getStorage().isSnapshotIndexEnable());
+    logger.info("Bloom filter dbs : {}", parameter.getStorage().getBloomFilterDbs());
+    logger.info("Capsule cache : {}", parameter.getStorage().getCapsuleCacheSize());
+    logger.info("Async checkpoint : {}", parameter.getStorage().isCheckpointAsync());
+    logger.info("Flush threads : {}", parameter.getStorage().getFlushThreads());
     logger.info("***************************************************************");
     logger.info("\n");
   }
@@ -0,0 +1,138 @@
+package org.vision.core.db;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import lombok.extern.slf4j.Slf4j;
+import org.vision.common.utils.Sha256Hash;
+import org.vision.core.capsule.BlockCapsule;
+import org.vision.core.capsule.TransactionCapsule;
+import org.vision.core.db.accountstate.AccountStateCallBackUtils.TrieEntry;
+import org.vision.core.db.accountstate.callback.AccountStateCallBack;
+import org.vision.core.db2.core.Speculation;
+import org.vision.core.exception.AccountResourceInsufficientException;
+import org.vision.core.exception.ContractExeException;
+import org.vision.core.exception.ContractValidateException;
+import org.vision.core.exception.DupTransactionException;
+import org.vision.core.exception.P2pVersionException;
+import org.vision.core.exception.ReceiptCheckErrException;
+import org.vision.core.exception.TaposException;
+import org.vision.core.exception.TooBigTransactionException;
+import org.vision.core.exception.TooBigTransactionResultException;
+import org.vision.core.exception.TransactionExpirationException;
+import org.vision.core.exception.VMIllegalException;
+import org.vision.core.exception.ValidateSignatureException;
+import org.vision.protos.Protocol.TransactionInfo;
+
+/**
+ * The writes, the account state entries and the results of the transactions of a block this node
+ * generates. The block applies on the parent it was generated on, so the state is the same and
+ * applying it writes them again instead of executing the transactions a second time.
+ */
+@Slf4j(topic = "DB")
+public class GeneratedBlockReplay {
+
+  private final Manager manager;
+  private final AccountStateCallBack accountStateCallBack;
+  private final BlockCapsule block;
+  private final List<Execution> executions = new ArrayList<>();
+
+  public GeneratedBlockReplay(Manager manager, AccountStateCallBack accountStateCallBack,
+      BlockCapsule block) {
+    this.manager = manager;
+    this.accountStateCallBack = accountStateCallBack;
+    this.block = block;
+  }
+
+  /**
+   * Execute a transaction for the generated block, between the preExeTrans and the merge of its
+   * session, the transaction goes in the block if it succeeds.
+   */
+  public TransactionInfo execute(TransactionCapsule trx)
+      throws ValidateSignatureException, ContractValidateException, ContractExeException,
+      AccountResourceInsufficientException, TransactionExpirationException,
+      TooBigTransactionException, TooBigTransactionResultException,
+      DupTransactionException, TaposException, ReceiptCheckErrException, VMIllegalException,
+      P2pVersionException {
+    // the transaction cache and the transaction store keep the block number
+    long blockNum = trx.getBlockNum();
+    trx.setBlockNum(block.getNum());
+    Speculation speculation = Speculation.begin(false);
+    accountStateCallBack.beginSpeculation();
+    TransactionInfo result;
+    List<TrieEntry> entries;
+    try {
+      result = manager.processTransaction(trx, block);
+    } catch (Exception e) {
+      trx.setBlockNum(blockNum);
+      throw e;
+    } finally {
+      entries = accountStateCallBack.endSpeculation();
+      speculation.end();
+    }
+    accountStateCallBack.exeTransFinish(entries);
+    executions.add(new Execution(trx.getTransactionId(), speculation, entries, result));
+    return result;
+  }
+
+  /**
+   * @return true if the block is the generated one and every transaction of it was recorded
+   */
+  public boolean isReplayable(BlockCapsule applied) {
+    if (applied != block || !applied.generatedByMyself) {
+      return false;
+    }
+
+    List<TransactionCapsule> transactions = applied.getTransactions();
+    if (transactions.size() != executions.size()) {
+      return false;
+    }
+    for (int i = 0; i < transactions.size(); i++) {
+      if (!transactions.get(i).getTransactionId().equals(executions.get(i).id)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Write the recorded transactions of the block, between the preExecute and the
+   * executePushFinish of the account state callback.
+   */
+  public List<TransactionInfo> replay() {
+    List<TransactionInfo> results = new ArrayList<>();
+    List<TransactionCapsule> transactions = block.getTransactions();
+    for (int i = 0; i < transactions.size(); i++) {
+      TransactionCapsule trx = transactions.get(i);
+      Execution execution = executions.get(i);
+      trx.setBlockNum(block.getNum());
+      trx.setVerified(true);
+      accountStateCallBack.preExeTrans();
+      execution.speculation.commit();
+      accountStateCallBack.exeTransFinish(execution.trieEntries);
+      manager.trackMultiSignOwner(trx);
+      if (Objects.nonNull(execution.result)) {
+        results.add(execution.result);
+      }
+    }
+    logger.debug("Block {} replayed {} generated transactions", block.getNum(),
+        transactions.size());
+    return results;
+  }
+
+  private static class Execution {
+
+    private final Sha256Hash id;
+    private final Speculation speculation;
+    private final List<TrieEntry> trieEntries;
+    private final TransactionInfo result;
+
+    private Execution(Sha256Hash id, Speculation speculation, List<TrieEntry> trieEntries,
+        TransactionInfo result) {
+      this.id = id;
+      this.speculation = speculation;
+      this.trieEntries = trieEntries;
+      this.result = result;
+    }
+  }
+}
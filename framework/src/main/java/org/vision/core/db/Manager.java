@@ -9,6 +9,7 @@ import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.ListeningExecutorService;
 import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.google.protobuf.ByteString;
 import lombok.Getter;
 import lombok.Setter;
@@ -19,6 +20,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 import org.vision.common.args.GenesisBlock;
 import org.vision.common.bloom.Bloom;
+import org.vision.common.crypto.SignatureRecoveryService;
 import org.vision.common.logsfilter.EventPluginLoader;
 import org.vision.common.logsfilter.FilterQuery;
 import org.vision.common.logsfilter.capsule.*;
@@ -38,6 +40,7 @@ import org.vision.core.Constant;
 import org.vision.core.actuator.ActuatorCreator;
 import org.vision.core.capsule.*;
 import org.vision.core.capsule.BlockCapsule.BlockId;
+import org.vision.core.capsule.utils.MerkleRootBuilder;
 import org.vision.core.capsule.utils.TransactionUtil;
 import org.vision.core.config.Parameter.ChainConstant;
 import org.vision.core.config.args.Args;
@@ -46,16 +49,23 @@ import org.vision.core.db.KhaosDatabase.KhaosBlock;
 import org.vision.core.db.accountstate.TrieService;
 import org.vision.core.db.accountstate.callback.AccountStateCallBack;
 import org.vision.core.db.api.AssetUpdateHelper;
+import org.vision.core.db.assembly.BlockAssemblyStrategy;
+import org.vision.core.db.assembly.BlockSize;
+import org.vision.core.db.assembly.ExecutionTimeEstimator;
 import org.vision.core.db2.ISession;
+import org.vision.core.db2.common.KeyBloomFilter;
+import org.vision.core.db2.common.TxCacheDB;
 import org.vision.core.db2.core.Chainbase;
 import org.vision.core.db2.core.IVisionChainBase;
 import org.vision.core.db2.core.SnapshotManager;
+import org.vision.core.db2.core.SnapshotRoot;
 import org.vision.core.exception.*;
 import org.vision.core.metrics.MetricsKey;
 import org.vision.core.metrics.MetricsUtil;
 import org.vision.core.service.MortgageService;
 import org.vision.core.store.*;
 import org.vision.core.utils.TransactionRegister;
+import org.vision.core.vm.program.ProgramPrecompileCache;
 import org.vision.protos.Protocol.AccountType;
 import org.vision.protos.Protocol.Transaction;
 import org.vision.protos.Protocol.Transaction.Contract;
@@ -63,6 +73,8 @@ import org.vision.protos.Protocol.TransactionInfo;
 import org.vision.protos.contract.BalanceContract;
 
 import javax.annotation.PostConstruct;
+import java.io.IOException;
+import java.nio.file.Paths;
 import java.util.*;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -114,7 +126,6 @@ public class Manager {
   @Getter
   @Setter
   private MerkleContainer merkleContainer;
-  private ExecutorService validateSignService;
   private boolean isRunRePushThread = true;
   private boolean isRunTriggerCapsuleProcessThread = true;
   private BlockingQueue<TransactionCapsule> pushTransactionQueue = new LinkedBlockingQueue<>();
@@ -128,7 +139,10 @@ public class Manager {
   private AccountStateCallBack accountStateCallBack;
   @Autowired
   private TrieService trieService;
-  private Set<String> ownerAddressSet = new HashSet<>();
+  // speculative executions of a block add to it concurrently
+  private Set<String> ownerAddressSet = ConcurrentHashMap.newKeySet();
+  // null unless the transactions of a block are executed in parallel
+  private SpeculativeExecutor speculativeExecutor;
   @Getter
   @Autowired
   private MortgageService mortgageService;
@@ -140,7 +154,15 @@ public class Manager {
   @Getter
   private ChainBaseManager chainBaseManager;
   // transactions cache
-  private List<TransactionCapsule> pendingTransactions;
+  private TransactionPool pendingTransactions;
+  private BlockAssemblyStrategy blockAssemblyStrategy;
+  private ExecutionTimeEstimator executionTimeEstimator = new ExecutionTimeEstimator();
+  private boolean generatedBlockReplayEnable;
+  // the executions of the last block this node generated, until it applies the block
+  private GeneratedBlockReplay generatedBlockReplay;
+  // null unless the dedup caches are snapshotted
+  private TxCacheSnapshot txCacheSnapshot;
+  private ScheduledExecutorService txCacheSnapshotService;
   @Getter
   private AtomicInteger shieldedTransInPendingCounts = new AtomicInteger(0);
   // transactions popped
@@ -258,7 +280,7 @@ public class Manager {
     return chainBaseManager.getBlockIndexStore();
   }
 
-  public List<TransactionCapsule> getPendingTransactions() {
+  public TransactionPool getPendingTransactions() {
     return this.pendingTransactions;
   }
 
@@ -266,6 +288,11 @@ public class Manager {
     return this.poppedTransactions;
   }
 
+  // for test
+  GeneratedBlockReplay getGeneratedBlockReplay() {
+    return generatedBlockReplay;
+  }
+
   public BlockingQueue<TransactionCapsule> getRePushTransactions() {
     return rePushTransactions;
   }
@@ -289,11 +316,17 @@ public class Manager {
     trieService.setChainBaseManager(chainBaseManager);
     revokingStore.disable();
     revokingStore.check();
+    initDbMetrics();
+    initVmMetrics();
     this.setProposalController(ProposalController.createInstance(this));
     this.setMerkleContainer(
         merkleContainer.createInstance(chainBaseManager.getMerkleTreeStore(),
             chainBaseManager.getMerkleTreeIndexStore()));
-    this.pendingTransactions = Collections.synchronizedList(Lists.newArrayList());
+    this.pendingTransactions = new TransactionPool();
+    initMempoolMetrics();
+    this.blockAssemblyStrategy = BlockAssemblyStrategy.of(
+        Args.getInstance().getBlockAssemblyStrategy(), executionTimeEstimator,
+        chainBaseManager.getDynamicPropertiesStore());
     this.rePushTransactions = new LinkedBlockingQueue<>();
     this.triggerCapsuleQueue = new LinkedBlockingQueue<>();
     chainBaseManager.setMerkleContainer(getMerkleContainer());
@@ -328,10 +361,29 @@ public class Manager {
     //for test only
     chainBaseManager.getDynamicPropertiesStore().updateDynamicStoreByConfig();
 
+    if (Args.getInstance().isTxCacheSnapshotEnable() && transactionCache != null) {
+      txCacheSnapshot = new TxCacheSnapshot(Paths.get(Args.getInstance().getOutputDirectory(),
+          Args.getInstance().getStorage().getDbDirectory(), "trans-cache.snapshot"));
+    }
     initCacheTxs();
+    if (txCacheSnapshot != null) {
+      int interval = Args.getInstance().getTxCacheSnapshotInterval();
+      txCacheSnapshotService = Executors.newSingleThreadScheduledExecutor(
+          new ThreadFactoryBuilder().setNameFormat("tx-cache-snapshot").setDaemon(true).build());
+      txCacheSnapshotService.scheduleWithFixedDelay(this::writeTxCacheSnapshot, interval,
+          interval, TimeUnit.SECONDS);
+    }
     revokingStore.enable();
-    validateSignService = Executors
-        .newFixedThreadPool(Args.getInstance().getValidateSignThreadNum());
+    // the speculation covers the chainbase stores only, the balance history writes aside
+    if (Args.getInstance().isParallelExecutionEnable()
+        && Args.getInstance().getStorage().getDbVersion() == 2
+        && !Args.getInstance().isHistoryBalanceLookup()) {
+      speculativeExecutor = new SpeculativeExecutor(this, accountStateCallBack,
+          Args.getInstance().getParallelExecutionThreadNum());
+    }
+    generatedBlockReplayEnable = Args.getInstance().isGeneratedBlockReplayEnable()
+        && Args.getInstance().getStorage().getDbVersion() == 2
+        && !Args.getInstance().isHistoryBalanceLookup();
     Thread rePushThread = new Thread(rePushLoop);
     rePushThread.start();
     // add contract event listener for subscribing
@@ -348,6 +400,46 @@ public class Manager {
     TransactionRegister.registerActuator();
   }
 
+  private void initDbMetrics() {
+    if (revokingStore instanceof SnapshotManager) {
+      for (Chainbase db : ((SnapshotManager) revokingStore).getDbs()) {
+        SnapshotRoot root = (SnapshotRoot) db.getHead().getRoot();
+        String flushPrefix = MetricsKey.DB_FLUSH + db.getDbName();
+        MetricsUtil.gaugeRegister(flushPrefix + ".time", () -> root.getFlushTime().sum());
+        MetricsUtil.gaugeRegister(flushPrefix + ".lastTime", root::getLastFlushTime);
+        MetricsUtil.gaugeRegister(flushPrefix + ".bytes", () -> root.getFlushBytes().sum());
+
+        KeyBloomFilter filter = root.getFilter();
+        if (filter != null) {
+          String prefix = MetricsKey.DB_BLOOM_FILTER + db.getDbName();
+          MetricsUtil.gaugeRegister(prefix + ".lookup", () -> filter.getLookup().sum());
+          MetricsUtil.gaugeRegister(prefix + ".absent", () -> filter.getAbsent().sum());
+          MetricsUtil.gaugeRegister(prefix + ".falsePositive",
+              () -> filter.getFalsePositive().sum());
+        }
+      }
+    }
+
+    for (CapsuleCache cache : CapsuleCache.getCaches().values()) {
+      String prefix = MetricsKey.DB_CAPSULE_CACHE + cache.getDbName();
+      MetricsUtil.gaugeRegister(prefix + ".hitRate", () -> cache.stats().hitRate());
+      MetricsUtil.gaugeRegister(prefix + ".size", cache::size);
+    }
+  }
+
+  private void initVmMetrics() {
+    ProgramPrecompileCache cache = ProgramPrecompileCache.getInstance();
+    MetricsUtil.gaugeRegister(MetricsKey.VM_CODE_CACHE + "hitRate", () -> cache.stats().hitRate());
+    MetricsUtil.gaugeRegister(MetricsKey.VM_CODE_CACHE + "size", cache::size);
+  }
+
+  // the gauges read the pool of the manager, not the one of their registration
+  private void initMempoolMetrics() {
+    MetricsUtil.gaugeRegister(MetricsKey.MEMPOOL_SIZE, () -> pendingTransactions.size());
+    MetricsUtil.gaugeRegister(MetricsKey.MEMPOOL_SENDERS,
+        () -> pendingTransactions.getSenderCount());
+  }
+
   /**
    * init genesis block.
    */
@@ -477,12 +569,25 @@ public class Manager {
     long headNum = chainBaseManager.getDynamicPropertiesStore().getLatestBlockHeaderNumber();
     logger.info("current headNum is: {}", headNum);
     long recentBlockCount = chainBaseManager.getRecentBlockStore().size();
+    long fromNum = headNum - recentBlockCount + 1;
+    TxCacheDB txCacheDB = transactionCache.getTxCacheDB();
+    if (txCacheSnapshot != null) {
+      long snapshotNum = txCacheSnapshot.load(txCacheDB, transactionIdCache, rlpDataCache,
+          (num, blockId) -> isTxCacheSnapshotUsable(num, blockId, headNum, recentBlockCount));
+      if (snapshotNum >= 0) {
+        fromNum = snapshotNum + 1;
+      }
+    }
+    long snapshotEnd = System.currentTimeMillis();
+    txCacheDB.initialize();
+    long storeEnd = System.currentTimeMillis();
+
     ListeningExecutorService service = MoreExecutors
         .listeningDecorator(Executors.newFixedThreadPool(50));
     List<ListenableFuture<?>> futures = new ArrayList<>();
     AtomicLong blockCount = new AtomicLong(0);
     AtomicLong emptyBlockCount = new AtomicLong(0);
-    LongStream.rangeClosed(headNum - recentBlockCount + 1, headNum).forEach(
+    LongStream.rangeClosed(fromNum, headNum).forEach(
         blockNum -> futures.add(service.submit(() -> {
           try {
             blockCount.incrementAndGet();
@@ -515,14 +620,49 @@ public class Manager {
       logger.info(e.getMessage());
     }
 
-    logger.info("end to init txs cache. trx ids:{}, block count:{}, empty block count:{}, cost:{}",
+    long end = System.currentTimeMillis();
+    logger.info("end to init txs cache. trx ids:{}, block count:{}, empty block count:{}, "
+            + "snapshot cost:{}, store cost:{}, blocks cost:{}, cost:{}",
         transactionCache.size(),
         blockCount.get(),
         emptyBlockCount.get(),
-        System.currentTimeMillis() - start
+        snapshotEnd - start,
+        storeEnd - snapshotEnd,
+        end - storeEnd,
+        end - start
     );
   }
 
+  /**
+   * The snapshot replaces the recent blocks up to its block, if the block is one of them and the
+   * chain still has it.
+   */
+  private boolean isTxCacheSnapshotUsable(long num, byte[] blockId, long headNum,
+      long recentBlockCount) {
+    if (num < 0 || num > headNum || headNum - num >= recentBlockCount) {
+      return false;
+    }
+    try {
+      return Arrays.equals(chainBaseManager.getBlockIdByNum(num).getBytes(), blockId);
+    } catch (ItemNotFoundException e) {
+      return false;
+    }
+  }
+
+  private void writeTxCacheSnapshot() {
+    TxCacheDB txCacheDB = transactionCache.getTxCacheDB();
+    long num = txCacheDB.getNewestBlockNum();
+    if (num < 0) {
+      return;
+    }
+    try {
+      txCacheSnapshot.write(txCacheDB, num, chainBaseManager.getBlockIdByNum(num).getBytes(),
+          transactionIdCache, rlpDataCache);
+    } catch (ItemNotFoundException | IOException | RuntimeException e) {
+      logger.warn("write tx cache snapshot failed", e);
+    }
+  }
+
   public AccountStore getAccountStore() {
     return chainBaseManager.getAccountStore();
   }
@@ -609,9 +749,8 @@ public class Manager {
 
   void validateP2pVersion(TransactionCapsule transactionCapsule) throws P2pVersionException {
     if (chainBaseManager.getDynamicPropertiesStore().getLatestBlockHeaderNumber() >= CommonParameter.getInstance().getEthCompatibleRlpDeDupEffectBlockNum()) {
-        byte[] ethRlpData = transactionCapsule.getEthRlpData(chainBaseManager.getDynamicPropertiesStore());
-        if (ethRlpData != null) {
-          TransactionCapsule.EthTrx ethTrx = new TransactionCapsule.EthTrx(ethRlpData);
+        TransactionCapsule.EthTrx ethTrx = transactionCapsule.getEthTrx(chainBaseManager.getDynamicPropertiesStore());
+        if (ethTrx != null) {
           if (ethTrx.getChainId() == null || ethTrx.getChainId() != CommonParameter.PARAMETER.nodeP2pVersion){
             logger.debug("transaction {}, chainId: {}, p2pVersion: {}",
                     ByteArray.toHexString(transactionCapsule.getTransactionId().getBytes()),ethTrx.getChainId(), CommonParameter.PARAMETER.nodeP2pVersion);
@@ -635,6 +774,11 @@ public class Manager {
       return true;
     }
 
+    // a transaction broadcast again neither waits for the pending state nor verifies again
+    if (pendingTransactions.contains(trx.getTransactionId())) {
+      throw new DupTransactionException("dup trans");
+    }
+
     pushTransactionQueue.add(trx);
 
     try {
@@ -653,7 +797,12 @@ public class Manager {
         }
 
         try (ISession tmpSession = revokingStore.buildSession()) {
-          processTransaction(trx, null);
+          long begin = System.nanoTime();
+          try {
+            processTransaction(trx, null);
+          } finally {
+            executionTimeEstimator.record(trx, (System.nanoTime() - begin) / 1000);
+          }
           pendingTransactions.add(trx);
           tmpSession.merge();
         }
@@ -885,10 +1034,11 @@ public class Manager {
           throw new BadBlockException("The signature is not validated");
         }
 
-        if (!block.calcMerkleRoot().equals(block.getMerkleRoot())) {
+        Sha256Hash merkleRoot = block.calcMerkleRoot();
+        if (!merkleRoot.equals(block.getMerkleRoot())) {
           logger.warn(
               "The merkle root doesn't match, Calc result is "
-                  + block.calcMerkleRoot()
+                  + merkleRoot
                   + " , the headers is "
                   + block.getMerkleRoot());
           throw new BadBlockException("The merkle hash is not validated");
@@ -1140,10 +1290,7 @@ public class Manager {
 
     // if event subscribe is enabled, post contract triggers to queue
     postContractTrigger(trace, false);
-    Contract contract = trxCap.getInstance().getRawData().getContract(0);
-    if (isMultiSignTransaction(trxCap.getInstance())) {
-      ownerAddressSet.add(ByteArray.toHexString(TransactionCapsule.getOwner(contract)));
-    }
+    trackMultiSignOwner(trxCap);
     if (Objects.nonNull(blockCap)) {
       chainBaseManager.getBalanceTraceStore()
           .updateCurrentTransactionStatus(
@@ -1154,6 +1301,13 @@ public class Manager {
     return transactionInfo.getInstance();
   }
 
+  void trackMultiSignOwner(TransactionCapsule trxCap) {
+    Contract contract = trxCap.getInstance().getRawData().getContract(0);
+    if (isMultiSignTransaction(trxCap.getInstance())) {
+      ownerAddressSet.add(ByteArray.toHexString(TransactionCapsule.getOwner(contract)));
+    }
+  }
+
   /**
    * Generate a block.
    */
@@ -1169,6 +1323,14 @@ public class Manager {
     session.setValue(revokingStore.buildSession());
 
     accountStateCallBack.preExecute(blockCapsule);
+    // the replay covers the chainbase stores only, the balance history and the triggers aside
+    GeneratedBlockReplay replay = null;
+    generatedBlockReplay = null;
+    if (generatedBlockReplayEnable && !eventPluginLoaded) {
+      replay = new GeneratedBlockReplay(this, accountStateCallBack, blockCapsule);
+      // the same start as processBlock, so the recorded writes are those of applying the block
+      chainBaseManager.getDynamicPropertiesStore().saveBlockEntropyUsage(0);
+    }
 
     if (getDynamicPropertiesStore().getAllowMultiSign() == 1) {
       byte[] privateKeyAddress = miner.getPrivateKeyAddress().toByteArray();
@@ -1183,7 +1345,11 @@ public class Manager {
     Set<String> accountSet = new HashSet<>();
     AtomicInteger shieldedTransCounts = new AtomicInteger(0);
     List<TransactionCapsule> toBePacked = new ArrayList<>();
-    Iterator<TransactionCapsule> iterator = pendingTransactions.iterator();
+    MerkleRootBuilder merkleRoot = new MerkleRootBuilder();
+    pendingTransactions.evictExpired(chainBaseManager.getHeadBlockTimeStamp());
+    BlockSize blockSize = new BlockSize(blockCapsule, ChainConstant.BLOCK_SIZE);
+    Iterator<TransactionCapsule> iterator =
+        blockAssemblyStrategy.order(pendingTransactions).iterator();
     while (iterator.hasNext() || rePushTransactions.size() > 0) {
       boolean fromPending = false;
       TransactionCapsule trx;
@@ -1206,9 +1372,14 @@ public class Manager {
         break;
       }
 
-      // check the block size
-      if ((blockCapsule.getInstance().getSerializedSize() + trx.getSerializedSize() + 3)
-          > ChainConstant.BLOCK_SIZE) {
+      // check the block size, the transactions are added to the block once all are packed
+      long trxSize = BlockSize.sizeOf(trx);
+      if (!blockSize.fits(trxSize)) {
+        postponedTrxCount++;
+        continue;
+      }
+      // a transaction expected to run past the deadline waits for the next block
+      if (System.currentTimeMillis() + executionTimeEstimator.estimate(trx) / 1000 > timeout) {
         postponedTrxCount++;
         continue;
       }
@@ -1230,18 +1401,31 @@ public class Manager {
       if (ownerAddressSet.contains(ownerAddress)) {
         trx.setVerified(false);
       }
+      // the shielded transactions change the merkle tree of the manager besides the stores
+      if (isShieldedTransaction(trx.getInstance())) {
+        replay = null;
+      }
       // apply transaction
+      long begin = System.nanoTime();
       try (ISession tmpSession = revokingStore.buildSession()) {
         accountStateCallBack.preExeTrans();
-        TransactionInfo result = processTransaction(trx, blockCapsule);
-        accountStateCallBack.exeTransFinish();
+        if (replay != null) {
+          replay.execute(trx);
+        } else {
+          processTransaction(trx, blockCapsule);
+          accountStateCallBack.exeTransFinish();
+        }
         tmpSession.merge();
         toBePacked.add(trx);
+        merkleRoot.add(trx.getMerkleHash());
+        blockSize.add(trxSize);
         if (fromPending) {
-          iterator.remove();
+          pendingTransactions.remove(trx.getTransactionId());
         }
       } catch (Exception e) {
         logger.error("Process trx failed when generating block: {}", e.getMessage());
+      } finally {
+        executionTimeEstimator.record(trx, (System.nanoTime() - begin) / 1000);
       }
     }
     blockCapsule.addAllTransactions(toBePacked);
@@ -1252,8 +1436,9 @@ public class Manager {
     logger.info("Generate block success, pendingCount: {}, rePushCount: {}, postponedCount: {}",
         pendingTransactions.size(), rePushTransactions.size(), postponedTrxCount);
 
-    blockCapsule.setMerkleRoot();
+    blockCapsule.setMerkleRoot(merkleRoot.getRoot());
     blockCapsule.sign(miner.getPrivateKey());
+    generatedBlockReplay = replay;
 
     return blockCapsule;
 
@@ -1341,16 +1526,26 @@ public class Manager {
       accountStateCallBack.preExecute(block);
       List<TransactionInfo> results = new ArrayList<>();
       long num = block.getNum();
-      for (TransactionCapsule transactionCapsule : block.getTransactions()) {
-        transactionCapsule.setBlockNum(num);
-        if (block.generatedByMyself) {
-          transactionCapsule.setVerified(true);
-        }
-        accountStateCallBack.preExeTrans();
-        TransactionInfo result = processTransaction(transactionCapsule, block);
-        accountStateCallBack.exeTransFinish();
-        if (Objects.nonNull(result)) {
-          results.add(result);
+      GeneratedBlockReplay replay = generatedBlockReplay;
+      generatedBlockReplay = null;
+      // the contract triggers of the event plugin are posted as the transactions execute
+      if (replay != null && !eventPluginLoaded && replay.isReplayable(block)) {
+        results = replay.replay();
+      } else if (speculativeExecutor != null && !eventPluginLoaded
+          && speculativeExecutor.isApplicable(block)) {
+        results = speculativeExecutor.execute(block);
+      } else {
+        for (TransactionCapsule transactionCapsule : block.getTransactions()) {
+          transactionCapsule.setBlockNum(num);
+          if (block.generatedByMyself) {
+            transactionCapsule.setVerified(true);
+          }
+          accountStateCallBack.preExeTrans();
+          TransactionInfo result = processTransaction(transactionCapsule, block);
+          accountStateCallBack.exeTransFinish();
+          if (Objects.nonNull(result)) {
+            results.add(result);
+          }
         }
       }
       transactionRetCapsule.addAllTransactionInfos(results);
@@ -1561,6 +1756,16 @@ public class Manager {
 
   public void closeAllStore() {
     logger.info("******** begin to close db ********");
+    if (txCacheSnapshotService != null) {
+      // a periodic write in progress finishes first, they share the file
+      txCacheSnapshotService.shutdown();
+      try {
+        txCacheSnapshotService.awaitTermination(1, TimeUnit.MINUTES);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      writeTxCacheSnapshot();
+    }
     chainBaseManager.closeAllStore();
     logger.info("******** end to close db ********");
   }
@@ -1589,22 +1794,12 @@ public class Manager {
     if (transSize <= 0) {
       return;
     }
-    CountDownLatch countDownLatch = new CountDownLatch(transSize);
-    List<Future<Boolean>> futures = new ArrayList<>(transSize);
-
-    for (TransactionCapsule transaction : block.getTransactions()) {
-      Future<Boolean> future = validateSignService
-          .submit(new ValidateSignTask(transaction, countDownLatch, chainBaseManager));
-      futures.add(future);
-    }
-    countDownLatch.await();
-
-    for (Future<Boolean> future : futures) {
-      try {
-        future.get();
-      } catch (ExecutionException e) {
-        throw new ValidateSignatureException(e.getCause().getMessage());
-      }
+    try {
+      SignatureRecoveryService.getInstance().checkAll(block.getTransactions(),
+          trx -> trx.validateSignature(chainBaseManager.getAccountStore(),
+              chainBaseManager.getDynamicPropertiesStore()));
+    } catch (ExecutionException e) {
+      throw new ValidateSignatureException(e.getCause().getMessage());
     }
   }
 
@@ -1767,30 +1962,4 @@ public class Manager {
     StoreFactory.init();
     StoreFactory.getInstance().setChainBaseManager(chainBaseManager);
   }
-
-  private static class ValidateSignTask implements Callable<Boolean> {
-
-    private TransactionCapsule trx;
-    private CountDownLatch countDownLatch;
-    private ChainBaseManager manager;
-
-    ValidateSignTask(TransactionCapsule trx, CountDownLatch countDownLatch,
-        ChainBaseManager manager) {
-      this.trx = trx;
-      this.countDownLatch = countDownLatch;
-      this.manager = manager;
-    }
-
-    @Override
-    public Boolean call() throws ValidateSignatureException {
-      try {
-        trx.validateSignature(manager.getAccountStore(), manager.getDynamicPropertiesStore());
-      } catch (ValidateSignatureException e) {
-        throw e;
-      } finally {
-        countDownLatch.countDown();
-      }
-      return true;
-    }
-  }
 }
@@ -20,18 +20,18 @@ public class PendingManager implements AutoCloseable {
 
   public PendingManager(Manager db) {
     this.dbManager = db;
-    db.getPendingTransactions().forEach(transactionCapsule -> {
+    List<TransactionCapsule> pending = db.getPendingTransactions().drain();
+    pending.forEach(transactionCapsule -> {
       if (System.currentTimeMillis() - transactionCapsule.getTime() < timeout) {
         tmpTransactions.add(transactionCapsule);
       }
     });
 
-    if (db.getPendingTransactions().size() > tmpTransactions.size()) {
+    if (pending.size() > tmpTransactions.size()) {
       MetricsUtil.meterMark(MetricsKey.BLOCKCHAIN_MISSED_TRANSACTION,
-          db.getPendingTransactions().size() - tmpTransactions.size());
+          pending.size() - tmpTransactions.size());
     }
 
-    db.getPendingTransactions().clear();
     db.getSession().reset();
     db.getShieldedTransInPendingCounts().set(0);
   }
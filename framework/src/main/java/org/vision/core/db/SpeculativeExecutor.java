@@ -0,0 +1,192 @@
+package org.vision.core.db;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import lombok.extern.slf4j.Slf4j;
+import org.vision.core.capsule.BlockCapsule;
+import org.vision.core.capsule.TransactionCapsule;
+import org.vision.core.db.accountstate.AccountStateCallBackUtils.TrieEntry;
+import org.vision.core.db.accountstate.callback.AccountStateCallBack;
+import org.vision.core.db2.common.WrappedByteArray;
+import org.vision.core.db2.core.Chainbase;
+import org.vision.core.db2.core.Speculation;
+import org.vision.core.exception.AccountResourceInsufficientException;
+import org.vision.core.exception.ContractExeException;
+import org.vision.core.exception.ContractValidateException;
+import org.vision.core.exception.DupTransactionException;
+import org.vision.core.exception.P2pVersionException;
+import org.vision.core.exception.ReceiptCheckErrException;
+import org.vision.core.exception.TaposException;
+import org.vision.core.exception.TooBigTransactionException;
+import org.vision.core.exception.TooBigTransactionResultException;
+import org.vision.core.exception.TransactionExpirationException;
+import org.vision.core.exception.VMIllegalException;
+import org.vision.core.exception.ValidateSignatureException;
+import org.vision.protos.Protocol.Transaction.Contract.ContractType;
+import org.vision.protos.Protocol.TransactionInfo;
+
+/**
+ * Executes the transactions of a block optimistically. Every transaction runs on a pool thread
+ * with its writes buffered, then in the block order it commits them unless an earlier
+ * transaction of the block wrote a key it read. A conflicting or failed one executes again on
+ * the stores as the serial loop does, so the stores, the account state root and the results are
+ * the same as with the serial loop.
+ */
+@Slf4j(topic = "DB")
+public class SpeculativeExecutor {
+
+  private final Manager manager;
+  private final AccountStateCallBack accountStateCallBack;
+  private final ExecutorService executor;
+  // of the last block executed, the transactions that committed their speculation and the ones
+  // that executed again
+  private volatile int committed;
+  private volatile int reExecuted;
+
+  public SpeculativeExecutor(Manager manager, AccountStateCallBack accountStateCallBack,
+      int threads) {
+    this.manager = manager;
+    this.accountStateCallBack = accountStateCallBack;
+    this.executor = Executors.newFixedThreadPool(threads, new ThreadFactoryBuilder()
+        .setNameFormat("speculative-execution-%d").setDaemon(true).build());
+  }
+
+  /**
+   * Shielded transactions change the merkle tree of the manager and the zk proof store, which
+   * the speculation does not cover.
+   */
+  public boolean isApplicable(BlockCapsule block) {
+    List<TransactionCapsule> transactions = block.getTransactions();
+    return transactions.size() > 1 && transactions.stream()
+        .noneMatch(trx -> trx.getInstance().getRawData().getContract(0).getType()
+            == ContractType.ShieldedTransferContract);
+  }
+
+  /**
+   * Execute the transactions of the block, between the preExecute and the executePushFinish of
+   * the account state callback.
+   */
+  public List<TransactionInfo> execute(BlockCapsule block)
+      throws ValidateSignatureException, ContractValidateException, ContractExeException,
+      AccountResourceInsufficientException, TransactionExpirationException,
+      TooBigTransactionException, TooBigTransactionResultException,
+      DupTransactionException, TaposException, ReceiptCheckErrException, VMIllegalException,
+      P2pVersionException {
+    List<TransactionCapsule> transactions = block.getTransactions();
+    List<Future<Outcome>> futures = new ArrayList<>(transactions.size());
+    for (TransactionCapsule trx : transactions) {
+      trx.setBlockNum(block.getNum());
+      if (block.generatedByMyself) {
+        trx.setVerified(true);
+      }
+      TransactionCapsule copy = trx.copyForExecution();
+      futures.add(executor.submit(() -> speculate(copy, block)));
+    }
+
+    // the keys the committed transactions wrote, by store
+    Map<Chainbase, Set<WrappedByteArray>> written = new HashMap<>();
+    List<TransactionInfo> results = new ArrayList<>();
+    int reExecuted = 0;
+    int committed = 0;
+    try {
+      for (int i = 0; i < transactions.size(); i++) {
+        TransactionCapsule trx = transactions.get(i);
+        Outcome outcome = await(futures.get(i));
+        accountStateCallBack.preExeTrans();
+        TransactionInfo result;
+        if (outcome != null && outcome.error == null
+            && !outcome.speculation.conflicts(written)) {
+          outcome.speculation.commit();
+          outcome.speculation.collectWrites(written);
+          trx.adopt(outcome.trx);
+          accountStateCallBack.exeTransFinish(outcome.trieEntries);
+          result = outcome.result;
+          committed++;
+        } else {
+          reExecuted++;
+          Speculation speculation = Speculation.begin(false);
+          try {
+            result = manager.processTransaction(trx, block);
+          } finally {
+            speculation.end();
+          }
+          speculation.collectWrites(written);
+          accountStateCallBack.exeTransFinish();
+        }
+        if (Objects.nonNull(result)) {
+          results.add(result);
+        }
+      }
+    } finally {
+      // no speculation may read the stores once the block is over
+      futures.forEach(this::await);
+    }
+
+    this.committed = committed;
+    this.reExecuted = reExecuted;
+    logger.debug("Block {} executed {} transactions speculatively, {} again",
+        block.getNum(), transactions.size(), reExecuted);
+    return results;
+  }
+
+  int getCommitted() {
+    return committed;
+  }
+
+  int getReExecuted() {
+    return reExecuted;
+  }
+
+  private Outcome speculate(TransactionCapsule trx, BlockCapsule block) {
+    Outcome outcome = new Outcome(trx, Speculation.begin(true));
+    accountStateCallBack.beginSpeculation();
+    try {
+      outcome.result = manager.processTransaction(trx, block);
+    } catch (Exception e) {
+      outcome.error = e;
+    } finally {
+      outcome.trieEntries = accountStateCallBack.endSpeculation();
+      outcome.speculation.end();
+    }
+    return outcome;
+  }
+
+  /**
+   * @return null if the speculation did not complete, the transaction executes again then
+   */
+  private Outcome await(Future<Outcome> future) {
+    try {
+      return future.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return null;
+    } catch (ExecutionException e) {
+      logger.warn("speculative execution failed", e.getCause());
+      return null;
+    }
+  }
+
+  private static class Outcome {
+
+    private final TransactionCapsule trx;
+    private final Speculation speculation;
+    private List<TrieEntry> trieEntries;
+    private TransactionInfo result;
+    // the transaction executes again whatever the error, the serial path throws the real one
+    private Exception error;
+
+    private Outcome(TransactionCapsule trx, Speculation speculation) {
+      this.trx = trx;
+      this.speculation = speculation;
+    }
+  }
+}
@@ -1,5 +1,6 @@
 package org.vision.core.db;
 
+import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
@@ -9,8 +10,16 @@ import org.vision.core.db2.common.TxCacheDB;
 @Slf4j
 public class TransactionCache extends VisionStoreWithRevoking<BytesCapsule> {
 
+  @Getter
+  private final TxCacheDB txCacheDB;
+
   @Autowired
   public TransactionCache(@Value("trans-cache") String dbName) {
-    super(new TxCacheDB(dbName));
+    this(new TxCacheDB(dbName));
+  }
+
+  private TransactionCache(TxCacheDB txCacheDB) {
+    super(txCacheDB);
+    this.txCacheDB = txCacheDB;
   }
 }
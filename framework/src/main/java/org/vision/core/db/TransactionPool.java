@@ -0,0 +1,194 @@
+package org.vision.core.db;
+
+import com.google.protobuf.ByteString;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.extern.slf4j.Slf4j;
+import org.vision.common.utils.Sha256Hash;
+import org.vision.core.capsule.TransactionCapsule;
+import org.vision.core.metrics.MetricsKey;
+import org.vision.core.metrics.MetricsUtil;
+
+/**
+ * The pending transactions, in their arrival order and by sender ordered by expiration. Adding,
+ * looking up and removing a transaction by id do not block each other, iterators see the pool as
+ * it is while they advance.
+ */
+@Slf4j(topic = "DB")
+public class TransactionPool implements Iterable<TransactionCapsule> {
+
+  private static final Comparator<Entry> BY_EXPIRATION = Comparator
+      .comparingLong((Entry e) -> e.expiration).thenComparingLong(e -> e.sequence);
+
+  private final AtomicLong sequence = new AtomicLong();
+  private final ConcurrentSkipListMap<Long, Entry> arrivals = new ConcurrentSkipListMap<>();
+  private final Map<Sha256Hash, Entry> transactions = new ConcurrentHashMap<>();
+  private final Map<ByteString, NavigableSet<Entry>> senders = new ConcurrentHashMap<>();
+
+  /**
+   * @return false if the pool already has the transaction
+   */
+  public boolean add(TransactionCapsule trx) {
+    Entry entry = new Entry(trx, sequence.incrementAndGet());
+    if (transactions.putIfAbsent(entry.id, entry) != null) {
+      return false;
+    }
+    arrivals.put(entry.sequence, entry);
+    senders.compute(entry.sender, (sender, queue) -> {
+      NavigableSet<Entry> q = queue == null ? new ConcurrentSkipListSet<>(BY_EXPIRATION) : queue;
+      q.add(entry);
+      return q;
+    });
+    MetricsUtil.meterMark(MetricsKey.MEMPOOL_ADMISSION);
+    return true;
+  }
+
+  public boolean contains(Sha256Hash id) {
+    return transactions.containsKey(id);
+  }
+
+  /**
+   * Remove a transaction that left the pool for a block.
+   *
+   * @return the removed transaction, null if the pool did not have it
+   */
+  public TransactionCapsule remove(Sha256Hash id) {
+    Entry entry = unlink(id);
+    if (entry == null) {
+      return null;
+    }
+    MetricsUtil.histogramUpdate(MetricsKey.MEMPOOL_AGE,
+        System.currentTimeMillis() - entry.trx.getTime());
+    return entry.trx;
+  }
+
+  /**
+   * Remove the transactions that expire at the time or before, they can not be in a block after a
+   * head block of that time.
+   *
+   * @return the count of the removed transactions
+   */
+  public int evictExpired(long headBlockTime) {
+    int count = 0;
+    for (NavigableSet<Entry> queue : senders.values()) {
+      for (Entry entry : queue) {
+        if (entry.expiration > headBlockTime) {
+          break;
+        }
+        if (unlink(entry.id) != null) {
+          count++;
+        }
+      }
+    }
+    if (count > 0) {
+      MetricsUtil.meterMark(MetricsKey.MEMPOOL_EVICTION, count);
+      logger.debug("Evict {} expired transactions from the pending pool.", count);
+    }
+    return count;
+  }
+
+  /**
+   * Remove all the transactions.
+   *
+   * @return the removed transactions, in their arrival order
+   */
+  public List<TransactionCapsule> drain() {
+    List<TransactionCapsule> drained = new ArrayList<>(transactions.size());
+    Map.Entry<Long, Entry> first;
+    while ((first = arrivals.pollFirstEntry()) != null) {
+      if (unlink(first.getValue().id) != null) {
+        drained.add(first.getValue().trx);
+      }
+    }
+    return drained;
+  }
+
+  public int size() {
+    return transactions.size();
+  }
+
+  public boolean isEmpty() {
+    return transactions.isEmpty();
+  }
+
+  /**
+   * @return the number of the senders with pending transactions
+   */
+  public int getSenderCount() {
+    return senders.size();
+  }
+
+  public int getSenderSize(ByteString sender) {
+    NavigableSet<Entry> queue = senders.get(sender);
+    return queue == null ? 0 : queue.size();
+  }
+
+  /**
+   * The transactions in their arrival order, the iterator removes one as {@link #remove} does.
+   */
+  @Override
+  public Iterator<TransactionCapsule> iterator() {
+    Iterator<Entry> entries = arrivals.values().iterator();
+    return new Iterator<TransactionCapsule>() {
+      private Entry current;
+
+      @Override
+      public boolean hasNext() {
+        return entries.hasNext();
+      }
+
+      @Override
+      public TransactionCapsule next() {
+        current = entries.next();
+        return current.trx;
+      }
+
+      @Override
+      public void remove() {
+        if (current == null) {
+          throw new IllegalStateException();
+        }
+        TransactionPool.this.remove(current.id);
+        current = null;
+      }
+    };
+  }
+
+  private Entry unlink(Sha256Hash id) {
+    Entry entry = transactions.remove(id);
+    if (entry == null) {
+      return null;
+    }
+    arrivals.remove(entry.sequence);
+    senders.computeIfPresent(entry.sender, (sender, queue) -> {
+      queue.remove(entry);
+      return queue.isEmpty() ? null : queue;
+    });
+    return entry;
+  }
+
+  private static class Entry {
+
+    private final TransactionCapsule trx;
+    private final Sha256Hash id;
+    private final ByteString sender;
+    private final long expiration;
+    private final long sequence;
+
+    private Entry(TransactionCapsule trx, long sequence) {
+      this.trx = trx;
+      this.id = trx.getTransactionId();
+      this.sender = ByteString.copyFrom(trx.getOwnerAddress());
+      this.expiration = trx.getExpiration();
+      this.sequence = sequence;
+    }
+  }
+}
@@ -0,0 +1,146 @@
+package org.vision.core.db;
+
+import com.google.common.cache.Cache;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiPredicate;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+import lombok.extern.slf4j.Slf4j;
+import org.vision.common.utils.Sha256Hash;
+import org.vision.core.db2.common.TxCacheDB;
+import org.vision.core.db2.common.TxCacheIndex;
+
+/**
+ * A file of the dedup caches of the transactions: the ids of the transaction cache with their
+ * block numbers, and the ids of the broadcast transactions and of their eth rlp data. A start
+ * reads it at once and reloads only the blocks after the newest one of the transaction cache,
+ * instead of reading the whole transaction cache store and the recent blocks.
+ */
+@Slf4j(topic = "DB")
+public class TxCacheSnapshot {
+
+  private static final int MAGIC = 0x56545843;
+  private static final int VERSION = 1;
+
+  private final Path path;
+
+  public TxCacheSnapshot(Path path) {
+    this.path = path;
+  }
+
+  /**
+   * Write the file aside and move it in place, so a crash keeps the previous one.
+   *
+   * @param blockNum the newest block of the transaction cache, read before its ids
+   * @param blockId the id of that block
+   */
+  public void write(TxCacheDB txCacheDB, long blockNum, byte[] blockId,
+      Cache<Sha256Hash, Boolean> transactionIds, Cache<Sha256Hash, Boolean> rlpData)
+      throws IOException {
+    long start = System.currentTimeMillis();
+    Path tmp = Paths.get(path.toString() + ".tmp");
+    CheckedOutputStream checked = new CheckedOutputStream(
+        new BufferedOutputStream(Files.newOutputStream(tmp)), new CRC32());
+    try (DataOutputStream out = new DataOutputStream(checked)) {
+      out.writeInt(MAGIC);
+      out.writeInt(VERSION);
+      out.writeLong(blockNum);
+      out.write(blockId);
+      txCacheDB.writeSnapshot(out);
+      writeHashes(out, transactionIds);
+      writeHashes(out, rlpData);
+      out.writeLong(checked.getChecksum().getValue());
+    }
+    Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    logger.info("write tx cache snapshot at block {}, {} bytes, cost {} ms", blockNum,
+        Files.size(path), System.currentTimeMillis() - start);
+  }
+
+  /**
+   * Restore the caches from the file if the chain still has its block.
+   *
+   * @param usable checks the block number and id of the snapshot against the chain
+   * @return the number of the block of the snapshot, -1 if nothing was restored
+   */
+  public long load(TxCacheDB txCacheDB, Cache<Sha256Hash, Boolean> transactionIds,
+      Cache<Sha256Hash, Boolean> rlpData, BiPredicate<Long, byte[]> usable) {
+    if (!Files.exists(path)) {
+      return -1;
+    }
+
+    CheckedInputStream checked;
+    try {
+      checked = new CheckedInputStream(new BufferedInputStream(Files.newInputStream(path)),
+          new CRC32());
+    } catch (IOException e) {
+      logger.warn("open tx cache snapshot {} failed: {}", path, e.getMessage());
+      return -1;
+    }
+    try (DataInputStream in = new DataInputStream(checked)) {
+      if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+        logger.warn("tx cache snapshot {} is of another format", path);
+        return -1;
+      }
+      long blockNum = in.readLong();
+      byte[] blockId = new byte[Sha256Hash.LENGTH];
+      in.readFully(blockId);
+      if (!usable.test(blockNum, blockId)) {
+        logger.info("tx cache snapshot at block {} is not on the chain or too old", blockNum);
+        return -1;
+      }
+
+      TxCacheIndex index = txCacheDB.readSnapshot(in);
+      List<Sha256Hash> ids = readHashes(in);
+      List<Sha256Hash> hashes = readHashes(in);
+      long checksum = checked.getChecksum().getValue();
+      if (in.readLong() != checksum) {
+        logger.warn("tx cache snapshot {} is corrupted", path);
+        return -1;
+      }
+
+      try {
+        txCacheDB.restore(index);
+      } catch (IllegalStateException e) {
+        logger.warn("restore tx cache snapshot {} failed: {}", path, e.getMessage());
+        return -1;
+      }
+      ids.forEach(id -> transactionIds.put(id, true));
+      hashes.forEach(hash -> rlpData.put(hash, true));
+      return blockNum;
+    } catch (IOException e) {
+      logger.warn("read tx cache snapshot {} failed: {}", path, e.getMessage());
+      return -1;
+    }
+  }
+
+  private static void writeHashes(DataOutputStream out, Cache<Sha256Hash, Boolean> cache)
+      throws IOException {
+    List<Sha256Hash> hashes = new ArrayList<>(cache.asMap().keySet());
+    out.writeInt(hashes.size());
+    for (Sha256Hash hash : hashes) {
+      out.write(hash.getBytes());
+    }
+  }
+
+  private static List<Sha256Hash> readHashes(DataInputStream in) throws IOException {
+    int count = in.readInt();
+    List<Sha256Hash> hashes = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      byte[] hash = new byte[Sha256Hash.LENGTH];
+      in.readFully(hash);
+      hashes.add(Sha256Hash.wrap(hash));
+    }
+    return hashes;
+  }
+}
@@ -3,6 +3,7 @@ package org.vision.core.db.accountstate.callback;
 import com.google.protobuf.ByteString;
 import com.google.protobuf.Internal;
 import java.util.Arrays;
+import java.util.List;
 import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.ArrayUtils;
@@ -35,6 +36,14 @@ public class AccountStateCallBack extends AccountStateCallBackUtils {
     trieEntryList.clear();
   }
 
+  /**
+   * Finish a transaction executed speculatively, with the entries it recorded.
+   */
+  public void exeTransFinish(List<TrieEntry> entries) {
+    trieEntryList.addAll(entries);
+    exeTransFinish();
+  }
+
   public void exeTransFinish() {
     for (TrieEntry trieEntry : trieEntryList) {
       trie.put(Hash.encodeElement(trieEntry.getKey()), trieEntry.getData());
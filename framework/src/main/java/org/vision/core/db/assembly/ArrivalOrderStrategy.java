@@ -0,0 +1,18 @@
+package org.vision.core.db.assembly;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.vision.core.capsule.TransactionCapsule;
+
+/**
+ * First come, first packed.
+ */
+public class ArrivalOrderStrategy implements BlockAssemblyStrategy {
+
+  @Override
+  public List<TransactionCapsule> order(Iterable<TransactionCapsule> pending) {
+    List<TransactionCapsule> ordered = new ArrayList<>();
+    pending.forEach(ordered::add);
+    return ordered;
+  }
+}
@@ -0,0 +1,33 @@
+package org.vision.core.db.assembly;
+
+import java.util.List;
+import org.vision.core.capsule.TransactionCapsule;
+import org.vision.core.store.DynamicPropertiesStore;
+
+/**
+ * The order a producer tries the pending transactions in when it generates a block.
+ */
+public interface BlockAssemblyStrategy {
+
+  String ARRIVAL = "arrival";
+
+  String FEE = "fee";
+
+  /**
+   * @param pending the pending transactions in their arrival order
+   * @return the transactions to try, those of one sender keep their arrival order since a later
+   *     one may depend on an earlier one
+   */
+  List<TransactionCapsule> order(Iterable<TransactionCapsule> pending);
+
+  /**
+   * @param estimator what the transactions are expected to use, as they executed lately
+   */
+  static BlockAssemblyStrategy of(String name, ExecutionTimeEstimator estimator,
+      DynamicPropertiesStore dynamicPropertiesStore) {
+    if (FEE.equalsIgnoreCase(name)) {
+      return new FeePriorityStrategy(estimator, dynamicPropertiesStore);
+    }
+    return new ArrivalOrderStrategy();
+  }
+}
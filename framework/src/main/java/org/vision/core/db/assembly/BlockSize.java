@@ -0,0 +1,46 @@
+package org.vision.core.db.assembly;
+
+import com.google.protobuf.CodedOutputStream;
+import org.vision.core.capsule.BlockCapsule;
+import org.vision.core.capsule.TransactionCapsule;
+import org.vision.protos.Protocol.Block;
+
+/**
+ * The serialized size of a block as its transactions are packed, kept without serializing the
+ * block again for each of them.
+ */
+public class BlockSize {
+
+  private final long limit;
+  private long size;
+
+  /**
+   * @param block the block the transactions are packed into, those it has already count
+   * @param limit the bytes the block may take
+   */
+  public BlockSize(BlockCapsule block, long limit) {
+    this.limit = limit;
+    this.size = block.getInstance().getSerializedSize();
+  }
+
+  /**
+   * @return the bytes the transaction adds to a block: itself with its field tag and length
+   */
+  public static long sizeOf(TransactionCapsule trx) {
+    long size = trx.getSerializedSize();
+    return CodedOutputStream.computeTagSize(Block.TRANSACTIONS_FIELD_NUMBER)
+        + CodedOutputStream.computeUInt32SizeNoTag((int) size) + size;
+  }
+
+  public boolean fits(long trxSize) {
+    return size + trxSize <= limit;
+  }
+
+  public void add(long trxSize) {
+    size += trxSize;
+  }
+
+  public long getSize() {
+    return size;
+  }
+}
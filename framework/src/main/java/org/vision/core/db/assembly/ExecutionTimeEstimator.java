@@ -0,0 +1,99 @@
+package org.vision.core.db.assembly;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.protobuf.InvalidProtocolBufferException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.extern.slf4j.Slf4j;
+import org.vision.common.utils.ByteArray;
+import org.vision.core.capsule.TransactionCapsule;
+import org.vision.core.db.TransactionTrace;
+import org.vision.protos.Protocol.Transaction.Contract;
+import org.vision.protos.Protocol.Transaction.Contract.ContractType;
+import org.vision.protos.contract.SmartContractOuterClass.TriggerSmartContract;
+
+/**
+ * The recent execution time and entropy of the transactions, by called contract for the contract
+ * calls and by contract type for the others. A producer skips the transactions it expects to run
+ * past the production deadline, and ranks the others by the fee it expects them to pay.
+ */
+@Slf4j(topic = "DB")
+public class ExecutionTimeEstimator {
+
+  private static final int MAX_KEYS = 10_000;
+  // the weight of the latest execution in the average, 1 / 2^WEIGHT_SHIFT
+  private static final int WEIGHT_SHIFT = 3;
+
+  private final Cache<String, Averages> averages = CacheBuilder.newBuilder()
+      .maximumSize(MAX_KEYS).build();
+
+  /**
+   * @param micros the time the execution of the transaction took, the entropy it used is read
+   *     from its trace
+   */
+  public void record(TransactionCapsule trx, long micros) {
+    TransactionTrace trace = trx.getTrxTrace();
+    record(trx, micros, trace == null ? -1 : trace.getReceipt().getEntropyUsageTotal());
+  }
+
+  /**
+   * @param entropy the entropy the execution used, -1 if unknown
+   */
+  void record(TransactionCapsule trx, long micros, long entropy) {
+    try {
+      Averages average = averages.get(keyOf(trx), () -> new Averages(micros, entropy));
+      average.time.accumulateAndGet(micros, ExecutionTimeEstimator::weigh);
+      if (entropy >= 0) {
+        average.entropy.accumulateAndGet(entropy, ExecutionTimeEstimator::weigh);
+      }
+    } catch (ExecutionException e) {
+      logger.debug("record execution time failed", e);
+    }
+  }
+
+  private static long weigh(long avg, long latest) {
+    return avg < 0 ? latest : avg + ((latest - avg) >> WEIGHT_SHIFT);
+  }
+
+  /**
+   * @return the expected execution time in microseconds, 0 if nothing like it executed yet
+   */
+  public long estimate(TransactionCapsule trx) {
+    Averages average = averages.getIfPresent(keyOf(trx));
+    return average == null ? 0 : average.time.get();
+  }
+
+  /**
+   * @return the entropy the transaction is expected to use, 0 if nothing like it executed yet
+   */
+  public long estimateEntropy(TransactionCapsule trx) {
+    Averages average = averages.getIfPresent(keyOf(trx));
+    return average == null ? 0 : Math.max(0, average.entropy.get());
+  }
+
+  private static String keyOf(TransactionCapsule trx) {
+    Contract contract = trx.getInstance().getRawData().getContract(0);
+    if (contract.getType() == ContractType.TriggerSmartContract) {
+      try {
+        return ByteArray.toHexString(contract.getParameter().unpack(TriggerSmartContract.class)
+            .getContractAddress().toByteArray());
+      } catch (InvalidProtocolBufferException e) {
+        logger.debug("unpack trigger smart contract failed", e);
+      }
+    }
+    return contract.getType().name();
+  }
+
+  private static class Averages {
+
+    private final AtomicLong time;
+    // -1 until an execution of known entropy
+    private final AtomicLong entropy;
+
+    private Averages(long time, long entropy) {
+      this.time = new AtomicLong(time);
+      this.entropy = new AtomicLong(entropy);
+    }
+  }
+}
@@ -0,0 +1,83 @@
+package org.vision.core.db.assembly;
+
+import com.google.protobuf.ByteString;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import org.vision.core.capsule.TransactionCapsule;
+import org.vision.core.store.DynamicPropertiesStore;
+
+/**
+ * Highest expected fee per byte first, on a tie the earlier arrival. The senders compete with
+ * their earliest pending transaction, so a sender's transactions keep their arrival order.
+ */
+public class FeePriorityStrategy implements BlockAssemblyStrategy {
+
+  private static final Comparator<Candidate> BY_PRIORITY = Comparator
+      .comparingDouble((Candidate c) -> -c.feePerByte).thenComparingInt(c -> c.arrival);
+
+  private final ExecutionTimeEstimator estimator;
+  private final DynamicPropertiesStore dynamicPropertiesStore;
+
+  public FeePriorityStrategy(ExecutionTimeEstimator estimator,
+      DynamicPropertiesStore dynamicPropertiesStore) {
+    this.estimator = estimator;
+    this.dynamicPropertiesStore = dynamicPropertiesStore;
+  }
+
+  @Override
+  public List<TransactionCapsule> order(Iterable<TransactionCapsule> pending) {
+    long entropyPrice = dynamicPropertiesStore.getEntropyFee();
+    long bytePrice = dynamicPropertiesStore.getTransactionFee();
+    Map<ByteString, Deque<Candidate>> senders = new LinkedHashMap<>();
+    int arrival = 0;
+    for (TransactionCapsule trx : pending) {
+      double feePerByte = feePerByte(trx, estimator.estimateEntropy(trx), entropyPrice,
+          bytePrice);
+      senders.computeIfAbsent(ByteString.copyFrom(trx.getOwnerAddress()),
+          sender -> new ArrayDeque<>()).add(new Candidate(trx, arrival++, feePerByte));
+    }
+
+    PriorityQueue<Deque<Candidate>> heads = new PriorityQueue<>(Math.max(1, senders.size()),
+        Comparator.comparing((Deque<Candidate> q) -> q.peekFirst(), BY_PRIORITY));
+    heads.addAll(senders.values());
+
+    List<TransactionCapsule> ordered = new ArrayList<>(arrival);
+    while (!heads.isEmpty()) {
+      Deque<Candidate> head = heads.poll();
+      ordered.add(head.pollFirst().trx);
+      if (!head.isEmpty()) {
+        heads.add(head);
+      }
+    }
+    return ordered;
+  }
+
+  /**
+   * The fee limit only caps what a contract call may pay, the fee expected is that of the entropy
+   * it is expected to use and of its bytes.
+   */
+  static double feePerByte(TransactionCapsule trx, long entropy, long entropyPrice,
+      long bytePrice) {
+    long size = Math.max(1, trx.getSerializedSize());
+    return (double) (entropy * entropyPrice + size * bytePrice) / size;
+  }
+
+  private static class Candidate {
+
+    private final TransactionCapsule trx;
+    private final int arrival;
+    private final double feePerByte;
+
+    private Candidate(TransactionCapsule trx, int arrival, double feePerByte) {
+      this.trx = trx;
+      this.arrival = arrival;
+      this.feePerByte = feePerByte;
+    }
+  }
+}
@@ -10,6 +10,7 @@ public class MetricsKey {
   public static final String BLOCKCHAIN_DUP_WITNESS = "blockchain.dupWitness.";
   public static final String NET_LATENCY = "net.latency";
   public static final String NET_LATENCY_WITNESS = "net.latency.witness.";
+  public static final String NET_SYNC_STAGE = "net.syncStage.";
   public static final String NET_DISCONNECTION_COUNT = "net.disconnectionCount";
   public static final String NET_DISCONNECTION_DETAIL = "net.disconnectionDetail.";
   public static final String NET_ERROR_PROTO_COUNT = "net.errorProtoCount";
@@ -23,5 +24,14 @@ public class MetricsKey {
   public static final String NET_API_DETAIL_QPS = "net.api.detail.qps.";
   public static final String NET_API_DETAIL_FAIL_QPS = "net.api.detail.failQps.";
   public static final String NET_API_DETAIL_OUT_TRAFFIC = "net.api.detail.outTraffic.";
+  public static final String DB_BLOOM_FILTER = "db.bloomFilter.";
+  public static final String DB_CAPSULE_CACHE = "db.capsuleCache.";
+  public static final String DB_FLUSH = "db.flush.";
+  public static final String MEMPOOL_SIZE = "mempool.size";
+  public static final String MEMPOOL_SENDERS = "mempool.senders";
+  public static final String MEMPOOL_ADMISSION = "mempool.admission";
+  public static final String MEMPOOL_EVICTION = "mempool.eviction";
+  public static final String MEMPOOL_AGE = "mempool.age";
+  public static final String VM_CODE_CACHE = "vm.codeCache.";
 
 }
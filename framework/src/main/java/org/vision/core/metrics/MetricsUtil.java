@@ -1,6 +1,7 @@
 package org.vision.core.metrics;
 
 import com.codahale.metrics.Counter;
+import com.codahale.metrics.Gauge;
 import com.codahale.metrics.Histogram;
 import com.codahale.metrics.Meter;
 import com.codahale.metrics.MetricFilter;
@@ -133,6 +134,22 @@ public class MetricsUtil {
     }
   }
 
+  /**
+   * Gauge register, the value is read when reported.
+   *
+   * @param key String
+   * @param gauge Gauge
+   */
+  public static void gaugeRegister(String key, Gauge<?> gauge) {
+    try {
+      if (!metricRegistry.getGauges().containsKey(key)) {
+        metricRegistry.register(key, gauge);
+      }
+    } catch (Exception e) {
+      logger.warn("register gauge failed, key:{}", key);
+    }
+  }
+
   /**
    * get rate info.
    *
@@ -4,14 +4,19 @@ import static org.vision.core.config.Parameter.NetConstants.MAX_BLOCK_FETCH_PER_
 
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import lombok.Setter;
@@ -24,8 +29,11 @@ import org.vision.common.utils.Pair;
 import org.vision.core.capsule.BlockCapsule;
 import org.vision.core.capsule.BlockCapsule.BlockId;
 import org.vision.core.config.Parameter.NetConstants;
+import org.vision.core.config.args.Args;
 import org.vision.core.exception.P2pException;
 import org.vision.core.exception.P2pException.TypeEnum;
+import org.vision.core.metrics.MetricsKey;
+import org.vision.core.metrics.MetricsUtil;
 import org.vision.core.net.VisionNetDelegate;
 import org.vision.core.net.message.BlockMessage;
 import org.vision.core.net.message.FetchInvDataMessage;
@@ -57,6 +65,14 @@ public class SyncService {
   private ScheduledExecutorService blockHandleExecutor = Executors
       .newSingleThreadScheduledExecutor();
 
+  // the signature recoveries and the merkle root of the received blocks, done while the blocks
+  // before them execute
+  private ExecutorService prepareExecutor = Executors.newFixedThreadPool(
+      Args.getInstance().getValidateSignThreadNum(),
+      new ThreadFactoryBuilder().setNameFormat("sync-prepare-%d").setDaemon(true).build());
+
+  private Map<BlockId, Future<?>> blockInPrepare = new ConcurrentHashMap<>();
+
   private volatile boolean handleFlag = false;
 
   @Setter
@@ -89,6 +105,7 @@ public class SyncService {
   public void close() {
     fetchExecutor.shutdown();
     blockHandleExecutor.shutdown();
+    prepareExecutor.shutdownNow();
   }
 
   public void startSync(PeerConnection peer) {
@@ -116,6 +133,13 @@ public class SyncService {
   }
 
   public void processBlock(PeerConnection peer, BlockMessage blockMessage) {
+    BlockCapsule block = blockMessage.getBlockCapsule();
+    blockInPrepare.put(blockMessage.getBlockId(), prepareExecutor.submit(() -> {
+      long start = System.currentTimeMillis();
+      block.prepare();
+      MetricsUtil.histogramUpdate(MetricsKey.NET_SYNC_STAGE + "prepare",
+          System.currentTimeMillis() - start);
+    }));
     synchronized (blockJustReceived) {
       blockJustReceived.put(blockMessage, peer);
     }
@@ -238,6 +262,8 @@ public class SyncService {
         blockWaitToProcess.forEach((msg, peerConnection) -> {
           if (peerConnection.isDisconnect()) {
             blockWaitToProcess.remove(msg);
+            Optional.ofNullable(blockInPrepare.remove(msg.getBlockId()))
+                .ifPresent(f -> f.cancel(false));
             invalid(msg.getBlockId());
             return;
           }
@@ -263,8 +289,16 @@ public class SyncService {
     boolean flag = true;
     BlockId blockId = block.getBlockId();
     try {
+      long start = System.currentTimeMillis();
+      awaitPrepared(blockId);
+      long prepared = System.currentTimeMillis();
       visionNetDelegate.processBlock(block, true);
+      long processed = System.currentTimeMillis();
       pbftDataSyncHandler.processPBFTCommitData(block);
+      MetricsUtil.histogramUpdate(MetricsKey.NET_SYNC_STAGE + "wait", prepared - start);
+      MetricsUtil.histogramUpdate(MetricsKey.NET_SYNC_STAGE + "process", processed - prepared);
+      logger.debug("Sync block {}, wait for prepare: {} ms, process: {} ms.",
+          blockId.getString(), prepared - start, processed - prepared);
     } catch (Exception e) {
       logger.error("Process sync block {} failed.", blockId.getString(), e);
       flag = false;
@@ -283,4 +317,19 @@ public class SyncService {
     }
   }
 
+  /**
+   * The block validates the same without its preparation, a failed one is not an error.
+   */
+  private void awaitPrepared(BlockId blockId) throws InterruptedException {
+    Future<?> future = blockInPrepare.remove(blockId);
+    if (future == null) {
+      return;
+    }
+    try {
+      future.get();
+    } catch (ExecutionException e) {
+      logger.warn("Prepare sync block {} failed.", blockId.getString(), e.getCause());
+    }
+  }
+
 }
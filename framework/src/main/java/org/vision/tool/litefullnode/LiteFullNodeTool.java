@@ -14,7 +14,9 @@ import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
@@ -213,20 +215,22 @@ public class LiteFullNodeTool {
   private void mergeCheckpoint(String sourceDir, String destDir, List<String> destDbs) {
     logger.info("-- begin to merge checkpoint to dataset");
     try {
-      DBInterface tmpDb = DbTool.getDB(sourceDir, CHECKPOINT_DB);
-      try (DBIterator iterator = tmpDb.iterator()) {
-        for (iterator.seekToFirst(); iterator.hasNext(); iterator.next()) {
-          byte[] key = iterator.getKey();
-          byte[] value = iterator.getValue();
-          String dbName = SnapshotManager.simpleDecode(key);
-          byte[] realKey = Arrays.copyOfRange(key, dbName.getBytes().length + 4, key.length);
-          byte[] realValue = value.length == 1 ? null : Arrays.copyOfRange(value, 1, value.length);
-          if (destDbs != null && destDbs.contains(dbName)) {
-            DBInterface destDb = DbTool.getDB(destDir, dbName);
-            if (realValue != null) {
-              destDb.put(realKey, realValue);
-            } else {
-              destDb.delete(realKey);
+      for (DBInterface tmpDb : getCheckpointDbs(sourceDir)) {
+        try (DBIterator iterator = tmpDb.iterator()) {
+          for (iterator.seekToFirst(); iterator.hasNext(); iterator.next()) {
+            byte[] key = iterator.getKey();
+            byte[] value = iterator.getValue();
+            String dbName = SnapshotManager.simpleDecode(key);
+            byte[] realKey = Arrays.copyOfRange(key, dbName.getBytes().length + 4, key.length);
+            byte[] realValue =
+                value.length == 1 ? null : Arrays.copyOfRange(value, 1, value.length);
+            if (destDbs != null && destDbs.contains(dbName)) {
+              DBInterface destDb = DbTool.getDB(destDir, dbName);
+              if (realValue != null) {
+                destDb.put(realKey, realValue);
+              } else {
+                destDb.delete(realKey);
+              }
             }
           }
         }
@@ -236,6 +240,24 @@ public class LiteFullNodeTool {
     }
   }
 
+  /**
+   * The checkpoint dbs from the oldest generation to the newest, the async flush of the node
+   * alternates two of them.
+   */
+  private List<DBInterface> getCheckpointDbs(String sourceDir)
+          throws IOException, RocksDBException {
+    List<DBInterface> checkpoints = new ArrayList<>();
+    checkpoints.add(DbTool.getDB(sourceDir, CHECKPOINT_DB));
+    if (Paths.get(sourceDir, SnapshotManager.CHECKPOINT_STANDBY_DB).toFile().exists()) {
+      checkpoints.add(DbTool.getDB(sourceDir, SnapshotManager.CHECKPOINT_STANDBY_DB));
+    }
+    checkpoints.sort(Comparator.comparingLong(db -> {
+      byte[] generation = db.get(simpleEncode(SnapshotManager.CHECKPOINT_GENERATION));
+      return generation == null ? 0 : Longs.fromByteArray(generation);
+    }));
+    return checkpoints;
+  }
+
   private void generateInfoProperties(String propertyfile, String databaseDir)
           throws IOException, RocksDBException {
     logger.info("-- create {} for dataset", INFO_FILE_NAME);
@@ -451,12 +473,18 @@ public class LiteFullNodeTool {
   private byte[] getDataFromSourceDB(String sourceDir, String dbName, byte[] key)
           throws IOException, RocksDBException {
     DBInterface sourceDb = DbTool.getDB(sourceDir, dbName);
-    DBInterface checkpointDb = DbTool.getDB(sourceDir, "tmp");
     byte[] value = sourceDb.get(key);
     if (isEmptyBytes(value)) {
-      byte[] valueFromTmp = checkpointDb.get(Bytes.concat(simpleEncode(dbName), key));
-      value = valueFromTmp.length == 1
-              ? null : Arrays.copyOfRange(valueFromTmp, 1, valueFromTmp.length);
+      // the newest checkpoint holding the key wins
+      List<DBInterface> checkpoints = getCheckpointDbs(sourceDir);
+      for (int i = checkpoints.size() - 1; i >= 0; i--) {
+        byte[] valueFromTmp = checkpoints.get(i).get(Bytes.concat(simpleEncode(dbName), key));
+        if (valueFromTmp != null) {
+          value = valueFromTmp.length == 1
+                  ? null : Arrays.copyOfRange(valueFromTmp, 1, valueFromTmp.length);
+          break;
+        }
+      }
     }
     if (isEmptyBytes(value)) {
       throw new RuntimeException(String.format("data not found in store, dbName: %s, key: %s",
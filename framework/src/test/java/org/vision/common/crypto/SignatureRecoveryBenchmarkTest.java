@@ -0,0 +1,69 @@
+package org.vision.common.crypto;
+
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.Assert;
+import org.junit.Ignore;
+import org.junit.Test;
+import org.vision.common.utils.ByteArray;
+import org.vision.common.utils.Sha256Hash;
+
+/**
+ * Signatures recovered a second, by the per call recovery from the base64 signature, and by the
+ * recovery service cold, warm and in batches.
+ */
+@Slf4j
+@Ignore
+public class SignatureRecoveryBenchmarkTest {
+
+  private static final int SIZE = 2_000;
+  private static final int THREADS = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+
+  @Test
+  public void testThroughput() throws Exception {
+    byte[][] hashes = new byte[SIZE][];
+    byte[][] signatures = new byte[SIZE][];
+    String[] base64 = new String[SIZE];
+    for (int i = 0; i < SIZE; i++) {
+      ECKey key = new ECKey();
+      hashes[i] = Sha256Hash.of(true, ByteArray.fromInt(i)).getBytes();
+      ECKey.ECDSASignature signature = key.sign(hashes[i]);
+      signatures[i] = signature.toByteArray();
+      base64[i] = signature.toBase64();
+    }
+
+    long start = System.nanoTime();
+    for (int i = 0; i < SIZE; i++) {
+      SignUtils.signatureToAddress(hashes[i], base64[i], true);
+    }
+    long perCall = System.nanoTime() - start;
+
+    SignatureRecoveryService service = new SignatureRecoveryService(THREADS, SIZE, true);
+    start = System.nanoTime();
+    for (int i = 0; i < SIZE; i++) {
+      service.recover(hashes[i], signatures[i]);
+    }
+    long cold = System.nanoTime() - start;
+
+    start = System.nanoTime();
+    for (int i = 0; i < SIZE; i++) {
+      service.recover(hashes[i], signatures[i]);
+    }
+    long warm = System.nanoTime() - start;
+
+    SignatureRecoveryService batchService = new SignatureRecoveryService(THREADS, SIZE, true);
+    start = System.nanoTime();
+    byte[][] addresses = batchService.recoverAll(hashes, signatures, 1, TimeUnit.MINUTES);
+    long batch = System.nanoTime() - start;
+    for (byte[] address : addresses) {
+      Assert.assertNotNull(address);
+    }
+
+    logger.info("signatures: {}, threads: {}, per call: {}/s, cold: {}/s, warm: {}/s, batch: {}/s",
+        SIZE, THREADS, perSecond(perCall), perSecond(cold), perSecond(warm), perSecond(batch));
+  }
+
+  private static long perSecond(long nanos) {
+    return SIZE * TimeUnit.SECONDS.toNanos(1) / Math.max(1, nanos);
+  }
+}
@@ -0,0 +1,89 @@
+package org.vision.common.crypto;
+
+import java.util.Arrays;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import org.junit.Assert;
+import org.junit.Test;
+import org.vision.common.utils.Sha256Hash;
+
+public class SignatureRecoveryServiceTest {
+
+  private final SignatureRecoveryService service = new SignatureRecoveryService(2, 100, true);
+
+  @Test
+  public void testRecover() throws Exception {
+    ECKey key = new ECKey();
+    byte[] hash = Sha256Hash.of(true, "message".getBytes()).getBytes();
+    byte[] signature = key.sign(hash).toByteArray();
+
+    Assert.assertArrayEquals(key.getAddress(), service.recover(hash, signature));
+    Assert.assertArrayEquals(key.getAddress(), service.recover(hash, signature.clone()));
+    Assert.assertEquals(1, service.getCacheSize());
+    Assert.assertEquals(0.5, service.getCacheHitRate(), 0);
+  }
+
+  @Test
+  public void testRecoverAll() throws Exception {
+    int size = 10;
+    ECKey[] keys = new ECKey[size];
+    byte[][] hashes = new byte[size][];
+    byte[][] signatures = new byte[size][];
+    for (int i = 0; i < size; i++) {
+      keys[i] = new ECKey();
+      hashes[i] = Sha256Hash.of(true, new byte[]{(byte) i}).getBytes();
+      signatures[i] = keys[i].sign(hashes[i]).toByteArray();
+    }
+    signatures[3] = new byte[10];
+    signatures[5] = Arrays.copyOf(signatures[5], 65);
+    signatures[5][64] = 9;
+
+    byte[][] addresses = service.recoverAll(hashes, signatures, 10, TimeUnit.SECONDS);
+    for (int i = 0; i < size; i++) {
+      if (i == 3 || i == 5) {
+        Assert.assertNull(addresses[i]);
+      } else {
+        Assert.assertArrayEquals(keys[i].getAddress(), addresses[i]);
+      }
+    }
+  }
+
+  @Test
+  public void testRecoverAllTimeout() throws Exception {
+    // one worker, its chunk checks the deadline before the first signature
+    SignatureRecoveryService single = new SignatureRecoveryService(1, 100, true);
+    ECKey key = new ECKey();
+    byte[][] hashes = new byte[2][];
+    byte[][] signatures = new byte[2][];
+    for (int i = 0; i < 2; i++) {
+      hashes[i] = Sha256Hash.of(true, new byte[]{(byte) i}).getBytes();
+      signatures[i] = key.sign(hashes[i]).toByteArray();
+    }
+
+    try {
+      single.recoverAll(hashes, signatures, 0, TimeUnit.SECONDS);
+      Assert.fail();
+    } catch (TimeoutException e) {
+      // none recovered past the deadline
+      Assert.assertEquals(0, single.getCacheSize());
+    }
+    Assert.assertArrayEquals(key.getAddress(),
+        single.recoverAll(hashes, signatures, 10, TimeUnit.SECONDS)[1]);
+  }
+
+  @Test
+  public void testCheckAll() throws Exception {
+    service.checkAll(Arrays.asList(1, 2, 3), i -> Assert.assertTrue(i > 0));
+    try {
+      service.checkAll(Arrays.asList(1, -2, 3, -4), i -> {
+        if (i < 0) {
+          throw new IllegalArgumentException(String.valueOf(i));
+        }
+      });
+      Assert.fail();
+    } catch (ExecutionException e) {
+      Assert.assertEquals("-2", e.getCause().getMessage());
+    }
+  }
+}
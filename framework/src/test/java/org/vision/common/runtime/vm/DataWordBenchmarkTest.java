@@ -0,0 +1,121 @@
+package org.vision.common.runtime.vm;
+
+import java.math.BigInteger;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.BiConsumer;
+import java.util.function.BinaryOperator;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.Ignore;
+import org.junit.Test;
+import org.vision.common.utils.ByteUtil;
+
+/**
+ * Nanoseconds an operation of the arithmetic opcodes, on DataWord and on the BigInteger
+ * arithmetic it used to have, with random full words.
+ */
+@Slf4j
+@Ignore
+public class DataWordBenchmarkTest {
+
+  private static final int SIZE = 1 << 12;
+  private static final int ROUNDS = 200;
+  private static final BigInteger MAX_VALUE = DataWord.MAX_VALUE;
+
+  @Test
+  public void testOpcodes() {
+    Random random = new Random(1);
+    byte[][] a = new byte[SIZE][DataWord.WORD_SIZE];
+    byte[][] b = new byte[SIZE][DataWord.WORD_SIZE];
+    for (int i = 0; i < SIZE; i++) {
+      random.nextBytes(a[i]);
+      random.nextBytes(b[i]);
+      // a divisor of some 224 bits, so the divisions do some work
+      b[i][0] = 0;
+      b[i][1] = 0;
+      b[i][2] = 0;
+      b[i][3] = 0;
+    }
+    DataWord modulus = new DataWord(b[0]);
+    DataWord exponent = new DataWord(255);
+
+    Map<String, BiConsumer<DataWord, DataWord>> words = new LinkedHashMap<>();
+    words.put("ADD", DataWord::add);
+    words.put("SUB", DataWord::sub);
+    words.put("MUL", DataWord::mul);
+    words.put("DIV", DataWord::div);
+    words.put("SDIV", DataWord::sDiv);
+    words.put("MOD", DataWord::mod);
+    words.put("SMOD", DataWord::sMod);
+    words.put("ADDMOD", (x, y) -> x.addmod(y, modulus));
+    words.put("MULMOD", (x, y) -> x.mulmod(y, modulus));
+    words.put("EXP", (x, y) -> x.exp(exponent));
+    words.put("NOT", (x, y) -> x.bnot());
+    words.put("SHL", (x, y) -> x.shiftLeft(exponent));
+    words.put("SHR", (x, y) -> x.shiftRight(exponent));
+    words.put("SAR", (x, y) -> x.shiftRightSigned(exponent));
+
+    BigInteger m = modulus.value();
+    BigInteger e = exponent.value();
+    Map<String, BinaryOperator<BigInteger>> bigIntegers = new LinkedHashMap<>();
+    bigIntegers.put("ADD", BigInteger::add);
+    bigIntegers.put("SUB", BigInteger::subtract);
+    bigIntegers.put("MUL", BigInteger::multiply);
+    bigIntegers.put("DIV", BigInteger::divide);
+    bigIntegers.put("SDIV", (x, y) -> signed(x).divide(signed(y)));
+    bigIntegers.put("MOD", BigInteger::mod);
+    bigIntegers.put("SMOD", (x, y) -> signed(x).abs().mod(signed(y).abs()));
+    bigIntegers.put("ADDMOD", (x, y) -> x.add(y).mod(m));
+    bigIntegers.put("MULMOD", (x, y) -> x.multiply(y).mod(m));
+    bigIntegers.put("EXP", (x, y) -> x.modPow(e, DataWord._2_256));
+    bigIntegers.put("NOT", (x, y) -> MAX_VALUE.subtract(x));
+    bigIntegers.put("SHL", (x, y) -> x.shiftLeft(255));
+    bigIntegers.put("SHR", (x, y) -> x.shiftRight(255));
+    bigIntegers.put("SAR", (x, y) -> signed(x).shiftRight(255));
+
+    DataWord[] left = new DataWord[SIZE];
+    DataWord[] right = new DataWord[SIZE];
+    // the first pass warms up
+    for (int pass = 0; pass < 2; pass++) {
+      StringBuilder report = new StringBuilder();
+      for (String op : words.keySet()) {
+        BiConsumer<DataWord, DataWord> word = words.get(op);
+        long nanos = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+          for (int i = 0; i < SIZE; i++) {
+            left[i] = new DataWord(a[i].clone());
+            right[i] = new DataWord(b[i]);
+          }
+          long start = System.nanoTime();
+          for (int i = 0; i < SIZE; i++) {
+            word.accept(left[i], right[i]);
+          }
+          nanos += System.nanoTime() - start;
+        }
+
+        BinaryOperator<BigInteger> bigInteger = bigIntegers.get(op);
+        long start = System.nanoTime();
+        for (int round = 0; round < ROUNDS; round++) {
+          for (int i = 0; i < SIZE; i++) {
+            BigInteger result = bigInteger.apply(new BigInteger(1, a[i]), new BigInteger(1, b[i]));
+            ByteUtil.copyToArray(result.and(MAX_VALUE));
+          }
+        }
+        long bigIntegerNanos = System.nanoTime() - start;
+
+        report.append(String.format("%n%-6s data word: %6.1f ns, big integer: %6.1f ns", op,
+            perOperation(nanos), perOperation(bigIntegerNanos)));
+      }
+      logger.info("opcodes:{}", report);
+    }
+  }
+
+  private static BigInteger signed(BigInteger unsigned) {
+    return unsigned.testBit(255) ? unsigned.subtract(DataWord._2_256) : unsigned;
+  }
+
+  private static double perOperation(long nanos) {
+    return (double) nanos / ((long) SIZE * ROUNDS);
+  }
+}
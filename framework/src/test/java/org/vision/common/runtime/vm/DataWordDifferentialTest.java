@@ -0,0 +1,209 @@
+package org.vision.common.runtime.vm;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.function.Consumer;
+import org.junit.Assert;
+import org.junit.Test;
+import org.spongycastle.util.encoders.Hex;
+import org.vision.common.utils.ByteUtil;
+
+/**
+ * The arithmetic of DataWord against the BigInteger arithmetic it used to have, on random words
+ * that favour the edges: zero, one, the highest bit, all bits, and small and negative numbers.
+ */
+public class DataWordDifferentialTest {
+
+  private static final int ROUNDS = 200_000;
+  private static final BigInteger MAX_VALUE = DataWord.MAX_VALUE;
+
+  private final Random random = new Random(256);
+
+  @Test
+  public void testAgainstBigInteger() {
+    for (int i = 0; i < ROUNDS; i++) {
+      byte[] a = randomWord();
+      byte[] b = randomWord();
+      byte[] c = randomWord();
+
+      check("add", a, b, add(a, b), apply(a, w -> w.add(new DataWord(b))));
+      check("sub", a, b, sub(a, b), apply(a, w -> w.sub(new DataWord(b))));
+      check("mul", a, b, mul(a, b), apply(a, w -> w.mul(new DataWord(b))));
+      check("div", a, b, div(a, b), apply(a, w -> w.div(new DataWord(b))));
+      check("sdiv", a, b, sDiv(a, b), apply(a, w -> w.sDiv(new DataWord(b))));
+      check("mod", a, b, mod(a, b), apply(a, w -> w.mod(new DataWord(b))));
+      check("smod", a, b, sMod(a, b), apply(a, w -> w.sMod(new DataWord(b))));
+      check("addmod", a, b, addMod(a, b, c),
+          apply(a, w -> w.addmod(new DataWord(b), new DataWord(c))));
+      check("mulmod", a, b, mulMod(a, b, c),
+          apply(a, w -> w.mulmod(new DataWord(b), new DataWord(c))));
+      check("not", a, b, not(a), apply(a, DataWord::bnot));
+      check("negate", a, b, negate(a), apply(a, DataWord::negate));
+
+      byte[] shift = randomShift();
+      check("shl", a, shift, shiftLeft(a, shift),
+          new DataWord(a.clone()).shiftLeft(new DataWord(shift)).getData());
+      check("shr", a, shift, shiftRight(a, shift),
+          new DataWord(a.clone()).shiftRight(new DataWord(shift)).getData());
+      check("sar", a, shift, shiftRightSigned(a, shift),
+          new DataWord(a.clone()).shiftRightSigned(new DataWord(shift)).getData());
+      if (i % 16 == 0) {
+        check("exp", a, b, exp(a, b), apply(a, w -> w.exp(new DataWord(b))));
+      }
+    }
+  }
+
+  @Test
+  public void testOperandIsResult() {
+    for (int i = 0; i < ROUNDS / 10; i++) {
+      byte[] a = randomWord();
+      DataWord word = new DataWord(a.clone());
+      word.mul(word);
+      check("mul", a, a, mul(a, a), word.getData());
+
+      word = new DataWord(a.clone());
+      word.add(word);
+      check("add", a, a, add(a, a), word.getData());
+
+      word = new DataWord(a.clone());
+      word.mulmod(word, word);
+      check("mulmod", a, a, mulMod(a, a, a), word.getData());
+    }
+  }
+
+  private static void check(String op, byte[] a, byte[] b, byte[] expected, byte[] actual) {
+    if (!Arrays.equals(expected, actual)) {
+      Assert.fail(op + " of " + Hex.toHexString(a) + " and " + Hex.toHexString(b)
+          + ": expected " + Hex.toHexString(expected) + ", got " + Hex.toHexString(actual));
+    }
+  }
+
+  private byte[] randomWord() {
+    byte[] word = new byte[DataWord.WORD_SIZE];
+    switch (random.nextInt(8)) {
+      case 0:
+        return word;
+      case 1:
+        word[31] = (byte) random.nextInt(256);
+        return word;
+      case 2:
+        Arrays.fill(word, (byte) 0xff);
+        return word;
+      case 3:
+        word[0] = (byte) 0x80;
+        return word;
+      case 4: {
+        BigInteger power = BigInteger.ONE.shiftLeft(random.nextInt(256));
+        return toWord(random.nextBoolean() ? power : power.subtract(BigInteger.ONE));
+      }
+      case 5: {
+        // a small positive or negative number
+        int length = random.nextInt(DataWord.WORD_SIZE + 1);
+        byte fill = random.nextBoolean() ? (byte) 0xff : 0;
+        Arrays.fill(word, 0, DataWord.WORD_SIZE - length, fill);
+        for (int i = DataWord.WORD_SIZE - length; i < DataWord.WORD_SIZE; i++) {
+          word[i] = (byte) random.nextInt(256);
+        }
+        return word;
+      }
+      default:
+        random.nextBytes(word);
+        return word;
+    }
+  }
+
+  private byte[] randomShift() {
+    return toWord(BigInteger.valueOf(random.nextInt(4) == 0 ? random.nextInt(1024)
+        : random.nextInt(256)));
+  }
+
+  private static byte[] apply(byte[] a, Consumer<DataWord> op) {
+    DataWord word = new DataWord(a.clone());
+    op.accept(word);
+    return word.getData();
+  }
+
+  // the BigInteger arithmetic DataWord had
+
+  private static BigInteger value(byte[] a) {
+    return new BigInteger(1, a);
+  }
+
+  private static BigInteger sValue(byte[] a) {
+    return new BigInteger(a);
+  }
+
+  private static byte[] toWord(BigInteger value) {
+    return ByteUtil.copyToArray(value.and(MAX_VALUE));
+  }
+
+  private static byte[] add(byte[] a, byte[] b) {
+    return toWord(value(a).add(value(b)));
+  }
+
+  private static byte[] sub(byte[] a, byte[] b) {
+    return toWord(value(a).subtract(value(b)));
+  }
+
+  private static byte[] mul(byte[] a, byte[] b) {
+    return toWord(value(a).multiply(value(b)));
+  }
+
+  private static byte[] div(byte[] a, byte[] b) {
+    return value(b).signum() == 0 ? new byte[32] : toWord(value(a).divide(value(b)));
+  }
+
+  private static byte[] sDiv(byte[] a, byte[] b) {
+    return value(b).signum() == 0 ? new byte[32] : toWord(sValue(a).divide(sValue(b)));
+  }
+
+  private static byte[] mod(byte[] a, byte[] b) {
+    return value(b).signum() == 0 ? new byte[32] : toWord(value(a).mod(value(b)));
+  }
+
+  private static byte[] sMod(byte[] a, byte[] b) {
+    if (value(b).signum() == 0) {
+      return new byte[32];
+    }
+    BigInteger result = sValue(a).abs().mod(sValue(b).abs());
+    return toWord(sValue(a).signum() == -1 ? result.negate() : result);
+  }
+
+  private static byte[] addMod(byte[] a, byte[] b, byte[] c) {
+    return value(c).signum() == 0 ? new byte[32]
+        : toWord(value(a).add(value(b)).mod(value(c)));
+  }
+
+  private static byte[] mulMod(byte[] a, byte[] b, byte[] c) {
+    return value(c).signum() == 0 ? new byte[32]
+        : toWord(value(a).multiply(value(b)).mod(value(c)));
+  }
+
+  private static byte[] exp(byte[] a, byte[] b) {
+    return ByteUtil.copyToArray(value(a).modPow(value(b), DataWord._2_256));
+  }
+
+  private static byte[] not(byte[] a) {
+    return toWord(MAX_VALUE.subtract(value(a)));
+  }
+
+  private static byte[] negate(byte[] a) {
+    return toWord(value(a).negate());
+  }
+
+  private static byte[] shiftLeft(byte[] a, byte[] shift) {
+    return value(shift).intValue() >= DataWord.MAX_POW ? new byte[32]
+        : toWord(value(a).shiftLeft(value(shift).intValue()));
+  }
+
+  private static byte[] shiftRight(byte[] a, byte[] shift) {
+    return value(shift).intValue() >= DataWord.MAX_POW ? new byte[32]
+        : toWord(value(a).shiftRight(value(shift).intValue()));
+  }
+
+  private static byte[] shiftRightSigned(byte[] a, byte[] shift) {
+    int bits = Math.min(value(shift).intValue(), DataWord.MAX_POW);
+    return toWord(sValue(a).shiftRight(bits));
+  }
+}
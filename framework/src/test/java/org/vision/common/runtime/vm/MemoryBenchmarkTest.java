@@ -0,0 +1,159 @@
+package org.vision.common.runtime.vm;
+
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Random;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.Ignore;
+import org.junit.Test;
+import org.vision.core.vm.program.Memory;
+
+/**
+ * Memory heavy patterns of contracts on the memory and on the linked list of 1 KB chunks it used
+ * to have: the abi decoding of a large call data, a memory grown word by word, and large copies
+ * in and out of the memory.
+ */
+@Slf4j
+@Ignore
+public class MemoryBenchmarkTest {
+
+  private static final int WORD_SIZE = 32;
+  private static final int ROUNDS = 20;
+
+  @Test
+  public void testAbiDecode() {
+    byte[] callData = new byte[256 * 1024];
+    new Random(1).nextBytes(callData);
+    // the first pass warms up
+    for (int pass = 0; pass < 2; pass++) {
+      long start = System.nanoTime();
+      for (int round = 0; round < ROUNDS; round++) {
+        Memory memory = new Memory();
+        memory.write(0, callData, callData.length, false);
+        DataWord word = new DataWord();
+        for (int address = 0; address < callData.length; address += WORD_SIZE) {
+          memory.readWord(address, word);
+        }
+      }
+      long nanos = System.nanoTime() - start;
+
+      start = System.nanoTime();
+      for (int round = 0; round < ROUNDS; round++) {
+        LinkedChunks chunks = new LinkedChunks();
+        chunks.write(0, callData);
+        for (int address = 0; address < callData.length; address += WORD_SIZE) {
+          new DataWord(chunks.read(address, WORD_SIZE));
+        }
+      }
+      long chunkNanos = System.nanoTime() - start;
+      log("abi decode of 256 KB", nanos, chunkNanos);
+    }
+  }
+
+  @Test
+  public void testGrowByWord() {
+    byte[] value = new byte[WORD_SIZE];
+    new Random(2).nextBytes(value);
+    int size = 512 * 1024;
+    for (int pass = 0; pass < 2; pass++) {
+      long start = System.nanoTime();
+      for (int round = 0; round < ROUNDS; round++) {
+        Memory memory = new Memory();
+        for (int address = 0; address < size; address += WORD_SIZE) {
+          memory.write(address, value, WORD_SIZE, false);
+        }
+      }
+      long nanos = System.nanoTime() - start;
+
+      start = System.nanoTime();
+      for (int round = 0; round < ROUNDS; round++) {
+        LinkedChunks chunks = new LinkedChunks();
+        for (int address = 0; address < size; address += WORD_SIZE) {
+          chunks.write(address, value);
+        }
+      }
+      long chunkNanos = System.nanoTime() - start;
+      log("grow by word to 512 KB", nanos, chunkNanos);
+    }
+  }
+
+  @Test
+  public void testLargeCopies() {
+    byte[] returnData = new byte[64 * 1024];
+    new Random(3).nextBytes(returnData);
+    int copies = 16;
+    for (int pass = 0; pass < 2; pass++) {
+      long start = System.nanoTime();
+      for (int round = 0; round < ROUNDS; round++) {
+        Memory memory = new Memory();
+        for (int i = 0; i < copies; i++) {
+          memory.write(i * returnData.length, returnData, returnData.length, false);
+        }
+        for (int i = 0; i < copies; i++) {
+          memory.read(i * returnData.length, returnData.length);
+        }
+      }
+      long nanos = System.nanoTime() - start;
+
+      start = System.nanoTime();
+      for (int round = 0; round < ROUNDS; round++) {
+        LinkedChunks chunks = new LinkedChunks();
+        for (int i = 0; i < copies; i++) {
+          chunks.write(i * returnData.length, returnData);
+        }
+        for (int i = 0; i < copies; i++) {
+          chunks.read(i * returnData.length, returnData.length);
+        }
+      }
+      long chunkNanos = System.nanoTime() - start;
+      log("copies of 64 KB to 1 MB", nanos, chunkNanos);
+    }
+  }
+
+  private static void log(String pattern, long nanos, long chunkNanos) {
+    logger.info("{}: memory: {} us, linked chunks: {} us", pattern,
+        nanos / ROUNDS / 1000, chunkNanos / ROUNDS / 1000);
+  }
+
+  /**
+   * The reads and writes of the former memory.
+   */
+  private static class LinkedChunks {
+
+    private static final int CHUNK_SIZE = 1024;
+
+    private final List<byte[]> chunks = new LinkedList<>();
+
+    private byte[] read(int address, int size) {
+      extend(address, size);
+      byte[] data = new byte[size];
+      int chunkIndex = address / CHUNK_SIZE;
+      int chunkOffset = address % CHUNK_SIZE;
+      for (int start = 0; start < size; chunkIndex++, chunkOffset = 0) {
+        byte[] chunk = chunks.get(chunkIndex);
+        int toGrab = Math.min(size - start, CHUNK_SIZE - chunkOffset);
+        System.arraycopy(chunk, chunkOffset, data, start, toGrab);
+        start += toGrab;
+      }
+      return data;
+    }
+
+    private void write(int address, byte[] data) {
+      extend(address, data.length);
+      int chunkIndex = address / CHUNK_SIZE;
+      int chunkOffset = address % CHUNK_SIZE;
+      for (int start = 0; start < data.length; chunkIndex++, chunkOffset = 0) {
+        byte[] chunk = chunks.get(chunkIndex);
+        int toCapture = Math.min(data.length - start, CHUNK_SIZE - chunkOffset);
+        System.arraycopy(data, start, chunk, chunkOffset, toCapture);
+        start += toCapture;
+      }
+    }
+
+    private void extend(int address, int size) {
+      while (chunks.size() * CHUNK_SIZE < address + size) {
+        chunks.add(new byte[CHUNK_SIZE]);
+      }
+    }
+  }
+}
@@ -562,5 +562,46 @@ public class MemoryTest {
     assertTrue(zero == 10);
   }
 
+  @Test
+  public void memoryGrow() {
+
+    Memory memoryBuffer = new Memory();
+    byte[] expected = new byte[100 * CHUNK_SIZE + 7];
+    for (int address = 0; address + 100 <= expected.length; address += 99) {
+      byte[] data = new byte[100];
+      Arrays.fill(data, (byte) address);
+      memoryBuffer.write(address, data, data.length, false);
+      System.arraycopy(data, 0, expected, address, data.length);
+    }
 
-}
\ No newline at end of file
+    assertArrayEquals(expected, memoryBuffer.read(0, expected.length));
+    Assert.assertEquals(calcSize(expected.length, CHUNK_SIZE), memoryBuffer.internalSize());
+    Assert.assertEquals(calcSize(expected.length, WORD_SIZE), memoryBuffer.size());
+    for (int i = 0; i < expected.length; i += 1001) {
+      Assert.assertEquals(expected[i], memoryBuffer.readByte(i));
+    }
+    byte[] chunk = memoryBuffer.getChunks().get(50);
+    assertArrayEquals(Arrays.copyOfRange(expected, 50 * CHUNK_SIZE, 51 * CHUNK_SIZE), chunk);
+  }
+
+  @Test
+  public void memoryLoadInto() {
+
+    Memory memoryBuffer = new Memory();
+    byte[] data = new byte[64];
+    Arrays.fill(data, 32, 64, (byte) 2);
+    memoryBuffer.write(1000, data, data.length, false);
+
+    DataWord word = new DataWord(1);
+    Assert.assertSame(word, memoryBuffer.readWord(1016, word));
+    assertArrayEquals(Arrays.copyOfRange(data, 16, 48), word.getData());
+    Assert.assertEquals(memoryBuffer.readWord(1016), word);
+    Assert.assertEquals(1088, memoryBuffer.size());
+
+    // a word without data of its own reads into a new one
+    DataWord empty = new DataWord((byte[]) null);
+    DataWord read = memoryBuffer.readWord(1032, empty);
+    assertArrayEquals(Arrays.copyOfRange(data, 32, 64), read.getData());
+    Assert.assertEquals(0, empty.getData().length);
+  }
+}
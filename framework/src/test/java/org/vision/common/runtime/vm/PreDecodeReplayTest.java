@@ -0,0 +1,185 @@
+package org.vision.common.runtime.vm;
+
+import com.typesafe.config.Config;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+import org.spongycastle.util.encoders.Hex;
+import org.vision.common.application.VisionApplicationContext;
+import org.vision.common.parameter.CommonParameter;
+import org.vision.common.runtime.ProgramResult;
+import org.vision.common.runtime.VVMTestResult;
+import org.vision.common.runtime.VvmTestUtils;
+import org.vision.common.storage.DepositImpl;
+import org.vision.common.utils.ByteArray;
+import org.vision.common.utils.FileUtil;
+import org.vision.core.Constant;
+import org.vision.core.Wallet;
+import org.vision.core.config.DefaultConfig;
+import org.vision.core.config.args.Args;
+import org.vision.core.db.Manager;
+import org.vision.core.vm.VM;
+import org.vision.core.vm.config.VMConfig;
+import org.vision.protos.Protocol.AccountType;
+import stest.vision.wallet.common.client.Configuration;
+
+/**
+ * Replays the contracts of testng.conf, deployed and called, stepped op by op and by the basic
+ * blocks of their codes, and compares the results, entropy and exceptions of every call. The
+ * calls run out of entropy at many ops with the fee limits of testUseCpu.
+ */
+@Slf4j
+public class PreDecodeReplayTest {
+
+  private static final String OWNER = "abd4b9367799eaa3197fecb144eb71de1e049abc";
+  private static final long FEE_LIMIT = 1_000_000_000L;
+
+  private String dbPath;
+  private VisionApplicationContext context;
+  private Manager dbManager;
+  private byte[] owner;
+
+  @Test
+  public void testReplay() throws Exception {
+    long blocksPlayed = VM.getBlocksPlayed();
+    List<String> stepped = replay(false);
+    Assert.assertEquals(blocksPlayed, VM.getBlocksPlayed());
+    release();
+    List<String> preDecoded = replay(true);
+    // the blocks were played, not only stepped
+    Assert.assertTrue(VM.getBlocksPlayed() > blocksPlayed);
+    Assert.assertEquals(stepped.size(), preDecoded.size());
+    for (int i = 0; i < stepped.size(); i++) {
+      Assert.assertEquals(stepped.get(i), preDecoded.get(i));
+    }
+  }
+
+  private List<String> replay(boolean preDecode) throws Exception {
+    dbPath = "output_PreDecodeReplayTest_" + preDecode;
+    Args.setParam(new String[]{"--output-directory", dbPath, "--debug"}, Constant.TEST_CONF);
+    CommonParameter.getInstance().setVmPreDecode(preDecode);
+    VMConfig.setVmPreDecode(preDecode);
+    context = new VisionApplicationContext(DefaultConfig.class);
+    dbManager = context.getBean(Manager.class);
+    owner = Hex.decode(Wallet.getAddressPreFixString() + OWNER);
+    DepositImpl deposit = DepositImpl.createRoot(dbManager);
+    deposit.createAccount(owner, AccountType.Normal);
+    deposit.addBalance(owner, 30_000_000_000_000L);
+    deposit.commit();
+
+    List<String> results = new ArrayList<>();
+    Config testng = Configuration.getByPath("testng.conf");
+
+    // constructor(uint256 initialSupply, string tokenName, string tokenSymbol)
+    String code = testng.getString("code.code_shieldVrc20Token")
+        + word(1_000_000_000L) + word(0x60) + word(0xa0)
+        + word(10) + padded("TokenVRC20") + word(5) + padded("zen20");
+    byte[] token = deploy(results, testng.getString("abi.abi_shieldVrc20Token"), code);
+    String self = address(OWNER);
+    for (int i = 0; i < 8; i++) {
+      call(results, token, "transfer(address,uint256)", word(0x1000 + i) + word(i), FEE_LIMIT);
+    }
+    // more than the balance
+    call(results, token, "transfer(address,uint256)", word(0x1000) + word(2_000_000_000L),
+        FEE_LIMIT);
+    call(results, token, "transferFrom(address,address,uint256)",
+        self + word(0x2000) + word(10), FEE_LIMIT);
+    call(results, token, "approve(address,uint256)", self + word(100), FEE_LIMIT);
+    call(results, token, "transferFrom(address,address,uint256)",
+        self + word(0x2000) + word(10), FEE_LIMIT);
+    call(results, token, "balanceOf(address)", word(0x2000), FEE_LIMIT);
+    call(results, token, "balanceOf(address)", self, FEE_LIMIT);
+
+    byte[] divide = deploy(results, testng.getString("abi.abi_AssertException_testdivideInt"),
+        testng.getString("code.code_AssertException_testdivideInt"));
+    call(results, divide, "divideIHaveArgsReturn(int256,int256)", word(10) + word(3), FEE_LIMIT);
+    // an assert, to the invalid op
+    call(results, divide, "divideIHaveArgsReturn(int256,int256)", word(1) + word(0), FEE_LIMIT);
+    // an unknown function
+    call(results, divide, "divide(int256)", word(1), FEE_LIMIT);
+
+    byte[] log = deploy(results, testng.getString("abi.abi_ContractEventAndLog1"),
+        testng.getString("code.code_ContractEventAndLog1"));
+    call(results, log, "depositForLog()", "", FEE_LIMIT);
+    call(results, log, "depositForLogCycle(uint256)", word(10), FEE_LIMIT);
+
+    byte[] cpu = deploy(results, testng.getString("abi.abi_TestExceptionCodeAndAbi_testtimeout"),
+        testng.getString("code.code_TestExceptionCodeAndAbi_testtimeout"));
+    call(results, cpu, "testUseStorage(uint256)", word(20), FEE_LIMIT);
+    for (long feeLimit = 1_000; feeLimit < 2_000_000; feeLimit = feeLimit * 3 + 7) {
+      call(results, cpu, "testUseCpu(uint256)", word(500), feeLimit);
+    }
+    call(results, cpu, "testUseCpu(uint256)", word(500), FEE_LIMIT);
+    return results;
+  }
+
+  @After
+  public void destroy() {
+    CommonParameter.getInstance().setVmPreDecode(false);
+    VMConfig.setVmPreDecode(false);
+    release();
+  }
+
+  private void release() {
+    if (context == null) {
+      return;
+    }
+    Args.clearParam();
+    context.destroy();
+    context = null;
+    if (FileUtil.deleteDir(new File(dbPath))) {
+      logger.info("Release resources successful.");
+    } else {
+      logger.info("Release resources failure.");
+    }
+  }
+
+  private byte[] deploy(List<String> results, String abi, String code) throws Exception {
+    VVMTestResult result = VvmTestUtils.deployContractAndReturnVvmTestResult("replay", owner,
+        abi, code, 0, FEE_LIMIT, 100, null, dbManager, null);
+    results.add(describe(result));
+    return result.getContractAddress();
+  }
+
+  private void call(List<String> results, byte[] contractAddress, String method, String params,
+      long feeLimit) throws Exception {
+    byte[] data = VvmTestUtils.parseAbi(method, params);
+    VVMTestResult result = VvmTestUtils.triggerContractAndReturnVvmTestResult(owner,
+        contractAddress, data, 0, feeLimit, dbManager, null);
+    results.add(method + " " + describe(result));
+  }
+
+  private static String describe(VVMTestResult result) {
+    ProgramResult programResult = result.getRuntime().getResult();
+    RuntimeException exception = programResult.getException();
+    return String.format("result[%s] entropy[%d, %d] return[%s] revert[%b] exception[%s] "
+            + "error[%s] logs%s internal[%d] refund[%d]",
+        result.getReceipt().getResult(), programResult.getEntropyUsed(),
+        result.getReceipt().getEntropyUsageTotal(),
+        ByteArray.toHexString(programResult.getHReturn()), programResult.isRevert(),
+        exception == null ? null : exception.getClass().getSimpleName() + ": "
+            + exception.getMessage(),
+        result.getRuntime().getRuntimeError(), programResult.getLogInfoList(),
+        programResult.getInternalTransactions().size(), programResult.getFutureRefund());
+  }
+
+  private static String word(long value) {
+    return String.format("%064x", value);
+  }
+
+  private static String address(String hex) {
+    return String.format("%64s", hex).replace(' ', '0');
+  }
+
+  private static String padded(String value) {
+    StringBuilder hex = new StringBuilder(Hex.toHexString(value.getBytes()));
+    while (hex.length() < 64) {
+      hex.append('0');
+    }
+    return hex.toString();
+  }
+}
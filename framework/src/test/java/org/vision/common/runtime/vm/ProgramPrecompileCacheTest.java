@@ -0,0 +1,104 @@
+package org.vision.common.runtime.vm;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.spongycastle.util.encoders.Hex;
+import org.vision.common.crypto.Hash;
+import org.vision.core.vm.OpCode;
+import org.vision.core.vm.config.VMConfig;
+import org.vision.core.vm.program.ProgramPrecompile;
+import org.vision.core.vm.program.ProgramPrecompile.Block;
+import org.vision.core.vm.program.ProgramPrecompileCache;
+
+public class ProgramPrecompileCacheTest {
+
+  // PUSH1 0x04, JUMP, JUMPDEST in the immediate of PUSH2 0x5b5b, JUMPDEST, PUSH3 0x0102 cut
+  private static final byte[] CODE = Hex.decode("600456615b5b5b620102");
+
+  @Test
+  public void testCompile() {
+    ProgramPrecompile precompile = ProgramPrecompile.compile(CODE);
+    Assert.assertTrue(precompile.hasJumpDest(6));
+    Assert.assertFalse(precompile.hasJumpDest(4));
+    Assert.assertFalse(precompile.hasJumpDest(5));
+    Assert.assertFalse(precompile.hasJumpDest(-1));
+    Assert.assertFalse(precompile.hasJumpDest(CODE.length));
+
+    Assert.assertEquals(new DataWord(4), precompile.getPushWord(0));
+    Assert.assertEquals(new DataWord(0x5b5b), precompile.getPushWord(3));
+    // the missing byte of the immediate is a zero
+    Assert.assertEquals(new DataWord(0x010200), precompile.getPushWord(7));
+
+    // the words pushed are copies
+    precompile.getPushWord(0).add(new DataWord(1));
+    Assert.assertEquals(new DataWord(4), precompile.getPushWord(0));
+  }
+
+  @Test
+  public void testBlocks() {
+    ProgramPrecompile precompile = ProgramPrecompile.compile(CODE);
+    // PUSH1, JUMP | PUSH2 | JUMPDEST, PUSH3
+    assertBlock(precompile.getBlock(0), 3 + 8, OpCode.PUSH1, OpCode.JUMP);
+    assertBlock(precompile.getBlock(3), 3, OpCode.PUSH2);
+    assertBlock(precompile.getBlock(6), 1 + 3, OpCode.JUMPDEST, OpCode.PUSH3);
+    Assert.assertNull(precompile.getBlock(2));
+    Assert.assertNull(precompile.getBlock(7));
+    Assert.assertNull(precompile.getBlock(CODE.length));
+
+    // PUSH1, PUSH1 | SSTORE | GAS | STOP, and an unknown op
+    precompile = ProgramPrecompile.compile(Hex.decode("60016000555a00fe"));
+    assertBlock(precompile.getBlock(0), 3 + 3, OpCode.PUSH1, OpCode.PUSH1);
+    Assert.assertNull(precompile.getBlock(4));
+    Assert.assertNull(precompile.getBlock(5));
+    assertBlock(precompile.getBlock(6), 0, OpCode.STOP);
+    Assert.assertNull(precompile.getBlock(7));
+  }
+
+  @Test
+  public void testBlocksOfPreDecode() {
+    // built on the first use
+    int size = ProgramPrecompile.compile(CODE).getSize();
+    VMConfig.setVmPreDecode(true);
+    try {
+      ProgramPrecompile precompile = ProgramPrecompile.compile(CODE);
+      // and with the analysis, held by it
+      Assert.assertTrue(precompile.getSize() > size);
+      assertBlock(precompile.getBlock(0), 3 + 8, OpCode.PUSH1, OpCode.JUMP);
+    } finally {
+      VMConfig.setVmPreDecode(false);
+    }
+  }
+
+  private static void assertBlock(Block block, long entropyCost, OpCode... ops) {
+    Assert.assertNotNull(block);
+    Assert.assertArrayEquals(ops, block.getOps());
+    Assert.assertEquals(entropyCost, block.getEntropyCost());
+  }
+
+  @Test
+  public void testShared() {
+    ProgramPrecompileCache cache = new ProgramPrecompileCache(1024 * 1024);
+    byte[] codeHash = Hash.sha3(CODE);
+    ProgramPrecompile precompile = cache.get(codeHash, CODE);
+    Assert.assertSame(precompile, cache.get(codeHash, CODE.clone()));
+    Assert.assertEquals(1, cache.size());
+    Assert.assertEquals(0.5, cache.stats().hitRate(), 0);
+
+    // without a code hash, nothing is kept
+    Assert.assertNotSame(cache.get(new byte[0], CODE), cache.get(new byte[0], CODE));
+    Assert.assertEquals(1, cache.size());
+  }
+
+  @Test
+  public void testOtherCodeOfHash() {
+    ProgramPrecompileCache cache = new ProgramPrecompileCache(1024 * 1024);
+    byte[] codeHash = Hash.sha3(CODE);
+    ProgramPrecompile precompile = cache.get(codeHash, CODE);
+
+    byte[] other = Hex.decode("5b600056");
+    ProgramPrecompile otherPrecompile = cache.get(codeHash, other);
+    Assert.assertNotSame(precompile, otherPrecompile);
+    Assert.assertTrue(otherPrecompile.hasJumpDest(0));
+    Assert.assertSame(precompile, cache.get(codeHash, CODE));
+  }
+}
@@ -0,0 +1,167 @@
+package org.vision.common.runtime.vm;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Ignore;
+import org.junit.Test;
+import org.spongycastle.util.encoders.Hex;
+import org.testng.Assert;
+import org.vision.common.application.Application;
+import org.vision.common.application.ApplicationFactory;
+import org.vision.common.application.VisionApplicationContext;
+import org.vision.common.runtime.VVMTestResult;
+import org.vision.common.runtime.VvmTestUtils;
+import org.vision.common.storage.DepositImpl;
+import org.vision.common.utils.FileUtil;
+import org.vision.core.Constant;
+import org.vision.core.Wallet;
+import org.vision.core.config.DefaultConfig;
+import org.vision.core.config.args.Args;
+import org.vision.core.db.Manager;
+import org.vision.core.vm.program.Stack;
+import org.vision.protos.Protocol.AccountType;
+import stest.vision.wallet.common.client.Configuration;
+
+/**
+ * The operand stack in the opcode loop: transfers of a vrc20 token through the vm, and the stack
+ * operations of a dispatch loop on the stack and on the synchronized java.util.Stack it used to
+ * extend.
+ */
+@Slf4j
+@Ignore
+public class StackBenchmarkTest {
+
+  private static final int TRANSFERS = 2_000;
+  private static final int LOOPS = 5_000_000;
+
+  private static volatile Object[] stacks;
+
+  private Manager dbManager;
+  private VisionApplicationContext context;
+  private String dbPath = "output_StackBenchmarkTest";
+  private String ownerAddress;
+  private Application appT;
+
+  @Before
+  public void init() {
+    Args.setParam(new String[]{"--output-directory", dbPath, "--debug"}, Constant.TEST_CONF);
+    context = new VisionApplicationContext(DefaultConfig.class);
+    appT = ApplicationFactory.create(context);
+    ownerAddress = Wallet.getAddressPreFixString() + "abd4b9367799eaa3197fecb144eb71de1e049abc";
+    dbManager = context.getBean(Manager.class);
+    DepositImpl deposit = DepositImpl.createRoot(dbManager);
+    deposit.createAccount(Hex.decode(ownerAddress), AccountType.Normal);
+    deposit.addBalance(Hex.decode(ownerAddress), 30_000_000_000_000L);
+    deposit.commit();
+  }
+
+  @Test
+  public void testVrc20Transfers() throws Exception {
+    long feeLimit = 1_000_000_000L;
+    byte[] owner = Hex.decode(ownerAddress);
+    String abi = Configuration.getByPath("testng.conf").getString("abi.abi_shieldVrc20Token");
+    // constructor(uint256 initialSupply, string tokenName, string tokenSymbol)
+    String code = Configuration.getByPath("testng.conf").getString("code.code_shieldVrc20Token")
+        + word(1_000_000_000L) + word(0x60) + word(0xa0)
+        + word(10) + padded("TokenVRC20") + word(5) + padded("zen20");
+    VVMTestResult result = VvmTestUtils.deployContractAndReturnVvmTestResult("vrc20", owner,
+        abi, code, 0, feeLimit, 100, null, dbManager, null);
+    Assert.assertNull(result.getRuntime().getRuntimeError());
+    byte[] contractAddress = result.getContractAddress();
+
+    // the first pass warms up
+    for (int pass = 0; pass < 2; pass++) {
+      long start = System.nanoTime();
+      for (int i = 0; i < TRANSFERS; i++) {
+        String to = String.format("%064x", 0x1000 + i);
+        byte[] data = VvmTestUtils.parseAbi("transfer(address,uint256)", to + word(1));
+        result = VvmTestUtils.triggerContractAndReturnVvmTestResult(owner, contractAddress, data,
+            0, feeLimit, dbManager, null);
+        Assert.assertNull(result.getRuntime().getRuntimeError());
+      }
+      long nanos = System.nanoTime() - start;
+      logger.info("vrc20 transfers: {}, {}/s", TRANSFERS,
+          TRANSFERS * TimeUnit.SECONDS.toNanos(1) / Math.max(1, nanos));
+    }
+  }
+
+  @Test
+  public void testDispatchLoop() {
+    DataWord one = new DataWord(1);
+    // the first pass warms up
+    for (int pass = 0; pass < 2; pass++) {
+      // published as the stack of a program is, so its locks are not elided
+      Stack stack = new Stack();
+      stacks = new Object[]{stack};
+      stack.push(new DataWord(0));
+      long start = System.nanoTime();
+      for (int i = 0; i < LOOPS; i++) {
+        // PUSH1, DUP2, SWAP1, ADD, POP as of a loop counter
+        stack.push(one);
+        stack.push(stack.get(stack.size() - 2));
+        stack.swap(stack.size() - 1, stack.size() - 2);
+        DataWord word = stack.pop();
+        stack.pop();
+        stack.push(word);
+        stack.pop();
+      }
+      long nanos = System.nanoTime() - start;
+
+      SynchronizedStack synchronizedStack = new SynchronizedStack();
+      stacks = new Object[]{synchronizedStack};
+      synchronizedStack.push(new DataWord(0));
+      start = System.nanoTime();
+      for (int i = 0; i < LOOPS; i++) {
+        synchronizedStack.push(one);
+        synchronizedStack.push(synchronizedStack.get(synchronizedStack.size() - 2));
+        int from = synchronizedStack.size() - 1;
+        int to = synchronizedStack.size() - 2;
+        synchronizedStack.set(from, synchronizedStack.set(to, synchronizedStack.get(from)));
+        DataWord word = synchronizedStack.pop();
+        synchronizedStack.pop();
+        synchronizedStack.push(word);
+        synchronizedStack.pop();
+      }
+      long synchronizedNanos = System.nanoTime() - start;
+      logger.info("dispatch loops: {}, stack: {} ns, java.util.Stack: {} ns", LOOPS,
+          nanos / LOOPS, synchronizedNanos / LOOPS);
+    }
+  }
+
+  @After
+  public void destroy() {
+    Args.clearParam();
+    context.destroy();
+    if (FileUtil.deleteDir(new File(dbPath))) {
+      logger.info("Release resources successful.");
+    } else {
+      logger.info("Release resources failure.");
+    }
+  }
+
+  private static String word(long value) {
+    return String.format("%064x", value);
+  }
+
+  private static String padded(String value) {
+    StringBuilder hex = new StringBuilder(Hex.toHexString(value.getBytes()));
+    while (hex.length() < 64) {
+      hex.append('0');
+    }
+    return hex.toString();
+  }
+
+  /**
+   * The former stack, a java.util.Stack with a synchronized pop.
+   */
+  private static class SynchronizedStack extends java.util.Stack<DataWord> {
+
+    @Override
+    public synchronized DataWord pop() {
+      return super.pop();
+    }
+  }
+}
@@ -0,0 +1,83 @@
+package org.vision.common.runtime.vm;
+
+import java.util.EmptyStackException;
+import org.junit.Assert;
+import org.junit.Test;
+import org.vision.core.vm.program.Stack;
+import org.vision.core.vm.program.listener.ProgramListenerAdaptor;
+
+public class StackTest {
+
+  @Test
+  public void testPushPop() {
+    Stack stack = new Stack();
+    Assert.assertTrue(stack.isEmpty());
+    for (int i = 0; i < Stack.MAX_SIZE; i++) {
+      stack.push(new DataWord(i));
+    }
+    Assert.assertEquals(Stack.MAX_SIZE, stack.size());
+    Assert.assertEquals(new DataWord(Stack.MAX_SIZE - 1), stack.peek());
+    Assert.assertEquals(new DataWord(7), stack.get(7));
+
+    for (int i = Stack.MAX_SIZE - 1; i >= 0; i--) {
+      Assert.assertEquals(new DataWord(i), stack.pop());
+    }
+    Assert.assertTrue(stack.isEmpty());
+  }
+
+  @Test
+  public void testSwap() {
+    Stack stack = new Stack();
+    DataWord first = new DataWord(1);
+    DataWord second = new DataWord(2);
+    stack.push(first);
+    stack.push(second);
+
+    stack.swap(1, 0);
+    Assert.assertSame(first, stack.peek());
+    Assert.assertSame(second, stack.get(0));
+
+    // out of the stack, nothing moves
+    stack.swap(1, 2);
+    Assert.assertSame(first, stack.peek());
+  }
+
+  @Test
+  public void testListener() {
+    int[] events = new int[3];
+    Stack stack = new Stack();
+    stack.setProgramListener(new ProgramListenerAdaptor() {
+      @Override
+      public void onStackPop() {
+        events[0]++;
+      }
+
+      @Override
+      public void onStackPush(DataWord value) {
+        events[1]++;
+      }
+
+      @Override
+      public void onStackSwap(int from, int to) {
+        events[2]++;
+      }
+    });
+    stack.push(new DataWord(1));
+    stack.push(new DataWord(2));
+    stack.swap(0, 1);
+    stack.pop();
+    Assert.assertArrayEquals(new int[]{1, 2, 1}, events);
+  }
+
+  @Test(expected = EmptyStackException.class)
+  public void testPopEmpty() {
+    new Stack().pop();
+  }
+
+  @Test(expected = ArrayIndexOutOfBoundsException.class)
+  public void testGetOutOfStack() {
+    Stack stack = new Stack();
+    stack.push(new DataWord(1));
+    stack.get(1);
+  }
+}
@@ -0,0 +1,60 @@
+package org.vision.common.storage.rocksdb;
+
+import java.io.File;
+import java.util.List;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.vision.common.setting.RocksDbProfile;
+import org.vision.common.setting.RocksDbSettings;
+import org.vision.common.utils.FileUtil;
+
+public class RocksDbProfileTest {
+
+  private static final String dbPath = "output-RocksProfile-test";
+  private RocksDbSettings previous;
+
+  @Before
+  public void init() {
+    previous = RocksDbSettings.getRocksDbSettings();
+  }
+
+  @After
+  public void destroy() {
+    RocksDbSettings.setRocksDbSettings(previous);
+    FileUtil.deleteDir(new File(dbPath));
+  }
+
+  @Test
+  public void testDefaults() {
+    RocksDbSettings settings = RocksDbSettings.getDefaultSettings()
+        .withProfile(RocksDbProfile.of("block").withCacheShare(0.5));
+    // the format of an existing store is kept
+    Assert.assertFalse(settings.getProfile("account").isOptimizeForPointLookup());
+    Assert.assertEquals(0.125, settings.getProfile("account").getCacheShare(), 0);
+    Assert.assertFalse(settings.getProfile("block").getCompressionPerLevel().isEmpty());
+    Assert.assertEquals(0.5, settings.getProfile("block").getCacheShare(), 0);
+    Assert.assertEquals(0, settings.getProfile("section-bloom").getBloomBitsPerKey());
+    Assert.assertEquals(0, settings.getProfile("votes").getCacheShare(), 0);
+  }
+
+  @Test
+  public void testIterateAcrossKeys() {
+    // the point lookup profile has a prefix extractor, iterators must still see every key
+    RocksDbDataSourceImpl account = new RocksDbDataSourceImpl(dbPath, "account",
+        RocksDbSettings.getDefaultSettings()
+            .withProfile(RocksDbProfile.of("account").withOptimizeForPointLookup(true)));
+    try {
+      for (int i = 0; i < 10; i++) {
+        account.putData(("key" + i).getBytes(), ("value" + i).getBytes());
+      }
+      Assert.assertArrayEquals("value5".getBytes(), account.getData("key5".getBytes()));
+      List<byte[]> keys = account.getKeysNext("key3".getBytes(), 10);
+      Assert.assertEquals(7, keys.size());
+      Assert.assertEquals(10, account.allKeys().size());
+    } finally {
+      account.closeDB();
+    }
+  }
+}
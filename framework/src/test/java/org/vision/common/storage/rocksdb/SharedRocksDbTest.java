@@ -0,0 +1,83 @@
+package org.vision.common.storage.rocksdb;
+
+import java.io.File;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.vision.common.setting.RocksDbSettings;
+import org.vision.common.storage.WriteBatchWrapper;
+import org.vision.common.storage.WriteOptionsWrapper;
+import org.vision.common.utils.FileUtil;
+
+public class SharedRocksDbTest {
+
+  private static final String dbPath = "output-SharedRocks-test";
+  private RocksDbSettings previous;
+  private RocksDbDataSourceImpl account;
+  private RocksDbDataSourceImpl block;
+
+  private byte[] key = "key".getBytes();
+
+  @Before
+  public void init() {
+    previous = RocksDbSettings.getRocksDbSettings();
+    RocksDbSettings settings = RocksDbSettings.getDefaultSettings().withColumnFamily(true)
+        .withBlockCacheSize(8).withWriteBufferSize(8);
+    account = new RocksDbDataSourceImpl(dbPath, "account", settings);
+    block = new RocksDbDataSourceImpl(dbPath, "block", settings);
+  }
+
+  @After
+  public void destroy() {
+    account.closeDB();
+    block.closeDB();
+    RocksDbSettings.setRocksDbSettings(previous);
+    FileUtil.deleteDir(new File(dbPath));
+  }
+
+  @Test
+  public void testColumnFamilies() {
+    Assert.assertNotNull(account.getSharedDb());
+    Assert.assertSame(account.getSharedDb(), block.getSharedDb());
+    Assert.assertFalse(new File(dbPath, "account").exists());
+
+    account.putData(key, "a".getBytes());
+    block.putData(key, "b".getBytes());
+    Assert.assertArrayEquals("a".getBytes(), account.getData(key));
+    Assert.assertArrayEquals("b".getBytes(), block.getData(key));
+    Assert.assertEquals(1, account.allKeys().size());
+
+    block.resetDb();
+    Assert.assertNull(block.getData(key));
+    Assert.assertArrayEquals("a".getBytes(), account.getData(key));
+  }
+
+  @Test
+  public void testAtomicBatch() {
+    SharedRocksDb shared = account.getSharedDb();
+    try (WriteBatchWrapper batch = shared.newWriteBatch()) {
+      account.newWriteBatch(batch).put(key, "a".getBytes());
+      WriteBatchWrapper view = block.newWriteBatch(batch);
+      view.put(key, "b".getBytes());
+      view.put(key, "c".getBytes());
+      Assert.assertEquals(2, view.size());
+      Assert.assertNull(account.getData(key));
+      shared.write(batch, WriteOptionsWrapper.getInstance());
+    }
+    Assert.assertArrayEquals("a".getBytes(), account.getData(key));
+    Assert.assertArrayEquals("c".getBytes(), block.getData(key));
+  }
+
+  @Test
+  public void testReopen() {
+    account.putData(key, "a".getBytes());
+    account.closeDB();
+    block.closeDB();
+
+    account.initDB();
+    block.initDB();
+    Assert.assertArrayEquals("a".getBytes(), account.getData(key));
+    Assert.assertNull(block.getData(key));
+  }
+}
@@ -0,0 +1,131 @@
+package org.vision.core.capsule;
+
+import com.google.protobuf.ByteString;
+import java.math.BigInteger;
+import java.util.List;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.vision.common.crypto.ECKey;
+import org.vision.common.utils.Sha256Hash;
+import org.vision.core.ChainBaseManager;
+import org.vision.core.db.TransfersForTest;
+import org.vision.core.exception.ValidateSignatureException;
+import org.vision.protos.Protocol.BlockHeader;
+
+/**
+ * A prepared block validates the same as the block without its preparation.
+ */
+public class BlockPrepareTest {
+
+  private static final String dbPath = "output_block_prepare_test";
+  private static final int ACCOUNTS = 3;
+  private static final int[][] TRANSFERS = {{0, 1}, {1, 2}, {2, 0}};
+  private TransfersForTest transfers;
+  private ChainBaseManager chainBaseManager;
+
+  @Before
+  public void init() {
+    transfers = new TransfersForTest(dbPath, ACCOUNTS);
+    chainBaseManager = transfers.getChainBaseManager();
+  }
+
+  @After
+  public void destroy() {
+    transfers.close();
+  }
+
+  @Test
+  public void testPrepared() throws Exception {
+    BlockCapsule block = newBlock(0);
+    BlockCapsule prepared = new BlockCapsule(block.getInstance());
+    prepared.prepare();
+    BlockCapsule unprepared = new BlockCapsule(block.getInstance());
+
+    Assert.assertEquals(unprepared.calcMerkleRoot(), prepared.calcMerkleRoot());
+    Assert.assertTrue(validateSignature(unprepared));
+    Assert.assertTrue(validateSignature(prepared));
+    for (int i = 0; i < TRANSFERS.length; i++) {
+      Assert.assertTrue(validateSignature(unprepared.getTransactions().get(i)));
+      Assert.assertTrue(validateSignature(prepared.getTransactions().get(i)));
+    }
+
+    // signed by other than its witness
+    block = newBlock(1);
+    prepared = new BlockCapsule(block.getInstance());
+    prepared.prepare();
+    Assert.assertFalse(validateSignature(new BlockCapsule(block.getInstance())));
+    Assert.assertFalse(validateSignature(prepared));
+  }
+
+  @Test
+  public void testModifiedAfterPrepare() throws Exception {
+    BlockCapsule block = newBlock(0);
+    block.prepare();
+    block.sign(key(1).getPrivKeyBytes());
+    Assert.assertFalse(validateSignature(block));
+
+    block = newBlock(0);
+    block.prepare();
+    block.addTransaction(transfers.newTransfers(new int[][]{{0, 2}}).get(0));
+    Assert.assertNotEquals(block.getMerkleRoot(), block.calcMerkleRoot());
+    Assert.assertEquals(new BlockCapsule(block.getInstance()).calcMerkleRoot(),
+        block.calcMerkleRoot());
+  }
+
+  @Test
+  public void testFailedPrepare() throws Exception {
+    BlockCapsule block = newBlock(0);
+    // a header byte out of range, the signer does not recover
+    byte[] sig = block.getInstance().getBlockHeader().getWitnessSignature().toByteArray();
+    sig[64] = 99;
+    BlockHeader header = block.getInstance().getBlockHeader().toBuilder()
+        .setWitnessSignature(ByteString.copyFrom(sig)).build();
+    block = new BlockCapsule(block.getInstance().toBuilder().setBlockHeader(header).build());
+    block.prepare();
+
+    try {
+      validateSignature(block);
+      Assert.fail();
+    } catch (ValidateSignatureException e) {
+      // recovered afresh, as without the preparation
+    }
+    Assert.assertEquals(new BlockCapsule(block.getInstance()).calcMerkleRoot(),
+        block.calcMerkleRoot());
+    for (TransactionCapsule trx : block.getTransactions()) {
+      Assert.assertTrue(validateSignature(trx));
+    }
+  }
+
+  /**
+   * @return a block of the transfers, signed by the account at signer
+   */
+  private BlockCapsule newBlock(int signer) {
+    List<TransactionCapsule> transactions = transfers.newTransfers(TRANSFERS);
+    for (int i = 0; i < TRANSFERS.length; i++) {
+      transactions.get(i).sign(key(TRANSFERS[i][0]).getPrivKeyBytes());
+    }
+    BlockCapsule block = new BlockCapsule(chainBaseManager.getHeadBlockNum() + 1,
+        Sha256Hash.wrap(chainBaseManager.getHeadBlockId().getBytes()),
+        chainBaseManager.getHeadBlockTimeStamp() + 3000, transfers.getAddresses().get(0));
+    block.addAllTransactions(transactions);
+    block.setMerkleRoot();
+    block.sign(key(signer).getPrivKeyBytes());
+    return block;
+  }
+
+  private static ECKey key(int account) {
+    return ECKey.fromPrivate(BigInteger.valueOf(account + 1));
+  }
+
+  private boolean validateSignature(BlockCapsule block) throws ValidateSignatureException {
+    return block.validateSignature(chainBaseManager.getDynamicPropertiesStore(),
+        chainBaseManager.getAccountStore());
+  }
+
+  private boolean validateSignature(TransactionCapsule trx) throws ValidateSignatureException {
+    return trx.validateSignature(chainBaseManager.getAccountStore(),
+        chainBaseManager.getDynamicPropertiesStore());
+  }
+}
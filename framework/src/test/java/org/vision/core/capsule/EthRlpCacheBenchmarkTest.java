@@ -0,0 +1,82 @@
+package org.vision.core.capsule;
+
+import static org.mockito.Mockito.mock;
+
+import java.math.BigInteger;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.Assert;
+import org.junit.Ignore;
+import org.junit.Test;
+import org.vision.common.crypto.ECKey;
+import org.vision.common.parameter.CommonParameter;
+import org.vision.common.utils.ByteArray;
+import org.vision.common.utils.Sha256Hash;
+import org.vision.core.capsule.TransactionCapsule.EthTrx;
+import org.vision.core.store.DynamicPropertiesStore;
+import org.vision.protos.Protocol.Transaction.Contract.ContractType;
+import org.vision.protos.contract.BalanceContract.TransferContract;
+
+/**
+ * Eth transfers through the rlp steps of a transaction from its push to its block: the signature
+ * check at the push, at the block pre-validation and at the block apply, and the rlp hash of the
+ * dedup check, the dedup store and the dedup cache. Once parsing and hashing at every step, and
+ * once reusing the parse and the hash of the capsule.
+ */
+@Slf4j
+@Ignore
+public class EthRlpCacheBenchmarkTest {
+
+  private static final int SIZE = 2_000;
+  private static final int STEPS = 3;
+
+  @Test
+  public void testEthTransfers() {
+    DynamicPropertiesStore dynamicPropertiesStore = mock(DynamicPropertiesStore.class);
+    byte[][] rlpData = new byte[SIZE][];
+    TransferContract[] contracts = new TransferContract[SIZE];
+    ECKey key = new ECKey();
+    for (int i = 0; i < SIZE; i++) {
+      EthTrx ethTrx = new EthTrx(ByteArray.fromLong(i), ByteArray.fromLong(10_000_000_000L),
+          ByteArray.fromLong(21_000),
+          ByteArray.subArray(Sha256Hash.of(true, ByteArray.fromInt(i)).getBytes(), 0, 20),
+          BigInteger.TEN.pow(18).toByteArray(), new byte[0], 1);
+      ethTrx.sign(key);
+      rlpData[i] = ethTrx.getEncoded();
+      contracts[i] = new EthTrx(rlpData[i]).rlpParseToTransferContract();
+    }
+
+    boolean isECKeyCryptoEngine = CommonParameter.getInstance().isECKeyCryptoEngine();
+    long start = System.nanoTime();
+    for (int i = 0; i < SIZE; i++) {
+      for (int step = 0; step < STEPS; step++) {
+        EthTrx ethTrx = new EthTrx(rlpData[i]);
+        ethTrx.rlpParse();
+        Assert.assertEquals(contracts[i], ethTrx.rlpParseToTransferContract());
+        ethTrx.getRawHash();
+        Sha256Hash.of(isECKeyCryptoEngine, rlpData[i]);
+      }
+    }
+    long perStep = System.nanoTime() - start;
+
+    start = System.nanoTime();
+    for (int i = 0; i < SIZE; i++) {
+      TransactionCapsule capsule = new TransactionCapsule(contracts[i],
+          ContractType.TransferContract);
+      for (int step = 0; step < STEPS; step++) {
+        EthTrx ethTrx = capsule.getEthTrx(dynamicPropertiesStore);
+        Assert.assertEquals(contracts[i], ethTrx.rlpParseToTransferContract());
+        ethTrx.getRawHash();
+        capsule.getEthRlpDataHash(dynamicPropertiesStore);
+      }
+    }
+    long cached = System.nanoTime() - start;
+
+    logger.info("eth transfers: {}, steps: {}, per step: {}/s, cached: {}/s",
+        SIZE, STEPS, perSecond(perStep), perSecond(cached));
+  }
+
+  private static long perSecond(long nanos) {
+    return SIZE * TimeUnit.SECONDS.toNanos(1) / Math.max(1, nanos);
+  }
+}
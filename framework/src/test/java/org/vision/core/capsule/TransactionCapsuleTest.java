@@ -9,6 +9,8 @@ import org.junit.Before;
 import org.junit.BeforeClass;
 import org.junit.Test;
 import org.testng.Assert;
+import org.vision.common.crypto.ECKey;
+import org.vision.common.utils.ByteArray;
 import org.vision.common.utils.FileUtil;
 import org.vision.common.utils.StringUtil;
 import org.vision.core.Constant;
@@ -16,6 +18,7 @@ import org.vision.core.Wallet;
 import org.vision.core.config.DefaultConfig;
 import org.vision.core.config.args.Args;
 import org.vision.core.db.Manager;
+import org.vision.core.exception.ValidateSignatureException;
 import org.vision.common.application.Application;
 import org.vision.common.application.ApplicationFactory;
 import org.vision.common.application.VisionApplicationContext;
@@ -23,6 +26,7 @@ import org.vision.protos.Protocol.AccountType;
 import org.vision.protos.Protocol.Transaction;
 import org.vision.protos.Protocol.Transaction.Result;
 import org.vision.protos.Protocol.Transaction.Result.contractResult;
+import org.vision.protos.contract.BalanceContract.TransferContract;
 
 @Slf4j
 public class TransactionCapsuleTest {
@@ -1076,6 +1080,58 @@ public class TransactionCapsuleTest {
     }
   }*/
 
+  @Test
+  public void recoverSigners() throws ValidateSignatureException {
+    TransferContract contract = TransferContract.newBuilder()
+        .setOwnerAddress(StringUtil.hexString2ByteString(OWNER_ADDRESS))
+        .setToAddress(StringUtil.hexString2ByteString(TO_ADDRESS))
+        .setAmount(1)
+        .build();
+    TransactionCapsule trx = new TransactionCapsule(contract, dbManager.getAccountStore());
+    TransactionCapsule other = new TransactionCapsule(trx.getInstance());
+    trx.sign(ByteArray.fromHexString(OWNER_KEY));
+    other.sign(ByteArray.fromHexString(KEY_11));
+
+    TransactionCapsule recovered = new TransactionCapsule(trx.getInstance());
+    recovered.recoverSigners();
+    Assert.assertTrue(recovered.validatePubSignature(dbManager.getAccountStore(),
+        dbManager.getDynamicPropertiesStore()));
+
+    // the signatures changed after the recovery, the signers recovered are not theirs
+    recovered = new TransactionCapsule(trx.getInstance());
+    recovered.recoverSigners();
+    recovered.adopt(other);
+    try {
+      recovered.validatePubSignature(dbManager.getAccountStore(),
+          dbManager.getDynamicPropertiesStore());
+      Assert.fail();
+    } catch (ValidateSignatureException e) {
+      // recovered afresh
+      byte[] signer = ECKey.fromPrivate(ByteArray.fromHexString(KEY_11)).getAddress();
+      Assert.assertTrue(e.getMessage().contains("is signed by "
+          + StringUtil.encode58Check(signer)));
+    }
+
+    // and back, they are again
+    recovered.adopt(trx);
+    Assert.assertTrue(recovered.validatePubSignature(dbManager.getAccountStore(),
+        dbManager.getDynamicPropertiesStore()));
+  }
+
+  @Test
+  public void isEthStyle() {
+    TransferContract contract = TransferContract.newBuilder()
+        .setOwnerAddress(StringUtil.hexString2ByteString(OWNER_ADDRESS))
+        .setToAddress(StringUtil.hexString2ByteString(TO_ADDRESS))
+        .setAmount(1)
+        .build();
+    Assert.assertFalse(new TransactionCapsule(contract, dbManager.getAccountStore())
+        .isEthStyle());
+    Assert.assertTrue(new TransactionCapsule(contract.toBuilder().setType(1).build(),
+        dbManager.getAccountStore()).isEthStyle());
+    Assert.assertFalse(new TransactionCapsule(Transaction.newBuilder().build()).isEthStyle());
+  }
+
   @Test
   public void trxCapsuleClearTest() {
     Transaction tx = Transaction.newBuilder()
@@ -0,0 +1,57 @@
+package org.vision.core.capsule.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.Assert;
+import org.junit.Ignore;
+import org.junit.Test;
+import org.vision.common.parameter.CommonParameter;
+import org.vision.common.utils.ByteArray;
+import org.vision.common.utils.Sha256Hash;
+
+/**
+ * Time of the transaction merkle root by the tree and by the root builder, for block sizes.
+ */
+@Slf4j
+@Ignore
+public class MerkleTreeBenchmarkTest {
+
+  private static final int[] SIZES = {1_000, 5_000, 10_000};
+  private static final int WARM_UP = 20;
+  private static final int ROUNDS = 100;
+
+  @Test
+  public void testCreateTree() {
+    for (int size : SIZES) {
+      List<Sha256Hash> hashList = hashes(size);
+      Assert.assertEquals(MerkleTree.getInstance().createTree(hashList).getRoot().getHash(),
+          MerkleRootBuilder.computeRoot(hashList));
+      logger.info("transactions: {}, createTree: {} us, MerkleRootBuilder: {} us", size,
+          measure(hashList, h -> MerkleTree.getInstance().createTree(h).getRoot().getHash()),
+          measure(hashList, MerkleRootBuilder::computeRoot));
+    }
+  }
+
+  private static long measure(List<Sha256Hash> hashList,
+      Function<List<Sha256Hash>, Sha256Hash> root) {
+    for (int i = 0; i < WARM_UP; i++) {
+      root.apply(hashList);
+    }
+    long start = System.nanoTime();
+    for (int i = 0; i < ROUNDS; i++) {
+      root.apply(hashList);
+    }
+    return (System.nanoTime() - start) / ROUNDS / 1000;
+  }
+
+  private static List<Sha256Hash> hashes(int size) {
+    List<Sha256Hash> hashList = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      hashList.add(Sha256Hash.of(CommonParameter.getInstance().isECKeyCryptoEngine(),
+          ByteArray.fromInt(i)));
+    }
+    return hashList;
+  }
+}
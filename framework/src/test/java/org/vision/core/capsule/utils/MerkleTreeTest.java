@@ -172,4 +172,13 @@ public class MerkleTreeTest {
       pareTree(root, hashList, maxRank, 0, 0);
     }
   }
-}
\ No newline at end of file
+  @Test
+  public void testRootBuilder() {
+    Assert.assertEquals(Sha256Hash.ZERO_HASH, new MerkleRootBuilder().getRoot());
+    for (int hashNum = 1; hashNum <= 128; hashNum++) {
+      List<Sha256Hash> hashList = getHash(hashNum);
+      Assert.assertEquals(MerkleTree.getInstance().createTree(hashList).getRoot().getHash(),
+          MerkleRootBuilder.computeRoot(hashList));
+    }
+  }
+}
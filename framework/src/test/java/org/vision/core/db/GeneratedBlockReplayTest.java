@@ -0,0 +1,125 @@
+package org.vision.core.db;
+
+import com.google.protobuf.ByteString;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+import org.vision.common.crypto.ECKey;
+import org.vision.common.utils.ByteArray;
+import org.vision.consensus.base.Param;
+import org.vision.consensus.base.Param.Miner;
+import org.vision.core.capsule.BlockCapsule;
+import org.vision.core.capsule.TransactionCapsule;
+import org.vision.core.config.args.Args;
+import org.vision.core.consensus.ConsensusService;
+import org.vision.core.db.accountstate.callback.AccountStateCallBack;
+import org.vision.core.db2.ISession;
+import org.vision.core.db2.common.WrappedByteArray;
+import org.vision.protos.Protocol.TransactionInfo;
+
+/**
+ * Applies a generated block by replaying its recorded writes and compares the stores and the
+ * results with executing it.
+ */
+@Slf4j
+public class GeneratedBlockReplayTest {
+
+  private static final String dbPath = "output_generated_block_replay_test";
+  private static final int ACCOUNTS = 4;
+  private static final int[][] TRANSFERS = {{0, 1}, {1, 2}, {2, 3}, {3, 0}};
+  private TransfersForTest transfers;
+
+  @After
+  public void destroy() {
+    release();
+  }
+
+  private void release() {
+    if (transfers != null) {
+      transfers.close();
+      transfers = null;
+    }
+  }
+
+  @Test
+  public void testSameAsExecution() throws Exception {
+    transfers = new TransfersForTest(dbPath, ACCOUNTS);
+    Manager dbManager = transfers.getDbManager();
+    AccountStateCallBack accountStateCallBack =
+        transfers.getContext().getBean(AccountStateCallBack.class);
+    BlockCapsule block = transfers.newBlock(TRANSFERS);
+    block.generatedByMyself = true;
+    block.getTransactions().forEach(trx -> trx.setVerified(true));
+    GeneratedBlockReplay replay = new GeneratedBlockReplay(dbManager, accountStateCallBack,
+        block);
+
+    List<TransactionInfo> executed = new ArrayList<>();
+    Map<String, Map<WrappedByteArray, WrappedByteArray>> executedState;
+    try (ISession ignored = dbManager.getRevokingStore().buildSession()) {
+      for (TransactionCapsule trx : block.getTransactions()) {
+        accountStateCallBack.preExeTrans();
+        executed.add(replay.execute(trx));
+      }
+      executedState = transfers.dump();
+    }
+
+    Assert.assertTrue(replay.isReplayable(block));
+    Assert.assertFalse(replay.isReplayable(new BlockCapsule(block.getInstance())));
+
+    List<TransactionInfo> replayed;
+    Map<String, Map<WrappedByteArray, WrappedByteArray>> replayedState;
+    try (ISession ignored = dbManager.getRevokingStore().buildSession()) {
+      replayed = replay.replay();
+      replayedState = transfers.dump();
+    }
+
+    Assert.assertEquals(block.getTransactions().size(), executed.size());
+    Assert.assertEquals(executed, replayed);
+    Assert.assertEquals(executedState, replayedState);
+  }
+
+  @Test
+  public void testGenerateAndPush() throws Exception {
+    Map<String, Map<WrappedByteArray, WrappedByteArray>> executed = generateAndPush(false);
+    release();
+    Map<String, Map<WrappedByteArray, WrappedByteArray>> replayed = generateAndPush(true);
+    Assert.assertEquals(executed, replayed);
+  }
+
+  /**
+   * Generate a block of the transfers on a new chain and push it.
+   *
+   * @return the stores once the block is applied
+   */
+  private Map<String, Map<WrappedByteArray, WrappedByteArray>> generateAndPush(boolean replay)
+      throws Exception {
+    transfers = new TransfersForTest(dbPath, ACCOUNTS,
+        parameter -> parameter.setGeneratedBlockReplayEnable(replay));
+    transfers.getContext().getBean(ConsensusService.class).start();
+    Manager dbManager = transfers.getDbManager();
+    for (TransactionCapsule trx : transfers.newTransfers(TRANSFERS)) {
+      trx.setVerified(true);
+      dbManager.getPendingTransactions().add(trx);
+    }
+
+    byte[] privateKey = ByteArray.fromHexString(Args.getLocalWitnesses().getPrivateKey());
+    ByteString witness = ByteString.copyFrom(ECKey.fromPrivate(privateKey).getAddress());
+    Miner miner = Param.getInstance().new Miner(privateKey, witness, witness);
+    BlockCapsule block = dbManager.generateBlock(miner,
+        transfers.getChainBaseManager().getHeadBlockTimeStamp() + 3000,
+        System.currentTimeMillis() + 60_000);
+    Assert.assertEquals(TRANSFERS.length, block.getTransactions().size());
+    // handed to the push of the block, which takes it
+    GeneratedBlockReplay generated = dbManager.getGeneratedBlockReplay();
+    Assert.assertEquals(replay, generated != null && generated.isReplayable(block));
+
+    dbManager.pushBlock(block);
+    Assert.assertNull(dbManager.getGeneratedBlockReplay());
+    Assert.assertEquals(block.getBlockId(), transfers.getChainBaseManager().getHeadBlockId());
+    return transfers.dump();
+  }
+}
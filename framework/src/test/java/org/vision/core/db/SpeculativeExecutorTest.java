@@ -0,0 +1,98 @@
+package org.vision.core.db;
+
+import com.google.protobuf.ByteString;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.vision.core.ChainBaseManager;
+import org.vision.core.capsule.AccountCapsule;
+import org.vision.core.capsule.BlockCapsule;
+import org.vision.core.capsule.TransactionCapsule;
+import org.vision.core.db.accountstate.callback.AccountStateCallBack;
+import org.vision.core.db2.ISession;
+import org.vision.core.db2.common.WrappedByteArray;
+import org.vision.protos.Protocol.TransactionInfo;
+
+/**
+ * Replays the same block serially and speculatively and compares the stores and the results.
+ */
+@Slf4j
+public class SpeculativeExecutorTest {
+
+  private static final String dbPath = "output_speculative_executor_test";
+  private static final int ACCOUNTS = 8;
+  private static TransfersForTest transfers;
+  private static Manager dbManager;
+  private static SpeculativeExecutor executor;
+
+  @BeforeClass
+  public static void init() {
+    transfers = new TransfersForTest(dbPath, ACCOUNTS);
+    dbManager = transfers.getDbManager();
+    ChainBaseManager chainBaseManager = transfers.getChainBaseManager();
+    executor = new SpeculativeExecutor(dbManager,
+        transfers.getContext().getBean(AccountStateCallBack.class), 4);
+
+    // the frozen photon keeps the transfers off the public photon usage all of them would write
+    chainBaseManager.getDynamicPropertiesStore().saveTotalPhotonWeight(ACCOUNTS * 1_000L);
+    for (ByteString address : transfers.getAddresses()) {
+      AccountCapsule account = chainBaseManager.getAccountStore().get(address.toByteArray());
+      account.setFrozenForPhoton(1_000_000_000L, Long.MAX_VALUE);
+      chainBaseManager.getAccountStore().put(address.toByteArray(), account);
+    }
+  }
+
+  @AfterClass
+  public static void destroy() {
+    transfers.close();
+  }
+
+  @Test
+  public void testSameAsSerial() throws Exception {
+    // disjoint pairs commit their speculation, the last two read what earlier ones wrote
+    BlockCapsule block = transfers.newBlock(
+        new int[][]{{0, 1}, {2, 3}, {4, 5}, {6, 7}, {1, 2}, {0, 7}});
+
+    List<TransactionInfo> serial;
+    Map<String, Map<WrappedByteArray, WrappedByteArray>> serialState;
+    try (ISession ignored = dbManager.getRevokingStore().buildSession()) {
+      serial = executeSerially(copyOf(block));
+      serialState = transfers.dump();
+    }
+
+    List<TransactionInfo> speculative;
+    Map<String, Map<WrappedByteArray, WrappedByteArray>> speculativeState;
+    try (ISession ignored = dbManager.getRevokingStore().buildSession()) {
+      Assert.assertTrue(executor.isApplicable(block));
+      speculative = executor.execute(copyOf(block));
+      speculativeState = transfers.dump();
+    }
+
+    Assert.assertEquals(block.getTransactions().size(), serial.size());
+    Assert.assertEquals(4, executor.getCommitted());
+    Assert.assertEquals(2, executor.getReExecuted());
+    Assert.assertEquals(serial, speculative);
+    Assert.assertEquals(serialState, speculativeState);
+  }
+
+  private static BlockCapsule copyOf(BlockCapsule block) {
+    BlockCapsule copy = new BlockCapsule(block.getInstance());
+    copy.generatedByMyself = true;
+    return copy;
+  }
+
+  private List<TransactionInfo> executeSerially(BlockCapsule block) throws Exception {
+    List<TransactionInfo> results = new ArrayList<>();
+    for (TransactionCapsule trx : block.getTransactions()) {
+      trx.setBlockNum(block.getNum());
+      trx.setVerified(true);
+      results.add(dbManager.processTransaction(trx, block));
+    }
+    return results;
+  }
+}
@@ -0,0 +1,108 @@
+package org.vision.core.db;
+
+import com.google.protobuf.ByteString;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.vision.common.utils.ByteArray;
+import org.vision.core.capsule.TransactionCapsule;
+import org.vision.protos.Protocol.Transaction.Contract.ContractType;
+import org.vision.protos.contract.BalanceContract.TransferContract;
+
+public class TransactionPoolTest {
+
+  private static final ByteString OWNER_A = ByteString.copyFrom(ByteArray
+      .fromHexString("46548794500882809695a8a687866e76d4271a1abc"));
+  private static final ByteString OWNER_B = ByteString.copyFrom(ByteArray
+      .fromHexString("46abd4b9367799eaa3197fecb144eb71de1e049abc"));
+  private static final ByteString TO = ByteString.copyFrom(ByteArray
+      .fromHexString("4655fbc26b1ea3e0e7adcdba3b59a4e4c5e8d8f9a6"));
+
+  private TransactionPool pool;
+
+  @Before
+  public void init() {
+    pool = new TransactionPool();
+  }
+
+  @Test
+  public void testAddAndRemove() {
+    TransactionCapsule trx = newTransaction(OWNER_A, 1, 1_000L);
+    Assert.assertTrue(pool.add(trx));
+    Assert.assertFalse(pool.add(trx));
+    Assert.assertEquals(1, pool.size());
+    Assert.assertTrue(pool.contains(trx.getTransactionId()));
+    Assert.assertEquals(1, pool.getSenderSize(OWNER_A));
+
+    Assert.assertSame(trx, pool.remove(trx.getTransactionId()));
+    Assert.assertNull(pool.remove(trx.getTransactionId()));
+    Assert.assertTrue(pool.isEmpty());
+    Assert.assertEquals(0, pool.getSenderSize(OWNER_A));
+  }
+
+  @Test
+  public void testArrivalOrder() {
+    List<TransactionCapsule> added = new ArrayList<>();
+    for (int i = 0; i < 10; i++) {
+      TransactionCapsule trx = newTransaction(i % 2 == 0 ? OWNER_A : OWNER_B, i, 10_000L - i);
+      pool.add(trx);
+      added.add(trx);
+    }
+
+    List<TransactionCapsule> iterated = new ArrayList<>();
+    Iterator<TransactionCapsule> iterator = pool.iterator();
+    while (iterator.hasNext()) {
+      TransactionCapsule trx = iterator.next();
+      iterated.add(trx);
+      if (iterated.size() % 3 == 0) {
+        iterator.remove();
+      }
+    }
+    Assert.assertEquals(added, iterated);
+    Assert.assertEquals(7, pool.size());
+
+    List<TransactionCapsule> remaining = new ArrayList<>();
+    for (int i = 0; i < added.size(); i++) {
+      if ((i + 1) % 3 != 0) {
+        remaining.add(added.get(i));
+      }
+    }
+    Assert.assertEquals(remaining, pool.drain());
+    Assert.assertTrue(pool.isEmpty());
+  }
+
+  @Test
+  public void testEvictExpired() {
+    pool.add(newTransaction(OWNER_A, 1, 3_000L));
+    pool.add(newTransaction(OWNER_A, 2, 1_000L));
+    pool.add(newTransaction(OWNER_B, 3, 2_000L));
+    TransactionCapsule alive = newTransaction(OWNER_B, 4, 4_000L);
+    pool.add(alive);
+
+    Assert.assertEquals(2, pool.evictExpired(2_000L));
+    Assert.assertEquals(1, pool.getSenderSize(OWNER_A));
+    Assert.assertEquals(1, pool.getSenderSize(OWNER_B));
+    Assert.assertEquals(2, pool.getSenderCount());
+    Assert.assertEquals(1, pool.evictExpired(3_000L));
+    Assert.assertEquals(0, pool.getSenderSize(OWNER_A));
+    Assert.assertEquals(1, pool.getSenderCount());
+    Assert.assertEquals(1, pool.size());
+    Assert.assertTrue(pool.contains(alive.getTransactionId()));
+  }
+
+  private static TransactionCapsule newTransaction(ByteString owner, long amount,
+      long expiration) {
+    TransferContract contract = TransferContract.newBuilder()
+        .setOwnerAddress(owner)
+        .setToAddress(TO)
+        .setAmount(amount)
+        .build();
+    TransactionCapsule trx = new TransactionCapsule(contract, ContractType.TransferContract);
+    trx.setExpiration(expiration);
+    trx.setTime(System.currentTimeMillis());
+    return trx;
+  }
+}
@@ -0,0 +1,134 @@
+package org.vision.core.db;
+
+import com.google.protobuf.ByteString;
+import java.io.File;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import lombok.Getter;
+import org.vision.common.application.VisionApplicationContext;
+import org.vision.common.crypto.ECKey;
+import org.vision.common.parameter.CommonParameter;
+import org.vision.common.utils.ByteArray;
+import org.vision.common.utils.FileUtil;
+import org.vision.common.utils.Sha256Hash;
+import org.vision.core.ChainBaseManager;
+import org.vision.core.Constant;
+import org.vision.core.capsule.AccountCapsule;
+import org.vision.core.capsule.BlockCapsule;
+import org.vision.core.capsule.BytesCapsule;
+import org.vision.core.capsule.TransactionCapsule;
+import org.vision.core.config.DefaultConfig;
+import org.vision.core.config.args.Args;
+import org.vision.core.db2.common.WrappedByteArray;
+import org.vision.core.db2.core.Chainbase;
+import org.vision.core.db2.core.SnapshotManager;
+import org.vision.protos.Protocol.AccountType;
+import org.vision.protos.contract.BalanceContract.TransferContract;
+
+/**
+ * A test chain with accounts holding a balance, the blocks of transfers between them on its head
+ * and the content of its stores, to compare the ways a block applies. The accounts are the same
+ * on every chain, so the stores of two chains compare too.
+ */
+public class TransfersForTest {
+
+  public static final long BALANCE = 10_000_000_000L;
+
+  private final String dbPath;
+  @Getter
+  private final VisionApplicationContext context;
+  @Getter
+  private final Manager dbManager;
+  @Getter
+  private final ChainBaseManager chainBaseManager;
+  @Getter
+  private final List<ByteString> addresses = new ArrayList<>();
+
+  public TransfersForTest(String dbPath, int accounts) {
+    this(dbPath, accounts, parameter -> {
+    });
+  }
+
+  /**
+   * @param configure applied to the parameters read from the test config, before the chain starts
+   */
+  public TransfersForTest(String dbPath, int accounts, Consumer<CommonParameter> configure) {
+    this.dbPath = dbPath;
+    Args.setParam(new String[]{"--output-directory", dbPath}, Constant.TEST_CONF);
+    configure.accept(CommonParameter.getInstance());
+    context = new VisionApplicationContext(DefaultConfig.class);
+    dbManager = context.getBean(Manager.class);
+    chainBaseManager = context.getBean(ChainBaseManager.class);
+
+    for (int i = 0; i < accounts; i++) {
+      ByteString address = ByteString.copyFrom(
+          ECKey.fromPrivate(BigInteger.valueOf(i + 1)).getAddress());
+      chainBaseManager.getAccountStore().put(address.toByteArray(), new AccountCapsule(
+          ByteString.copyFromUtf8("account" + i), address, AccountType.Normal, BALANCE));
+      addresses.add(address);
+    }
+  }
+
+  /**
+   * @param transfers the owner and the receiver of each transfer, by account index
+   * @return the transfers, referencing the head block
+   */
+  public List<TransactionCapsule> newTransfers(int[][] transfers) {
+    long headNum = chainBaseManager.getHeadBlockNum();
+    byte[] headHash = chainBaseManager.getHeadBlockId().getBytes();
+    long headTime = chainBaseManager.getHeadBlockTimeStamp();
+    chainBaseManager.getRecentBlockStore().put(
+        ByteArray.subArray(ByteArray.fromLong(headNum), 6, 8),
+        new BytesCapsule(ByteArray.subArray(headHash, 8, 16)));
+
+    List<TransactionCapsule> transactions = new ArrayList<>();
+    for (int i = 0; i < transfers.length; i++) {
+      TransferContract contract = TransferContract.newBuilder()
+          .setOwnerAddress(addresses.get(transfers[i][0]))
+          .setToAddress(addresses.get(transfers[i][1]))
+          .setAmount(i + 1)
+          .build();
+      TransactionCapsule trx = new TransactionCapsule(contract,
+          chainBaseManager.getAccountStore());
+      trx.setReference(headNum, headHash);
+      trx.setExpiration(headTime + 60_000);
+      transactions.add(trx);
+    }
+    return transactions;
+  }
+
+  /**
+   * @return a block of the transfers on the head, by the first account
+   */
+  public BlockCapsule newBlock(int[][] transfers) {
+    BlockCapsule block = new BlockCapsule(chainBaseManager.getHeadBlockNum() + 1,
+        Sha256Hash.wrap(chainBaseManager.getHeadBlockId().getBytes()),
+        chainBaseManager.getHeadBlockTimeStamp() + 3000, addresses.get(0));
+    block.addAllTransactions(newTransfers(transfers));
+    return block;
+  }
+
+  /**
+   * @return the values of the stores, with the unflushed layers, by db name
+   */
+  public Map<String, Map<WrappedByteArray, WrappedByteArray>> dump() {
+    Map<String, Map<WrappedByteArray, WrappedByteArray>> state = new HashMap<>();
+    for (Chainbase db : ((SnapshotManager) dbManager.getRevokingStore()).getDbs()) {
+      Map<WrappedByteArray, WrappedByteArray> values = new HashMap<>();
+      db.iterator().forEachRemaining(e -> values.put(WrappedByteArray.of(e.getKey()),
+          WrappedByteArray.of(e.getValue())));
+      state.put(db.getDbName(), values);
+    }
+    return state;
+  }
+
+  public void close() {
+    Args.clearParam();
+    context.destroy();
+    FileUtil.deleteDir(new File(dbPath));
+  }
+}
@@ -0,0 +1,106 @@
+package org.vision.core.db;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.primitives.Longs;
+import java.io.File;
+import java.nio.file.Paths;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.vision.common.utils.FileUtil;
+import org.vision.common.utils.Sha256Hash;
+import org.vision.core.Constant;
+import org.vision.core.config.args.Args;
+import org.vision.core.db2.common.TxCacheDB;
+
+public class TxCacheSnapshotTest {
+
+  private static final String OUTPUT = "output_TxCacheSnapshot_test";
+  private static final byte[] BLOCK_ID = Sha256Hash.of(true, "block".getBytes()).getBytes();
+
+  private TxCacheDB written;
+  private TxCacheDB restored;
+
+  @Before
+  public void init() {
+    Args.setParam(new String[]{"-d", OUTPUT}, Constant.TEST_CONF);
+  }
+
+  @After
+  public void destroy() {
+    if (written != null) {
+      written.close();
+    }
+    if (restored != null) {
+      restored.close();
+    }
+    Args.clearParam();
+    FileUtil.deleteDir(new File(OUTPUT));
+  }
+
+  @Test
+  public void testWriteAndLoad() throws Exception {
+    written = new TxCacheDB("trans-cache-written");
+    for (long block = 1; block <= 10; block++) {
+      written.put(txId(block), Longs.toByteArray(block));
+    }
+    Cache<Sha256Hash, Boolean> ids = newCache();
+    Cache<Sha256Hash, Boolean> rlpData = newCache();
+    ids.put(Sha256Hash.wrap(txId(1)), true);
+    rlpData.put(Sha256Hash.wrap(txId(2)), true);
+
+    TxCacheSnapshot snapshot = new TxCacheSnapshot(Paths.get(OUTPUT, "trans-cache.snapshot"));
+    new File(OUTPUT).mkdirs();
+    snapshot.write(written, written.getNewestBlockNum(), BLOCK_ID, ids, rlpData);
+
+    Args.getInstance().setTxCacheSnapshotEnable(true);
+    restored = new TxCacheDB("trans-cache-restored");
+    Assert.assertFalse(restored.isInitialized());
+    restored.put(txId(11), Longs.toByteArray(11));
+    Cache<Sha256Hash, Boolean> restoredIds = newCache();
+    Cache<Sha256Hash, Boolean> restoredRlpData = newCache();
+
+    Assert.assertEquals(-1, snapshot.load(restored, restoredIds, restoredRlpData,
+        (num, blockId) -> false));
+    Assert.assertFalse(restored.isInitialized());
+    Assert.assertEquals(10, snapshot.load(restored, restoredIds, restoredRlpData,
+        (num, blockId) -> num == 10 && Sha256Hash.wrap(blockId).equals(Sha256Hash.wrap(BLOCK_ID))));
+
+    Assert.assertTrue(restored.isInitialized());
+    Assert.assertEquals(11, restored.size());
+    Assert.assertEquals(11, restored.getNewestBlockNum());
+    Assert.assertArrayEquals(Longs.toByteArray(3), restored.get(txId(3)));
+    Assert.assertNotNull(restoredIds.getIfPresent(Sha256Hash.wrap(txId(1))));
+    Assert.assertNotNull(restoredRlpData.getIfPresent(Sha256Hash.wrap(txId(2))));
+  }
+
+  @Test
+  public void testLoadInitialized() throws Exception {
+    written = new TxCacheDB("trans-cache-written");
+    written.put(txId(1), Longs.toByteArray(1));
+    TxCacheSnapshot snapshot = new TxCacheSnapshot(Paths.get(OUTPUT, "trans-cache.snapshot"));
+    new File(OUTPUT).mkdirs();
+    snapshot.write(written, written.getNewestBlockNum(), BLOCK_ID, newCache(), newCache());
+
+    Args.getInstance().setTxCacheSnapshotEnable(true);
+    restored = new TxCacheDB("trans-cache-restored");
+    restored.put(txId(2), Longs.toByteArray(2));
+    restored.initialize();
+
+    // left to the load of the store
+    Assert.assertEquals(-1, snapshot.load(restored, newCache(), newCache(),
+        (num, blockId) -> true));
+    Assert.assertEquals(1, restored.size());
+    Assert.assertNull(restored.get(txId(1)));
+  }
+
+  private static byte[] txId(long block) {
+    return Sha256Hash.of(true, Longs.toByteArray(block)).getBytes();
+  }
+
+  private static Cache<Sha256Hash, Boolean> newCache() {
+    return CacheBuilder.newBuilder().maximumSize(100).build();
+  }
+}
@@ -0,0 +1,57 @@
+package org.vision.core.db.assembly;
+
+import com.google.protobuf.ByteString;
+import org.junit.Assert;
+import org.junit.Test;
+import org.vision.common.utils.ByteArray;
+import org.vision.common.utils.Sha256Hash;
+import org.vision.core.capsule.BlockCapsule;
+import org.vision.core.capsule.TransactionCapsule;
+import org.vision.protos.Protocol.Transaction.Contract.ContractType;
+import org.vision.protos.contract.SmartContractOuterClass.TriggerSmartContract;
+
+public class BlockSizeTest {
+
+  private static final ByteString OWNER = ByteString.copyFrom(ByteArray
+      .fromHexString("46548794500882809695a8a687866e76d4271a1abc"));
+
+  @Test
+  public void testAccumulate() {
+    BlockCapsule block = new BlockCapsule(1, Sha256Hash.ZERO_HASH, 3000, OWNER);
+    BlockSize blockSize = new BlockSize(block, Long.MAX_VALUE);
+    Assert.assertEquals(block.getInstance().getSerializedSize(), blockSize.getSize());
+
+    // the lengths take one, two and three bytes
+    for (int data : new int[]{0, 100, 1_000, 20_000, 200_000}) {
+      TransactionCapsule trx = newTransaction(data);
+      blockSize.add(BlockSize.sizeOf(trx));
+      block.addTransaction(trx);
+      Assert.assertEquals(block.getInstance().getSerializedSize(), blockSize.getSize());
+    }
+  }
+
+  @Test
+  public void testFits() {
+    BlockCapsule block = new BlockCapsule(1, Sha256Hash.ZERO_HASH, 3000, OWNER);
+    TransactionCapsule trx = newTransaction(1_000);
+    long trxSize = BlockSize.sizeOf(trx);
+    BlockSize blockSize = new BlockSize(block,
+        block.getInstance().getSerializedSize() + 2 * trxSize);
+
+    Assert.assertTrue(blockSize.fits(trxSize));
+    blockSize.add(trxSize);
+    Assert.assertTrue(blockSize.fits(trxSize));
+    blockSize.add(trxSize);
+    Assert.assertFalse(blockSize.fits(trxSize));
+    Assert.assertTrue(blockSize.fits(0));
+  }
+
+  private static TransactionCapsule newTransaction(int data) {
+    TriggerSmartContract contract = TriggerSmartContract.newBuilder()
+        .setOwnerAddress(OWNER)
+        .setContractAddress(OWNER)
+        .setData(ByteString.copyFrom(new byte[data]))
+        .build();
+    return new TransactionCapsule(contract, ContractType.TriggerSmartContract);
+  }
+}
@@ -0,0 +1,54 @@
+package org.vision.core.db.assembly;
+
+import com.google.protobuf.ByteString;
+import org.junit.Assert;
+import org.junit.Test;
+import org.vision.common.utils.ByteArray;
+import org.vision.core.capsule.TransactionCapsule;
+
+public class ExecutionTimeEstimatorTest {
+
+  private static final ByteString OWNER = ByteString.copyFrom(ByteArray
+      .fromHexString("46548794500882809695a8a687866e76d4271a1abc"));
+  private static final ByteString CONTRACT = ByteString.copyFrom(ByteArray
+      .fromHexString("4655fbc26b1ea3e0e7adcdba3b59a4e4c5e8d8f9a6"));
+  private static final ByteString OTHER_CONTRACT = ByteString.copyFrom(ByteArray
+      .fromHexString("46ed738b3a0fe390eaa71b768b6d02cdbd18fb207b"));
+
+  @Test
+  public void testByContract() {
+    ExecutionTimeEstimator estimator = new ExecutionTimeEstimator();
+    TransactionCapsule trigger = FeePriorityStrategyTest.newTrigger(OWNER, CONTRACT, 0L);
+    Assert.assertEquals(0, estimator.estimate(trigger));
+    Assert.assertEquals(0, estimator.estimateEntropy(trigger));
+
+    estimator.record(trigger, 800, 1_000);
+    Assert.assertEquals(800, estimator.estimate(trigger));
+    Assert.assertEquals(1_000, estimator.estimateEntropy(trigger));
+    // the latest weighs an eighth
+    estimator.record(trigger, 1_600, 2_000);
+    Assert.assertEquals(900, estimator.estimate(trigger));
+    Assert.assertEquals(1_125, estimator.estimateEntropy(trigger));
+
+    // the calls of one contract alike, whatever their fee limit
+    Assert.assertEquals(900, estimator.estimate(
+        FeePriorityStrategyTest.newTrigger(OWNER, CONTRACT, 1_000_000L)));
+    Assert.assertEquals(0, estimator.estimate(
+        FeePriorityStrategyTest.newTrigger(OWNER, OTHER_CONTRACT, 0L)));
+  }
+
+  @Test
+  public void testByType() {
+    ExecutionTimeEstimator estimator = new ExecutionTimeEstimator();
+    TransactionCapsule transfer = FeePriorityStrategyTest.newTransfer(OWNER);
+    // not executed, without a trace
+    estimator.record(transfer, 50);
+    Assert.assertEquals(50, estimator.estimate(transfer));
+    Assert.assertEquals(0, estimator.estimateEntropy(transfer));
+
+    // the first known entropy is the average
+    estimator.record(FeePriorityStrategyTest.newTransfer(CONTRACT), 50, 200);
+    Assert.assertEquals(50, estimator.estimate(transfer));
+    Assert.assertEquals(200, estimator.estimateEntropy(transfer));
+  }
+}
@@ -0,0 +1,87 @@
+package org.vision.core.db.assembly;
+
+import com.google.protobuf.ByteString;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.vision.common.utils.ByteArray;
+import org.vision.core.capsule.TransactionCapsule;
+import org.vision.core.store.DynamicPropertiesStore;
+import org.vision.protos.Protocol.Transaction;
+import org.vision.protos.Protocol.Transaction.Contract.ContractType;
+import org.vision.protos.contract.BalanceContract.TransferContract;
+import org.vision.protos.contract.SmartContractOuterClass.TriggerSmartContract;
+
+public class FeePriorityStrategyTest {
+
+  private static final ByteString OWNER_A = ByteString.copyFrom(ByteArray
+      .fromHexString("46548794500882809695a8a687866e76d4271a1abc"));
+  private static final ByteString OWNER_B = ByteString.copyFrom(ByteArray
+      .fromHexString("46abd4b9367799eaa3197fecb144eb71de1e049abc"));
+  private static final ByteString OWNER_C = ByteString.copyFrom(ByteArray
+      .fromHexString("4603702350064ad5c1a8aa6b4d74b051199cff8ea7"));
+  private static final ByteString CHEAP = ByteString.copyFrom(ByteArray
+      .fromHexString("4655fbc26b1ea3e0e7adcdba3b59a4e4c5e8d8f9a6"));
+  private static final ByteString COSTLY = ByteString.copyFrom(ByteArray
+      .fromHexString("46ed738b3a0fe390eaa71b768b6d02cdbd18fb207b"));
+  private static final ByteString UNKNOWN = ByteString.copyFrom(ByteArray
+      .fromHexString("46a389132d6639fbda4fbc8b659264e6b7c90db086"));
+  private static final long MAX_FEE_LIMIT = 1_000_000_000L;
+
+  @Test
+  public void testOrder() {
+    TransactionCapsule a1 = newTrigger(OWNER_A, CHEAP, MAX_FEE_LIMIT);
+    TransactionCapsule b1 = newTrigger(OWNER_B, COSTLY, 0L);
+    TransactionCapsule a2 = newTrigger(OWNER_A, COSTLY, 0L);
+    TransactionCapsule b2 = newTrigger(OWNER_B, UNKNOWN, MAX_FEE_LIMIT);
+    TransactionCapsule c1 = newTransfer(OWNER_C);
+    List<TransactionCapsule> pending = Arrays.asList(a1, b1, a2, b2, c1);
+
+    ExecutionTimeEstimator estimator = new ExecutionTimeEstimator();
+    estimator.record(a1, 100, 10);
+    estimator.record(b1, 100, 100_000);
+    DynamicPropertiesStore dynamicPropertiesStore = Mockito.mock(DynamicPropertiesStore.class);
+    Mockito.when(dynamicPropertiesStore.getEntropyFee()).thenReturn(100L);
+    Mockito.when(dynamicPropertiesStore.getTransactionFee()).thenReturn(10L);
+
+    // a2 pays the most but waits for a1 of the same sender, the fee limit of b2 is no payment so
+    // it ties with the transfer
+    Assert.assertEquals(Arrays.asList(b1, a1, a2, b2, c1),
+        new FeePriorityStrategy(estimator, dynamicPropertiesStore).order(pending));
+    Assert.assertEquals(pending, new ArrivalOrderStrategy().order(pending));
+  }
+
+  @Test
+  public void testFeePerByte() {
+    TransactionCapsule transfer = newTransfer(OWNER_A);
+    Assert.assertEquals(10, FeePriorityStrategy.feePerByte(transfer, 0, 100, 10), 0);
+
+    TransactionCapsule trigger = newTrigger(OWNER_A, CHEAP, MAX_FEE_LIMIT);
+    long size = trigger.getSerializedSize();
+    Assert.assertEquals(10 + 100.0 * 1_000 / size,
+        FeePriorityStrategy.feePerByte(trigger, 1_000, 100, 10), 0.001);
+  }
+
+  static TransactionCapsule newTrigger(ByteString owner, ByteString contractAddress,
+      long feeLimit) {
+    TriggerSmartContract contract = TriggerSmartContract.newBuilder()
+        .setOwnerAddress(owner)
+        .setContractAddress(contractAddress)
+        .build();
+    Transaction trx = new TransactionCapsule(contract, ContractType.TriggerSmartContract)
+        .getInstance();
+    return new TransactionCapsule(trx.toBuilder()
+        .setRawData(trx.getRawData().toBuilder().setFeeLimit(feeLimit)).build());
+  }
+
+  static TransactionCapsule newTransfer(ByteString owner) {
+    TransferContract contract = TransferContract.newBuilder()
+        .setOwnerAddress(owner)
+        .setToAddress(OWNER_B)
+        .setAmount(1)
+        .build();
+    return new TransactionCapsule(contract, ContractType.TransferContract);
+  }
+}
@@ -0,0 +1,79 @@
+package org.vision.core.db2;
+
+import com.google.common.collect.ImmutableMap;
+import java.io.File;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.vision.common.application.Application;
+import org.vision.common.application.ApplicationFactory;
+import org.vision.common.application.VisionApplicationContext;
+import org.vision.common.parameter.CommonParameter;
+import org.vision.common.utils.FileUtil;
+import org.vision.core.Constant;
+import org.vision.core.config.DefaultConfig;
+import org.vision.core.config.args.Args;
+import org.vision.core.db2.RevokingDbWithCacheNewValueTest.TestRevokingVisionStore;
+import org.vision.core.db2.SnapshotRootTest.ProtoCapsuleTest;
+import org.vision.core.db2.core.SnapshotManager;
+
+public class CapsuleCacheTest {
+
+  private static final String DB_NAME = "testCapsuleCache";
+  private SnapshotManager revokingDatabase;
+  private VisionApplicationContext context;
+  private Application appT;
+  private TestRevokingVisionStore visionDatabase;
+
+  @Before
+  public void init() {
+    Args.setParam(new String[]{"-d", "output_CapsuleCache_test"}, Constant.TEST_CONF);
+    context = new VisionApplicationContext(DefaultConfig.class);
+    appT = ApplicationFactory.create(context);
+    revokingDatabase = context.getBean(SnapshotManager.class);
+    revokingDatabase.enable();
+    CommonParameter.getInstance().getStorage()
+        .setCapsuleCacheSize(ImmutableMap.of(DB_NAME, 100L));
+    visionDatabase = new TestRevokingVisionStore(DB_NAME);
+    revokingDatabase.add(visionDatabase.getRevokingDB());
+  }
+
+  @After
+  public void removeDb() {
+    Args.clearParam();
+    context.destroy();
+    visionDatabase.close();
+    FileUtil.deleteDir(new File("output_CapsuleCache_test"));
+  }
+
+  @Test
+  public synchronized void testRevokeAndMerge() {
+    Assert.assertNotNull(visionDatabase.getCache());
+    byte[] key = "key".getBytes();
+    visionDatabase.put(key, new ProtoCapsuleTest("v1".getBytes()));
+    Assert.assertArrayEquals("v1".getBytes(), visionDatabase.getUnchecked(key).getData());
+
+    try (ISession session = revokingDatabase.buildSession()) {
+      visionDatabase.put(key, new ProtoCapsuleTest("v2".getBytes()));
+      Assert.assertArrayEquals("v2".getBytes(), visionDatabase.getUnchecked(key).getData());
+    }
+    // revoked
+    Assert.assertArrayEquals("v1".getBytes(), visionDatabase.getUnchecked(key).getData());
+
+    try (ISession session = revokingDatabase.buildSession()) {
+      try (ISession inner = revokingDatabase.buildSession()) {
+        visionDatabase.put(key, new ProtoCapsuleTest("v3".getBytes()));
+        Assert.assertArrayEquals("v3".getBytes(), visionDatabase.getUnchecked(key).getData());
+        inner.merge();
+      }
+      Assert.assertArrayEquals("v3".getBytes(), visionDatabase.getUnchecked(key).getData());
+      session.commit();
+    }
+    Assert.assertArrayEquals("v3".getBytes(), visionDatabase.getUnchecked(key).getData());
+
+    visionDatabase.delete(key);
+    Assert.assertNull(visionDatabase.getUnchecked(key).getData());
+    Assert.assertTrue(visionDatabase.getCache().stats().hitCount() > 0);
+  }
+}
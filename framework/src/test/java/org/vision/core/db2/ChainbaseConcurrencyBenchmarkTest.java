@@ -0,0 +1,120 @@
+package org.vision.core.db2;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Ignore;
+import org.junit.Test;
+import org.vision.common.setting.RocksDbSettings;
+import org.vision.common.storage.rocksdb.RocksDbDataSourceImpl;
+import org.vision.common.utils.FileUtil;
+import org.vision.core.db2.common.RocksDB;
+import org.vision.core.db2.core.Chainbase;
+import org.vision.core.db2.core.Snapshot;
+import org.vision.core.db2.core.SnapshotRoot;
+
+/**
+ * Read throughput of one Chainbase by reader threads, with and without a concurrent writer.
+ * Readers share the store, so the throughput should grow with the threads up to the cores.
+ */
+@Slf4j
+@Ignore
+public class ChainbaseConcurrencyBenchmarkTest {
+
+  private static final String dbPath = "output_ChainbaseBenchmark_test";
+  private static final int KEYS = 100_000;
+  private static final int LAYERS = 10;
+  private static final long DURATION_MS = 3_000;
+
+  private Chainbase chainbase;
+  private SnapshotRoot root;
+
+  @Before
+  public void init() {
+    root = new SnapshotRoot(new RocksDB(new RocksDbDataSourceImpl(dbPath, "benchmark",
+        RocksDbSettings.getDefaultSettings())));
+    for (int i = 0; i < KEYS; i++) {
+      root.put(key(i), ("root" + i).getBytes());
+    }
+
+    Snapshot head = root;
+    for (int layer = 0; layer < LAYERS; layer++) {
+      head = head.advance();
+      for (int i = layer; i < KEYS; i += LAYERS * 10) {
+        head.put(key(i), ("layer" + layer).getBytes());
+      }
+    }
+    chainbase = new Chainbase(head, false);
+  }
+
+  @After
+  public void destroy() {
+    root.close();
+    FileUtil.deleteDir(new File(dbPath));
+  }
+
+  @Test
+  public void testReadScaling() throws InterruptedException {
+    int cores = Runtime.getRuntime().availableProcessors();
+    for (int threads = 1; threads <= cores; threads *= 2) {
+      logger.info("readers: {}, reads/s: {}, with a writer: {}", threads,
+          run(threads, false), run(threads, true));
+    }
+  }
+
+  private long run(int threads, boolean withWriter) throws InterruptedException {
+    LongAdder reads = new LongAdder();
+    AtomicBoolean stop = new AtomicBoolean();
+    CountDownLatch start = new CountDownLatch(1);
+    List<Thread> workers = new ArrayList<>();
+    for (int t = 0; t < threads; t++) {
+      workers.add(new Thread(() -> {
+        await(start);
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        while (!stop.get()) {
+          Assert.assertNotNull(chainbase.getUnchecked(key(random.nextInt(KEYS))));
+          reads.increment();
+        }
+      }));
+    }
+    if (withWriter) {
+      workers.add(new Thread(() -> {
+        await(start);
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        while (!stop.get()) {
+          int i = random.nextInt(KEYS);
+          chainbase.put(key(i), ("write" + i).getBytes());
+        }
+      }));
+    }
+
+    workers.forEach(Thread::start);
+    start.countDown();
+    Thread.sleep(DURATION_MS);
+    stop.set(true);
+    for (Thread worker : workers) {
+      worker.join();
+    }
+    return reads.sum() * 1000 / DURATION_MS;
+  }
+
+  private static void await(CountDownLatch latch) {
+    try {
+      latch.await();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private static byte[] key(int i) {
+    return ("key" + i).getBytes();
+  }
+}
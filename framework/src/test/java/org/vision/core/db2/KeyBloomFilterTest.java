@@ -0,0 +1,150 @@
+package org.vision.core.db2;
+
+import com.google.common.collect.Sets;
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import org.iq80.leveldb.WriteOptions;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.vision.common.parameter.CommonParameter;
+import org.vision.common.storage.leveldb.LevelDbDataSourceImpl;
+import org.vision.common.utils.FileUtil;
+import org.vision.common.utils.StorageUtils;
+import org.vision.core.Constant;
+import org.vision.core.config.args.Args;
+import org.vision.core.config.args.Storage;
+import org.vision.core.db2.common.KeyBloomFilter;
+import org.vision.core.db2.common.LevelDB;
+
+public class KeyBloomFilterTest {
+
+  private static final String DB_NAME = "testKeyBloomFilter";
+  private static final String OUTPUT = "output_KeyBloomFilter_test";
+
+  private LevelDB db;
+  private Path sidecar;
+
+  @Before
+  public void init() {
+    Args.setParam(new String[]{"-d", OUTPUT}, Constant.TEST_CONF);
+    Storage storage = CommonParameter.getInstance().getStorage();
+    storage.setBloomFilterDbs(Sets.newHashSet(DB_NAME));
+    storage.setBloomFilterExpectedInsertions(1_000);
+    storage.setBloomFilterFpp(0.0001);
+    open();
+    sidecar = Paths.get(db.getDb().getDbPath() + ".bloom");
+    for (int i = 0; i < 100; i++) {
+      db.put(key(i), key(i));
+    }
+  }
+
+  private void open() {
+    db = new LevelDB(new LevelDbDataSourceImpl(StorageUtils.getOutputDirectoryByDbName(DB_NAME),
+        DB_NAME, StorageUtils.getOptionsByDbName(DB_NAME), new WriteOptions()));
+  }
+
+  /**
+   * The sidecar is written before the db closes and read after it opens.
+   */
+  private void reopen() {
+    db.close();
+    open();
+  }
+
+  @After
+  public void destroy() {
+    db.close();
+    Args.clearParam();
+    FileUtil.deleteDir(new File(OUTPUT));
+  }
+
+  @Test
+  public void testMightContain() {
+    KeyBloomFilter filter = KeyBloomFilter.of(db);
+    for (int i = 0; i < 100; i++) {
+      Assert.assertTrue(filter.mightContain(key(i)));
+    }
+    Assert.assertFalse(filter.mightContain(key(100)));
+    Assert.assertEquals(1, filter.getAbsent().sum());
+    Assert.assertEquals(101, filter.getLookup().sum());
+
+    filter.put(key(100));
+    Assert.assertTrue(filter.mightContain(key(100)));
+  }
+
+  @Test
+  public void testPersistAndLoad() {
+    KeyBloomFilter filter = KeyBloomFilter.of(db);
+    // in the filter only, a rebuild from the db would not have it
+    filter.put(key(-1));
+    filter.persist();
+    Assert.assertTrue(Files.exists(sidecar));
+
+    reopen();
+    filter = KeyBloomFilter.of(db);
+    Assert.assertTrue(filter.mightContain(key(-1)));
+    Assert.assertTrue(filter.mightContain(key(0)));
+    // taken once
+    Assert.assertFalse(Files.exists(sidecar));
+    Assert.assertFalse(KeyBloomFilter.of(db).mightContain(key(-1)));
+  }
+
+  @Test
+  public void testSaturatedRebuild() {
+    CommonParameter.getInstance().getStorage().setBloomFilterExpectedInsertions(10);
+    KeyBloomFilter filter = KeyBloomFilter.of(db);
+    // the rebuild made room for the keys of the db
+    Assert.assertTrue(filter.expectedFpp() <= 0.0001);
+
+    CommonParameter.getInstance().getStorage().setBloomFilterExpectedInsertions(1_000);
+    filter = KeyBloomFilter.of(db);
+    for (int i = 100; i < 10_000; i++) {
+      db.put(key(i), key(i));
+      filter.put(key(i));
+    }
+    filter.persist();
+    Assert.assertTrue(filter.expectedFpp() > 0.0002);
+
+    reopen();
+    filter = KeyBloomFilter.of(db);
+    Assert.assertTrue(filter.expectedFpp() <= 0.0001);
+    Assert.assertTrue(filter.mightContain(key(9_999)));
+  }
+
+  @Test
+  public void testStaleSidecar() {
+    KeyBloomFilter filter = KeyBloomFilter.of(db);
+    filter.put(key(-1));
+    filter.persist();
+    // written by a run without the filter
+    reopen();
+    db.put(key(100), key(100));
+
+    reopen();
+    filter = KeyBloomFilter.of(db);
+    Assert.assertTrue(filter.mightContain(key(100)));
+    Assert.assertFalse(filter.mightContain(key(-1)));
+    Assert.assertFalse(Files.exists(sidecar));
+  }
+
+  @Test
+  public void testOpenedWithoutFilter() {
+    KeyBloomFilter filter = KeyBloomFilter.of(db);
+    filter.put(key(-1));
+    filter.persist();
+    // opened and closed by a run without the filter, LevelDB rewrites its files on open so that
+    // is taken as a write
+    reopen();
+    reopen();
+
+    Assert.assertFalse(KeyBloomFilter.of(db).mightContain(key(-1)));
+  }
+
+  private static byte[] key(int i) {
+    return ("key" + i).getBytes();
+  }
+}
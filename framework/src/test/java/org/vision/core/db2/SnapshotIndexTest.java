@@ -0,0 +1,115 @@
+package org.vision.core.db2;
+
+import java.io.File;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.vision.common.application.Application;
+import org.vision.common.application.ApplicationFactory;
+import org.vision.common.application.VisionApplicationContext;
+import org.vision.common.parameter.CommonParameter;
+import org.vision.common.utils.FileUtil;
+import org.vision.core.Constant;
+import org.vision.core.config.DefaultConfig;
+import org.vision.core.config.args.Args;
+import org.vision.core.db2.RevokingDbWithCacheNewValueTest.TestRevokingVisionStore;
+import org.vision.core.db2.SnapshotRootTest.ProtoCapsuleTest;
+import org.vision.core.db2.core.Chainbase;
+import org.vision.core.db2.core.SnapshotManager;
+
+public class SnapshotIndexTest {
+
+  private SnapshotManager revokingDatabase;
+  private VisionApplicationContext context;
+  private Application appT;
+  private TestRevokingVisionStore indexed;
+  private TestRevokingVisionStore plain;
+
+  @Before
+  public void init() {
+    Args.setParam(new String[]{"-d", "output_SnapshotIndex_test"}, Constant.TEST_CONF);
+    context = new VisionApplicationContext(DefaultConfig.class);
+    appT = ApplicationFactory.create(context);
+    revokingDatabase = context.getBean(SnapshotManager.class);
+    revokingDatabase.enable();
+
+    CommonParameter.getInstance().getStorage().setSnapshotIndexEnable(true);
+    indexed = new TestRevokingVisionStore("testSnapshotIndex-indexed");
+    CommonParameter.getInstance().getStorage().setSnapshotIndexEnable(false);
+    plain = new TestRevokingVisionStore("testSnapshotIndex-plain");
+    revokingDatabase.add(indexed.getRevokingDB());
+    revokingDatabase.add(plain.getRevokingDB());
+  }
+
+  @After
+  public void removeDb() {
+    Args.clearParam();
+    context.destroy();
+    indexed.close();
+    plain.close();
+    FileUtil.deleteDir(new File("output_SnapshotIndex_test"));
+    revokingDatabase.getCheckTmpStore().close();
+  }
+
+  @Test
+  public synchronized void testSameView() {
+    Assert.assertTrue(((Chainbase) indexed.getRevokingDB()).isIndexEnable());
+    Assert.assertFalse(((Chainbase) plain.getRevokingDB()).isIndexEnable());
+
+    while (revokingDatabase.size() != 0) {
+      revokingDatabase.pop();
+    }
+    revokingDatabase.setMaxFlushCount(0);
+    revokingDatabase.setUnChecked(false);
+    revokingDatabase.setMaxSize(5);
+
+    for (int i = 0; i < 20; i++) {
+      try (ISession session = revokingDatabase.buildSession()) {
+        put(("key" + (i % 7)).getBytes(), ("value" + i).getBytes());
+        if (i % 3 == 0) {
+          delete(("key" + (i % 5)).getBytes());
+        }
+
+        if (i % 4 == 0) {
+          // revoked
+          continue;
+        }
+
+        if (i % 2 == 0) {
+          try (ISession inner = revokingDatabase.buildSession()) {
+            put(("key" + (i % 3)).getBytes(), ("inner" + i).getBytes());
+            inner.merge();
+          }
+        }
+        session.commit();
+      }
+      assertSameView();
+    }
+
+    revokingDatabase.flush();
+    assertSameView();
+
+    while (revokingDatabase.size() != 0) {
+      revokingDatabase.pop();
+      assertSameView();
+    }
+  }
+
+  private void put(byte[] key, byte[] value) {
+    indexed.put(key, new ProtoCapsuleTest(value));
+    plain.put(key, new ProtoCapsuleTest(value));
+  }
+
+  private void delete(byte[] key) {
+    indexed.delete(key);
+    plain.delete(key);
+  }
+
+  private void assertSameView() {
+    for (int i = 0; i < 7; i++) {
+      byte[] key = ("key" + i).getBytes();
+      Assert.assertEquals(plain.get(key), indexed.get(key));
+    }
+  }
+}
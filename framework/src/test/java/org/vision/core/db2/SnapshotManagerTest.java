@@ -1,15 +1,27 @@
 package org.vision.core.db2;
 
 import java.io.File;
+import java.util.Arrays;
+import java.util.Map;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.ArrayUtils;
+import org.iq80.leveldb.WriteOptions;
 import org.junit.After;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
+import org.vision.common.storage.WriteBatchWrapper;
+import org.vision.common.storage.leveldb.LevelDbDataSourceImpl;
 import org.vision.common.utils.FileUtil;
+import org.vision.common.utils.StorageUtils;
 import org.vision.core.Constant;
 import org.vision.core.config.DefaultConfig;
 import org.vision.core.config.args.Args;
+import org.vision.core.db.VisionStoreWithRevoking;
+import org.vision.core.db2.common.LevelDB;
+import org.vision.core.db2.common.WrappedByteArray;
+import org.vision.core.db2.core.Chainbase;
+import org.vision.core.db2.core.Snapshot;
 import org.vision.core.db2.core.SnapshotManager;
 import org.vision.core.exception.BadItemException;
 import org.vision.core.exception.ItemNotFoundException;
@@ -71,6 +83,148 @@ public class SnapshotManagerTest {
         visionDatabase.get(protoCapsule.getData()));
   }
 
+  @Test
+  public synchronized void testAsyncRefresh()
+      throws BadItemException, ItemNotFoundException {
+    while (revokingDatabase.size() != 0) {
+      revokingDatabase.pop();
+    }
+
+    revokingDatabase.setMaxFlushCount(0);
+    revokingDatabase.setUnChecked(false);
+    revokingDatabase.setMaxSize(5);
+    revokingDatabase.setCheckpointAsync(true);
+    SnapshotRootTest.ProtoCapsuleTest protoCapsule = new SnapshotRootTest.ProtoCapsuleTest("async".getBytes());
+    for (int i = 1; i < 21; i++) {
+      SnapshotRootTest.ProtoCapsuleTest testProtoCapsule = new SnapshotRootTest.ProtoCapsuleTest(("async" + i).getBytes());
+      try (ISession tmpSession = revokingDatabase.buildSession()) {
+        visionDatabase.put(protoCapsule.getData(), testProtoCapsule);
+        tmpSession.commit();
+      }
+      // the flush in progress must not hide any layer
+      Assert.assertEquals(testProtoCapsule, visionDatabase.get(protoCapsule.getData()));
+    }
+
+    revokingDatabase.flush();
+    revokingDatabase.flush();
+    Assert.assertEquals(new SnapshotRootTest.ProtoCapsuleTest("async20".getBytes()),
+        visionDatabase.get(protoCapsule.getData()));
+    Snapshot root = ((Chainbase) visionDatabase.getRevokingDB()).getHead().getRoot();
+    // all but the last maxSize + 1 layers are flushed
+    Assert.assertArrayEquals("async14".getBytes(), root.get(protoCapsule.getData()));
+    revokingDatabase.setCheckpointAsync(false);
+  }
+
+  @Test
+  public synchronized void testFailedRefresh()
+      throws BadItemException, ItemNotFoundException {
+    while (revokingDatabase.size() != 0) {
+      revokingDatabase.pop();
+    }
+
+    revokingDatabase.setMaxFlushCount(0);
+    revokingDatabase.setUnChecked(false);
+    revokingDatabase.setMaxSize(5);
+    FailingLevelDB failingDb = new FailingLevelDB("testSnapshotManager-failing");
+    FailingStore failingStore = new FailingStore(failingDb);
+    revokingDatabase.add(failingStore.getRevokingDB());
+    failingDb.failing = true;
+    SnapshotRootTest.ProtoCapsuleTest protoCapsule =
+        new SnapshotRootTest.ProtoCapsuleTest("failed".getBytes());
+    for (int i = 1; i < 12; i++) {
+      if (i == 11) {
+        failingDb.failing = false;
+      }
+      SnapshotRootTest.ProtoCapsuleTest testProtoCapsule =
+          new SnapshotRootTest.ProtoCapsuleTest(("failed" + i).getBytes());
+      try (ISession tmpSession = revokingDatabase.buildSession()) {
+        visionDatabase.put(protoCapsule.getData(), testProtoCapsule);
+        failingStore.put(protoCapsule.getData(), testProtoCapsule);
+        tmpSession.commit();
+      }
+      // the layers the failed flushes left are still linked
+      Assert.assertEquals(testProtoCapsule, failingStore.get(protoCapsule.getData()));
+      Snapshot root = ((Chainbase) failingStore.getRevokingDB()).getHead().getRoot();
+      if (i < 11) {
+        Assert.assertNull(root.get(protoCapsule.getData()));
+      }
+    }
+
+    // the layers left by the failed flushes are written along with the next one
+    Snapshot root = ((Chainbase) visionDatabase.getRevokingDB()).getHead().getRoot();
+    Assert.assertArrayEquals("failed5".getBytes(), root.get(protoCapsule.getData()));
+    root = ((Chainbase) failingStore.getRevokingDB()).getHead().getRoot();
+    Assert.assertArrayEquals("failed5".getBytes(), root.get(protoCapsule.getData()));
+    failingStore.close();
+  }
+
+  private static class FailingLevelDB extends LevelDB {
+
+    private volatile boolean failing;
+
+    private FailingLevelDB(String dbName) {
+      super(new LevelDbDataSourceImpl(StorageUtils.getOutputDirectoryByDbName(dbName), dbName,
+          StorageUtils.getOptionsByDbName(dbName), new WriteOptions()));
+    }
+
+    @Override
+    public void flush(WriteBatchWrapper batch) {
+      if (failing) {
+        throw new IllegalStateException("injected failure");
+      }
+      super.flush(batch);
+    }
+  }
+
+  private static class FailingStore
+      extends VisionStoreWithRevoking<SnapshotRootTest.ProtoCapsuleTest> {
+
+    private FailingStore(FailingLevelDB db) {
+      super(db);
+    }
+
+    @Override
+    public SnapshotRootTest.ProtoCapsuleTest get(byte[] key) {
+      byte[] value = this.revokingDB.getUnchecked(key);
+      return ArrayUtils.isEmpty(value) ? null : new SnapshotRootTest.ProtoCapsuleTest(value);
+    }
+  }
+
+  @Test
+  public synchronized void testGetBatch() {
+    while (revokingDatabase.size() != 0) {
+      revokingDatabase.pop();
+    }
+
+    revokingDatabase.setMaxFlushCount(0);
+    revokingDatabase.setUnChecked(false);
+    revokingDatabase.setMaxSize(5);
+    byte[] flushed = "batch-flushed".getBytes();
+    byte[] deleted = "batch-deleted".getBytes();
+    byte[] updated = "batch-updated".getBytes();
+    byte[] absent = "batch-absent".getBytes();
+    for (int i = 1; i < 11; i++) {
+      try (ISession tmpSession = revokingDatabase.buildSession()) {
+        if (i == 1) {
+          visionDatabase.put(flushed, new SnapshotRootTest.ProtoCapsuleTest("f".getBytes()));
+          visionDatabase.put(deleted, new SnapshotRootTest.ProtoCapsuleTest("d".getBytes()));
+        }
+        if (i == 9) {
+          visionDatabase.delete(deleted);
+        }
+        visionDatabase.put(updated, new SnapshotRootTest.ProtoCapsuleTest(("u" + i).getBytes()));
+        tmpSession.commit();
+      }
+      revokingDatabase.flush();
+    }
+
+    Map<WrappedByteArray, SnapshotRootTest.ProtoCapsuleTest> values =
+        visionDatabase.getBatch(Arrays.asList(flushed, deleted, updated, absent));
+    Assert.assertEquals(2, values.size());
+    Assert.assertArrayEquals("f".getBytes(), values.get(WrappedByteArray.of(flushed)).getData());
+    Assert.assertArrayEquals("u10".getBytes(), values.get(WrappedByteArray.of(updated)).getData());
+  }
+
   @Test
   public synchronized void testClose() {
     while (revokingDatabase.size() != 0) {
@@ -112,6 +112,43 @@ public class SnapshotRootTest {
     visionDatabase.close();
   }
 
+  @Test
+  public synchronized void testMergeListNewestWins() {
+    visionDatabase = new RevokingDbWithCacheNewValueTest.TestRevokingVisionStore("testSnapshotRoot-testMergeListNewestWins");
+    revokingDatabase = context.getBean(SnapshotManager.class);
+    revokingDatabase.enable();
+    revokingDatabase.add(visionDatabase.getRevokingDB());
+    // written to root, the newest layer deletes it
+    visionDatabase.put("deleted".getBytes(), new ProtoCapsuleTest("deleted0".getBytes()));
+
+    for (int i = 1; i < 11; i++) {
+      try (ISession tmpSession = revokingDatabase.buildSession()) {
+        visionDatabase.put("kept".getBytes(), new ProtoCapsuleTest(("kept" + i).getBytes()));
+        if (i < 10) {
+          visionDatabase.put("deleted".getBytes(), new ProtoCapsuleTest(("deleted" + i).getBytes()));
+        } else {
+          visionDatabase.delete("deleted".getBytes());
+        }
+        tmpSession.commit();
+      }
+    }
+    revokingDatabase.getDbs().forEach(db -> {
+      List<Snapshot> snapshots = new ArrayList<>();
+      SnapshotRoot root = (SnapshotRoot) db.getHead().getRoot();
+      Assert.assertTrue(root.isBatchFlusher());
+      Snapshot next = root;
+      for (int i = 0; i < 10; ++i) {
+        next = next.getNext();
+        snapshots.add(next);
+      }
+      root.merge(snapshots);
+
+      Assert.assertArrayEquals("kept10".getBytes(), root.get("kept".getBytes()));
+      Assert.assertNull(root.get("deleted".getBytes()));
+    });
+    visionDatabase.close();
+  }
+
   @NoArgsConstructor
   @AllArgsConstructor
   @EqualsAndHashCode
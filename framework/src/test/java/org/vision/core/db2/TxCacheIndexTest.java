@@ -0,0 +1,100 @@
+package org.vision.core.db2;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import org.junit.Assert;
+import org.junit.Test;
+import org.vision.common.utils.ByteArray;
+import org.vision.core.db2.common.TxCacheIndex;
+
+public class TxCacheIndexTest {
+
+  private static final int BLOCK_COUNT = 100;
+
+  private final Random random = new Random(1);
+
+  @Test
+  public void testExpireOldestBlock() {
+    TxCacheIndex index = new TxCacheIndex(BLOCK_COUNT);
+    List<byte[]> expired = new ArrayList<>();
+    byte[] first = newId();
+    byte[] moved = newId();
+    Assert.assertTrue(index.put(first, 0, expired::add));
+    Assert.assertTrue(index.put(moved, 0, expired::add));
+    Assert.assertTrue(index.put(moved, 5, expired::add));
+    Assert.assertEquals(0, index.get(first));
+    Assert.assertEquals(5, index.get(moved));
+
+    Assert.assertTrue(index.put(newId(), BLOCK_COUNT, expired::add));
+    Assert.assertEquals(1, expired.size());
+    Assert.assertArrayEquals(first, expired.get(0));
+    Assert.assertEquals(-1, index.get(first));
+    Assert.assertEquals(5, index.get(moved));
+    Assert.assertFalse(index.put(newId(), 0, expired::add));
+    Assert.assertEquals(2, index.size());
+  }
+
+  @Test
+  public void testGrow() {
+    TxCacheIndex index = new TxCacheIndex(BLOCK_COUNT);
+    Map<String, Long> ids = new HashMap<>();
+    for (long block = 0; block < BLOCK_COUNT; block++) {
+      for (int i = 0; i < 1_000; i++) {
+        byte[] id = newId();
+        index.put(id, block, expired -> Assert.fail());
+        ids.put(ByteArray.toHexString(id), block);
+      }
+    }
+    byte[] other = ByteArray.fromHexString("0102");
+    index.put(other, BLOCK_COUNT - 1, expired -> Assert.fail());
+    index.remove(ByteArray.fromHexString(ids.keySet().iterator().next()));
+
+    Assert.assertEquals(ids.size(), index.size());
+    Assert.assertEquals(BLOCK_COUNT - 1, index.get(other));
+    ids.forEach((id, block) -> {
+      long found = index.get(ByteArray.fromHexString(id));
+      Assert.assertTrue(found == block || found == -1);
+    });
+
+    List<byte[]> expired = new ArrayList<>();
+    index.put(newId(), 2 * BLOCK_COUNT, expired::add);
+    Assert.assertEquals(ids.size(), expired.size());
+    Assert.assertEquals(1, index.size());
+  }
+
+  @Test
+  public void testCopyEntries() {
+    TxCacheIndex index = new TxCacheIndex(BLOCK_COUNT);
+    Map<String, Long> ids = new HashMap<>();
+    for (long block = 0; block < 10; block++) {
+      byte[] id = newId();
+      index.put(id, block, expired -> Assert.fail());
+      ids.put(ByteArray.toHexString(id), block);
+    }
+    byte[] other = ByteArray.fromHexString("0102");
+    index.put(other, 9, expired -> Assert.fail());
+    ids.put(ByteArray.toHexString(other), 9L);
+
+    TxCacheIndex.Entries entries = index.copyEntries();
+    // the copy does not follow the index
+    index.put(newId(), 10, expired -> Assert.fail());
+    index.remove(other);
+
+    Assert.assertEquals(ids.size(), entries.size());
+    Map<String, Long> copied = new HashMap<>();
+    while (entries.next()) {
+      copied.put(ByteArray.toHexString(entries.id()), entries.blockNum());
+    }
+    Assert.assertFalse(entries.next());
+    Assert.assertEquals(ids, copied);
+  }
+
+  private byte[] newId() {
+    byte[] id = new byte[32];
+    random.nextBytes(id);
+    return id;
+  }
+}
@@ -0,0 +1,57 @@
+package org.vision.core.net.services;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.vision.common.utils.ReflectUtils;
+import org.vision.common.utils.Sha256Hash;
+import org.vision.core.Constant;
+import org.vision.core.capsule.BlockCapsule;
+import org.vision.core.capsule.BlockCapsule.BlockId;
+import org.vision.core.config.args.Args;
+import org.vision.core.net.VisionNetDelegate;
+import org.vision.core.net.message.BlockMessage;
+import org.vision.core.net.messagehandler.PbftDataSyncHandler;
+import org.vision.core.net.peer.PeerConnection;
+import org.vision.core.net.service.SyncService;
+
+public class SyncServiceTest {
+
+  private SyncService service;
+  private VisionNetDelegate visionNetDelegate;
+
+  @Before
+  public void init() {
+    Args.setParam(new String[0], Constant.TEST_CONF);
+    service = new SyncService();
+    visionNetDelegate = Mockito.mock(VisionNetDelegate.class);
+    ReflectUtils.setFieldValue(service, "visionNetDelegate", visionNetDelegate);
+    ReflectUtils.setFieldValue(service, "pbftDataSyncHandler",
+        Mockito.mock(PbftDataSyncHandler.class));
+  }
+
+  @After
+  public void destroy() {
+    Args.clearParam();
+  }
+
+  @Test
+  public void testFailedPrepare() throws Exception {
+    BlockId blockId = new BlockId(Sha256Hash.ZERO_HASH, 1);
+    BlockCapsule block = Mockito.mock(BlockCapsule.class);
+    Mockito.when(block.getBlockId()).thenReturn(blockId);
+    Mockito.doThrow(new IllegalStateException("prepare failed")).when(block).prepare();
+    BlockMessage message = Mockito.mock(BlockMessage.class);
+    Mockito.when(message.getBlockCapsule()).thenReturn(block);
+    Mockito.when(message.getBlockId()).thenReturn(blockId);
+
+    service.processBlock(Mockito.mock(PeerConnection.class), message);
+    ReflectUtils.invokeMethod(service, "processSyncBlock", new Class[]{BlockCapsule.class},
+        block);
+
+    // processed without the preparation
+    Mockito.verify(block).prepare();
+    Mockito.verify(visionNetDelegate).processBlock(block, true);
+  }
+}
@@ -0,0 +1,98 @@
+package org.vision.core.services;
+
+import com.google.protobuf.ByteString;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.vision.core.ChainBaseManager;
+import org.vision.core.capsule.AccountCapsule;
+import org.vision.core.db.TransfersForTest;
+import org.vision.core.db2.common.WrappedByteArray;
+import org.vision.core.service.MortgageService;
+import org.vision.core.store.DelegationStore;
+import org.vision.protos.Protocol.Vote;
+
+public class MortgageServiceTest {
+
+  private static final String dbPath = "output_mortgage_service_test";
+  private static final long CYCLE = 3;
+  private TransfersForTest transfers;
+  private ChainBaseManager chainBaseManager;
+  private DelegationStore delegationStore;
+
+  @Before
+  public void init() {
+    transfers = new TransfersForTest(dbPath, 5);
+    chainBaseManager = transfers.getChainBaseManager();
+    delegationStore = chainBaseManager.getDelegationStore();
+  }
+
+  @After
+  public void destroy() {
+    transfers.close();
+  }
+
+  @Test
+  public void testComputeReward() throws Exception {
+    List<ByteString> witnesses = transfers.getAddresses().subList(1, 5);
+    // with its vote weight
+    delegationStore.addReward(CYCLE, witnesses.get(0).toByteArray(), 1_000);
+    delegationStore.setWitnessVoteWeight(CYCLE, witnesses.get(0).toByteArray(), 400);
+    // patched from its vote
+    delegationStore.addReward(CYCLE, witnesses.get(1).toByteArray(), 3_000);
+    delegationStore.setWitnessVote(CYCLE, witnesses.get(1).toByteArray(), 600);
+    // neither, skipped
+    delegationStore.addReward(CYCLE, witnesses.get(2).toByteArray(), 500);
+    // no reward
+    delegationStore.setWitnessVoteWeight(CYCLE, witnesses.get(3).toByteArray(), 200);
+
+    AccountCapsule account = chainBaseManager.getAccountStore()
+        .get(transfers.getAddresses().get(0).toByteArray());
+    long[] weights = {100, 150, 50, 20};
+    for (int i = 0; i < witnesses.size(); i++) {
+      account.addVotes(witnesses.get(i), weights[i], weights[i]);
+    }
+
+    List<byte[]> addresses = new ArrayList<>();
+    witnesses.forEach(witness -> addresses.add(witness.toByteArray()));
+    Map<WrappedByteArray, Long> batched = delegationStore.getWitnessVoteWeights(CYCLE, addresses);
+    for (byte[] address : addresses) {
+      Assert.assertEquals(delegationStore.getWitnessVoteWeight(CYCLE, address),
+          (long) batched.get(WrappedByteArray.of(address)));
+    }
+
+    long reward = computeReward(account);
+    Assert.assertEquals(computeRewardByWitness(account), reward);
+    Assert.assertEquals(100 * 1_000 / 400 + 150 * 3_000 / 600, reward);
+  }
+
+  private long computeReward(AccountCapsule account) throws Exception {
+    MortgageService mortgageService = chainBaseManager.getMortgageService();
+    Method method = MortgageService.class
+        .getDeclaredMethod("computeReward", long.class, AccountCapsule.class);
+    method.setAccessible(true);
+    return (long) method.invoke(mortgageService, CYCLE, account);
+  }
+
+  /**
+   * The reward with a read of the reward and the vote weight for each witness.
+   */
+  private long computeRewardByWitness(AccountCapsule account) {
+    long reward = 0;
+    for (Vote vote : account.getVotesList()) {
+      byte[] address = vote.getVoteAddress().toByteArray();
+      long totalReward = delegationStore.getReward(CYCLE, address);
+      long totalVote = delegationStore.getWitnessVoteWeight(CYCLE, address);
+      if (totalVote == DelegationStore.REMARK || totalVote == 0) {
+        continue;
+      }
+      reward += (double) vote.getVoteCountWeight() / totalVote * totalReward;
+    }
+    return reward;
+  }
+}